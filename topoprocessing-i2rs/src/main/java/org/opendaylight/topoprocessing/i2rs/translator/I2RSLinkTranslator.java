@@ -7,8 +7,8 @@
  */
 package org.opendaylight.topoprocessing.i2rs.translator;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.opendaylight.topoprocessing.api.structure.ComputedLink;
 import org.opendaylight.topoprocessing.api.structure.OverlayItem;
@@ -72,15 +72,14 @@ public class I2RSLinkTranslator implements LinkTranslator {
     }
 
     private MapNode buildSupportingLinks(OverlayItemWrapper wrapper) {
-        List<UnderlayItem> writtenLinks = new ArrayList<>();
+        Set<UnderlayItem> writtenLinks = new HashSet<>();
         CollectionNodeBuilder<MapEntryNode, MapNode> supportingLinks = ImmutableNodes.mapNodeBuilder(
                 SupportingLink.QNAME);
         // iterate through overlay items containing lists
         for (OverlayItem overlayItem : wrapper.getOverlayItems()) {
             // iterate through underlay items
             for (UnderlayItem underlayItem : overlayItem.getUnderlayItems()) {
-                if (! writtenLinks.contains(underlayItem)) {
-                    writtenLinks.add(underlayItem);
+                if (writtenLinks.add(underlayItem)) {
                     // prepare supporting nodes
                     supportingLinks.withChild(ImmutableNodes.mapEntryBuilder(SupportingLink.QNAME,
                             TopologyQNames.I2RS_LINK_REF, underlayItem.getItemId())
@@ -10,22 +10,26 @@ package org.opendaylight.topoprocessing.i2rs.translator;
 import com.google.common.base.Optional;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.opendaylight.topoprocessing.api.structure.OverlayItem;
 import org.opendaylight.topoprocessing.api.structure.UnderlayItem;
-import org.opendaylight.topoprocessing.impl.structure.IdentifierGenerator;
 import org.opendaylight.topoprocessing.impl.structure.OverlayItemWrapper;
+import org.opendaylight.topoprocessing.impl.structure.TerminationPointIdentifiers;
+import org.opendaylight.topoprocessing.impl.structure.TranslationCache;
 import org.opendaylight.topoprocessing.impl.translator.NodeTranslator;
+import org.opendaylight.topoprocessing.impl.translator.TranslatorHelper;
 import org.opendaylight.topoprocessing.impl.util.InstanceIdentifiers;
 import org.opendaylight.topoprocessing.impl.util.TopologyQNames;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev150608.network.Node;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev150608.network.node.SupportingNode;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev150608.network.node.TerminationPoint;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev150608.network.node.termination.point.SupportingTerminationPoint;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.CorrelationItemEnum;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.I2rsModel;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.Model;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.NetworkTopologyModel;
@@ -51,49 +55,51 @@ public class I2RSNodeTranslator implements NodeTranslator {
     @Override
     public NormalizedNode<?, ?> translate(OverlayItemWrapper wrapper) {
         LOG.debug("Transforming OverlayItemWrapper containing Nodes to datastore format");
-        IdentifierGenerator idGenerator = new IdentifierGenerator();
-        List<UnderlayItem> writtenNodes = new ArrayList<>();
-        CollectionNodeBuilder<MapEntryNode, MapNode> supportingNodes = ImmutableNodes.mapNodeBuilder(
-                SupportingNode.QNAME);
-        CollectionNodeBuilder<MapEntryNode, MapNode> terminationPoints = ImmutableNodes.mapNodeBuilder(
-                TerminationPoint.QNAME);
+        TerminationPointIdentifiers tpIdentifiers = wrapper.getTerminationPointIdentifiers();
+        TranslationCache translationCache = wrapper.getTranslationCache();
+        Set<UnderlayItem> writtenNodes = new HashSet<>();
+        List<MapEntryNode> supportingNodes = new ArrayList<>();
+        List<MapEntryNode> terminationPoints = new ArrayList<>();
         // iterate through overlay items containing nodes
         for (OverlayItem overlayItem : wrapper.getOverlayItems()) {
             // iterate through overlay item
             for (UnderlayItem underlayItem : overlayItem.getUnderlayItems()) {
-                if (! writtenNodes.contains(underlayItem)) {
-                    writtenNodes.add(underlayItem);
-                    addSupportingNodes(underlayItem, supportingNodes);
+                if (writtenNodes.add(underlayItem)) {
+                    supportingNodes.addAll(translationCache.getChildren(SupportingNode.QNAME, overlayItem,
+                            underlayItem, (item, tpIdentities) -> Collections.singletonList(
+                                    createSupportingNode(item))));
                     if (wrapper.getAggregatedTerminationPoints() == null) {
-                        prepareTerminationPoints(underlayItem, idGenerator, terminationPoints);
+                        terminationPoints.addAll(translationCache.getChildren(TerminationPoint.QNAME,
+                                overlayItem, underlayItem, (item, tpIdentities) -> prepareTerminationPoints(item,
+                                        tpIdentifiers, tpIdentities)));
                     }
                 }
             }
         }
+        MapNode terminationPointsNode;
         if (wrapper.getAggregatedTerminationPoints() != null
                 && !wrapper.getAggregatedTerminationPoints().getValue().isEmpty()) {
-            MapNode aggregatedTPs = wrapper.getAggregatedTerminationPoints();
+            terminationPointsNode = wrapper.getAggregatedTerminationPoints();
             Optional<NormalizedNode<?, ?>> tpId = NormalizedNodes.findNode(
-                    aggregatedTPs.getValue().iterator().next(), InstanceIdentifiers.NT_TP_ID_IDENTIFIER);
+                    terminationPointsNode.getValue().iterator().next(), InstanceIdentifiers.NT_TP_ID_IDENTIFIER);
             if (tpId.isPresent()) {
-                aggregatedTPs = translateAggregatedTPsWithinNodesFromNT(idGenerator, aggregatedTPs);
+                terminationPointsNode = translateAggregatedTPsWithinNodesFromNT(tpIdentifiers,
+                        terminationPointsNode);
             }
-            return ImmutableNodes
-                    .mapEntryBuilder(Node.QNAME, TopologyQNames.I2RS_NODE_ID_QNAME, wrapper.getId())
-                    .withChild(supportingNodes.build())
-                    .withChild(aggregatedTPs)
-                    .build();
         } else {
-            return ImmutableNodes
-                    .mapEntryBuilder(Node.QNAME, TopologyQNames.I2RS_NODE_ID_QNAME, wrapper.getId())
-                    .withChild(supportingNodes.build())
-                    .withChild(terminationPoints.build())
-                    .build();
+            terminationPointsNode = translationCache.getMapNode(TerminationPoint.QNAME, terminationPoints);
         }
+        tpIdentifiers.releaseUnused();
+        translationCache.releaseUnused();
+        return ImmutableNodes
+                .mapEntryBuilder(Node.QNAME, TopologyQNames.I2RS_NODE_ID_QNAME, wrapper.getId())
+                .withChild(translationCache.getMapNode(SupportingNode.QNAME, supportingNodes))
+                .withChild(terminationPointsNode)
+                .build();
     }
 
-    private void prepareTerminationPoints(UnderlayItem underlayItem, IdentifierGenerator idGenerator,
-            CollectionNodeBuilder<MapEntryNode, MapNode> terminationPoints) {
+    private List<MapEntryNode> prepareTerminationPoints(UnderlayItem underlayItem,
+            TerminationPointIdentifiers tpIdentifiers, List<String> tpIdentities) {
         NormalizedNode<?, ?> itemNode = underlayItem.getItem();
         Class<? extends Model> model = I2rsModel.class;
         Optional<NormalizedNode<?, ?>> terminationPointMapNode = NormalizedNodes.findNode(
@@ -104,26 +110,23 @@ public class I2RSNodeTranslator implements NodeTranslator {
                     InstanceIdentifiers.NT_TP_IDENTIFIER);
         }
         if (terminationPointMapNode.isPresent()) {
-            List<MapEntryNode> terminationPointEntries = createTerminationPoint(
-                    (MapNode) terminationPointMapNode.get(), underlayItem.getTopologyId(),
-                    underlayItem.getItemId(), idGenerator, model);
-            for (MapEntryNode terminationPointMapEntry : terminationPointEntries) {
-                terminationPoints.addChild(terminationPointMapEntry);
-            }
+            return createTerminationPoint((MapNode) terminationPointMapNode.get(), underlayItem.getTopologyId(),
+                    underlayItem.getItemId(), tpIdentifiers, model, tpIdentities);
         }
+        return Collections.emptyList();
     }
 
-    private void addSupportingNodes(UnderlayItem underlayItem,
-            CollectionNodeBuilder<MapEntryNode, MapNode> supportingNodes) {
+    private MapEntryNode createSupportingNode(UnderlayItem underlayItem) {
         Map<QName, Object> keyValues = new HashMap<>();
         keyValues.put(TopologyQNames.I2RS_NETWORK_REF, underlayItem.getTopologyId());
         keyValues.put(TopologyQNames.I2RS_NODE_REF, underlayItem.getItemId());
-        supportingNodes.withChild(ImmutableNodes.mapEntryBuilder().withNodeIdentifier(
+        return ImmutableNodes.mapEntryBuilder().withNodeIdentifier(
                 new YangInstanceIdentifier.NodeIdentifierWithPredicates(
-                        SupportingNode.QNAME, keyValues)).build());
+                        SupportingNode.QNAME, keyValues)).build();
     }
 
-    private MapNode translateAggregatedTPsWithinNodesFromNT(IdentifierGenerator idGenerator, MapNode aggregatedTPs) {
+    private MapNode translateAggregatedTPsWithinNodesFromNT(TerminationPointIdentifiers tpIdentifiers,
+            MapNode aggregatedTPs) {
         CollectionNodeBuilder<MapEntryNode, MapNode> terminationPoints = ImmutableNodes.mapNodeBuilder(
                 TerminationPoint.QNAME);
         for (MapEntryNode mapEntryNode : aggregatedTPs.getValue()) {
@@ -143,7 +146,8 @@ public class I2RSNodeTranslator implements NodeTranslator {
                     suppTPs.addChild(createSupportingTerminationPoint(split[7], split[3], split[5]));
                 }
 
-                String tpId = idGenerator.getNextIdentifier(CorrelationItemEnum.TerminationPoint);
+                String tpId = tpIdentifiers.getIdentifier(String.valueOf(
+                        mapEntryNode.getIdentifier().getKeyValues().get(TopologyQNames.NETWORK_TP_ID_QNAME)));
                 terminationPoints.addChild(ImmutableNodes.mapEntryBuilder(TerminationPoint.QNAME,
                         TopologyQNames.I2RS_TP_ID_QNAME, tpId).withChild(suppTPs.build()).build());
             } else {
@@ -154,7 +158,7 @@ public class I2RSNodeTranslator implements NodeTranslator {
     }
 
     private List<MapEntryNode> createTerminationPoint(MapNode terminationPoints, String topologyId, String nodeId,
-            IdentifierGenerator idGenerator, Class<? extends Model> model) {
+            TerminationPointIdentifiers tpIdentifiers, Class<? extends Model> model, List<String> tpIdentities) {
         List<MapEntryNode> terminationPointEntries = new ArrayList<>();
         for (MapEntryNode mapEntryNode : terminationPoints.getValue()) {
             Optional<DataContainerChild<? extends YangInstanceIdentifier.PathArgument, ?>> terminationPointIdOpt;
@@ -170,7 +174,9 @@ public class I2RSNodeTranslator implements NodeTranslator {
                 CollectionNodeBuilder<MapEntryNode, MapNode> supportingTermPoints = ImmutableNodes.mapNodeBuilder(
                         SupportingTerminationPoint.QNAME);
                 supportingTermPoints.withChild(createSupportingTerminationPoint(tpRefId, topologyId, nodeId));
-                String tpId = idGenerator.getNextIdentifier(CorrelationItemEnum.TerminationPoint);
+                String tpIdentity = TranslatorHelper.createTpRefNT(topologyId, nodeId, tpRefId);
+                tpIdentities.add(tpIdentity);
+                String tpId = tpIdentifiers.getIdentifier(tpIdentity);
                 terminationPointEntries.add(ImmutableNodes.mapEntryBuilder(TerminationPoint.QNAME,
                         TopologyQNames.I2RS_TP_ID_QNAME, tpId).withChild(supportingTermPoints.build()).build());
             }
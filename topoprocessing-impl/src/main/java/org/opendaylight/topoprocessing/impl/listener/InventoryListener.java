@@ -19,6 +19,7 @@ import java.util.Map.Entry;
 import org.opendaylight.controller.md.sal.dom.api.DOMDataTreeChangeListener;
 import org.opendaylight.topoprocessing.api.structure.UnderlayItem;
 import org.opendaylight.topoprocessing.impl.operator.TopologyOperator;
+import org.opendaylight.topoprocessing.impl.writer.BackpressureGate;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.Nodes;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.CorrelationItemEnum;
@@ -47,6 +48,7 @@ public class InventoryListener implements DOMDataTreeChangeListener {
     private String topologyId;
     private Map<Integer, YangInstanceIdentifier> pathIdentifiers;
     private CorrelationItemEnum correlationItem;
+    private volatile BackpressureGate backpressureGate;
 
     /**
      * Default constructor.
@@ -70,6 +72,7 @@ public class InventoryListener implements DOMDataTreeChangeListener {
                     dataTreeCandidate.getRootNode().getChildNodes().iterator();
             while (iteratorChildNodes.hasNext()) {
                 DataTreeCandidateNode dataTreeCandidateNode = iteratorChildNodes.next();
+                awaitResumed();
                 ModificationType modificationType = dataTreeCandidateNode.getModificationType();
                 if ((modificationType.equals(ModificationType.WRITE)
                         || modificationType.equals(ModificationType.SUBTREE_MODIFIED))
@@ -85,6 +88,13 @@ public class InventoryListener implements DOMDataTreeChangeListener {
         }
     }
 
+    private void awaitResumed() {
+        BackpressureGate gate = backpressureGate;
+        if (gate != null) {
+            gate.awaitResumed();
+        }
+    }
+
     private void proceedChangeRequest(YangInstanceIdentifier identifier,
             NormalizedNode<?, ?> entry, boolean updated) {
         if (entry instanceof MapEntryNode && entry.getNodeType().equals(Node.QNAME)) {
@@ -138,6 +148,14 @@ public class InventoryListener implements DOMDataTreeChangeListener {
         this.operator = operator;
     }
 
+    /**
+     * @param backpressureGate holds back processing of changes while the overlay topology writer is throttled,
+     *        null if changes are never held back
+     */
+    public void setBackpressureGate(BackpressureGate backpressureGate) {
+        this.backpressureGate = backpressureGate;
+    }
+
     /**
      * @param pathIdentifiers identifies leaf (node), which aggregation / filtering will be based on
      */
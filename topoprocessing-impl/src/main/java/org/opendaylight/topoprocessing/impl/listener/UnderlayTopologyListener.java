@@ -18,6 +18,9 @@ import org.opendaylight.controller.md.sal.dom.api.DOMDataTreeChangeListener;
 import org.opendaylight.controller.md.sal.dom.api.DOMDataTreeChangeService;
 import org.opendaylight.topoprocessing.api.structure.UnderlayItem;
 import org.opendaylight.topoprocessing.impl.operator.TopologyOperator;
+import org.opendaylight.topoprocessing.impl.structure.ItemCompactor;
+import org.opendaylight.topoprocessing.impl.writer.BackpressureGate;
+import org.opendaylight.topoprocessing.impl.writer.BackpressureListener;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.CorrelationItemEnum;
 import org.opendaylight.yangtools.yang.common.QName;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
@@ -37,21 +40,25 @@ import com.google.common.base.Optional;
 
 
 /**
- * Listens on underlay topology changes
+ * Listens on underlay topology changes. While the overlay topology writer is throttled, processing
+ * of every further change is held back until the writer resumes (see {@link BackpressureGate}), so that
+ * changes wait in the datastore instead of piling up in the writer.
  * @author matus.marko
  */
-public abstract class UnderlayTopologyListener implements DOMDataTreeChangeListener {
+public abstract class UnderlayTopologyListener implements DOMDataTreeChangeListener, BackpressureListener {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(UnderlayTopologyListener.class);
     protected final DOMDataTreeChangeService domDataTreeChangeService;
 
     private TopologyOperator operator;
     private Map<Integer, YangInstanceIdentifier> pathIdentifiers;
+    private volatile ItemCompactor itemCompactor;
     protected String underlayTopologyId;
     protected YangInstanceIdentifier itemIdentifier;
     protected YangInstanceIdentifier relativeItemIdIdentifier;
     protected QName itemQName;
     protected CorrelationItemEnum correlationItem;
+    private final BackpressureGate backpressureGate;
 
     /**
      * Default constructor.
@@ -64,6 +71,7 @@ public abstract class UnderlayTopologyListener implements DOMDataTreeChangeListe
         this.domDataTreeChangeService = domDataTreeChangeService;
         this.underlayTopologyId = underlayTopologyId;
         this.correlationItem = correlationItem;
+        this.backpressureGate = new BackpressureGate(underlayTopologyId);
     }
 
     @Override
@@ -71,6 +79,7 @@ public abstract class UnderlayTopologyListener implements DOMDataTreeChangeListe
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("OnDataTreeChanged event, with data tree candidates: {}", dataTreeCandidates);
         }
+        backpressureGate.awaitResumed();
         Iterator<DataTreeCandidate> iterator = dataTreeCandidates.iterator();
         while (iterator.hasNext()) {
             DataTreeCandidate dataTreeCandidate = iterator.next();
@@ -78,6 +87,8 @@ public abstract class UnderlayTopologyListener implements DOMDataTreeChangeListe
                     dataTreeCandidate.getRootNode().getChildNodes().iterator();
             while (iteratorChildNodes.hasNext()) {
                 DataTreeCandidateNode dataTreeCandidateNode = iteratorChildNodes.next();
+                // one notification can carry many changes, the writer may get throttled in the middle of it
+                backpressureGate.awaitResumed();
                 ModificationType modificationType = dataTreeCandidateNode.getModificationType();
                 if ((modificationType.equals(ModificationType.WRITE)
                         || modificationType.equals(ModificationType.SUBTREE_MODIFIED))
@@ -130,8 +141,14 @@ public abstract class UnderlayTopologyListener implements DOMDataTreeChangeListe
                     if (LOGGER.isDebugEnabled()) {
                         LOGGER.debug("Found target fields: {}", targetFields);
                     }
-                    underlayItem = new UnderlayItem(entry, targetFields, underlayTopologyId, itemId,
-                            correlationItem);
+                    ItemCompactor compactor = itemCompactor;
+                    if (compactor != null) {
+                        underlayItem = new UnderlayItem(compactor.compact((MapEntryNode) entry), targetFields,
+                                underlayTopologyId, itemId, correlationItem);
+                    } else {
+                        underlayItem = new UnderlayItem(entry, targetFields, underlayTopologyId, itemId,
+                                correlationItem);
+                    }
                 } else {
                     return;
                 }
@@ -153,6 +170,24 @@ public abstract class UnderlayTopologyListener implements DOMDataTreeChangeListe
         }
     }
 
+    @Override
+    public void onThrottled() {
+        backpressureGate.onThrottled();
+    }
+
+    @Override
+    public void onResumed() {
+        backpressureGate.onResumed();
+    }
+
+    /**
+     * @return gate holding back the intake of this listener, to be shared by listeners feeding the same
+     *         pipeline
+     */
+    protected BackpressureGate getBackpressureGate() {
+        return backpressureGate;
+    }
+
     /**
      * @param operator processes received notifications (aggregates / filters them)
      */
@@ -171,6 +206,14 @@ public abstract class UnderlayTopologyListener implements DOMDataTreeChangeListe
         this.pathIdentifiers = pathIdentifiers;
     }
 
+    /**
+     * Compact underlay items are created only for node and link correlations with target fields.
+     * @param itemCompactor compacts underlay items, null if underlay items hold whole underlay items
+     */
+    public void setItemCompactor(ItemCompactor itemCompactor) {
+        this.itemCompactor = itemCompactor;
+    }
+
     public String getUnderlayTopologyId() {
         return underlayTopologyId;
     }
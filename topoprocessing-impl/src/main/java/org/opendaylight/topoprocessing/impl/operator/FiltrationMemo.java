@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.topoprocessing.impl.operator;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+
+/**
+ * Remembers the filtration verdict of items together with the values of target fields it was computed from.
+ * As filtrators depend only on the target fields, the verdict can be reused until any of them changes. Only
+ * the target fields are kept, not the content of items.
+ *
+ * @param <K> identifies filtered items
+ */
+final class FiltrationMemo<K> {
+
+    private final ConcurrentMap<K, Verdict> verdicts = new ConcurrentHashMap<>();
+    private final AtomicLong hitCount = new AtomicLong();
+
+    /**
+     * @param key identifies item
+     * @param fields target fields of the item
+     * @return remembered verdict if the target fields didn't change, null otherwise
+     */
+    Boolean getVerdict(K key, Map<Integer, NormalizedNode<?, ?>> fields) {
+        Verdict verdict = verdicts.get(key);
+        if (verdict != null && sameValues(verdict.fields, fields)) {
+            hitCount.incrementAndGet();
+            return verdict.passed;
+        }
+        return null;
+    }
+
+    /**
+     * @param key identifies item
+     * @param fields target fields of the item
+     * @return true if the item was filtered out with the same target fields - it stays filtered out, so its
+     *         update can't change anything downstream
+     */
+    boolean isStillRejected(K key, Map<Integer, NormalizedNode<?, ?>> fields) {
+        Verdict verdict = verdicts.get(key);
+        return verdict != null && !verdict.passed && sameValues(verdict.fields, fields);
+    }
+
+    /**
+     * @param key identifies item
+     * @param fields target fields of the item, copied
+     * @param passed verdict of the filtration
+     */
+    void remember(K key, Map<Integer, NormalizedNode<?, ?>> fields, boolean passed) {
+        Map<Integer, NormalizedNode<?, ?>> fieldsCopy =
+                fields == null ? Collections.<Integer, NormalizedNode<?, ?>>emptyMap() : new HashMap<>(fields);
+        verdicts.put(key, new Verdict(fieldsCopy, passed));
+    }
+
+    void forget(K key) {
+        verdicts.remove(key);
+    }
+
+    void clear() {
+        verdicts.clear();
+    }
+
+    /**
+     * @return number of remembered items
+     */
+    int size() {
+        return verdicts.size();
+    }
+
+    /**
+     * @return how many times a remembered verdict has been reused
+     */
+    long getHitCount() {
+        return hitCount.get();
+    }
+
+    private static boolean sameValues(Map<Integer, NormalizedNode<?, ?>> remembered,
+            Map<Integer, NormalizedNode<?, ?>> fields) {
+        if (fields == null) {
+            return remembered.isEmpty();
+        }
+        if (remembered.size() != fields.size()) {
+            return false;
+        }
+        for (Entry<Integer, NormalizedNode<?, ?>> field : fields.entrySet()) {
+            NormalizedNode<?, ?> rememberedField = remembered.get(field.getKey());
+            NormalizedNode<?, ?> newField = field.getValue();
+            if (rememberedField != newField && (rememberedField == null || newField == null
+                    || !rememberedField.getIdentifier().equals(newField.getIdentifier())
+                    || !Objects.equals(rememberedField.getValue(), newField.getValue()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Verdict {
+        private final Map<Integer, NormalizedNode<?, ?>> fields;
+        private final boolean passed;
+
+        Verdict(Map<Integer, NormalizedNode<?, ?>> fields, boolean passed) {
+            this.fields = fields;
+            this.passed = passed;
+        }
+    }
+}
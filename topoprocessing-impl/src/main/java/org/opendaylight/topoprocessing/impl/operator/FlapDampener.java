@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.topoprocessing.impl.operator;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.Striped;
+
+import java.util.HashSet;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+
+import org.opendaylight.topoprocessing.api.structure.UnderlayItem;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Dampens flapping underlay items before they reach the {@link TopologyOperator}. Every removal of an item
+ * adds a penalty to the item, the penalty decays exponentially with the configured half-life. Once the
+ * penalty reaches the suppress threshold, the item is suppressed - the operator keeps seeing the last state
+ * forwarded before the suppression and further changes are only recorded. When the penalty decays below
+ * the reuse threshold, {@link #releaseReusableItems()} forwards the difference between that state and the
+ * current state of the item.
+ *
+ * <p>Items are tracked only after their first removal. Changes of an untracked item are passed to the
+ * operator directly, changes of a tracked item are serialized by a lock striped by item identifier, so
+ * changes of different items reach the operator as concurrently as without dampening.
+ */
+public class FlapDampener implements TopologyOperator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FlapDampener.class);
+    public static final long DEFAULT_HALF_LIFE = 60;
+    public static final long DEFAULT_FLAP_PENALTY = 1000;
+    public static final long DEFAULT_SUPPRESS_THRESHOLD = 2000;
+    public static final long DEFAULT_REUSE_THRESHOLD = 750;
+    /** penalty at which a not suppressed item stops being tracked */
+    private static final double FORGOTTEN_PENALTY = 1;
+    private static final int ITEM_LOCK_STRIPES = 64;
+
+    private final TopologyOperator operator;
+    private final double halfLife;
+    private final long flapPenalty;
+    private final long suppressThreshold;
+    private final long reuseThreshold;
+    private final Ticker ticker;
+    private final ConcurrentMap<YangInstanceIdentifier, ItemState> itemStates = new ConcurrentHashMap<>();
+    private final Striped<Lock> itemLocks = Striped.lock(ITEM_LOCK_STRIPES);
+    private final AtomicLong suppressionCount = new AtomicLong();
+
+    /**
+     * @param operator operator receiving dampened changes
+     * @param halfLife time in seconds in which the penalty decays to half
+     * @param flapPenalty penalty added on every removal of an item
+     * @param suppressThreshold penalty at which the item gets suppressed
+     * @param reuseThreshold penalty under which the suppressed item is released
+     */
+    public FlapDampener(TopologyOperator operator, long halfLife, long flapPenalty, long suppressThreshold,
+            long reuseThreshold) {
+        this(operator, TimeUnit.SECONDS.toNanos(halfLife), flapPenalty, suppressThreshold, reuseThreshold,
+                Ticker.systemTicker());
+    }
+
+    FlapDampener(TopologyOperator operator, long halfLifeNanos, long flapPenalty, long suppressThreshold,
+            long reuseThreshold, Ticker ticker) {
+        Preconditions.checkArgument(halfLifeNanos > 0, "Half-life has to be positive");
+        Preconditions.checkArgument(flapPenalty > 0, "Flap penalty has to be positive: %s", flapPenalty);
+        Preconditions.checkArgument(reuseThreshold < suppressThreshold,
+                "Reuse threshold (%s) has to be lower than suppress threshold (%s)", reuseThreshold,
+                suppressThreshold);
+        this.operator = Preconditions.checkNotNull(operator);
+        this.halfLife = halfLifeNanos;
+        this.flapPenalty = flapPenalty;
+        this.suppressThreshold = suppressThreshold;
+        this.reuseThreshold = reuseThreshold;
+        this.ticker = Preconditions.checkNotNull(ticker);
+    }
+
+    @Override
+    public void processCreatedChanges(YangInstanceIdentifier itemIdentifier, UnderlayItem createdItem,
+            String topologyId) {
+        if (!itemStates.containsKey(itemIdentifier)) {
+            operator.processCreatedChanges(itemIdentifier, createdItem, topologyId);
+            return;
+        }
+        Lock lock = itemLocks.get(itemIdentifier);
+        lock.lock();
+        try {
+            ItemState state = itemStates.get(itemIdentifier);
+            if (state == null) {
+                // forgotten in the meantime
+                operator.processCreatedChanges(itemIdentifier, createdItem, topologyId);
+                return;
+            }
+            state.current = createdItem;
+            if (state.suppressed) {
+                LOG.debug("Creation of suppressed item {} held back", itemIdentifier);
+            } else {
+                operator.processCreatedChanges(itemIdentifier, createdItem, topologyId);
+                state.setForwarded(createdItem);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void processUpdatedChanges(YangInstanceIdentifier itemIdentifier, UnderlayItem updatedItem,
+            String topologyId) {
+        if (!itemStates.containsKey(itemIdentifier)) {
+            operator.processUpdatedChanges(itemIdentifier, updatedItem, topologyId);
+            return;
+        }
+        Lock lock = itemLocks.get(itemIdentifier);
+        lock.lock();
+        try {
+            ItemState state = itemStates.get(itemIdentifier);
+            if (state == null) {
+                // forgotten in the meantime
+                operator.processUpdatedChanges(itemIdentifier, updatedItem, topologyId);
+                return;
+            }
+            state.current = updatedItem;
+            if (state.suppressed) {
+                LOG.debug("Update of suppressed item {} held back", itemIdentifier);
+            } else {
+                operator.processUpdatedChanges(itemIdentifier, updatedItem, topologyId);
+                state.setForwarded(updatedItem);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void processRemovedChanges(YangInstanceIdentifier itemIdentifier, String topologyId) {
+        Lock lock = itemLocks.get(itemIdentifier);
+        lock.lock();
+        try {
+            long now = ticker.read();
+            ItemState state = itemStates.get(itemIdentifier);
+            if (state == null) {
+                state = new ItemState(topologyId, now);
+                itemStates.put(itemIdentifier, state);
+            }
+            state.penalty = decay(state, now) + flapPenalty;
+            state.current = null;
+            if (!state.suppressed && state.penalty >= suppressThreshold) {
+                state.suppressed = true;
+                suppressionCount.incrementAndGet();
+                LOG.info("Flapping item {} from topology {} suppressed, penalty {}", itemIdentifier, topologyId,
+                        (long) state.penalty);
+            }
+            if (state.suppressed) {
+                LOG.debug("Removal of suppressed item {} held back", itemIdentifier);
+            } else {
+                operator.processRemovedChanges(itemIdentifier, topologyId);
+                state.setForwarded(null);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Passes the manager to the operator, unless the operator is a join input - join inputs use the join's
+     * operator instead.
+     */
+    @Override
+    public void setTopologyManager(ITopologyManager manager) {
+        if (!(operator instanceof KeyedJoinOperator.Input)) {
+            operator.setTopologyManager(manager);
+        }
+    }
+
+    /**
+     * Releases suppressed items whose penalty decayed under the reuse threshold and stops tracking items
+     * whose penalty decayed completely. Shall be called periodically. Only the item being checked is locked,
+     * changes of other items proceed meanwhile.
+     */
+    public void releaseReusableItems() {
+        for (YangInstanceIdentifier itemIdentifier : itemStates.keySet()) {
+            Lock lock = itemLocks.get(itemIdentifier);
+            lock.lock();
+            try {
+                ItemState state = itemStates.get(itemIdentifier);
+                if (state == null) {
+                    continue;
+                }
+                state.penalty = decay(state, ticker.read());
+                if (state.suppressed && state.penalty < reuseThreshold) {
+                    state.suppressed = false;
+                    LOG.info("Item {} from topology {} released from suppression", itemIdentifier,
+                            state.topologyId);
+                    forwardCurrentState(itemIdentifier, state);
+                }
+                if (!state.suppressed && state.penalty < FORGOTTEN_PENALTY) {
+                    itemStates.remove(itemIdentifier);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void forwardCurrentState(YangInstanceIdentifier itemIdentifier, ItemState state) {
+        if (state.forwardedPresent && state.current == null) {
+            operator.processRemovedChanges(itemIdentifier, state.topologyId);
+        } else if (!state.forwardedPresent && state.current != null) {
+            operator.processCreatedChanges(itemIdentifier, state.current, state.topologyId);
+        } else if (state.current != null && state.forwarded != state.current) {
+            operator.processUpdatedChanges(itemIdentifier, state.current, state.topologyId);
+        }
+        state.setForwarded(state.current);
+    }
+
+    private double decay(ItemState state, long now) {
+        double penalty = state.penalty * Math.pow(2, -(now - state.lastDecay) / halfLife);
+        state.lastDecay = now;
+        return penalty;
+    }
+
+    /**
+     * @param itemIdentifier identifies underlay item
+     * @return true if changes of the item are currently suppressed
+     */
+    public boolean isSuppressed(YangInstanceIdentifier itemIdentifier) {
+        ItemState state = itemStates.get(itemIdentifier);
+        return state != null && state.suppressed;
+    }
+
+    /**
+     * @return identifiers of currently suppressed items
+     */
+    public Set<YangInstanceIdentifier> getSuppressedItems() {
+        Set<YangInstanceIdentifier> suppressedItems = new HashSet<>();
+        for (Entry<YangInstanceIdentifier, ItemState> entry : itemStates.entrySet()) {
+            if (entry.getValue().suppressed) {
+                suppressedItems.add(entry.getKey());
+            }
+        }
+        return suppressedItems;
+    }
+
+    /**
+     * @return how many times an item has been suppressed so far
+     */
+    public long getSuppressionCount() {
+        return suppressionCount.get();
+    }
+
+    /**
+     * @return operator receiving dampened changes
+     */
+    public TopologyOperator getOperator() {
+        return operator;
+    }
+
+    private static final class ItemState {
+        private final String topologyId;
+        private double penalty = 0;
+        private long lastDecay;
+        /** read without the item lock by {@link FlapDampener#isSuppressed} */
+        private volatile boolean suppressed = false;
+        /** item is present in the operator - tracking starts with removal of a present item */
+        private boolean forwardedPresent = true;
+        /** last item passed to the operator, null if removed or not known */
+        private UnderlayItem forwarded;
+        /** current state in underlay topology, null if removed */
+        private UnderlayItem current;
+
+        ItemState(String topologyId, long now) {
+            this.topologyId = topologyId;
+            this.lastDecay = now;
+        }
+
+        void setForwarded(UnderlayItem item) {
+            forwarded = item;
+            forwardedPresent = item != null;
+        }
+    }
+}
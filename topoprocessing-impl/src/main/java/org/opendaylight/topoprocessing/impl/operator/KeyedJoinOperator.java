@@ -0,0 +1,329 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.topoprocessing.impl.operator;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Striped;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+
+import org.opendaylight.topoprocessing.api.structure.UnderlayItem;
+import org.opendaylight.topoprocessing.impl.util.InstanceIdentifiers;
+import org.opendaylight.topoprocessing.impl.util.TopologyQNames;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Joins items from several input streams by a key. Every input has its own {@link TopologyOperator}
+ * ({@link #getInput(int)}) and {@link KeyExtractor} computing the join key of its items. For every key, the
+ * latest item of each input is kept in a hash index. Once all inputs hold an item with the same key, the
+ * {@link Combiner} joins them and the result is passed to the operator as created item - any further change
+ * of the joined items is passed as update and the loss of any of them as removal. Items can arrive in any
+ * order and can move between keys.
+ *
+ * <p>Changes of different keys are processed in parallel, changes of the same key are serialized.
+ */
+public class KeyedJoinOperator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(KeyedJoinOperator.class);
+    private static final int KEY_LOCK_STRIPES = 64;
+    private static final AugmentationIdentifier INVENTORY_NODE_REF_AUGMENTATION =
+            new AugmentationIdentifier(ImmutableSet.of(TopologyQNames.INVENTORY_NODE_REF_QNAME));
+
+    /**
+     * Computes join key of an input item.
+     */
+    public interface KeyExtractor {
+        /**
+         * @param identifier identifier of the item in its input
+         * @param item item
+         * @return join key, null if the item can't be joined
+         */
+        YangInstanceIdentifier getKey(YangInstanceIdentifier identifier, UnderlayItem item);
+    }
+
+    /**
+     * Joins items with the same key.
+     */
+    public interface Combiner {
+        /**
+         * @param items items with the same key, ordered by inputs
+         * @param topologyId topology the latest change came from
+         * @return joined item
+         */
+        UnderlayItem combine(List<UnderlayItem> items, String topologyId);
+    }
+
+    private final List<KeyExtractor> keyExtractors;
+    private final Combiner combiner;
+    private final List<Input> inputs;
+    /** key -> joined items */
+    private final ConcurrentMap<YangInstanceIdentifier, JoinRow> rows = new ConcurrentHashMap<>();
+    /** for every input: item identifier -> key */
+    private final List<ConcurrentMap<YangInstanceIdentifier, YangInstanceIdentifier>> inputKeys;
+    private final Striped<Lock> keyLocks = Striped.lock(KEY_LOCK_STRIPES);
+    private volatile TopologyOperator operator;
+
+    /**
+     * @param keyExtractors key extractor of every input, at least two
+     * @param combiner joins items with the same key
+     */
+    public KeyedJoinOperator(List<KeyExtractor> keyExtractors, Combiner combiner) {
+        Preconditions.checkArgument(keyExtractors.size() >= 2, "Join needs at least two inputs");
+        this.keyExtractors = ImmutableList.copyOf(keyExtractors);
+        this.combiner = Preconditions.checkNotNull(combiner);
+        List<Input> joinInputs = new ArrayList<>(keyExtractors.size());
+        List<ConcurrentMap<YangInstanceIdentifier, YangInstanceIdentifier>> keys =
+                new ArrayList<>(keyExtractors.size());
+        for (int i = 0; i < keyExtractors.size(); i++) {
+            joinInputs.add(new Input(i));
+            keys.add(new ConcurrentHashMap<>());
+        }
+        this.inputs = Collections.unmodifiableList(joinInputs);
+        this.inputKeys = Collections.unmodifiableList(keys);
+    }
+
+    /**
+     * Creates join of network-topology items (input 0) with opendaylight-inventory nodes (input 1). Topology
+     * items are joined by their inventory-node-ref, the joined item takes item and item-id from the topology
+     * item and leaf nodes from the inventory node.
+     * @return join of topology and inventory items
+     */
+    public static KeyedJoinOperator createTopologyInventoryJoin() {
+        KeyExtractor topologyKey = (identifier, item) -> extractInventoryNodeRef(item);
+        KeyExtractor inventoryKey = (identifier, item) -> identifier;
+        return new KeyedJoinOperator(Arrays.asList(topologyKey, inventoryKey), (items, topologyId) -> {
+            UnderlayItem topologyItem = items.get(0);
+            return new UnderlayItem(topologyItem.getItem(), items.get(1).getLeafNodes(), topologyId,
+                    topologyItem.getItemId(), topologyItem.getCorrelationItem());
+        });
+    }
+
+    private static YangInstanceIdentifier extractInventoryNodeRef(UnderlayItem item) {
+        if (item.getItem() == null) {
+            return null;
+        }
+        Optional<NormalizedNode<?, ?>> nodeRefNode = NormalizedNodes.findNode(item.getItem(),
+                INVENTORY_NODE_REF_AUGMENTATION, InstanceIdentifiers.INV_NODE_REF_IDENTIFIER.getLastPathArgument());
+        if (nodeRefNode.isPresent()) {
+            return (YangInstanceIdentifier) nodeRefNode.get().getValue();
+        }
+        LOGGER.debug("inventory-node-ref identifier is absent");
+        return null;
+    }
+
+    /**
+     * @param index input index
+     * @return operator receiving changes of the input
+     */
+    public Input getInput(int index) {
+        return inputs.get(index);
+    }
+
+    /**
+     * @param operator processes joined items
+     */
+    public void setOperator(TopologyOperator operator) {
+        this.operator = operator;
+    }
+
+    public TopologyOperator getOperator() {
+        return operator;
+    }
+
+    /**
+     * @return number of keys holding at least one item
+     */
+    public int getKeyCount() {
+        return rows.size();
+    }
+
+    private void process(int input, YangInstanceIdentifier identifier, UnderlayItem item, String topologyId) {
+        YangInstanceIdentifier newKey = item == null ? null : keyExtractors.get(input).getKey(identifier, item);
+        ConcurrentMap<YangInstanceIdentifier, YangInstanceIdentifier> keys = inputKeys.get(input);
+        while (true) {
+            YangInstanceIdentifier oldKey = keys.get(identifier);
+            List<Lock> locks = lockKeys(oldKey, newKey);
+            try {
+                if (Objects.equals(oldKey, keys.get(identifier))) {
+                    if (oldKey != null && !oldKey.equals(newKey)) {
+                        detach(input, identifier, oldKey, topologyId);
+                    }
+                    if (newKey != null) {
+                        attach(input, identifier, item, newKey, topologyId);
+                    }
+                    return;
+                }
+                // item moved to another key in the meantime
+            } finally {
+                for (Lock lock : Lists.reverse(locks)) {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    private List<Lock> lockKeys(YangInstanceIdentifier oldKey, YangInstanceIdentifier newKey) {
+        List<YangInstanceIdentifier> keys = new ArrayList<>(2);
+        if (oldKey != null) {
+            keys.add(oldKey);
+        }
+        if (newKey != null) {
+            keys.add(newKey);
+        }
+        // bulkGet returns stripes in a consistent order, so that locking them can't deadlock
+        List<Lock> locks = ImmutableList.copyOf(keyLocks.bulkGet(keys));
+        List<Lock> locked = new ArrayList<>(locks.size());
+        for (Lock lock : locks) {
+            if (!locked.contains(lock)) {
+                lock.lock();
+                locked.add(lock);
+            }
+        }
+        return locked;
+    }
+
+    private void detach(int input, YangInstanceIdentifier identifier, YangInstanceIdentifier key,
+            String topologyId) {
+        inputKeys.get(input).remove(identifier);
+        JoinRow row = rows.get(key);
+        if (row == null) {
+            return;
+        }
+        row.set(input, null, null);
+        if (row.emitted) {
+            row.emitted = false;
+            operator.processRemovedChanges(key, topologyId);
+        }
+        if (row.isEmpty()) {
+            rows.remove(key);
+        }
+    }
+
+    private void attach(int input, YangInstanceIdentifier identifier, UnderlayItem item,
+            YangInstanceIdentifier key, String topologyId) {
+        JoinRow row = rows.computeIfAbsent(key, rowKey -> new JoinRow(inputs.size()));
+        YangInstanceIdentifier previousIdentifier = row.identifiers[input];
+        if (previousIdentifier != null && !previousIdentifier.equals(identifier)) {
+            LOGGER.debug("Item {} replaces item {} joined by key {}", identifier, previousIdentifier, key);
+            inputKeys.get(input).remove(previousIdentifier);
+        }
+        row.set(input, identifier, item);
+        inputKeys.get(input).put(identifier, key);
+        if (row.isComplete()) {
+            UnderlayItem joinedItem = combiner.combine(Arrays.asList(row.items), topologyId);
+            if (row.emitted) {
+                operator.processUpdatedChanges(key, joinedItem, topologyId);
+            } else {
+                row.emitted = true;
+                operator.processCreatedChanges(key, joinedItem, topologyId);
+            }
+        }
+    }
+
+    /**
+     * Receives changes of one input of the join.
+     */
+    public final class Input implements TopologyOperator {
+
+        private final int index;
+
+        private Input(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void processCreatedChanges(YangInstanceIdentifier itemIdentifier, UnderlayItem createdItem,
+                String topologyId) {
+            if (createdItem != null) {
+                process(index, itemIdentifier, createdItem, topologyId);
+            }
+        }
+
+        @Override
+        public void processUpdatedChanges(YangInstanceIdentifier itemIdentifier, UnderlayItem updatedItem,
+                String topologyId) {
+            if (updatedItem != null) {
+                process(index, itemIdentifier, updatedItem, topologyId);
+            }
+        }
+
+        @Override
+        public void processRemovedChanges(YangInstanceIdentifier itemIdentifier, String topologyId) {
+            if (itemIdentifier != null) {
+                process(index, itemIdentifier, null, topologyId);
+            }
+        }
+
+        @Override
+        public void setTopologyManager(ITopologyManager manager) {
+            throw new UnsupportedOperationException(
+                    "Join input can't have TopologyManager set, it uses join's TopologyOperator instead.");
+        }
+
+        /**
+         * @return join this input belongs to
+         */
+        public KeyedJoinOperator getJoin() {
+            return KeyedJoinOperator.this;
+        }
+    }
+
+    /**
+     * Items of all inputs with the same key. Guarded by the lock of the key.
+     */
+    private static final class JoinRow {
+        private final YangInstanceIdentifier[] identifiers;
+        private final UnderlayItem[] items;
+        private boolean emitted = false;
+
+        JoinRow(int inputCount) {
+            identifiers = new YangInstanceIdentifier[inputCount];
+            items = new UnderlayItem[inputCount];
+        }
+
+        void set(int input, YangInstanceIdentifier identifier, UnderlayItem item) {
+            identifiers[input] = identifier;
+            items[input] = item;
+        }
+
+        boolean isComplete() {
+            for (UnderlayItem item : items) {
+                if (item == null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean isEmpty() {
+            for (UnderlayItem item : items) {
+                if (item != null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -9,6 +9,7 @@
 package org.opendaylight.topoprocessing.impl.operator;
 
 import com.google.common.base.Optional;
+import com.google.common.util.concurrent.Striped;
 
 import java.util.Collection;
 import java.util.Collections;
@@ -19,6 +20,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.opendaylight.topoprocessing.api.structure.ComputedLink;
 import org.opendaylight.topoprocessing.api.structure.OverlayItem;
@@ -42,6 +46,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
+ * Computes overlay links from underlay links and overlay nodes.
+ * <p>
+ * Link events only read the overlay node store, so they run concurrently with each other and are serialized
+ * per link identifier through a striped lock - create, update and remove of a single link keep their order.
+ * Overlay node events re-evaluate all stored links and therefore hold the node store lock exclusively.
+ * </p>
  * @author martin.uhlir
  *
  */
@@ -52,13 +62,16 @@ public class LinkCalculator implements TopologyOperator {
             .of(QName.create(Link.QNAME, "source")).node(QName.create(Source.QNAME, "source-node"));
     private static final YangInstanceIdentifier DEST_NODE_IDENTIFIER = YangInstanceIdentifier
             .of(QName.create(Link.QNAME, "destination")).node(QName.create(Destination.QNAME, "dest-node"));
+    private static final int LINK_LOCK_STRIPES = 64;
 
     protected ITopologyManager manager;
     private TopologyAggregator aggregator;
     private TopologyStore storedOverlayNodes;
     private Class<? extends Model> outputModel;
-    private Map<YangInstanceIdentifier, ComputedLink> matchedLinks = new HashMap<>();
-    private Map<YangInstanceIdentifier, UnderlayItem> waitingLinks = new HashMap<>();
+    private Map<YangInstanceIdentifier, ComputedLink> matchedLinks = new ConcurrentHashMap<>();
+    private Map<YangInstanceIdentifier, UnderlayItem> waitingLinks = new ConcurrentHashMap<>();
+    private final ReadWriteLock nodeStoreLock = new ReentrantReadWriteLock();
+    private final Striped<Lock> linkLocks = Striped.lock(LINK_LOCK_STRIPES);
 
     /**
      * Constructor
@@ -74,9 +87,10 @@ public class LinkCalculator implements TopologyOperator {
     @Override
     public void processCreatedChanges(YangInstanceIdentifier itemIdentifier, UnderlayItem item, String topologyId) {
         LOGGER.trace("Processing created item: {}", item);
-        synchronized (this) {
-            if (CorrelationItemEnum.Node.equals(item.getCorrelationItem())) {
-                // process nodes from overlay topology
+        if (CorrelationItemEnum.Node.equals(item.getCorrelationItem())) {
+            // process nodes from overlay topology
+            nodeStoreLock.writeLock().lock();
+            try {
                 storedOverlayNodes.getUnderlayItems().put(itemIdentifier, item);
                 Iterator<Entry<YangInstanceIdentifier, UnderlayItem>> waitingLinksIterator =
                         waitingLinks.entrySet().iterator();
@@ -86,9 +100,16 @@ public class LinkCalculator implements TopologyOperator {
                         waitingLinksIterator.remove();
                     }
                 }
-            } else if (CorrelationItemEnum.Link.equals(item.getCorrelationItem())) {
-                // process links from underlay topology
+            } finally {
+                nodeStoreLock.writeLock().unlock();
+            }
+        } else if (CorrelationItemEnum.Link.equals(item.getCorrelationItem())) {
+            // process links from underlay topology
+            Lock linkLock = lockLink(itemIdentifier);
+            try {
                 calculatePossibleLink(itemIdentifier,item, false);
+            } finally {
+                unlockLink(linkLock);
             }
         }
     }
@@ -96,18 +117,30 @@ public class LinkCalculator implements TopologyOperator {
     @Override
     public void processUpdatedChanges(YangInstanceIdentifier itemIdentifier, UnderlayItem item, String topologyId) {
         LOGGER.trace("Processing updatedChanges");
-        synchronized (this) {
-            if (matchedLinks.containsKey(itemIdentifier)) {
-                // updated item was a matched link
-                updateMatchedLinks(itemIdentifier, item);
-            } else if (waitingLinks.containsKey(itemIdentifier)) {
-                if (calculatePossibleLink(itemIdentifier, item, true)) {
-                    waitingLinks.remove(itemIdentifier);
+        if (CorrelationItemEnum.Link.equals(item.getCorrelationItem())) {
+            Lock linkLock = lockLink(itemIdentifier);
+            try {
+                if (matchedLinks.containsKey(itemIdentifier)) {
+                    // updated item was a matched link
+                    updateMatchedLinks(itemIdentifier, item);
+                } else if (waitingLinks.containsKey(itemIdentifier)) {
+                    if (calculatePossibleLink(itemIdentifier, item, true)) {
+                        waitingLinks.remove(itemIdentifier);
+                    }
                 }
-            } else if (storedOverlayNodes.getUnderlayItems().containsKey(itemIdentifier)) {
-                //in case of a node update
-                storedOverlayNodes.getUnderlayItems().put(itemIdentifier, item);
-                updateLinkStateAndFields();
+            } finally {
+                unlockLink(linkLock);
+            }
+        } else {
+            nodeStoreLock.writeLock().lock();
+            try {
+                if (storedOverlayNodes.getUnderlayItems().containsKey(itemIdentifier)) {
+                    //in case of a node update
+                    storedOverlayNodes.getUnderlayItems().put(itemIdentifier, item);
+                    updateLinkStateAndFields();
+                }
+            } finally {
+                nodeStoreLock.writeLock().unlock();
             }
         }
     }
@@ -153,7 +186,9 @@ public class LinkCalculator implements TopologyOperator {
             ComputedLink updatedLink = updatedLinkEntry.getValue();
             matchedLinks.put(yiid, updatedLink);
             if (aggregator != null) {
-                aggregator.processUpdatedChanges(yiid, updatedLink, updatedLink.getTopologyId());
+                synchronized (aggregator) {
+                    aggregator.processUpdatedChanges(yiid, updatedLink, updatedLink.getTopologyId());
+                }
             } else {
                 manager.updateOverlayItem(updatedLink.getOverlayItem());
             }
@@ -178,42 +213,81 @@ public class LinkCalculator implements TopologyOperator {
     @Override
     public void processRemovedChanges(YangInstanceIdentifier itemIdentifier, final String topologyId) {
         LOGGER.trace("Processing removedChanges");
-        synchronized (this) {
-            UnderlayItem removedOverlayNode = storedOverlayNodes.getUnderlayItems().remove(itemIdentifier);
-            if (removedOverlayNode != null) {
-                // removed item was an overlay node
-                Iterator<Entry<YangInstanceIdentifier, ComputedLink>> matchedLinksIterator =
-                        matchedLinks.entrySet().iterator();
-                while (matchedLinksIterator.hasNext()) {
-                    Entry<YangInstanceIdentifier, ComputedLink> matchedLink = matchedLinksIterator.next();
-                    if (removedOverlayNode.getItem().equals(matchedLink.getValue().getSrcNode())
-                            || removedOverlayNode.getItem().equals(matchedLink.getValue().getDstNode())) {
-                        // remove calculated link
-                        waitingLinks.put(matchedLink.getKey(), matchedLink.getValue());
-                        if (aggregator != null) {
-                            aggregator.processRemovedChanges(matchedLink.getKey(),
-                                    matchedLink.getValue().getTopologyId());
-                        } else {
-                            manager.removeOverlayItem(matchedLink.getValue().getOverlayItem());
-                        }
-                        matchedLinksIterator.remove();
-                    }
+        if (storedOverlayNodes.getUnderlayItems().containsKey(itemIdentifier)) {
+            nodeStoreLock.writeLock().lock();
+            try {
+                UnderlayItem removedOverlayNode = storedOverlayNodes.getUnderlayItems().remove(itemIdentifier);
+                if (removedOverlayNode != null) {
+                    // removed item was an overlay node
+                    removeLinksOfOverlayNode(removedOverlayNode);
+                    return;
                 }
-            } else if (matchedLinks.containsKey(itemIdentifier)) {
+            } finally {
+                nodeStoreLock.writeLock().unlock();
+            }
+        }
+        Lock linkLock = lockLink(itemIdentifier);
+        try {
+            if (matchedLinks.containsKey(itemIdentifier)) {
                 // removed item was matched link
                 removeMatchedLink(itemIdentifier);
             } else if (waitingLinks.containsKey(itemIdentifier)) {
                 // removed item was waiting link
                 waitingLinks.remove(itemIdentifier);
             }
+        } finally {
+            unlockLink(linkLock);
         }
     }
 
+    private void removeLinksOfOverlayNode(UnderlayItem removedOverlayNode) {
+        Iterator<Entry<YangInstanceIdentifier, ComputedLink>> matchedLinksIterator =
+                matchedLinks.entrySet().iterator();
+        while (matchedLinksIterator.hasNext()) {
+            Entry<YangInstanceIdentifier, ComputedLink> matchedLink = matchedLinksIterator.next();
+            if (removedOverlayNode.getItem().equals(matchedLink.getValue().getSrcNode())
+                    || removedOverlayNode.getItem().equals(matchedLink.getValue().getDstNode())) {
+                // remove calculated link
+                waitingLinks.put(matchedLink.getKey(), matchedLink.getValue());
+                if (aggregator != null) {
+                    synchronized (aggregator) {
+                        aggregator.processRemovedChanges(matchedLink.getKey(),
+                                matchedLink.getValue().getTopologyId());
+                    }
+                } else {
+                    manager.removeOverlayItem(matchedLink.getValue().getOverlayItem());
+                }
+                matchedLinksIterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Acquires the node store in shared mode and the lock stripe of the given link.
+     * Locks are always taken in this order, node events only take the node store lock exclusively.
+     *
+     * @param linkIdentifier identifier of the processed link
+     * @return acquired link lock which has to be released by {@link #unlockLink(Lock)}
+     */
+    private Lock lockLink(YangInstanceIdentifier linkIdentifier) {
+        nodeStoreLock.readLock().lock();
+        Lock linkLock = linkLocks.get(linkIdentifier);
+        linkLock.lock();
+        return linkLock;
+    }
+
+    private void unlockLink(Lock linkLock) {
+        linkLock.unlock();
+        nodeStoreLock.readLock().unlock();
+    }
+
     private void removeMatchedLink(YangInstanceIdentifier itemIdentifier) {
         ComputedLink overlayLink = matchedLinks.remove(itemIdentifier);
         if (null != overlayLink) {
             if (aggregator != null) {
-                aggregator.processRemovedChanges(itemIdentifier, overlayLink.getTopologyId());
+                synchronized (aggregator) {
+                    aggregator.processRemovedChanges(itemIdentifier, overlayLink.getTopologyId());
+                }
             } else {
                 manager.removeOverlayItem(overlayLink.getOverlayItem());
             }
@@ -269,10 +343,13 @@ public class LinkCalculator implements TopologyOperator {
                 // link is put into matchedLinks map
                 matchedLinks.put(linkId, computedLink);
                 if (aggregator != null) {
-                    if (update) {
-                        aggregator.processUpdatedChanges(linkId, computedLink, computedLink.getTopologyId());
-                    } else {
-                        aggregator.processCreatedChanges(linkId, computedLink, computedLink.getTopologyId());
+                    // aggregator shares one topology store for all links, keep its processing serialized
+                    synchronized (aggregator) {
+                        if (update) {
+                            aggregator.processUpdatedChanges(linkId, computedLink, computedLink.getTopologyId());
+                        } else {
+                            aggregator.processCreatedChanges(linkId, computedLink, computedLink.getTopologyId());
+                        }
                     }
                 } else {
                     OverlayItem overlayItem = wrapUnderlayItem(computedLink);
@@ -33,7 +33,7 @@ public class LinkFiltrator extends TopologyFiltrator {
     public void processCreatedChanges(YangInstanceIdentifier identifier, UnderlayItem createdItem, String topologyId) {
         LOGGER.trace("Processing createdChanges");
         if (CorrelationItemEnum.Node.equals(createdItem.getCorrelationItem())
-                || passedFiltration(createdItem.getLeafNodes().values())) {
+                || passedFiltration(identifier, createdItem)) {
             topoStoreProvider.getTopologyStore(topologyId).getUnderlayItems().put(identifier, createdItem);
             manager.addOverlayItem(wrapUnderlayItem(createdItem));
             LOGGER.trace("Link passed filtration/node getting through: {}",createdItem.getItemId());
@@ -43,11 +43,16 @@ public class LinkFiltrator extends TopologyFiltrator {
     @Override
     public void processUpdatedChanges(YangInstanceIdentifier identifier, UnderlayItem updatedItem, String topologyId) {
         LOGGER.trace("Processing updatedChanges");
+        if (isStillFilteredOut(identifier, updatedItem)) {
+            LOGGER.trace("Item {} stays filtered out, nothing to propagate", identifier);
+            return;
+        }
+        boolean passed = updatedItem.getCorrelationItem().equals(CorrelationItemEnum.Node)
+                || passedFiltration(identifier, updatedItem);
         UnderlayItem oldItem = topoStoreProvider.getTopologyStore(topologyId).getUnderlayItems().get(identifier);
         if (oldItem == null) {
             // updatedItem is not present yet
-            if (updatedItem.getCorrelationItem().equals(CorrelationItemEnum.Node)
-                    || passedFiltration(updatedItem.getLeafNodes().values())) {
+            if (passed) {
                 // link passed through filtrator ot its node
                 topoStoreProvider.getTopologyStore(topologyId).getUnderlayItems().put(identifier, updatedItem);
                 manager.addOverlayItem(wrapUnderlayItem(updatedItem));
@@ -55,8 +60,7 @@ public class LinkFiltrator extends TopologyFiltrator {
             }
         } else {
             // updatedItem exists already
-            if (updatedItem.getCorrelationItem().equals(CorrelationItemEnum.Node)
-                    || passedFiltration(updatedItem.getLeafNodes().values())) {
+            if (passed) {
                 // link passed through filtrator ot its node
                 topoStoreProvider.getTopologyStore(topologyId).getUnderlayItems().put(identifier, updatedItem);
                 OverlayItem overlayItem = oldItem.getOverlayItem();
@@ -11,9 +11,16 @@ import com.google.common.base.Optional;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 
 import org.opendaylight.topoprocessing.api.structure.OverlayItem;
 import org.opendaylight.topoprocessing.api.structure.UnderlayItem;
@@ -68,8 +75,44 @@ public class NodeAndTPAggregator implements TopologyOperator {
     QName nodeQName;
     QName nodeIdQName;
 
-    private int wrapperIdGenerator = 0;
-    private Map<Integer, OverlayItemWrapper> wrappers = new HashMap<>();
+    /** wrapper id -> termination points of the wrapper */
+    private Map<String, WrapperTerminationPoints> wrappers = new HashMap<>();
+    /** underlay item key -> id of the wrapper holding termination points of the underlay item */
+    private Map<String, String> wrapperIdsByUnderlayItem = new HashMap<>();
+
+    /**
+     * Termination points of underlay items wrapped by one wrapper, prepared for aggregation.
+     */
+    private static class WrapperTerminationPoints {
+        private final OverlayItemWrapper wrapper;
+        /** underlay item key -> termination points of the underlay item */
+        private final Map<String, UnderlayTerminationPoints> underlayTerminationPoints = new LinkedHashMap<>();
+
+        WrapperTerminationPoints(OverlayItemWrapper wrapper) {
+            this.wrapper = wrapper;
+        }
+    }
+
+    /**
+     * Termination points of one underlay item with ids unique inside of the wrapper.
+     */
+    private static class UnderlayTerminationPoints {
+        /** underlay node the termination points were taken from */
+        private final NormalizedNode<?, ?> node;
+        private final List<MapEntryNode> terminationPoints = new ArrayList<>();
+
+        UnderlayTerminationPoints(NormalizedNode<?, ?> node) {
+            this.node = node;
+        }
+
+        List<String> getTerminationPointIds(QName tpIdQname) {
+            List<String> tpIds = new ArrayList<>(terminationPoints.size());
+            for (MapEntryNode terminationPoint : terminationPoints) {
+                tpIds.add((String) terminationPoint.getIdentifier().getKeyValues().get(tpIdQname));
+            }
+            return tpIds;
+        }
+    }
 
     /**
      * Manager for node aggregator
@@ -79,19 +122,15 @@ public class NodeAndTPAggregator implements TopologyOperator {
         @Override
         public void addOverlayItem(OverlayItem newOverlayItem) {
             OverlayItemWrapper wrapper = manager.findOrCreateWrapper(newOverlayItem);
-            int id = wrapperIdGenerator++;
-            wrappers.put(id, wrapper);
-            addTPsToWrapper(wrapper, id);
-            manager.writeWrapper(wrappers.get(id), newOverlayItem.getCorrelationItem());
+            addTPsToWrapper(wrapper);
+            manager.writeWrapper(wrapper, newOverlayItem.getCorrelationItem());
         }
 
         @Override
         public void updateOverlayItem(OverlayItem overlayItemIdentifier) {
             OverlayItemWrapper wrapper = manager.findWrapper(overlayItemIdentifier);
             if (wrapper != null) {
-                int id = wrapperIdGenerator++;
-                wrappers.put(id, wrapper);
-                addTPsToWrapper(wrapper, id);
+                addTPsToWrapper(wrapper);
             } else {
                 LOG.debug("Update - Wrapper not found");
             }
@@ -102,13 +141,14 @@ public class NodeAndTPAggregator implements TopologyOperator {
         public void removeOverlayItem(OverlayItem overlayItemIdentifier) {
             OverlayItemWrapper wrapper = manager.findWrapper(overlayItemIdentifier);
             if (wrapper != null) {
-                int id = wrapperIdGenerator++;
-                wrappers.put(id, wrapper);
-                addTPsToWrapperExceptRemoved(wrapper, id, overlayItemIdentifier);
+                addTPsToWrapperExceptRemoved(wrapper, overlayItemIdentifier);
             } else {
                 LOG.debug("Remove - Wrapper not found");
             }
             manager.removeOverlayItem(overlayItemIdentifier);
+            if (wrapper != null && wrapper.getOverlayItems().isEmpty()) {
+                removeWrapper(wrapper.getId());
+            }
         }
     };
 
@@ -119,7 +159,7 @@ public class NodeAndTPAggregator implements TopologyOperator {
 
         @Override
         public void updateOverlayItem(OverlayItem overlayItemIdentifier) {
-            throw new UnsupportedOperationException("This method should be never called.");
+            setAggregatedTerminationPoints(overlayItemIdentifier);
         }
 
         @Override
@@ -129,11 +169,15 @@ public class NodeAndTPAggregator implements TopologyOperator {
 
         @Override
         public void addOverlayItem(OverlayItem newOverlayItem) {
-            if (newOverlayItem.getUnderlayItems().size() != 1) {
+            setAggregatedTerminationPoints(newOverlayItem);
+        }
+
+        private void setAggregatedTerminationPoints(OverlayItem overlayItem) {
+            if (overlayItem.getUnderlayItems().size() != 1) {
                 throw new IllegalStateException("In newOverlayItem should be only one underlay item");
             }
 
-            UnderlayItem underlayItem = newOverlayItem.getUnderlayItems().peek();
+            UnderlayItem underlayItem = overlayItem.getUnderlayItems().peek();
             Optional<NormalizedNode<?, ?>> aggregatedTPsOpt = Optional.absent();
             if (inputModel.equals(NetworkTopologyModel.class) || inputModel.equals(OpendaylightInventoryModel.class)) {
                 aggregatedTPsOpt = NormalizedNodes.findNode(underlayItem.getItem(),
@@ -150,8 +194,12 @@ public class NodeAndTPAggregator implements TopologyOperator {
                         InstanceIdentifiers.relativeItemIdIdentifier(CorrelationItemEnum.Node, inputModel));
                 if (nodeIdOpt.isPresent()) {
                     MapNode aggregatedTPs = (MapNode) aggregatedTPsOpt.get();
-                    wrappers.get(Integer.parseInt(nodeIdOpt.get().getValue().toString()))
-                            .setAggregatedTerminationPoints(aggregatedTPs);
+                    WrapperTerminationPoints wrapperTps = wrappers.get(nodeIdOpt.get().getValue().toString());
+                    if (wrapperTps != null) {
+                        wrapperTps.wrapper.setAggregatedTerminationPoints(aggregatedTPs);
+                    } else {
+                        LOG.debug("Wrapper {} not found", nodeIdOpt.get().getValue());
+                    }
                 } else {
                     LOG.warn("Node ID is not present!");
                 }
@@ -222,74 +270,199 @@ public class NodeAndTPAggregator implements TopologyOperator {
         }
     }
 
-    private void addTPsToWrapper(OverlayItemWrapper wrapper, int wrapperId) {
-        addTPsToWrapperExceptRemoved(wrapper, wrapperId, null);
+    /**
+     * @return number of wrappers whose termination points are aggregated
+     */
+    int getWrapperCount() {
+        return wrappers.size();
     }
 
-    private void addTPsToWrapperExceptRemoved(OverlayItemWrapper wrapper, int wrapperId,
-            OverlayItem removedOverlayItem) {
-        Collection<MapEntryNode> terminationPoints = new LinkedList<>();
+    private void addTPsToWrapper(OverlayItemWrapper wrapper) {
+        addTPsToWrapperExceptRemoved(wrapper, null);
+    }
 
-        Map<String, Map<Integer, YangInstanceIdentifier>> targetFieldsPerTP = new HashMap<>();
+    /**
+     * Aggregates termination points of all underlay items of the wrapper. Termination points are taken again
+     * only from underlay items which changed since the previous aggregation, termination point aggregator
+     * then re-aggregates only termination points which changed.
+     */
+    private void addTPsToWrapperExceptRemoved(OverlayItemWrapper wrapper, OverlayItem removedOverlayItem) {
+        String wrapperId = wrapper.getId();
+        WrapperTerminationPoints wrapperTps = wrappers.get(wrapperId);
+        if (wrapperTps != null && wrapperTps.wrapper != wrapper) {
+            // wrapper with the same id was replaced, aggregate its termination points from scratch
+            removeWrapper(wrapperId);
+            wrapperTps = null;
+        }
+        if (wrapperTps == null) {
+            wrapperTps = new WrapperTerminationPoints(wrapper);
+            wrappers.put(wrapperId, wrapperTps);
+        }
 
+        Set<String> presentUnderlayItems = new HashSet<>();
+        Set<String> shrunkWrapperIds = new HashSet<>();
+        Map<String, Map<Integer, YangInstanceIdentifier>> targetFieldsPerTP = new HashMap<>();
         for (OverlayItem overlayItem : wrapper.getOverlayItems()) {
             if (removedOverlayItem == null || !overlayItem.equals(removedOverlayItem)) {
                 for (UnderlayItem underlayItemFromWrapper : overlayItem.getUnderlayItems()) {
-                    Map<Integer, YangInstanceIdentifier> targetFields = targetFieldsPerTopology.get(
-                            underlayItemFromWrapper.getTopologyId());
-                    Optional<NormalizedNode<?, ?>> tpMapNodeOpt = NormalizedNodes
-                            .findNode(underlayItemFromWrapper.getItem(), tpIdentifier);
-                    if (tpMapNodeOpt.isPresent()) {
-                        MapNode tpMapNode = (MapNode) tpMapNodeOpt.get();
-                        for (MapEntryNode tpMapEntryNode : tpMapNode.getValue()) {
-                            Optional<NormalizedNode<?, ?>> tpIdOpt = NormalizedNodes.findNode(
-                                    tpMapEntryNode, tpIdIdentifier);
-                            if (tpIdOpt.isPresent()) {
-                                // copy termination point except id
-                                ArrayList<DataContainerChild<? extends PathArgument, ?>> value =
-                                        new ArrayList<>(tpMapEntryNode.getValue());
-                                for (int i = 0; i < value.size(); i++) {
-                                    try {
-                                        if (value.get(i).getNodeType().equals(tpIdQname)) {
-                                            value.remove(i);
-                                            break;
-                                        }
-                                    } catch (UnsupportedOperationException ex) {
-                                    }
-                                }
-
-                                String id = createTerminationPointId(underlayItemFromWrapper, tpIdOpt.get());
-                                targetFieldsPerTP.put(id, targetFields);
-                                terminationPoints.add(ImmutableNodes.mapEntryBuilder(tpQName, tpIdQname, id)
-                                        .withValue(value).build());
-                            } else {
-                                LOG.trace("Termination point ID is not present!");
-                            }
+                    String underlayItemKey = createUnderlayItemKey(underlayItemFromWrapper);
+                    presentUnderlayItems.add(underlayItemKey);
+                    moveUnderlayItem(underlayItemKey, wrapperId, shrunkWrapperIds);
+                    UnderlayTerminationPoints underlayTps =
+                            wrapperTps.underlayTerminationPoints.get(underlayItemKey);
+                    if (underlayTps == null || underlayTps.node != underlayItemFromWrapper.getItem()) {
+                        if (underlayTps != null) {
+                            tpAggregator.removeTargetFieldsPerTP(underlayTps.getTerminationPointIds(tpIdQname));
+                        }
+                        underlayTps = createUnderlayTerminationPoints(underlayItemFromWrapper);
+                        wrapperTps.underlayTerminationPoints.put(underlayItemKey, underlayTps);
+                        Map<Integer, YangInstanceIdentifier> targetFields = targetFieldsPerTopology.get(
+                                underlayItemFromWrapper.getTopologyId());
+                        for (String tpId : underlayTps.getTerminationPointIds(tpIdQname)) {
+                            targetFieldsPerTP.put(tpId, targetFields);
                         }
-                    } else {
-                        LOG.trace("Termination point MapNode is not present!");
                     }
                 }
             }
         }
+        // drop termination points of underlay items which are no longer wrapped
+        for (Iterator<Entry<String, UnderlayTerminationPoints>> iterator =
+                wrapperTps.underlayTerminationPoints.entrySet().iterator(); iterator.hasNext();) {
+            Entry<String, UnderlayTerminationPoints> entry = iterator.next();
+            if (!presentUnderlayItems.contains(entry.getKey())) {
+                tpAggregator.removeTargetFieldsPerTP(entry.getValue().getTerminationPointIds(tpIdQname));
+                wrapperIdsByUnderlayItem.remove(entry.getKey(), wrapperId);
+                iterator.remove();
+            }
+        }
+        aggregateTerminationPoints(wrapperId, wrapperTps, targetFieldsPerTP);
+        // wrappers which lost underlay items to this wrapper still hold their termination points aggregated
+        for (String shrunkWrapperId : shrunkWrapperIds) {
+            WrapperTerminationPoints shrunkWrapperTps = wrappers.get(shrunkWrapperId);
+            if (shrunkWrapperTps != null) {
+                aggregateTerminationPoints(shrunkWrapperId, shrunkWrapperTps,
+                        Collections.<String, Map<Integer, YangInstanceIdentifier>>emptyMap());
+                if (isManaged(shrunkWrapperTps.wrapper)) {
+                    manager.writeWrapper(shrunkWrapperTps.wrapper, CorrelationItemEnum.Node);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if the wrapper was not dropped by topology manager
+     */
+    private boolean isManaged(OverlayItemWrapper wrapper) {
+        for (OverlayItem overlayItem : wrapper.getOverlayItems()) {
+            if (manager.findWrapper(overlayItem) == wrapper) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-        String nodeId = Integer.toString(wrapperId);
+    /**
+     * Passes termination points of all underlay items of the wrapper to termination point aggregation.
+     */
+    private void aggregateTerminationPoints(String wrapperId, WrapperTerminationPoints wrapperTps,
+            Map<String, Map<Integer, YangInstanceIdentifier>> targetFieldsPerTP) {
+        Collection<MapEntryNode> terminationPoints = new ArrayList<>();
+        for (UnderlayTerminationPoints underlayTps : wrapperTps.underlayTerminationPoints.values()) {
+            terminationPoints.addAll(underlayTps.terminationPoints);
+        }
         Collection<DataContainerChild<? extends PathArgument, ?>> tps = new LinkedList<>();
         tps.add(ImmutableNodes.mapNodeBuilder(tpQName).withValue(terminationPoints).build());
-        MapEntryNode nodeMapEntry = ImmutableNodes.mapEntry(nodeQName, nodeIdQName, nodeId);
+        MapEntryNode nodeMapEntry = ImmutableNodes.mapEntry(nodeQName, nodeIdQName, wrapperId);
         NormalizedNode<?, ?> item = ImmutableMapEntryNodeBuilder.create(nodeMapEntry).withValue(tps).build();
 
-        UnderlayItem underlayItem = new UnderlayItem(item, null, null, nodeId, CorrelationItemEnum.Node);
+        UnderlayItem underlayItem = new UnderlayItem(item, null, null, wrapperId, CorrelationItemEnum.Node);
 
         tpAggregator.setTargetFieldsPerTP(targetFieldsPerTP);
         // this will add termination points to wrapper - after aggregating it calls addOverlayItem in tpManager
         if (tpFiltrator == null) {
-            tpAggregator.processCreatedChanges(null, underlayItem, null);
+            tpAggregator.processCreatedChanges(createWrapperIdentifier(wrapperId), underlayItem, null);
+        } else {
+            tpFiltrator.processCreatedChanges(createWrapperIdentifier(wrapperId), underlayItem, null);
+        }
+    }
+
+    /**
+     * Underlay item moved to another wrapper (e.g. wrappers were merged) - its termination points are dropped
+     * from the previous wrapper, the previous wrapper is dropped once it holds no termination points.
+     * Otherwise its id is added to shrunkWrapperIds, as its termination points have to be aggregated again.
+     */
+    private void moveUnderlayItem(String underlayItemKey, String wrapperId, Set<String> shrunkWrapperIds) {
+        String previousWrapperId = wrapperIdsByUnderlayItem.put(underlayItemKey, wrapperId);
+        if (previousWrapperId != null && !previousWrapperId.equals(wrapperId)) {
+            WrapperTerminationPoints previousWrapperTps = wrappers.get(previousWrapperId);
+            if (previousWrapperTps != null) {
+                UnderlayTerminationPoints underlayTps =
+                        previousWrapperTps.underlayTerminationPoints.remove(underlayItemKey);
+                if (underlayTps != null) {
+                    tpAggregator.removeTargetFieldsPerTP(underlayTps.getTerminationPointIds(tpIdQname));
+                }
+                if (previousWrapperTps.underlayTerminationPoints.isEmpty()) {
+                    removeWrapper(previousWrapperId);
+                } else {
+                    shrunkWrapperIds.add(previousWrapperId);
+                }
+            }
+        }
+    }
+
+    private void removeWrapper(String wrapperId) {
+        WrapperTerminationPoints wrapperTps = wrappers.remove(wrapperId);
+        if (wrapperTps != null) {
+            for (Entry<String, UnderlayTerminationPoints> entry : wrapperTps.underlayTerminationPoints.entrySet()) {
+                tpAggregator.removeTargetFieldsPerTP(entry.getValue().getTerminationPointIds(tpIdQname));
+                wrapperIdsByUnderlayItem.remove(entry.getKey(), wrapperId);
+            }
+            tpAggregator.processRemovedChanges(createWrapperIdentifier(wrapperId), null);
+        }
+    }
+
+    private UnderlayTerminationPoints createUnderlayTerminationPoints(UnderlayItem underlayItemFromWrapper) {
+        UnderlayTerminationPoints underlayTps = new UnderlayTerminationPoints(underlayItemFromWrapper.getItem());
+        Optional<NormalizedNode<?, ?>> tpMapNodeOpt = NormalizedNodes
+                .findNode(underlayItemFromWrapper.getItem(), tpIdentifier);
+        if (tpMapNodeOpt.isPresent()) {
+            MapNode tpMapNode = (MapNode) tpMapNodeOpt.get();
+            for (MapEntryNode tpMapEntryNode : tpMapNode.getValue()) {
+                Optional<NormalizedNode<?, ?>> tpIdOpt = NormalizedNodes.findNode(tpMapEntryNode, tpIdIdentifier);
+                if (tpIdOpt.isPresent()) {
+                    // copy termination point except id
+                    ArrayList<DataContainerChild<? extends PathArgument, ?>> value =
+                            new ArrayList<>(tpMapEntryNode.getValue());
+                    for (int i = 0; i < value.size(); i++) {
+                        try {
+                            if (value.get(i).getNodeType().equals(tpIdQname)) {
+                                value.remove(i);
+                                break;
+                            }
+                        } catch (UnsupportedOperationException ex) {
+                        }
+                    }
+
+                    String id = createTerminationPointId(underlayItemFromWrapper, tpIdOpt.get());
+                    underlayTps.terminationPoints.add(ImmutableNodes.mapEntryBuilder(tpQName, tpIdQname, id)
+                            .withValue(value).build());
+                } else {
+                    LOG.trace("Termination point ID is not present!");
+                }
+            }
         } else {
-            tpFiltrator.processCreatedChanges(null, underlayItem, null);
+            LOG.trace("Termination point MapNode is not present!");
         }
+        return underlayTps;
+    }
+
+    private YangInstanceIdentifier createWrapperIdentifier(String wrapperId) {
+        return YangInstanceIdentifier.builder().nodeWithKey(nodeQName, nodeIdQName, wrapperId).build();
     }
 
+    private static String createUnderlayItemKey(UnderlayItem underlayItem) {
+        return underlayItem.getTopologyId() + "/" + underlayItem.getItemId();
+    }
 
     private String createTerminationPointId(UnderlayItem underlayItemFromWrapper, NormalizedNode<?, ?> tpId) {
         return underlayItemFromWrapper.getTopologyId() + "/"
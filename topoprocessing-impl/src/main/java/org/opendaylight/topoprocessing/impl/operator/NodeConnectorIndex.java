@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.topoprocessing.impl.operator;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+
+import org.opendaylight.topoprocessing.impl.util.InstanceIdentifiers;
+import org.opendaylight.topoprocessing.impl.util.TopologyQNames;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Index from inventory node-connector id to the network-topology termination point of the same node. A
+ * termination point is indexed by the node-connector its inventory-node-connector-ref points to; a node-connector
+ * without such termination point is matched with the termination point whose tp-id equals the node-connector id.
+ * The index is updated incrementally - only termination points changed since the previous update are reindexed.
+ */
+final class NodeConnectorIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NodeConnectorIndex.class);
+    private static final AugmentationIdentifier NODE_CONNECTOR_REF_AUGMENTATION =
+            new AugmentationIdentifier(ImmutableSet.of(TopologyQNames.INVENTORY_NODE_CONNECTOR_REF_QNAME));
+    private static final PathArgument NODE_CONNECTOR_REF =
+            InstanceIdentifiers.INVENTORY_NODE_CONNECTOR_REF_IDENTIFIER.getLastPathArgument();
+    private static final PathArgument TP_ID = InstanceIdentifiers.NT_TP_ID_IDENTIFIER.getLastPathArgument();
+
+    /** termination points the index was built from */
+    private MapNode indexedTerminationPoints;
+    private final Map<NodeIdentifierWithPredicates, MapEntryNode> terminationPoints = new HashMap<>();
+    /** node-connector id -> tp-id of the termination point referring to it */
+    private final Map<String, String> tpIdsByNodeConnector = new HashMap<>();
+    private final Set<String> tpIds = new HashSet<>();
+
+    /**
+     * @param nodeConnectorId inventory node-connector id
+     * @return tp-id of the matching termination point, null if there is none
+     */
+    public String getTpId(String nodeConnectorId) {
+        String tpId = tpIdsByNodeConnector.get(nodeConnectorId);
+        if (tpId == null && tpIds.contains(nodeConnectorId)) {
+            tpId = nodeConnectorId;
+        }
+        return tpId;
+    }
+
+    /**
+     * Updates the index to the current termination points of the node.
+     * @param ntTerminationPoints network-topology termination points of the node, null if the node has none
+     * @return ids of node-connectors whose matching termination point changed
+     */
+    public Set<String> update(MapNode ntTerminationPoints) {
+        if (ntTerminationPoints == indexedTerminationPoints) {
+            return Collections.emptySet();
+        }
+        List<MapEntryNode> removed = new ArrayList<>();
+        List<MapEntryNode> added = new ArrayList<>();
+        for (Iterator<Entry<NodeIdentifierWithPredicates, MapEntryNode>> iterator =
+                terminationPoints.entrySet().iterator(); iterator.hasNext();) {
+            Entry<NodeIdentifierWithPredicates, MapEntryNode> entry = iterator.next();
+            if (ntTerminationPoints == null || !ntTerminationPoints.getChild(entry.getKey()).isPresent()) {
+                removed.add(entry.getValue());
+                iterator.remove();
+            }
+        }
+        if (ntTerminationPoints != null) {
+            for (MapEntryNode terminationPoint : ntTerminationPoints.getValue()) {
+                MapEntryNode previous = terminationPoints.put(terminationPoint.getIdentifier(), terminationPoint);
+                if (!terminationPoint.equals(previous)) {
+                    if (previous != null) {
+                        removed.add(previous);
+                    }
+                    added.add(terminationPoint);
+                }
+            }
+        }
+        indexedTerminationPoints = ntTerminationPoints;
+        // node-connectors whose match may have changed, with the match before the update
+        Map<String, String> affected = new HashMap<>();
+        for (MapEntryNode terminationPoint : removed) {
+            collectAffected(terminationPoint, affected);
+        }
+        for (MapEntryNode terminationPoint : added) {
+            collectAffected(terminationPoint, affected);
+        }
+        for (MapEntryNode terminationPoint : removed) {
+            unindex(terminationPoint);
+        }
+        for (MapEntryNode terminationPoint : added) {
+            index(terminationPoint);
+        }
+        Set<String> changed = new HashSet<>();
+        for (Entry<String, String> entry : affected.entrySet()) {
+            if (!Objects.equals(entry.getValue(), getTpId(entry.getKey()))) {
+                changed.add(entry.getKey());
+            }
+        }
+        return changed;
+    }
+
+    private void collectAffected(MapEntryNode terminationPoint, Map<String, String> affected) {
+        String tpId = getTerminationPointId(terminationPoint);
+        String nodeConnectorId = getNodeConnectorId(terminationPoint);
+        if (tpId != null && !affected.containsKey(tpId)) {
+            affected.put(tpId, getTpId(tpId));
+        }
+        if (nodeConnectorId != null && !affected.containsKey(nodeConnectorId)) {
+            affected.put(nodeConnectorId, getTpId(nodeConnectorId));
+        }
+    }
+
+    private void index(MapEntryNode terminationPoint) {
+        String tpId = getTerminationPointId(terminationPoint);
+        if (tpId == null) {
+            LOG.debug("No Termination Point ID is present!");
+            return;
+        }
+        tpIds.add(tpId);
+        String nodeConnectorId = getNodeConnectorId(terminationPoint);
+        if (nodeConnectorId != null) {
+            String previousTpId = tpIdsByNodeConnector.put(nodeConnectorId, tpId);
+            if (previousTpId != null && !previousTpId.equals(tpId)) {
+                LOG.debug("Termination points {} and {} refer to the same node-connector {}", previousTpId, tpId,
+                        nodeConnectorId);
+            }
+        }
+    }
+
+    private void unindex(MapEntryNode terminationPoint) {
+        String tpId = getTerminationPointId(terminationPoint);
+        if (tpId == null) {
+            return;
+        }
+        tpIds.remove(tpId);
+        String nodeConnectorId = getNodeConnectorId(terminationPoint);
+        if (nodeConnectorId != null && tpId.equals(tpIdsByNodeConnector.get(nodeConnectorId))) {
+            tpIdsByNodeConnector.remove(nodeConnectorId);
+        }
+    }
+
+    private static String getTerminationPointId(MapEntryNode terminationPoint) {
+        Optional<? extends NormalizedNode<?, ?>> tpIdOpt = terminationPoint.getChild(TP_ID);
+        return tpIdOpt.isPresent() ? (String) tpIdOpt.get().getValue() : null;
+    }
+
+    /**
+     * @param terminationPoint network-topology termination point
+     * @return id of the node-connector the inventory-node-connector-ref of the termination point points to,
+     *         null if the termination point has no such reference
+     */
+    private static String getNodeConnectorId(MapEntryNode terminationPoint) {
+        Optional<NormalizedNode<?, ?>> refOpt = NormalizedNodes.findNode(terminationPoint,
+                NODE_CONNECTOR_REF_AUGMENTATION, NODE_CONNECTOR_REF);
+        if (!refOpt.isPresent()) {
+            refOpt = NormalizedNodes.findNode(terminationPoint, NODE_CONNECTOR_REF);
+        }
+        if (!refOpt.isPresent()) {
+            return null;
+        }
+        Object ref = refOpt.get().getValue();
+        if (ref instanceof YangInstanceIdentifier) {
+            PathArgument nodeConnector = ((YangInstanceIdentifier) ref).getLastPathArgument();
+            if (nodeConnector instanceof NodeIdentifierWithPredicates) {
+                Object nodeConnectorId = ((NodeIdentifierWithPredicates) nodeConnector).getKeyValues()
+                        .get(TopologyQNames.NODE_CONNECTOR_ID_QNAME);
+                return nodeConnectorId == null ? null : nodeConnectorId.toString();
+            }
+            return null;
+        }
+        return ref.toString();
+    }
+}
@@ -29,7 +29,7 @@ public class PreAggregationFiltrator extends TopologyFiltrator {
     @Override
     public void processCreatedChanges(YangInstanceIdentifier identifier, UnderlayItem createdEntry, String topologyId) {
         LOGGER.trace("Processing createdChanges");
-        if (passedFiltration(createdEntry.getLeafNodes().values())) {
+        if (passedFiltration(identifier, createdEntry)) {
             operator.processCreatedChanges(identifier, createdEntry, topologyId);
         }
     }
@@ -37,17 +37,22 @@ public class PreAggregationFiltrator extends TopologyFiltrator {
     @Override
     public void processUpdatedChanges(YangInstanceIdentifier identifier, UnderlayItem updatedEntry, String topologyId) {
         LOGGER.trace("Processing updatedChanges");
+        if (isStillFilteredOut(identifier, updatedEntry)) {
+            LOGGER.trace("Item {} stays filtered out, nothing to propagate", identifier);
+            return;
+        }
+        boolean passed = passedFiltration(identifier, updatedEntry);
         UnderlayItem olditem = getTopoStoreProvider().getTopologyStore(topologyId).getUnderlayItems().get(identifier);
         if (null == olditem) {
             // updateditem is not present yet
-            if (passedFiltration(updatedEntry.getLeafNodes().values())) {
+            if (passed) {
                 // passed through filtrator
                 operator.processCreatedChanges(identifier, updatedEntry, topologyId);
             }
             // else do nothing
         } else {
             // updateditem exists already
-            if (passedFiltration(updatedEntry.getLeafNodes().values())) {
+            if (passed) {
                 // passed through filtrator
                 operator.processUpdatedChanges(identifier, updatedEntry, topologyId);
             } else {
@@ -60,6 +65,7 @@ public class PreAggregationFiltrator extends TopologyFiltrator {
     @Override
     public void processRemovedChanges(YangInstanceIdentifier identifier, String topologyId) {
         LOGGER.trace("Processing removedChanges");
+        filtrationMemo.forget(identifier);
         operator.processRemovedChanges(identifier, topologyId);
     }
 
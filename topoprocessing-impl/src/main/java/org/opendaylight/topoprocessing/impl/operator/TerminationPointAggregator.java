@@ -11,21 +11,26 @@ package org.opendaylight.topoprocessing.impl.operator;
 import com.google.common.base.Optional;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
 
 import org.opendaylight.topoprocessing.api.structure.OverlayItem;
 import org.opendaylight.topoprocessing.api.structure.UnderlayItem;
-import org.opendaylight.topoprocessing.impl.structure.IdentifierGenerator;
+import org.opendaylight.topoprocessing.impl.structure.TerminationPointIdentifiers;
 import org.opendaylight.topoprocessing.impl.structure.TopologyStore;
 import org.opendaylight.topoprocessing.impl.translator.TranslatorHelper;
 import org.opendaylight.topoprocessing.impl.util.InstanceIdentifiers;
 import org.opendaylight.topoprocessing.impl.util.TopologyQNames;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev150608.network.node.termination.point.SupportingTerminationPoint;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.node.NodeConnector;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.CorrelationItemEnum;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.I2rsModel;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.LeafPath;
@@ -45,7 +50,6 @@ import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
 import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
 import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
 import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.ListNodeBuilder;
-import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableLeafSetEntryNodeBuilder;
 import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableLeafSetNodeBuilder;
 import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableMapEntryNodeBuilder;
 import org.slf4j.Logger;
@@ -60,12 +64,13 @@ public class TerminationPointAggregator extends UnificationAggregator {
     private static final QName I2RS_TERMINATION_POINT_QNAME = org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang
             .ietf.network.topology.rev150608.network.node.TerminationPoint.QNAME;
     private Map<Integer, YangInstanceIdentifier> leafPaths;
-    private IdentifierGenerator idGenerator = new IdentifierGenerator();
-    private Map<YangInstanceIdentifier, List<TemporaryTerminationPoint>> tpStore = new HashMap<>();
+    private Map<YangInstanceIdentifier, NodeTerminationPoints> tpStore = new HashMap<>();
     private Class<? extends Model> model;
 
     private Map<String, Map<Integer, YangInstanceIdentifier>> targetFieldsPerTP = new HashMap<>();
     private boolean isAgregationInsideAggregatedNodes = false;
+    /** nodes aggregated inside aggregated nodes, these aren't kept in topology store */
+    private Map<YangInstanceIdentifier, UnderlayItem> aggregatedNodes = new HashMap<>();
 
     public TerminationPointAggregator(TopoStoreProvider topoStoreProvider, Class<? extends Model> model) {
         super(topoStoreProvider);
@@ -74,38 +79,181 @@ public class TerminationPointAggregator extends UnificationAggregator {
 
     private static class TemporaryTerminationPoint {
         private Map<Integer, Object> targetFieldsValues;
+        /** stable identity of the group, derived from its target field values */
+        private String identity;
         private String tpId;
-        private List<MapEntryNode> terminationPointEntries = new ArrayList<>();
+        private Map<NodeIdentifierWithPredicates, MapEntryNode> terminationPointEntries = new LinkedHashMap<>();
+        /** aggregated termination point built from the entries, null if not built yet */
+        private MapEntryNode aggregatedEntry;
 
-        public TemporaryTerminationPoint(Map<Integer, Object> targetFieldsValues, String tpId) {
+        public TemporaryTerminationPoint(Map<Integer, Object> targetFieldsValues, String identity, String tpId) {
             this.targetFieldsValues = targetFieldsValues;
+            this.identity = identity;
             this.tpId = tpId;
         }
 
-        public MapEntryNode getByIdentifier(YangInstanceIdentifier.NodeIdentifierWithPredicates nodeIdentifier) {
-            for (MapEntryNode tp : terminationPointEntries) {
-                if (nodeIdentifier.equals(tp.getIdentifier())) {
-                    return tp;
-                }
-            }
-            return null;
+        public MapEntryNode getByIdentifier(NodeIdentifierWithPredicates nodeIdentifier) {
+            return terminationPointEntries.get(nodeIdentifier);
+        }
+
+        public Collection<MapEntryNode> getEntries() {
+            return terminationPointEntries.values();
         }
 
-        public List<MapEntryNode> getEntries() {
-            return terminationPointEntries;
+        public void addEntry(MapEntryNode terminationPointEntry) {
+            terminationPointEntries.put(terminationPointEntry.getIdentifier(), terminationPointEntry);
         }
 
-        public void setEntries(List<MapEntryNode> terminationPointEntries) {
-            this.terminationPointEntries = terminationPointEntries;
+        public void removeEntry(NodeIdentifierWithPredicates nodeIdentifier) {
+            terminationPointEntries.remove(nodeIdentifier);
         }
 
         public Map<Integer, Object> getTargetFieldsValues() {
             return targetFieldsValues;
         }
 
+        public String getIdentity() {
+            return identity;
+        }
+
         public String getTpId() {
             return tpId;
         }
+
+        public MapEntryNode getAggregatedEntry() {
+            return aggregatedEntry;
+        }
+
+        public void setAggregatedEntry(MapEntryNode aggregatedEntry) {
+            this.aggregatedEntry = aggregatedEntry;
+        }
+    }
+
+    /**
+     * Aggregated termination points of one node, grouped by target field values. Every underlay termination
+     * point is indexed by its identifier, so that it is found without scanning the groups. Groups whose entries
+     * changed since the last aggregation are tracked, so that only their aggregated termination points are
+     * rebuilt.
+     */
+    private static class NodeTerminationPoints {
+        private final Map<Map<Integer, Object>, TemporaryTerminationPoint> groups = new LinkedHashMap<>();
+        private final Map<NodeIdentifierWithPredicates, TemporaryTerminationPoint> groupsByEntry = new HashMap<>();
+        private final Set<TemporaryTerminationPoint> changedGroups = new LinkedHashSet<>();
+        /** network-topology termination points of the node matched to inventory node-connectors */
+        private final NodeConnectorIndex nodeConnectorIndex = new NodeConnectorIndex();
+        /** identifiers of aggregated termination points, stable while their group exists */
+        private final TerminationPointIdentifiers tpIdentifiers = new TerminationPointIdentifiers();
+        /** aggregated termination points built by the last aggregation */
+        private MapNode aggregatedTerminationPoints;
+        private TerminationPointChanges lastChanges;
+
+        public Collection<TemporaryTerminationPoint> getGroups() {
+            return groups.values();
+        }
+
+        public TemporaryTerminationPoint getGroup(Map<Integer, Object> targetFieldsValues) {
+            return groups.get(targetFieldsValues);
+        }
+
+        public TemporaryTerminationPoint getGroupOf(NodeIdentifierWithPredicates nodeIdentifier) {
+            return groupsByEntry.get(nodeIdentifier);
+        }
+
+        public void addGroup(TemporaryTerminationPoint group) {
+            groups.put(group.getTargetFieldsValues(), group);
+        }
+
+        public void removeGroup(TemporaryTerminationPoint group) {
+            groups.remove(group.getTargetFieldsValues());
+            tpIdentifiers.release(group.getIdentity());
+        }
+
+        public void addEntry(TemporaryTerminationPoint group, MapEntryNode terminationPointEntry) {
+            group.addEntry(terminationPointEntry);
+            groupsByEntry.put(terminationPointEntry.getIdentifier(), group);
+            changedGroups.add(group);
+        }
+
+        public void removeEntry(NodeIdentifierWithPredicates nodeIdentifier) {
+            TemporaryTerminationPoint group = groupsByEntry.remove(nodeIdentifier);
+            if (group != null) {
+                group.removeEntry(nodeIdentifier);
+                changedGroups.add(group);
+            }
+        }
+
+        public Set<NodeIdentifierWithPredicates> getEntryIdentifiers() {
+            return groupsByEntry.keySet();
+        }
+
+        public void removeAllEntries() {
+            for (TemporaryTerminationPoint group : groups.values()) {
+                for (NodeIdentifierWithPredicates entryIdentifier : new ArrayList<>(group.terminationPointEntries
+                        .keySet())) {
+                    group.removeEntry(entryIdentifier);
+                }
+                changedGroups.add(group);
+            }
+            groupsByEntry.clear();
+        }
+
+        public void markChanged(NodeIdentifierWithPredicates nodeIdentifier) {
+            TemporaryTerminationPoint group = groupsByEntry.get(nodeIdentifier);
+            if (group != null) {
+                changedGroups.add(group);
+            }
+        }
+
+        /**
+         * @return groups changed since the last call, the set is cleared afterwards
+         */
+        public List<TemporaryTerminationPoint> pollChangedGroups() {
+            List<TemporaryTerminationPoint> polled = new ArrayList<>(changedGroups);
+            changedGroups.clear();
+            return polled;
+        }
+    }
+
+    /**
+     * Aggregated termination points added, updated and removed by the last change of an underlay node.
+     */
+    public static final class TerminationPointChanges {
+        private final Set<String> added = new LinkedHashSet<>();
+        private final Set<String> updated = new LinkedHashSet<>();
+        private final Set<String> removed = new LinkedHashSet<>();
+
+        /**
+         * @return ids of added aggregated termination points
+         */
+        public Set<String> getAdded() {
+            return Collections.unmodifiableSet(added);
+        }
+
+        /**
+         * @return ids of aggregated termination points with changed content
+         */
+        public Set<String> getUpdated() {
+            return Collections.unmodifiableSet(updated);
+        }
+
+        /**
+         * @return ids of removed aggregated termination points
+         */
+        public Set<String> getRemoved() {
+            return Collections.unmodifiableSet(removed);
+        }
+
+        /**
+         * @return true if no aggregated termination point changed
+         */
+        public boolean isEmpty() {
+            return added.isEmpty() && updated.isEmpty() && removed.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return "TerminationPointChanges [added=" + added + ", updated=" + updated + ", removed=" + removed + "]";
+        }
     }
 
     /**
@@ -120,7 +268,14 @@ public class TerminationPointAggregator extends UnificationAggregator {
     public void processCreatedChanges(YangInstanceIdentifier identifier, UnderlayItem createdEntry,
                                       final String topologyId) {
         LOG.trace("Processing createdChanges");
-        if (!isAgregationInsideAggregatedNodes) {
+        if (isAgregationInsideAggregatedNodes) {
+            if (aggregatedNodes.containsKey(identifier)) {
+                // aggregated node is created again on every change of its underlay nodes
+                processUpdatedChanges(identifier, createdEntry, topologyId);
+                return;
+            }
+            aggregatedNodes.put(identifier, createdEntry);
+        } else {
             // save underlayItem to local datastore
             getTopoStoreProvider().getTopologyStore(topologyId).getUnderlayItems().put(identifier, createdEntry);
         }
@@ -130,14 +285,12 @@ public class TerminationPointAggregator extends UnificationAggregator {
         if (tpMapNodeOpt.isPresent()) {
             MapNode tpMapNode = (MapNode) tpMapNodeOpt.get();
             // set TPMapNode to Items leafnode for further looking for changes
-            Map<Integer, NormalizedNode<?, ?>> terminationPointMapNode = new HashMap<>(1);
-            terminationPointMapNode.put(0, tpMapNode);
-            createdEntry.setLeafNodes(terminationPointMapNode);
+            setTerminationPointMap(createdEntry, tpMapNode);
             // aggregate Termination points to Temporary TP
-            List<TemporaryTerminationPoint> tmpTpList = addTerminationPoints(tpMapNode);
+            NodeTerminationPoints terminationPoints = addTerminationPoints(tpMapNode);
             // add Temporary TP to map
-            tpStore.put(identifier, tmpTpList);
-            createdEntry.setItem(setTpToNode(tmpTpList, newNode, topologyId, createdEntry.getItemId(), model));
+            tpStore.put(identifier, terminationPoints);
+            createdEntry.setItem(setTpToNode(terminationPoints, newNode, topologyId, createdEntry.getItemId()));
         }
         OverlayItem overlayItem = new OverlayItem(
                 Collections.singletonList(createdEntry), CorrelationItemEnum.TerminationPoint);
@@ -148,35 +301,77 @@ public class TerminationPointAggregator extends UnificationAggregator {
     @Override
     public void processUpdatedChanges(YangInstanceIdentifier identifier, UnderlayItem updatedEntry, String topologyId) {
         LOG.trace("Processing updatedChanges");
-        TopologyStore ts = getTopoStoreProvider().getTopologyStore(topologyId);
-        List<TemporaryTerminationPoint> nodeTps = tpStore.get(identifier);
+        // load underlay item by given key
+        UnderlayItem underlayItem;
+        if (isAgregationInsideAggregatedNodes) {
+            underlayItem = aggregatedNodes.get(identifier);
+        } else {
+            TopologyStore ts = getTopoStoreProvider().getTopologyStore(topologyId);
+            underlayItem = ts.getUnderlayItems().get(identifier);
+        }
+        if (underlayItem == null) {
+            LOG.debug("Updated node {} is not known yet, processing it as created", identifier);
+            processCreatedChanges(identifier, updatedEntry, topologyId);
+            return;
+        }
+        NodeTerminationPoints nodeTps = tpStore.get(identifier);
         if (nodeTps == null) {
-            nodeTps = new ArrayList<>();
+            nodeTps = new NodeTerminationPoints();
+            tpStore.put(identifier, nodeTps);
         }
-        // load underlay item by given key
-        UnderlayItem underlayItem = ts.getUnderlayItems().get(identifier);
         MapEntryNode newNode = (MapEntryNode) updatedEntry.getItem();
         Optional<NormalizedNode<?, ?>> updatedTpMapNode = findTerminationPoint(updatedEntry);
         if (!updatedTpMapNode.isPresent() || ((MapNode)updatedTpMapNode.get()).getValue().isEmpty()) {
-            nodeTps.clear();
+            nodeTps.removeAllEntries();
+            setTerminationPointMap(underlayItem, null);
         } else {
-            // if node contains Termination points
-            // and those TP have some changes inside
-            if (updatedTpMapNode.isPresent() && (underlayItem.getLeafNodes() == null
-                    || (underlayItem.getLeafNodes() != null
-                            && !underlayItem.getLeafNodes().equals(updatedTpMapNode.get())))) {
-                MapNode newTpMap = (MapNode) updatedTpMapNode.get();
-                Map<Integer, NormalizedNode<?, ?>> terminationPointMapNode = new HashMap<>(1);
-                terminationPointMapNode.put(0, newTpMap);
-                underlayItem.setLeafNodes(terminationPointMapNode);
+            MapNode newTpMap = (MapNode) updatedTpMapNode.get();
+            // only termination points which differ from the previous state of the node are processed
+            if (!newTpMap.equals(getTerminationPointMap(underlayItem))) {
+                setTerminationPointMap(underlayItem, newTpMap);
                 removeTerminationPoints(newTpMap, nodeTps);
                 updateTerminationPoints(newTpMap, nodeTps);
             }
         }
-        underlayItem.setItem(setTpToNode(nodeTps, newNode, topologyId, underlayItem.getItemId(), model));
+        MapEntryNode aggregatedNode = setTpToNode(nodeTps, newNode, topologyId, underlayItem.getItemId());
+        LOG.debug("Termination points of node {} changed: {}", identifier, nodeTps.lastChanges);
+        if (aggregatedNode.equals(underlayItem.getItem())) {
+            LOG.trace("Aggregated node {} is unchanged", identifier);
+            return;
+        }
+        underlayItem.setItem(aggregatedNode);
         manager.updateOverlayItem(underlayItem.getOverlayItem());
     }
 
+    @Override
+    public void processRemovedChanges(YangInstanceIdentifier identifier, String topologyId) {
+        tpStore.remove(identifier);
+        aggregatedNodes.remove(identifier);
+        super.processRemovedChanges(identifier, topologyId);
+    }
+
+    /**
+     * @param nodeIdentifier identifies underlay node
+     * @return aggregated termination points changed by the last change of the node, null if the node is not known
+     */
+    public TerminationPointChanges getTerminationPointChanges(YangInstanceIdentifier nodeIdentifier) {
+        NodeTerminationPoints nodeTps = tpStore.get(nodeIdentifier);
+        return nodeTps == null ? null : nodeTps.lastChanges;
+    }
+
+    private static MapNode getTerminationPointMap(UnderlayItem underlayItem) {
+        Map<Integer, NormalizedNode<?, ?>> leafNodes = underlayItem.getLeafNodes();
+        return leafNodes == null ? null : (MapNode) leafNodes.get(0);
+    }
+
+    private static void setTerminationPointMap(UnderlayItem underlayItem, MapNode tpMapNode) {
+        Map<Integer, NormalizedNode<?, ?>> terminationPointMapNode = new HashMap<>(1);
+        if (tpMapNode != null) {
+            terminationPointMapNode.put(0, tpMapNode);
+        }
+        underlayItem.setLeafNodes(terminationPointMapNode);
+    }
+
     private Optional<NormalizedNode<?, ?>> findTerminationPoint(UnderlayItem uItem) {
         Optional<NormalizedNode<?, ?>> tpMapNodeOpt = Optional.absent();
         if (model.equals(NetworkTopologyModel.class)) {
@@ -190,92 +385,45 @@ public class TerminationPointAggregator extends UnificationAggregator {
         return tpMapNodeOpt;
     }
 
-    private boolean mapContainsEntry(MapNode newMapNode, MapEntryNode oldEntry) {
-        for (MapEntryNode newTpEntry : newMapNode.getValue()) {
-            if (oldEntry.getIdentifier().equals(newTpEntry.getIdentifier())) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private List<TemporaryTerminationPoint> addTerminationPoints(MapNode tpMapNode) {
-        List<TemporaryTerminationPoint> terminationPointList = new ArrayList<>();
+    private NodeTerminationPoints addTerminationPoints(MapNode tpMapNode) {
+        NodeTerminationPoints terminationPoints = new NodeTerminationPoints();
         for (MapEntryNode tpMapEntry : tpMapNode.getValue()) {
-            Map<Integer, Object> targetFieldsValues = getTargetFieldsValues(tpMapEntry);
-            boolean isNew = true;
-            for (TemporaryTerminationPoint item : terminationPointList) {
-                boolean targetFieldsMatch = matchTargetFields(item, targetFieldsValues);
-                if (targetFieldsMatch) {
-                    item.getEntries().add(tpMapEntry);
-                    isNew = false;
-                    break;
-                }
-            }
-            if (isNew) {
-                TemporaryTerminationPoint tmpTp = new TemporaryTerminationPoint(targetFieldsValues,
-                        idGenerator.getNextIdentifier(CorrelationItemEnum.TerminationPoint));
-                tmpTp.getEntries().add(tpMapEntry);
-                terminationPointList.add(tmpTp);
-            }
+            addToGroup(getTargetFieldsValues(tpMapEntry), tpMapEntry, terminationPoints);
         }
-        return terminationPointList;
+        return terminationPoints;
     }
 
-    private void updateTerminationPoints(MapNode newTpMap, List<TemporaryTerminationPoint> tempTpList) {
-        boolean isNew;
+    private void updateTerminationPoints(MapNode newTpMap, NodeTerminationPoints terminationPoints) {
         for (MapEntryNode newTpEntry : newTpMap.getValue()) {
-            Map<Integer, Object> targetFieldsValues = getTargetFieldsValues(newTpEntry);
-            if (!targetFieldsValues.isEmpty()) {
-                isNew = true;
-                for (TemporaryTerminationPoint tmpTp : tempTpList) {
-                    MapEntryNode oldTpEntry = tmpTp.getByIdentifier(newTpEntry.getIdentifier());
-                    // check if node with same ID exists in TP-store
-                    if (null != oldTpEntry) {
-                        // if nodes are equal do nothing
-                        if (newTpEntry.equals(oldTpEntry)) {
-                            isNew = false;
-                        } else {
-                            // remove it from tmpTp and look if updated newTpEntry should be added to tmpTp
-                            tmpTp.getEntries().remove(oldTpEntry);
-                            if (matchTargetFields(tmpTp, targetFieldsValues)) {
-                                isNew = false;
-                                tmpTp.getEntries().add(newTpEntry);
-                            }
-                        }
-                    } else if (matchTargetFields(tmpTp, targetFieldsValues)) {
-                        isNew = false;
-                        tmpTp.getEntries().add(newTpEntry);
-                    }
-                }
-                if (isNew) {
-                    TemporaryTerminationPoint ttp = new TemporaryTerminationPoint(targetFieldsValues,
-                            idGenerator.getNextIdentifier(CorrelationItemEnum.TerminationPoint));
-                    List<MapEntryNode> terminationPointEntries = new ArrayList<>();
-                    terminationPointEntries.add(newTpEntry);
-                    ttp.setEntries(terminationPointEntries);
-                    tempTpList.add(ttp);
-                }
+            TemporaryTerminationPoint oldGroup = terminationPoints.getGroupOf(newTpEntry.getIdentifier());
+            // if nodes are equal do nothing
+            if (oldGroup != null && newTpEntry.equals(oldGroup.getByIdentifier(newTpEntry.getIdentifier()))) {
+                continue;
             }
+            // remove the old entry and look if updated newTpEntry should be added to some group
+            terminationPoints.removeEntry(newTpEntry.getIdentifier());
+            addToGroup(getTargetFieldsValues(newTpEntry), newTpEntry, terminationPoints);
         }
     }
 
-    private boolean matchTargetFields(TemporaryTerminationPoint tempTerminationPoint,
-            Map<Integer, Object> targetFieldsValues) {
-        boolean targetFieldsMatch = false;
-        if (targetFieldsValues.size() == tempTerminationPoint.getTargetFieldsValues().size()) {
-            targetFieldsMatch = true;
-            for (Entry<Integer, Object> targetFieldValueEntry : tempTerminationPoint.getTargetFieldsValues()
-                    .entrySet()) {
-                Object terminationPointToAddTargetFieldValue =
-                        targetFieldsValues.get(targetFieldValueEntry.getKey());
-                if (!targetFieldValueEntry.getValue().equals(terminationPointToAddTargetFieldValue)) {
-                    targetFieldsMatch = false;
-                    break;
-                }
-            }
+    /**
+     * Adds the termination point to the group of termination points with the same target field values.
+     * Termination points without any target field value are not aggregated.
+     */
+    private void addToGroup(Map<Integer, Object> targetFieldsValues, MapEntryNode tpMapEntry,
+            NodeTerminationPoints terminationPoints) {
+        if (targetFieldsValues.isEmpty()) {
+            LOG.trace("Termination point {} has no target field value", tpMapEntry.getIdentifier());
+            return;
         }
-        return targetFieldsMatch;
+        TemporaryTerminationPoint group = terminationPoints.getGroup(targetFieldsValues);
+        if (group == null) {
+            String identity = new TreeMap<>(targetFieldsValues).toString();
+            group = new TemporaryTerminationPoint(targetFieldsValues, identity,
+                    terminationPoints.tpIdentifiers.getIdentifier(identity));
+            terminationPoints.addGroup(group);
+        }
+        terminationPoints.addEntry(group, tpMapEntry);
     }
 
     private String getTerminationPointId(MapEntryNode terminationPoint) {
@@ -313,79 +461,104 @@ public class TerminationPointAggregator extends UnificationAggregator {
         return targetFieldsValues;
     }
 
-    private void removeTerminationPoints(MapNode newTpMap, List<TemporaryTerminationPoint> tempTpList) {
-        for (TemporaryTerminationPoint tempTp : tempTpList) {
-            Iterator<MapEntryNode> itr = tempTp.getEntries().iterator();
-            while(itr.hasNext()) {
-                MapEntryNode mapEN = itr.next();
-                if (!mapContainsEntry(newTpMap, mapEN)) {
-                    itr.remove();
-                }
+    private void removeTerminationPoints(MapNode newTpMap, NodeTerminationPoints terminationPoints) {
+        List<NodeIdentifierWithPredicates> removedEntries = new ArrayList<>();
+        for (NodeIdentifierWithPredicates entryIdentifier : terminationPoints.getEntryIdentifiers()) {
+            if (!newTpMap.getChild(entryIdentifier).isPresent()) {
+                removedEntries.add(entryIdentifier);
             }
         }
+        for (NodeIdentifierWithPredicates entryIdentifier : removedEntries) {
+            terminationPoints.removeEntry(entryIdentifier);
+        }
     }
 
-    private MapEntryNode setTpToNode(List<TemporaryTerminationPoint> tempTpList, NormalizedNode<?, ?> node,
-            String topologyId, String nodeId, Class<? extends Model> model) {
-        // create TP MapNode Builder
-        CollectionNodeBuilder<MapEntryNode, MapNode> tpBuilder = null;
-        if (model.equals(NetworkTopologyModel.class)) {
-            tpBuilder = ImmutableNodes.mapNodeBuilder(TerminationPoint.QNAME);
-            for (TemporaryTerminationPoint tmpTp : tempTpList) {
-                tpBuilder.addChild(createNetworkTopologyTpEntry(tmpTp, topologyId, nodeId));
+    /**
+     * Rebuilds aggregated termination points of changed groups and sets all aggregated termination points to
+     * the node. Groups left without entries are removed. Aggregated termination points of unchanged groups are
+     * reused, so that the node shares them with its previous version.
+     */
+    private MapEntryNode setTpToNode(NodeTerminationPoints terminationPoints, NormalizedNode<?, ?> node,
+            String topologyId, String nodeId) {
+        if (model.equals(OpendaylightInventoryModel.class)) {
+            // inventory termination points refer to network-topology termination points of the node
+            Optional<NormalizedNode<?, ?>> ntTpMapNodeOpt =
+                    NormalizedNodes.findNode(node, InstanceIdentifiers.NT_TP_IDENTIFIER);
+            Set<String> changedNodeConnectors = terminationPoints.nodeConnectorIndex.update(
+                    ntTpMapNodeOpt.isPresent() ? (MapNode) ntTpMapNodeOpt.get() : null);
+            for (String nodeConnectorId : changedNodeConnectors) {
+                terminationPoints.markChanged(new NodeIdentifierWithPredicates(NodeConnector.QNAME,
+                        TopologyQNames.NODE_CONNECTOR_ID_QNAME, nodeConnectorId));
             }
-        } else if (model.equals(I2rsModel.class)) {
-            tpBuilder = ImmutableNodes.mapNodeBuilder(I2RS_TERMINATION_POINT_QNAME);
-            for (TemporaryTerminationPoint tmpTp : tempTpList) {
-                tpBuilder.addChild(createI2rsTpEntry(tmpTp, topologyId, nodeId));
+        }
+        TerminationPointChanges changes = new TerminationPointChanges();
+        List<TemporaryTerminationPoint> changedGroups = terminationPoints.pollChangedGroups();
+        for (TemporaryTerminationPoint tmpTp : changedGroups) {
+            MapEntryNode previousEntry = tmpTp.getAggregatedEntry();
+            if (tmpTp.getEntries().isEmpty()) {
+                terminationPoints.removeGroup(tmpTp);
+                if (previousEntry != null) {
+                    changes.removed.add(tmpTp.getTpId());
+                }
+                continue;
             }
-        } else if (model.equals(OpendaylightInventoryModel.class)) {
-            tpBuilder = ImmutableNodes.mapNodeBuilder(TerminationPoint.QNAME);
-            for (TemporaryTerminationPoint tmpTp : tempTpList) {
-                tpBuilder.addChild(createInventoryTpEntry(tmpTp, topologyId, nodeId, node));
+            MapEntryNode entry = createTpEntry(tmpTp, topologyId, nodeId, terminationPoints.nodeConnectorIndex);
+            if (previousEntry == null) {
+                changes.added.add(tmpTp.getTpId());
+            } else if (previousEntry.equals(entry)) {
+                // keep the previous instance, so that it is recognized as unchanged by identity
+                entry = previousEntry;
+            } else {
+                changes.updated.add(tmpTp.getTpId());
             }
+            tmpTp.setAggregatedEntry(entry);
+        }
+        terminationPoints.lastChanges = changes;
+        if (!changes.isEmpty() || terminationPoints.aggregatedTerminationPoints == null) {
+            // create TP MapNode Builder
+            CollectionNodeBuilder<MapEntryNode, MapNode> tpBuilder = ImmutableNodes.mapNodeBuilder(
+                    model.equals(I2rsModel.class) ? I2RS_TERMINATION_POINT_QNAME : TerminationPoint.QNAME);
+            for (TemporaryTerminationPoint tmpTp : terminationPoints.getGroups()) {
+                tpBuilder.addChild(tmpTp.getAggregatedEntry());
+            }
+            terminationPoints.aggregatedTerminationPoints = tpBuilder.build();
         }
-        // set children (TPs)
         // create clone from old Node and set new TP MapNode to it
-        return ImmutableMapEntryNodeBuilder.create((MapEntryNode) node).withChild(tpBuilder.build()).build();
+        return ImmutableMapEntryNodeBuilder.create((MapEntryNode) node)
+                .withChild(terminationPoints.aggregatedTerminationPoints).build();
+    }
+
+    private MapEntryNode createTpEntry(TemporaryTerminationPoint tmpTp, String topologyId, String nodeId,
+            NodeConnectorIndex nodeConnectorIndex) {
+        if (model.equals(NetworkTopologyModel.class)) {
+            return createNetworkTopologyTpEntry(tmpTp, topologyId, nodeId);
+        } else if (model.equals(I2rsModel.class)) {
+            return createI2rsTpEntry(tmpTp, topologyId, nodeId);
+        } else if (model.equals(OpendaylightInventoryModel.class)) {
+            return createInventoryTpEntry(tmpTp, topologyId, nodeId, nodeConnectorIndex);
+        }
+        throw new IllegalStateException("Not supported model - " + model);
     }
 
     private MapEntryNode createInventoryTpEntry(TemporaryTerminationPoint tmpTp, String topologyId,
-            String nodeId, NormalizedNode<?, ?> node) {
+            String nodeId, NodeConnectorIndex nodeConnectorIndex) {
         ListNodeBuilder<String, LeafSetEntryNode<String>> leafListBuilder = ImmutableLeafSetNodeBuilder.<String>create()
                 .withNodeIdentifier(new YangInstanceIdentifier.NodeIdentifier(TopologyQNames.TP_REF));
-        Optional<NormalizedNode<?, ?>> tpMapNodeOpt =
-                NormalizedNodes.findNode(node,InstanceIdentifiers.NT_TP_IDENTIFIER);
         for (MapEntryNode mapEntryNode : tmpTp.getEntries()) {
             Optional<NormalizedNode<?, ?>> nodeConnectorIdOptional = NormalizedNodes
                     .findNode(mapEntryNode, InstanceIdentifiers.INVENTORY_NODE_ID_IDENTIFIER);
             String tpIdFromNt = null;
             if (nodeConnectorIdOptional.isPresent()) {
-                if (tpMapNodeOpt.isPresent()) {
-                    for (MapEntryNode mapEntryNodeNt : ((MapNode) tpMapNodeOpt.get()).getValue()) {
-                        Optional<DataContainerChild<? extends YangInstanceIdentifier.PathArgument, ?>> tpIdOpt =
-                                mapEntryNodeNt.getChild(InstanceIdentifiers.NT_TP_ID_IDENTIFIER.getLastPathArgument());
-                        if (tpIdOpt.isPresent()) {
-                            if (mapEntryNodeNt.getValue().toString()
-                                    .contains(nodeConnectorIdOptional.get().getValue().toString())) {
-                                tpIdFromNt = (String) tpIdOpt.get().getValue();
-                                break;
-                            }
-                        } else {
-                            LOG.debug("No Termination Point ID is present!");
-                        }
-                    }
-                } else {
-                    LOG.warn("No Termination Point MapNode is present!");
+                tpIdFromNt = nodeConnectorIndex.getTpId(nodeConnectorIdOptional.get().getValue().toString());
+                if (tpIdFromNt == null) {
+                    LOG.debug("No Termination Point matches Node Connector {}",
+                            nodeConnectorIdOptional.get().getValue());
                 }
             } else {
                 LOG.warn("No Node Connector ID is present!");
             }
-            String tpRefval = TranslatorHelper.createTpRefNT(topologyId, nodeId, tpIdFromNt);
-            LeafSetEntryNode<String> tpRef = ImmutableLeafSetEntryNodeBuilder.<String>create()
-                    .withNodeIdentifier(new YangInstanceIdentifier.NodeWithValue<String>(
-                            TopologyQNames.TP_REF, tpRefval)).withValue(tpRefval).build();
-            leafListBuilder.addChild(tpRef);
+            leafListBuilder.addChild(TranslatorHelper.createTpRefEntryNT(
+                    TranslatorHelper.createTpRefNT(topologyId, nodeId, tpIdFromNt)));
         }
         MapEntryNode tp = ImmutableNodes
                 .mapEntryBuilder(TerminationPoint.QNAME, TopologyQNames.NETWORK_TP_ID_QNAME, tmpTp.getTpId())
@@ -411,11 +584,8 @@ public class TerminationPointAggregator extends UnificationAggregator {
                 } else {
                     tpId = (String) leaf.get().getValue();
                 }
-                String value = TranslatorHelper.createTpRefNT(topologyId, nodeId, tpId);
-                LeafSetEntryNode<String> tpRef = ImmutableLeafSetEntryNodeBuilder.<String>create()
-                        .withNodeIdentifier(new YangInstanceIdentifier.NodeWithValue<String>(
-                                TopologyQNames.TP_REF, value)).withValue(value).build();
-                tpRefs.add(tpRef);
+                tpRefs.add(TranslatorHelper.createTpRefEntryNT(TranslatorHelper.createTpRefNT(topologyId, nodeId,
+                        tpId)));
             }
         }
         leafListBuilder.withValue(tpRefs);
@@ -457,6 +627,29 @@ public class TerminationPointAggregator extends UnificationAggregator {
         this.targetFieldsPerTP.putAll(targetFieldsPerTP);
     }
 
+    /**
+     * @param tpIds ids of termination points which are no longer aggregated
+     */
+    public void removeTargetFieldsPerTP(Collection<String> tpIds) {
+        for (String tpId : tpIds) {
+            targetFieldsPerTP.remove(tpId);
+        }
+    }
+
+    /**
+     * @return number of nodes whose termination points are aggregated
+     */
+    int getNodeCount() {
+        return tpStore.size();
+    }
+
+    /**
+     * @return number of termination points with target fields set by {@link #setTargetFieldsPerTP(Map)}
+     */
+    int getTargetFieldsPerTPCount() {
+        return targetFieldsPerTP.size();
+    }
+
     public void setAgregationInsideAggregatedNodes(boolean isAgregationInsideAggregatedNodes) {
         this.isAgregationInsideAggregatedNodes = isAgregationInsideAggregatedNodes;
     }
@@ -13,16 +13,18 @@ import com.google.common.base.Optional;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 
+import org.opendaylight.topoprocessing.api.filtration.Filtrator;
 import org.opendaylight.topoprocessing.api.structure.OverlayItem;
 import org.opendaylight.topoprocessing.api.structure.UnderlayItem;
 import org.opendaylight.topoprocessing.impl.operator.filtrator.AbstractFiltrator;
-import org.opendaylight.topoprocessing.impl.structure.IdentifierGenerator;
+import org.opendaylight.topoprocessing.impl.structure.TerminationPointIdentifiers;
 import org.opendaylight.topoprocessing.impl.translator.TranslatorHelper;
 import org.opendaylight.topoprocessing.impl.util.InstanceIdentifiers;
 import org.opendaylight.topoprocessing.impl.util.TopologyQNames;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.CorrelationItemEnum;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.FiltrationOnly;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.I2rsModel;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.Model;
@@ -30,17 +32,13 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.OpendaylightInventoryModel;
 import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.node.TerminationPoint;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
-import org.opendaylight.yangtools.yang.data.api.schema.DataContainerChild;
-import org.opendaylight.yangtools.yang.data.api.schema.LeafSetEntryNode;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
 import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
 import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
 import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
-import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.ListNodeBuilder;
-import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableLeafSetEntryNodeBuilder;
-import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableLeafSetNodeBuilder;
 import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableMapEntryNodeBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,7 +51,15 @@ public class TerminationPointFiltrator extends TopologyFiltrator {
     private static final Logger LOGGER = LoggerFactory.getLogger(TerminationPointFiltrator.class);
     private Optional<Map<Integer, YangInstanceIdentifier>> pathIdentifiers = Optional.absent();
     private Class<? extends Model> model;
-    private IdentifierGenerator idGenerator = new IdentifierGenerator();
+    /** item identifier -> verdicts of its termination points */
+    private final ConcurrentMap<YangInstanceIdentifier, FiltrationMemo<PathArgument>> tpFiltrationMemos =
+            new ConcurrentHashMap<>();
+    /** item identifier -> termination points of the item matched to inventory node-connectors */
+    private final ConcurrentMap<YangInstanceIdentifier, NodeConnectorIndex> nodeConnectorIndexes =
+            new ConcurrentHashMap<>();
+    /** item identifier -> identifiers of termination points created from inventory node-connectors */
+    private final ConcurrentMap<YangInstanceIdentifier, TerminationPointIdentifiers> tpIdentifiers =
+            new ConcurrentHashMap<>();
 
     public TerminationPointFiltrator(TopoStoreProvider topoStoreProvider, Class<? extends Model> model) {
         super(topoStoreProvider);
@@ -68,7 +74,8 @@ public class TerminationPointFiltrator extends TopologyFiltrator {
         UnderlayItem createdEntryCopy = new UnderlayItem(createdEntry.getItem(), createdEntry.getLeafNodes(),
                 createdEntry.getTopologyId(), createdEntry.getItemId(), createdEntry.getCorrelationItem());
         if (tpMapNodeOpt.isPresent()) {
-            node = filterTerminationPoints(node, (MapNode) tpMapNodeOpt.get(), topologyId, createdEntry.getItemId());
+            node = filterTerminationPoints(identifier, node, (MapNode) tpMapNodeOpt.get(), topologyId,
+                    createdEntry.getItemId());
             createdEntryCopy.setItem(node);
         }
         getTopoStoreProvider().getTopologyStore(topologyId).getUnderlayItems().put(identifier, createdEntryCopy);
@@ -87,7 +94,7 @@ public class TerminationPointFiltrator extends TopologyFiltrator {
         NormalizedNode<?, ?> newNode = updatedEntryCopy.getItem();
         Optional<NormalizedNode<?, ?>> tpMapNodeOpt = findTerminationPoint(updatedEntry);
         if (tpMapNodeOpt.isPresent()) {
-            newNode = filterTerminationPoints(newNode, (MapNode) tpMapNodeOpt.get(), topologyId,
+            newNode = filterTerminationPoints(identifier, newNode, (MapNode) tpMapNodeOpt.get(), topologyId,
                             updatedEntry.getItemId());
             updatedEntryCopy.setItem(newNode);
         }
@@ -100,6 +107,24 @@ public class TerminationPointFiltrator extends TopologyFiltrator {
         manager.addOverlayItem(overlayItem);
     }
 
+    /**
+     * Verdicts of termination points filtrated by the previous set of filtrators are dropped.
+     */
+    @Override
+    public void addFilter(Filtrator filter) {
+        super.addFilter(filter);
+        pathIdentifiers = Optional.absent();
+        tpFiltrationMemos.clear();
+    }
+
+    @Override
+    public void processRemovedChanges(YangInstanceIdentifier itemIdentifier, String topologyId) {
+        super.processRemovedChanges(itemIdentifier, topologyId);
+        tpFiltrationMemos.remove(itemIdentifier);
+        nodeConnectorIndexes.remove(itemIdentifier);
+        tpIdentifiers.remove(itemIdentifier);
+    }
+
     private Optional<NormalizedNode<?, ?>> findTerminationPoint(UnderlayItem uItem) {
         Optional<NormalizedNode<?, ?>> tpMapNodeOpt = Optional.absent();
         if (model.equals(NetworkTopologyModel.class)) {
@@ -113,8 +138,8 @@ public class TerminationPointFiltrator extends TopologyFiltrator {
         return tpMapNodeOpt;
     }
 
-    private NormalizedNode<?, ?> filterTerminationPoints(NormalizedNode<?, ?> node, MapNode tpMapNode,
-            String topologyId, String itemId) {
+    private NormalizedNode<?, ?> filterTerminationPoints(YangInstanceIdentifier itemIdentifier,
+            NormalizedNode<?, ?> node, MapNode tpMapNode, String topologyId, String itemId) {
         CollectionNodeBuilder<MapEntryNode, MapNode> tpBuilder = ImmutableNodes.mapNodeBuilder(
                 TerminationPoint.QNAME);
         // checks if pathIdentifiers are present if not initialize them from available filtrators
@@ -124,21 +149,45 @@ public class TerminationPointFiltrator extends TopologyFiltrator {
                 pathIdentifiers.get().put(i,((AbstractFiltrator)filtrators.get(i)).getPathIdentifier());
             }
         }
+        // verdicts of termination points no longer present are dropped with the previous memo
+        FiltrationMemo<PathArgument> previousMemo = tpFiltrationMemos.get(itemIdentifier);
+        FiltrationMemo<PathArgument> memo = new FiltrationMemo<>();
+        NodeConnectorIndex nodeConnectorIndex = null;
+        TerminationPointIdentifiers itemTpIdentifiers = null;
+        if (model.equals(OpendaylightInventoryModel.class)) {
+            nodeConnectorIndex = nodeConnectorIndexes.computeIfAbsent(itemIdentifier,
+                    identifier -> new NodeConnectorIndex());
+            itemTpIdentifiers = tpIdentifiers.computeIfAbsent(itemIdentifier,
+                    identifier -> new TerminationPointIdentifiers());
+            Optional<NormalizedNode<?, ?>> ntTpMapNodeOpt =
+                    NormalizedNodes.findNode(node, InstanceIdentifiers.NT_TP_IDENTIFIER);
+            nodeConnectorIndex.update(ntTpMapNodeOpt.isPresent() ? (MapNode) ntTpMapNodeOpt.get() : null);
+        }
         boolean passed;
         for (MapEntryNode tpMapEntryNode : tpMapNode.getValue()) {
-            passed = true;
+            Map<Integer, NormalizedNode<?, ?>> fields = new HashMap<>();
             for (Map.Entry<Integer, YangInstanceIdentifier> pathIdentifier: pathIdentifiers.get().entrySet()) {
                 Optional<NormalizedNode<?, ?>> leafNode =
                         NormalizedNodes.findNode(tpMapEntryNode, pathIdentifier.getValue());
-                if (! leafNode.isPresent() || ! passedFiltration(leafNode.get())) {
-                    passed = false;
+                if (! leafNode.isPresent()) {
+                    fields = null;
                     break;
                 }
+                fields.put(pathIdentifier.getKey(), leafNode.get());
+            }
+            if (fields == null) {
+                passed = false;
+            } else {
+                Boolean verdict = previousMemo == null ? null
+                        : previousMemo.getVerdict(tpMapEntryNode.getIdentifier(), fields);
+                passed = verdict != null ? verdict : passedFiltration(fields.values());
+                memo.remember(tpMapEntryNode.getIdentifier(), fields, passed);
             }
             //check if any Filtrator filtered out
             if (passed) {
                 if (model.equals(OpendaylightInventoryModel.class)) {
-                    MapEntryNode tp = createInventoryTpEntry(tpMapEntryNode, node, topologyId, itemId);
+                    MapEntryNode tp = createInventoryTpEntry(tpMapEntryNode, nodeConnectorIndex, itemTpIdentifiers,
+                            topologyId, itemId);
                     if (tp != null) {
                         tpBuilder.addChild(tp);
                     }
@@ -147,36 +196,25 @@ public class TerminationPointFiltrator extends TopologyFiltrator {
                 }
             }
         }
+        tpFiltrationMemos.put(itemIdentifier, memo);
+        if (itemTpIdentifiers != null) {
+            itemTpIdentifiers.releaseUnused();
+        }
         node = ImmutableMapEntryNodeBuilder.create((MapEntryNode) node).withChild(tpBuilder.build()).build();
         return node;
     }
 
-    private MapEntryNode createInventoryTpEntry(MapEntryNode tpMapEntryNode, NormalizedNode<?,?> node,
-            String topologyId, String itemId) {
-        String tpId = idGenerator.getNextIdentifier(CorrelationItemEnum.TerminationPoint);
+    /**
+     * Termination point created from the node-connector keeps its identifier as long as it refers to the same
+     * network-topology termination point.
+     */
+    private MapEntryNode createInventoryTpEntry(MapEntryNode tpMapEntryNode, NodeConnectorIndex nodeConnectorIndex,
+            TerminationPointIdentifiers itemTpIdentifiers, String topologyId, String itemId) {
         Optional<NormalizedNode<?, ?>> nodeConnectorIdOptional = NormalizedNodes
                 .findNode(tpMapEntryNode, InstanceIdentifiers.INVENTORY_NODE_ID_IDENTIFIER);
-        Optional<NormalizedNode<?, ?>> tpMapNodeOpt =
-                NormalizedNodes.findNode(node,InstanceIdentifiers.NT_TP_IDENTIFIER);
         String tpIdFromNt = null;
         if (nodeConnectorIdOptional.isPresent()) {
-            if (tpMapNodeOpt.isPresent()) {
-                for (MapEntryNode mapEntryNode : ((MapNode) tpMapNodeOpt.get()).getValue()) {
-                    Optional<DataContainerChild<? extends YangInstanceIdentifier.PathArgument, ?>> tpIdOpt =
-                            mapEntryNode.getChild(InstanceIdentifiers.NT_TP_ID_IDENTIFIER.getLastPathArgument());
-                    if (tpIdOpt.isPresent()) {
-                        if (mapEntryNode.getValue().toString()
-                                .contains(nodeConnectorIdOptional.get().getValue().toString())) {
-                            tpIdFromNt = (String) tpIdOpt.get().getValue();
-                            break;
-                        }
-                    } else {
-                        LOGGER.debug("No Termination Point ID is present!");
-                    }
-                }
-            } else {
-                LOGGER.warn("No Termination Point MapNode is present!");
-            }
+            tpIdFromNt = nodeConnectorIndex.getTpId(nodeConnectorIdOptional.get().getValue().toString());
         } else {
             LOGGER.warn("No Node Connector ID is present!");
         }
@@ -184,16 +222,10 @@ public class TerminationPointFiltrator extends TopologyFiltrator {
             return null;
         }
         String tpRefVal = TranslatorHelper.createTpRefNT(topologyId, itemId, tpIdFromNt);
-        LeafSetEntryNode<String> tpRef = ImmutableLeafSetEntryNodeBuilder.<String>create()
-                .withNodeIdentifier(new YangInstanceIdentifier.NodeWithValue<String>(
-                        TopologyQNames.TP_REF, tpRefVal)).withValue(tpRefVal).build();
-        ListNodeBuilder<String, LeafSetEntryNode<String>> leafListBuilder =
-                ImmutableLeafSetNodeBuilder.<String>create()
-                .withNodeIdentifier(new YangInstanceIdentifier.NodeIdentifier(TopologyQNames.TP_REF));
-        leafListBuilder.addChild(tpRef);
+        String tpId = itemTpIdentifiers.getIdentifier(tpRefVal);
         MapEntryNode tp = ImmutableNodes
                 .mapEntryBuilder(TerminationPoint.QNAME, TopologyQNames.NETWORK_TP_ID_QNAME, tpId)
-                .withChild(leafListBuilder.build()).build();
+                .withChild(TranslatorHelper.createTpRefLeafSetNT(tpRefVal)).build();
         return tp;
     }
 
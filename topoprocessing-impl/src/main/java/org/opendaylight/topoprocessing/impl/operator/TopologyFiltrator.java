@@ -15,7 +15,10 @@ import com.google.common.base.Preconditions;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
@@ -23,7 +26,10 @@ import org.opendaylight.topoprocessing.api.filtration.Filtrator;
 import org.opendaylight.topoprocessing.api.structure.OverlayItem;
 import org.opendaylight.topoprocessing.api.structure.UnderlayItem;
 import org.opendaylight.topoprocessing.impl.operator.filtrator.AbstractFiltrator;
+import org.opendaylight.topoprocessing.impl.operator.filtrator.AdaptiveFiltratorOrder;
+import org.opendaylight.topoprocessing.impl.operator.filtrator.FieldValue;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,6 +42,13 @@ public class TopologyFiltrator implements TopologyOperator {
     private static final Logger LOGGER = LoggerFactory.getLogger(TopologyFiltrator.class);
 
     List<Filtrator> filtrators = new ArrayList<>();
+    /**
+     * filtrators grouped by target field, built from {@link #filtrators} on first use; both the groups and
+     * the filtrators within a group are reordered at runtime to run cheap and selective ones first
+     */
+    private volatile PathGroups pathGroups;
+    /** item identifier -> verdict of the last filtration of the item */
+    final FiltrationMemo<YangInstanceIdentifier> filtrationMemo = new FiltrationMemo<>();
     ITopologyManager manager;
     TopoStoreProvider topoStoreProvider;
 
@@ -51,7 +64,7 @@ public class TopologyFiltrator implements TopologyOperator {
     @Override
     public void processCreatedChanges(YangInstanceIdentifier identifier, UnderlayItem createdItem, String topologyId) {
         LOGGER.trace("Processing createdChanges");
-        if (passedFiltration(createdItem.getLeafNodes().values())) {
+        if (passedFiltration(identifier, createdItem)) {
             topoStoreProvider.getTopologyStore(topologyId).getUnderlayItems().put(identifier, createdItem);
             OverlayItem overlayItem = wrapUnderlayItem(createdItem);
             manager.addOverlayItem(overlayItem);
@@ -61,10 +74,15 @@ public class TopologyFiltrator implements TopologyOperator {
     @Override
     public void processUpdatedChanges(YangInstanceIdentifier identifier, UnderlayItem updatedItem, String topologyId) {
         LOGGER.trace("Processing updatedChanges");
+        if (isStillFilteredOut(identifier, updatedItem)) {
+            LOGGER.trace("Item {} stays filtered out, nothing to propagate", identifier);
+            return;
+        }
+        boolean passed = passedFiltration(identifier, updatedItem);
         UnderlayItem oldItem = topoStoreProvider.getTopologyStore(topologyId).getUnderlayItems().get(identifier);
         if (null == oldItem) {
             // updatedItem is not present yet
-            if (passedFiltration(updatedItem.getLeafNodes().values())) {
+            if (passed) {
                 // passed through filtrator
                 topoStoreProvider.getTopologyStore(topologyId).getUnderlayItems().put(identifier, updatedItem);
                 manager.addOverlayItem(wrapUnderlayItem(updatedItem));
@@ -72,7 +90,7 @@ public class TopologyFiltrator implements TopologyOperator {
             // else do nothing
         } else {
             // updatedItem exists already
-            if (passedFiltration(updatedItem.getLeafNodes().values())) {
+            if (passed) {
                 // passed through filtrator
                 topoStoreProvider.getTopologyStore(topologyId).getUnderlayItems().put(identifier, updatedItem);
                 OverlayItem overlayItem = oldItem.getOverlayItem();
@@ -93,6 +111,7 @@ public class TopologyFiltrator implements TopologyOperator {
     @Override
     public void processRemovedChanges(YangInstanceIdentifier itemIdentifier, String topologyId) {
         LOGGER.trace("Processing removedChanges");
+        filtrationMemo.forget(itemIdentifier);
         UnderlayItem underlayItem = topoStoreProvider.getTopologyStore(topologyId).getUnderlayItems()
                 .remove(itemIdentifier);
         if (null != underlayItem) {
@@ -114,6 +133,34 @@ public class TopologyFiltrator implements TopologyOperator {
         Preconditions.checkArgument(filter instanceof AbstractFiltrator,"Filtrator must be subclass of "
                 + "AbstractFiltrator!");
         filtrators.add(filter);
+        pathGroups = null;
+        filtrationMemo.clear();
+    }
+
+    /**
+     * Filtrates item, reusing the verdict of its previous filtration if its target fields didn't change.
+     *
+     * @param identifier identifies item
+     * @param item item to be filtrated
+     * @return true if the item passed all filtrators
+     */
+    boolean passedFiltration(YangInstanceIdentifier identifier, UnderlayItem item) {
+        Boolean passed = filtrationMemo.getVerdict(identifier, item.getLeafNodes());
+        if (passed == null) {
+            passed = passedFiltration(item.getLeafNodes().values());
+        }
+        filtrationMemo.remember(identifier, item.getLeafNodes(), passed);
+        return passed;
+    }
+
+    /**
+     * @param identifier identifies item
+     * @param item updated item
+     * @return true if the item was filtered out with the same target fields, so that its update doesn't change
+     *         anything downstream
+     */
+    boolean isStillFilteredOut(YangInstanceIdentifier identifier, UnderlayItem item) {
+        return filtrationMemo.isStillRejected(identifier, item.getLeafNodes());
     }
 
     boolean passedFiltration(Collection<NormalizedNode<?, ?>> nodes) {
@@ -121,23 +168,34 @@ public class TopologyFiltrator implements TopologyOperator {
         if (nodes.size() != filtrators.size()) {
             return false;
         }
-        for (NormalizedNode<?, ?> node: nodes) {
-            if (! passedFiltration(node)) {
-                return false;
-            }
-        }
-        return true;
+        // groups run in adaptive order, so that a selective group decides before the others are evaluated
+        AdaptiveFiltratorOrder groupOrder = getPathGroups().order;
+        return groupOrder == null || !groupOrder.isFiltered(group -> ((PathGroup) group).isFiltered(nodes));
     }
 
     boolean passedFiltration(NormalizedNode<?, ?> node) {
-        for (Filtrator filtrator : filtrators) {
-            if (node.getIdentifier().equals(((AbstractFiltrator)filtrator).getPathIdentifier().getLastPathArgument())) {
-                if (filtrator.isFiltered(node)) {
-                    return false;
+        PathGroup group = getPathGroups().byPath.get(node.getIdentifier());
+        return group == null || !group.isFiltered(node);
+    }
+
+    private PathGroups getPathGroups() {
+        PathGroups groups = pathGroups;
+        if (groups == null) {
+            // groups keep the configured order until statistics are collected
+            Map<PathArgument, List<Filtrator>> filtratorsByPath = new LinkedHashMap<>();
+            for (Filtrator filtrator : filtrators) {
+                PathArgument target = ((AbstractFiltrator) filtrator).getPathIdentifier().getLastPathArgument();
+                List<Filtrator> group = filtratorsByPath.get(target);
+                if (group == null) {
+                    group = new ArrayList<>();
+                    filtratorsByPath.put(target, group);
                 }
+                group.add(filtrator);
             }
+            groups = new PathGroups(filtratorsByPath);
+            pathGroups = groups;
         }
-        return true;
+        return groups;
     }
 
     OverlayItem wrapUnderlayItem(UnderlayItem underlayItem) {
@@ -146,4 +204,52 @@ public class TopologyFiltrator implements TopologyOperator {
         underlayItem.setOverlayItem(overlayItem);
         return overlayItem;
     }
+
+    /**
+     * Filtrators on the same target field, evaluated as one filtrator on the node of that field.
+     */
+    private static final class PathGroup implements Filtrator {
+        private final PathArgument path;
+        private final AdaptiveFiltratorOrder filtrators;
+
+        PathGroup(PathArgument path, List<Filtrator> filtrators) {
+            this.path = path;
+            this.filtrators = AdaptiveFiltratorOrder.conjunction(filtrators);
+        }
+
+        @Override
+        public boolean isFiltered(NormalizedNode<?, ?> node) {
+            // value is extracted once and shared by all filtrators on the same path
+            return filtrators.isFiltered(new FieldValue(node));
+        }
+
+        /**
+         * @param nodes target fields of an item
+         * @return true if any of the target fields on this group's path is filtered out
+         */
+        boolean isFiltered(Collection<NormalizedNode<?, ?>> nodes) {
+            for (NormalizedNode<?, ?> node : nodes) {
+                if (path.equals(node.getIdentifier()) && isFiltered(node)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class PathGroups {
+        private final Map<PathArgument, PathGroup> byPath = new HashMap<>();
+        /** order of the groups, null if there are no filtrators */
+        private final AdaptiveFiltratorOrder order;
+
+        PathGroups(Map<PathArgument, List<Filtrator>> filtratorsByPath) {
+            List<Filtrator> groups = new ArrayList<>();
+            for (Map.Entry<PathArgument, List<Filtrator>> entry : filtratorsByPath.entrySet()) {
+                PathGroup group = new PathGroup(entry.getKey(), entry.getValue());
+                byPath.put(entry.getKey(), group);
+                groups.add(group);
+            }
+            order = groups.isEmpty() ? null : AdaptiveFiltratorOrder.conjunction(groups);
+        }
+    }
 }
@@ -7,15 +7,21 @@
  */
 package org.opendaylight.topoprocessing.impl.operator;
 
+import com.google.common.util.concurrent.Striped;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Deque;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
 import org.opendaylight.controller.md.sal.dom.api.DOMRpcAvailabilityListener;
 import org.opendaylight.controller.md.sal.dom.api.DOMRpcIdentifier;
 import org.opendaylight.controller.md.sal.dom.api.DOMRpcImplementationRegistration;
@@ -37,6 +43,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
+ * Keeps overlay item wrappers of one overlay topology and hands them to the {@link TopologyWriter}.
+ * Wrapper state is indexed by the stable identity (topology id, item id) of the wrapped underlay items
+ * and partitioned into lock stripes by hash of that identity, so events touching different wrappers
+ * are processed in parallel.
+ *
  * @author martin.uhlir
  *
  */
@@ -44,19 +55,32 @@ public class TopologyManager implements DOMRpcAvailabilityListener, ITopologyMan
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TopologyManager.class);
 
+    /** number of lock stripes the wrapper state is partitioned into */
+    private static final int WRAPPER_LOCK_STRIPES = 64;
+
     private IdentifierGenerator idGenerator = new IdentifierGenerator();
-    private Deque<OverlayItemWrapper> nodeWrappers = new ConcurrentLinkedDeque<>();
-    private Deque<OverlayItemWrapper> linkWrappers = new ConcurrentLinkedDeque<>();
+    private final Set<OverlayItemWrapper> nodeWrappers = ConcurrentHashMap.newKeySet();
+    private final Set<OverlayItemWrapper> linkWrappers = ConcurrentHashMap.newKeySet();
+    /** underlay item -> wrapper the underlay item belongs to */
+    private final ConcurrentMap<UnderlayItemKey, OverlayItemWrapper> nodeWrapperIndex = new ConcurrentHashMap<>();
+    private final ConcurrentMap<UnderlayItemKey, OverlayItemWrapper> linkWrapperIndex = new ConcurrentHashMap<>();
+    /** overlay item -> wrapper the overlay item is wrapped in */
+    private final ConcurrentMap<OverlayItem, OverlayItemWrapper> overlayItemIndex = new ConcurrentHashMap<>();
+    /** wrapper -> underlay items indexed under the wrapper (immutable snapshots) */
+    private final ConcurrentMap<OverlayItemWrapper, Set<UnderlayItemKey>> wrapperKeys = new ConcurrentHashMap<>();
+    private final Striped<Lock> wrapperLocks = Striped.lock(WRAPPER_LOCK_STRIPES);
     private TopologyWriter writer;
     private RpcServices rpcServices;
-    private Collection<DOMRpcIdentifier> availableRpcs;
+    private final ConcurrentMap<YangInstanceIdentifier, Set<DOMRpcIdentifier>> availableRpcs =
+            new ConcurrentHashMap<>();
     private YangInstanceIdentifier topologyIdentifier;
     private GlobalSchemaContextHolder schemaHolder;
     private Class<? extends Model> outputModel;
 
     private ListenerRegistration<TopologyManager> rpcListenerReg;
-    private final List<DOMRpcImplementationRegistration<OverlayRpcImplementation>> overlayRpcRegs =
-            Collections.synchronizedList(new ArrayList<DOMRpcImplementationRegistration<OverlayRpcImplementation>>());
+    /** republished RPC registrations: overlay item path -> underlay item path -> registration */
+    private final ConcurrentMap<YangInstanceIdentifier, Map<YangInstanceIdentifier, OverlayRpcRegistration>>
+            overlayRpcRegs = new ConcurrentHashMap<>();
 
     /**
      * @param rpcServices used for rpc republishing
@@ -69,7 +93,6 @@ public class TopologyManager implements DOMRpcAvailabilityListener, ITopologyMan
         this.rpcServices = rpcServices;
         this.schemaHolder = schemaHolder;
         this.topologyIdentifier = topologyIdentifier;
-        availableRpcs = new HashSet<>();
         rpcListenerReg = this.rpcServices.getRpcService().registerRpcListener(this);
         this.outputModel = outputModel;
     }
@@ -79,7 +102,7 @@ public class TopologyManager implements DOMRpcAvailabilityListener, ITopologyMan
      *
      * @return All overlayItem wrappers
      */
-    public Deque<OverlayItemWrapper> getNodeWrappers() {
+    public Collection<OverlayItemWrapper> getNodeWrappers() {
         return nodeWrappers;
     }
 
@@ -91,14 +114,12 @@ public class TopologyManager implements DOMRpcAvailabilityListener, ITopologyMan
      * @param newOverlayItem - OverlayItem which shall be put into wrapper
      */
     @Override
-    public synchronized void addOverlayItem(OverlayItem newOverlayItem) {
+    public void addOverlayItem(OverlayItem newOverlayItem) {
         if (newOverlayItem != null && !newOverlayItem.getUnderlayItems().isEmpty()) {
-            OverlayItemWrapper wrapper = findOrCreateWrapper(newOverlayItem);
-            writer.writeItem(wrapper, newOverlayItem.getCorrelationItem());
+            addToWrapper(newOverlayItem, true);
         }
     }
 
-
     /**
      * Adds new overlay item into existing wrapper or creates one.
      *
@@ -106,25 +127,7 @@ public class TopologyManager implements DOMRpcAvailabilityListener, ITopologyMan
      * @return existing or new wrapper
      */
     public OverlayItemWrapper findOrCreateWrapper(OverlayItem newOverlayItem) {
-        OverlayItemWrapper wrapper = findWrapperWithUnderlayItem(newOverlayItem.getUnderlayItems(),
-                        newOverlayItem.getCorrelationItem());
-        if (wrapper != null) {
-            wrapper.addOverlayItem(newOverlayItem);
-            registerOverlayRpcs(wrapper, newOverlayItem);
-            return wrapper;
-        } else {
-            // create new overlay item wrapper with unique id and add the overlay item into it
-            String wrapperId;
-            if (newOverlayItem.getCorrelationItem().equals(CorrelationItemEnum.TerminationPoint)) {
-                wrapperId = idGenerator.getNextIdentifier(CorrelationItemEnum.Node);
-            } else {
-                wrapperId = idGenerator.getNextIdentifier(newOverlayItem.getCorrelationItem());
-            }
-            OverlayItemWrapper newWrapper = new OverlayItemWrapper(wrapperId, newOverlayItem);
-            getWrappersList(newOverlayItem.getCorrelationItem()).add(newWrapper);
-            registerOverlayRpcs(newWrapper, newOverlayItem);
-            return newWrapper;
-        }
+        return addToWrapper(newOverlayItem, false);
     }
 
     public void writeWrapper(OverlayItemWrapper wrapper, CorrelationItemEnum correlationItem) {
@@ -135,11 +138,22 @@ public class TopologyManager implements DOMRpcAvailabilityListener, ITopologyMan
      * @param overlayItemIdentifier OverlayItem with new changes to update
      */
     @Override
-    public synchronized void updateOverlayItem(OverlayItem overlayItemIdentifier) {
-        OverlayItemWrapper wrapper = findWrapper(overlayItemIdentifier);
-        if (wrapper != null) {
-            writer.writeItem(wrapper, overlayItemIdentifier.getCorrelationItem());
-            registerOverlayRpcs(wrapper, overlayItemIdentifier);
+    public void updateOverlayItem(OverlayItem overlayItemIdentifier) {
+        if (findWrapper(overlayItemIdentifier) == null) {
+            return;
+        }
+        CorrelationItemEnum correlationItem = overlayItemIdentifier.getCorrelationItem();
+        List<Lock> locks = lockWrappers(overlayItemIdentifier);
+        try {
+            OverlayItemWrapper wrapper = mergeTouchedWrappers(overlayItemIdentifier);
+            if (wrapper != null && wrapper.getOverlayItems().contains(overlayItemIdentifier)) {
+                reindexWrapper(wrapper, correlationItem);
+                rekeyWrapper(wrapper, correlationItem);
+                writer.writeItem(wrapper, correlationItem);
+                registerOverlayRpcs(wrapper, correlationItem);
+            }
+        } finally {
+            unlock(locks);
         }
     }
 
@@ -147,17 +161,30 @@ public class TopologyManager implements DOMRpcAvailabilityListener, ITopologyMan
      * @param overlayItemIdentifier OverlayItem to remove
      */
     @Override
-    public synchronized void removeOverlayItem(OverlayItem overlayItemIdentifier) {
-        OverlayItemWrapper foundWrapper = findWrapper(overlayItemIdentifier);
-        if (foundWrapper != null) {
-            foundWrapper.getOverlayItems().remove(overlayItemIdentifier);
-            if (foundWrapper.getOverlayItems().size() == 0) {
-                // remove overlay item wrapper as well
-                writer.deleteItem(foundWrapper, overlayItemIdentifier.getCorrelationItem());
-                getWrappersList(overlayItemIdentifier.getCorrelationItem()).remove(foundWrapper);
-            } else {
-                writer.writeItem(foundWrapper, overlayItemIdentifier.getCorrelationItem());
+    public void removeOverlayItem(OverlayItem overlayItemIdentifier) {
+        if (findWrapper(overlayItemIdentifier) == null) {
+            return;
+        }
+        CorrelationItemEnum correlationItem = overlayItemIdentifier.getCorrelationItem();
+        List<Lock> locks = lockWrappers(overlayItemIdentifier);
+        try {
+            OverlayItemWrapper foundWrapper = overlayItemIndex.remove(overlayItemIdentifier);
+            if (foundWrapper != null) {
+                foundWrapper.getOverlayItems().remove(overlayItemIdentifier);
+                if (foundWrapper.getOverlayItems().size() == 0) {
+                    // remove overlay item wrapper as well
+                    writer.deleteItem(foundWrapper, correlationItem);
+                    dropWrapper(foundWrapper, correlationItem);
+                    unregisterOverlayRpcs(foundWrapper, correlationItem);
+                } else {
+                    reindexWrapper(foundWrapper, correlationItem);
+                    rekeyWrapper(foundWrapper, correlationItem);
+                    writer.writeItem(foundWrapper, correlationItem);
+                    registerOverlayRpcs(foundWrapper, correlationItem);
+                }
             }
+        } finally {
+            unlock(locks);
         }
     }
 
@@ -168,36 +195,208 @@ public class TopologyManager implements DOMRpcAvailabilityListener, ITopologyMan
      * @return wrapper or null if wrapper is not found
      */
     public OverlayItemWrapper findWrapper(OverlayItem overlayItemIdentifier) {
-        for (OverlayItemWrapper wrapper : getWrappersList(overlayItemIdentifier.getCorrelationItem())) {
-            if (wrapper.getOverlayItems().contains(overlayItemIdentifier)) {
-                return wrapper;
+        return overlayItemIndex.get(overlayItemIdentifier);
+    }
+
+    private OverlayItemWrapper addToWrapper(OverlayItem newOverlayItem, boolean write) {
+        CorrelationItemEnum correlationItem = newOverlayItem.getCorrelationItem();
+        List<Lock> locks = lockWrappers(newOverlayItem);
+        try {
+            OverlayItemWrapper wrapper = mergeTouchedWrappers(newOverlayItem);
+            if (wrapper == null) {
+                // create new overlay item wrapper with unique id and add the overlay item into it
+                String wrapperId = idGenerator.getIdentifier(getIdentifierItem(correlationItem),
+                        newOverlayItem.getUnderlayItems());
+                wrapper = new OverlayItemWrapper(wrapperId, newOverlayItem);
+                getWrappersList(correlationItem).add(wrapper);
+                overlayItemIndex.put(newOverlayItem, wrapper);
+                reindexWrapper(wrapper, correlationItem);
+            } else {
+                if (!wrapper.getOverlayItems().contains(newOverlayItem)) {
+                    wrapper.addOverlayItem(newOverlayItem);
+                }
+                overlayItemIndex.put(newOverlayItem, wrapper);
+                reindexWrapper(wrapper, correlationItem);
+                rekeyWrapper(wrapper, correlationItem);
+            }
+            registerOverlayRpcs(wrapper, correlationItem);
+            if (write) {
+                writer.writeItem(wrapper, correlationItem);
             }
+            return wrapper;
+        } finally {
+            unlock(locks);
         }
-        return null;
     }
 
     /**
-     * Tries to find wrapper containing AT LEAST ONE UnderlayItem from collection.
+     * Locks stripes of all underlay items of the overlay item together with stripes of all underlay items
+     * indexed by the wrappers the overlay item touches. Every change of a wrapper is made while holding
+     * stripes of all its underlay items, so events on different wrappers run in parallel while events on the
+     * same wrapper are serialized. Stripes are always acquired in ascending order; when a touched wrapper
+     * acquired new underlay items in the meantime, locking is retried with the extended set.
      *
-     * @param underlayItems
-     * @return wrapper or null if wrapper is not found
+     * @param overlayItem overlay item being processed
+     * @return held locks
      */
-    private OverlayItemWrapper findWrapperWithUnderlayItem(Collection<UnderlayItem> underlayItems,
-                    CorrelationItemEnum correlationItem) {
-        for (UnderlayItem underlayItem : underlayItems) {
-            for (OverlayItemWrapper wrapper : getWrappersList(correlationItem)) {
-                for (OverlayItem overlayItem : wrapper.getOverlayItems()) {
-                    for (UnderlayItem underlayItemFromWrapper : overlayItem.getUnderlayItems()) {
-                        if (underlayItemFromWrapper.getItemId().equals(underlayItem.getItemId())
-                                        && underlayItemFromWrapper.getTopologyId()
-                                                .equals(underlayItem.getTopologyId())) {
-                            return wrapper;
-                        }
-                    }
+    private List<Lock> lockWrappers(OverlayItem overlayItem) {
+        Set<UnderlayItemKey> lockedKeys = collectUnderlayKeys(overlayItem);
+        while (true) {
+            List<Lock> locks = new ArrayList<>();
+            for (Lock lock : wrapperLocks.bulkGet(lockedKeys)) {
+                lock.lock();
+                locks.add(lock);
+            }
+            Set<UnderlayItemKey> requiredKeys = collectUnderlayKeys(overlayItem);
+            for (OverlayItemWrapper wrapper : findTouchedWrappers(overlayItem)) {
+                requiredKeys.addAll(wrapperKeys.getOrDefault(wrapper, Collections.<UnderlayItemKey>emptySet()));
+            }
+            if (lockedKeys.containsAll(requiredKeys)) {
+                return locks;
+            }
+            unlock(locks);
+            lockedKeys.addAll(requiredKeys);
+        }
+    }
+
+    private static void unlock(List<Lock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+    }
+
+    /**
+     * Finds wrappers the overlay item touches - the wrapper already containing it and wrappers containing
+     * AT LEAST ONE of its UnderlayItems. Must be called while holding the item's stripes.
+     *
+     * @param overlayItem overlay item
+     * @return touched wrappers, the wrapper containing the overlay item (if any) comes first
+     */
+    private Set<OverlayItemWrapper> findTouchedWrappers(OverlayItem overlayItem) {
+        Map<UnderlayItemKey, OverlayItemWrapper> wrapperIndex = getWrapperIndex(overlayItem.getCorrelationItem());
+        Set<OverlayItemWrapper> touchedWrappers = new LinkedHashSet<>();
+        OverlayItemWrapper ownWrapper = overlayItemIndex.get(overlayItem);
+        if (ownWrapper != null) {
+            touchedWrappers.add(ownWrapper);
+        }
+        for (UnderlayItem underlayItem : overlayItem.getUnderlayItems()) {
+            OverlayItemWrapper wrapper = wrapperIndex.get(new UnderlayItemKey(underlayItem));
+            if (wrapper != null) {
+                touchedWrappers.add(wrapper);
+            }
+        }
+        return touchedWrappers;
+    }
+
+    /**
+     * When the overlay item touches more wrappers (its underlay items are spread over wrappers living in
+     * different stripes), the wrappers are merged into the first one and the others are deleted.
+     *
+     * @param overlayItem overlay item being processed
+     * @return the surviving wrapper or null if the overlay item touches no wrapper
+     */
+    private OverlayItemWrapper mergeTouchedWrappers(OverlayItem overlayItem) {
+        CorrelationItemEnum correlationItem = overlayItem.getCorrelationItem();
+        Iterator<OverlayItemWrapper> touchedWrappers = findTouchedWrappers(overlayItem).iterator();
+        if (!touchedWrappers.hasNext()) {
+            return null;
+        }
+        OverlayItemWrapper targetWrapper = touchedWrappers.next();
+        while (touchedWrappers.hasNext()) {
+            OverlayItemWrapper mergedWrapper = touchedWrappers.next();
+            LOGGER.debug("Merging wrapper {} into wrapper {}", mergedWrapper.getId(), targetWrapper.getId());
+            for (OverlayItem mergedItem : mergedWrapper.getOverlayItems()) {
+                targetWrapper.addOverlayItem(mergedItem);
+                overlayItemIndex.put(mergedItem, targetWrapper);
+            }
+            writer.deleteItem(mergedWrapper, correlationItem);
+            dropWrapper(mergedWrapper, correlationItem);
+            unregisterOverlayRpcs(mergedWrapper, correlationItem);
+        }
+        return targetWrapper;
+    }
+
+    /**
+     * Re-indexes underlay items of the wrapper after its overlay items changed.
+     * Must be called while holding stripes of the wrapper.
+     */
+    private void reindexWrapper(OverlayItemWrapper wrapper, CorrelationItemEnum correlationItem) {
+        Map<UnderlayItemKey, OverlayItemWrapper> wrapperIndex = getWrapperIndex(correlationItem);
+        Set<UnderlayItemKey> newKeys = new HashSet<>();
+        for (OverlayItem overlayItem : wrapper.getOverlayItems()) {
+            newKeys.addAll(collectUnderlayKeys(overlayItem));
+        }
+        Set<UnderlayItemKey> oldKeys = wrapperKeys.put(wrapper, Collections.unmodifiableSet(newKeys));
+        if (oldKeys != null) {
+            for (UnderlayItemKey oldKey : oldKeys) {
+                if (!newKeys.contains(oldKey)) {
+                    wrapperIndex.remove(oldKey, wrapper);
                 }
             }
         }
-        return null;
+        for (UnderlayItemKey newKey : newKeys) {
+            wrapperIndex.put(newKey, wrapper);
+        }
+    }
+
+    /**
+     * Re-derives identifier of the wrapper after its underlay items changed, so that content-derived identifiers
+     * depend only on the current underlay items and not on the order they arrived in. Wrapper written under
+     * its previous identifier is deleted, the caller writes it under the new one.
+     * Must be called while holding stripes of the wrapper.
+     */
+    private void rekeyWrapper(OverlayItemWrapper wrapper, CorrelationItemEnum correlationItem) {
+        List<UnderlayItem> underlayItems = new ArrayList<>();
+        for (OverlayItem overlayItem : wrapper.getOverlayItems()) {
+            underlayItems.addAll(overlayItem.getUnderlayItems());
+        }
+        String wrapperId = idGenerator.reissueIdentifier(wrapper.getId(), getIdentifierItem(correlationItem),
+                underlayItems);
+        if (!wrapperId.equals(wrapper.getId())) {
+            LOGGER.debug("Re-keying wrapper {} to {}", wrapper.getId(), wrapperId);
+            writer.deleteItem(wrapper, correlationItem);
+            unregisterOverlayRpcs(wrapper, correlationItem);
+            wrapper.setId(wrapperId);
+        }
+    }
+
+    /**
+     * Overlay termination points are wrapped into overlay nodes, so their wrappers get node identifiers.
+     */
+    private static CorrelationItemEnum getIdentifierItem(CorrelationItemEnum correlationItem) {
+        return CorrelationItemEnum.TerminationPoint.equals(correlationItem) ? CorrelationItemEnum.Node
+                : correlationItem;
+    }
+
+    /**
+     * Removes the wrapper and its underlay items from indexes.
+     * Must be called while holding stripes of the wrapper.
+     */
+    private void dropWrapper(OverlayItemWrapper wrapper, CorrelationItemEnum correlationItem) {
+        Map<UnderlayItemKey, OverlayItemWrapper> wrapperIndex = getWrapperIndex(correlationItem);
+        Set<UnderlayItemKey> oldKeys = wrapperKeys.remove(wrapper);
+        if (oldKeys != null) {
+            for (UnderlayItemKey oldKey : oldKeys) {
+                wrapperIndex.remove(oldKey, wrapper);
+            }
+        }
+        getWrappersList(correlationItem).remove(wrapper);
+        idGenerator.releaseIdentifier(wrapper.getId());
+    }
+
+    private static Set<UnderlayItemKey> collectUnderlayKeys(OverlayItem overlayItem) {
+        Set<UnderlayItemKey> keys = new LinkedHashSet<>();
+        for (UnderlayItem underlayItem : overlayItem.getUnderlayItems()) {
+            keys.add(new UnderlayItemKey(underlayItem));
+        }
+        return keys;
+    }
+
+    /**
+     * @param idGenerator generates identifiers of newly created wrappers
+     */
+    public void setIdentifierGenerator(IdentifierGenerator idGenerator) {
+        this.idGenerator = idGenerator;
     }
 
     /**
@@ -209,58 +408,119 @@ public class TopologyManager implements DOMRpcAvailabilityListener, ITopologyMan
 
     @Override
     public void onRpcAvailable(Collection<DOMRpcIdentifier> rpcs) {
-        availableRpcs.addAll(rpcs);
+        for (DOMRpcIdentifier rpc : rpcs) {
+            availableRpcs.computeIfAbsent(rpc.getContextReference(),
+                    contextReference -> ConcurrentHashMap.<DOMRpcIdentifier>newKeySet()).add(rpc);
+        }
     }
 
     @Override
     public void onRpcUnavailable(Collection<DOMRpcIdentifier> rpcs) {
-        availableRpcs.removeAll(rpcs);
+        for (DOMRpcIdentifier rpc : rpcs) {
+            availableRpcs.computeIfPresent(rpc.getContextReference(), (contextReference, contextRpcs) -> {
+                contextRpcs.remove(rpc);
+                return contextRpcs.isEmpty() ? null : contextRpcs;
+            });
+        }
     }
 
     /**
-     * Gathers RPCs for all {@link UnderlayItem}s present in the {@link OverlayItem} and registers them under
-     * {@link OverlayItemWrapper} Id.
+     * Gathers RPCs for all {@link UnderlayItem}s present in the {@link OverlayItemWrapper} and registers them under
+     * {@link OverlayItemWrapper} Id. Registrations are kept per underlay item, so only RPCs of underlay items
+     * whose RPC set changed are re-registered, and registrations of underlay items which no longer support
+     * the wrapper are closed.
      *
      * @param wrapper wraps LogicalNode and contains id for republished rpc
-     * @param overlayItem Which contains UnderlayItems with RPCs
+     * @param correlationItem type of the wrapped items
      */
-    private void registerOverlayRpcs(OverlayItemWrapper wrapper, OverlayItem overlayItem) {
+    private void registerOverlayRpcs(OverlayItemWrapper wrapper, CorrelationItemEnum correlationItem) {
         LOGGER.trace("Registering overlay RPCs");
-        QName itemQName = TopologyQNames.buildItemQName(overlayItem.getCorrelationItem(), outputModel);
-        QName itemIdQName = TopologyQNames.buildItemIdQName(overlayItem.getCorrelationItem(), outputModel);
-        YangInstanceIdentifier contextIdentifier = YangInstanceIdentifier.builder(topologyIdentifier)
-                .node(itemQName)
-                .nodeWithKey(itemQName, itemIdQName, wrapper.getId()).build();
-        YangInstanceIdentifier nodeEntryIdentifier;
-        for (UnderlayItem item : overlayItem.getUnderlayItems()) {
-            List<DOMRpcIdentifier> underlayRpcs = new ArrayList<>();
-            nodeEntryIdentifier = YangInstanceIdentifier.builder(topologyIdentifier)
-                    .node(itemQName)
-                    .nodeWithKey(itemQName, itemIdQName, item.getItemId()).build();
-            for (Iterator<DOMRpcIdentifier> iterator = availableRpcs.iterator(); iterator.hasNext();) {
-                DOMRpcIdentifier rpcIdentifier = iterator.next();
-                if (rpcIdentifier.getContextReference().equals(nodeEntryIdentifier)) {
-                    underlayRpcs.add(rpcIdentifier);
+        QName itemQName = TopologyQNames.buildItemQName(correlationItem, outputModel);
+        QName itemIdQName = TopologyQNames.buildItemIdQName(correlationItem, outputModel);
+        YangInstanceIdentifier contextIdentifier = buildItemIdentifier(itemQName, itemIdQName, wrapper.getId());
+        Map<YangInstanceIdentifier, OverlayRpcRegistration> wrapperRegs = overlayRpcRegs.get(contextIdentifier);
+        Set<YangInstanceIdentifier> supportingItems = new HashSet<>();
+        for (OverlayItem overlayItem : wrapper.getOverlayItems()) {
+            for (UnderlayItem item : overlayItem.getUnderlayItems()) {
+                YangInstanceIdentifier nodeEntryIdentifier =
+                        buildItemIdentifier(itemQName, itemIdQName, item.getItemId());
+                if (!supportingItems.add(nodeEntryIdentifier)) {
+                    continue;
+                }
+                Set<DOMRpcIdentifier> overlayRpcIdentifiers = new HashSet<>();
+                Set<DOMRpcIdentifier> underlayRpcs = availableRpcs.get(nodeEntryIdentifier);
+                if (underlayRpcs != null) {
+                    for (DOMRpcIdentifier underlayRpcIdentifier : underlayRpcs) {
+                        overlayRpcIdentifiers.add(
+                                DOMRpcIdentifier.create(underlayRpcIdentifier.getType(), contextIdentifier));
+                    }
+                }
+                OverlayRpcRegistration registration =
+                        wrapperRegs == null ? null : wrapperRegs.get(nodeEntryIdentifier);
+                if (registration != null) {
+                    if (registration.getRpcIdentifiers().equals(overlayRpcIdentifiers)) {
+                        // already registered with the same set of RPCs
+                        continue;
+                    }
+                    wrapperRegs.remove(nodeEntryIdentifier).close();
+                }
+                if (!overlayRpcIdentifiers.isEmpty()) {
+                    OverlayRpcImplementation overlayImplementation =
+                            new OverlayRpcImplementation(rpcServices.getRpcService(), schemaHolder.getSchemaContext(),
+                                    nodeEntryIdentifier);
+                    if (wrapperRegs == null) {
+                        wrapperRegs = new ConcurrentHashMap<>();
+                        overlayRpcRegs.put(contextIdentifier, wrapperRegs);
+                    }
+                    wrapperRegs.put(nodeEntryIdentifier, new OverlayRpcRegistration(overlayRpcIdentifiers,
+                            rpcServices.getRpcProviderService().registerRpcImplementation(
+                                    overlayImplementation, overlayRpcIdentifiers)));
                 }
             }
-            OverlayRpcImplementation overlayImplementation =
-                    new OverlayRpcImplementation(rpcServices.getRpcService(), schemaHolder.getSchemaContext(),
-                            nodeEntryIdentifier);
-            Set<DOMRpcIdentifier> overlayRpcIdentifiers = new HashSet<>();
-            for (DOMRpcIdentifier underlayRpcIdentifier : underlayRpcs) {
-                overlayRpcIdentifiers.add(DOMRpcIdentifier.create(underlayRpcIdentifier.getType(), contextIdentifier));
+        }
+        if (wrapperRegs != null) {
+            // close registrations of underlay items which are not part of the wrapper anymore
+            for (Iterator<Entry<YangInstanceIdentifier, OverlayRpcRegistration>> iterator =
+                    wrapperRegs.entrySet().iterator(); iterator.hasNext();) {
+                Entry<YangInstanceIdentifier, OverlayRpcRegistration> regEntry = iterator.next();
+                if (!supportingItems.contains(regEntry.getKey())) {
+                    regEntry.getValue().close();
+                    iterator.remove();
+                }
             }
-            if (!overlayRpcIdentifiers.isEmpty()) {
-                final DOMRpcImplementationRegistration<OverlayRpcImplementation> reg =
-                        rpcServices.getRpcProviderService().registerRpcImplementation(
-                                overlayImplementation, overlayRpcIdentifiers);
-                overlayRpcRegs.add(reg);
+            if (wrapperRegs.isEmpty()) {
+                overlayRpcRegs.remove(contextIdentifier);
             }
         }
     }
 
-    private Deque<OverlayItemWrapper> getWrappersList(CorrelationItemEnum correlationItem) {
-        Deque<OverlayItemWrapper> resultList = null;
+    /**
+     * Closes all RPC registrations republished under the {@link OverlayItemWrapper} Id.
+     *
+     * @param wrapper removed wrapper
+     * @param correlationItem type of the wrapped items
+     */
+    private void unregisterOverlayRpcs(OverlayItemWrapper wrapper, CorrelationItemEnum correlationItem) {
+        QName itemQName = TopologyQNames.buildItemQName(correlationItem, outputModel);
+        QName itemIdQName = TopologyQNames.buildItemIdQName(correlationItem, outputModel);
+        Map<YangInstanceIdentifier, OverlayRpcRegistration> wrapperRegs =
+                overlayRpcRegs.remove(buildItemIdentifier(itemQName, itemIdQName, wrapper.getId()));
+        if (wrapperRegs != null) {
+            LOGGER.trace("Closing overlay RPCs of wrapper {}", wrapper.getId());
+            for (OverlayRpcRegistration registration : wrapperRegs.values()) {
+                registration.close();
+            }
+        }
+    }
+
+    private YangInstanceIdentifier buildItemIdentifier(QName itemQName, QName itemIdQName, String itemId) {
+        return YangInstanceIdentifier.builder(topologyIdentifier)
+                .node(itemQName)
+                .nodeWithKey(itemQName, itemIdQName, itemId).build();
+    }
+
+    private Set<OverlayItemWrapper> getWrappersList(CorrelationItemEnum correlationItem) {
+        Set<OverlayItemWrapper> resultList = null;
         switch (correlationItem) {
             case Node:
             case TerminationPoint:
@@ -275,10 +535,14 @@ public class TopologyManager implements DOMRpcAvailabilityListener, ITopologyMan
         return resultList;
     }
 
+    private Map<UnderlayItemKey, OverlayItemWrapper> getWrapperIndex(CorrelationItemEnum correlationItem) {
+        return CorrelationItemEnum.Link.equals(correlationItem) ? linkWrapperIndex : nodeWrapperIndex;
+    }
+
     @Override
     public void close() {
-        overlayRpcRegs.forEach(reg -> {
-            reg.close();
+        overlayRpcRegs.values().forEach(wrapperRegs -> {
+            wrapperRegs.values().forEach(OverlayRpcRegistration::close);
         });
         overlayRpcRegs.clear();
 
@@ -287,4 +551,58 @@ public class TopologyManager implements DOMRpcAvailabilityListener, ITopologyMan
             rpcListenerReg = null;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Stable identity of an underlay item - its topology and item id.
+     */
+    private static final class UnderlayItemKey {
+        private final String topologyId;
+        private final String itemId;
+
+        UnderlayItemKey(UnderlayItem underlayItem) {
+            this.topologyId = underlayItem.getTopologyId();
+            this.itemId = underlayItem.getItemId();
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(topologyId, itemId);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof UnderlayItemKey)) {
+                return false;
+            }
+            UnderlayItemKey other = (UnderlayItemKey) obj;
+            return Objects.equals(topologyId, other.topologyId) && Objects.equals(itemId, other.itemId);
+        }
+    }
+
+    /**
+     * RPCs of one underlay item republished under an overlay item.
+     */
+    private static final class OverlayRpcRegistration {
+        private final Set<DOMRpcIdentifier> rpcIdentifiers;
+        private final DOMRpcImplementationRegistration<OverlayRpcImplementation> registration;
+
+        OverlayRpcRegistration(Set<DOMRpcIdentifier> rpcIdentifiers,
+                DOMRpcImplementationRegistration<OverlayRpcImplementation> registration) {
+            this.rpcIdentifiers = rpcIdentifiers;
+            this.registration = registration;
+        }
+
+        Set<DOMRpcIdentifier> getRpcIdentifiers() {
+            return rpcIdentifiers;
+        }
+
+        void close() {
+            if (registration != null) {
+                registration.close();
+            }
+        }
+    }
+}
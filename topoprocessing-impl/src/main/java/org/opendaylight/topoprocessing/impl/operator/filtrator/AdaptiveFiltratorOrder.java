@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.topoprocessing.impl.operator.filtrator;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Predicate;
+
+import org.opendaylight.topoprocessing.api.filtration.Filtrator;
+
+/**
+ * Evaluates filtrators, usually operating on the same target field, until one of them decides the result, either as
+ * conjunction (item is filtered out by the first filtrator filtering it out) or as disjunction (item passes
+ * with the first filtrator it passes). The evaluation order adapts at runtime: every filtrator's cost and rate
+ * of deciding verdicts is measured and every {@value #REORDER_INTERVAL} evaluations filtrators are reordered
+ * by expected cost per decided verdict, so that cheap and selective filtrators run first. Statistics are
+ * halved on every reordering, so that the order follows changes of the data. Filtrators examining different
+ * values can be ordered too, with their verdicts supplied by the caller (see {@link #isFiltered(Predicate)}).
+ *
+ * <p>Evaluation is thread-safe, statistics of concurrent evaluations are approximate.
+ */
+public final class AdaptiveFiltratorOrder {
+
+    public static final int REORDER_INTERVAL = 1024;
+    /** cost of every {@value #COST_SAMPLING_INTERVAL}-th evaluation is measured */
+    static final int COST_SAMPLING_INTERVAL = 16;
+
+    private final List<Filtrator> filtrators;
+    /** verdict of {@link Filtrator#isFiltered} which decides the result */
+    private final boolean decidingVerdict;
+    private final Ticker ticker;
+    /** per filtrator: evaluations, decided verdicts, sampled evaluations, sampled nanoseconds */
+    private final AtomicLongArray evaluations;
+    private final AtomicLongArray decided;
+    private final AtomicLongArray sampled;
+    private final AtomicLongArray sampledNanos;
+    private final AtomicLong evaluationCount = new AtomicLong();
+    /** indexes of filtrators in evaluation order */
+    private volatile int[] order;
+
+    private AdaptiveFiltratorOrder(List<Filtrator> filtrators, boolean decidingVerdict, Ticker ticker) {
+        Preconditions.checkArgument(!filtrators.isEmpty(), "At least one filtrator is needed");
+        this.filtrators = ImmutableList.copyOf(filtrators);
+        this.decidingVerdict = decidingVerdict;
+        this.ticker = Preconditions.checkNotNull(ticker);
+        int size = filtrators.size();
+        evaluations = new AtomicLongArray(size);
+        decided = new AtomicLongArray(size);
+        sampled = new AtomicLongArray(size);
+        sampledNanos = new AtomicLongArray(size);
+        int[] initialOrder = new int[size];
+        for (int i = 0; i < size; i++) {
+            initialOrder[i] = i;
+        }
+        order = initialOrder;
+    }
+
+    /**
+     * @param filtrators filtrators, evaluated in the given order until statistics are collected
+     * @return order in which item is filtered out if any of the filtrators filters it out
+     */
+    public static AdaptiveFiltratorOrder conjunction(List<Filtrator> filtrators) {
+        return new AdaptiveFiltratorOrder(filtrators, true, Ticker.systemTicker());
+    }
+
+    /**
+     * @param filtrators filtrators, evaluated in the given order until statistics are collected
+     * @return order in which item is filtered out only if all of the filtrators filter it out
+     */
+    public static AdaptiveFiltratorOrder disjunction(List<Filtrator> filtrators) {
+        return new AdaptiveFiltratorOrder(filtrators, false, Ticker.systemTicker());
+    }
+
+    static AdaptiveFiltratorOrder conjunction(List<Filtrator> filtrators, Ticker ticker) {
+        return new AdaptiveFiltratorOrder(filtrators, true, ticker);
+    }
+
+    static AdaptiveFiltratorOrder disjunction(List<Filtrator> filtrators, Ticker ticker) {
+        return new AdaptiveFiltratorOrder(filtrators, false, ticker);
+    }
+
+    /**
+     * @param value value of the target field
+     * @return true if the item shall be filtered out
+     */
+    public boolean isFiltered(FieldValue value) {
+        if (filtrators.size() == 1) {
+            return isFiltered(filtrators.get(0), value);
+        }
+        return isFiltered(filtrator -> isFiltered(filtrator, value));
+    }
+
+    /**
+     * @param verdicts evaluates a filtrator on the item, true if the filtrator filters the item out
+     * @return true if the item shall be filtered out
+     */
+    public boolean isFiltered(Predicate<Filtrator> verdicts) {
+        if (filtrators.size() == 1) {
+            return verdicts.test(filtrators.get(0));
+        }
+        long count = evaluationCount.incrementAndGet();
+        boolean sample = count % COST_SAMPLING_INTERVAL == 0;
+        boolean result = !decidingVerdict;
+        for (int index : order) {
+            long start = sample ? ticker.read() : 0;
+            boolean verdict = verdicts.test(filtrators.get(index));
+            if (sample) {
+                sampled.incrementAndGet(index);
+                sampledNanos.addAndGet(index, ticker.read() - start);
+            }
+            evaluations.incrementAndGet(index);
+            if (verdict == decidingVerdict) {
+                decided.incrementAndGet(index);
+                result = decidingVerdict;
+                break;
+            }
+        }
+        if (count % REORDER_INTERVAL == 0) {
+            reorder();
+        }
+        return result;
+    }
+
+    /**
+     * @param filtrator filtrator
+     * @param value value of the target field
+     * @return verdict of the filtrator, examining the shared value if the filtrator supports it
+     */
+    private static boolean isFiltered(Filtrator filtrator, FieldValue value) {
+        if (filtrator instanceof FieldValueFiltrator) {
+            return ((FieldValueFiltrator) filtrator).isFiltered(value);
+        }
+        return filtrator.isFiltered(value.getNode());
+    }
+
+    private synchronized void reorder() {
+        int size = filtrators.size();
+        double[] ranks = new double[size];
+        Integer[] newOrder = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            long samples = sampled.get(i);
+            double cost = samples == 0 ? 1 : Math.max(1, (double) sampledNanos.get(i) / samples);
+            // Laplace smoothing keeps filtrators with few evaluations from being ranked too early
+            double decidingRate = (decided.get(i) + 1.0) / (evaluations.get(i) + 2.0);
+            ranks[i] = cost / decidingRate;
+            newOrder[i] = i;
+            halve(evaluations, i);
+            halve(decided, i);
+            halve(sampled, i);
+            halve(sampledNanos, i);
+        }
+        // stable sort keeps the configured order of equally ranked filtrators
+        Arrays.sort(newOrder, (first, second) -> Double.compare(ranks[first], ranks[second]));
+        int[] published = new int[size];
+        for (int i = 0; i < size; i++) {
+            published[i] = newOrder[i];
+        }
+        order = published;
+    }
+
+    private static void halve(AtomicLongArray statistics, int index) {
+        long value;
+        do {
+            value = statistics.get(index);
+        } while (!statistics.compareAndSet(index, value, value / 2));
+    }
+
+    /**
+     * @return filtrators in their current evaluation order
+     */
+    public List<Filtrator> getOrder() {
+        int[] currentOrder = order;
+        List<Filtrator> ordered = new ArrayList<>(currentOrder.length);
+        for (int index : currentOrder) {
+            ordered.add(filtrators.get(index));
+        }
+        return ordered;
+    }
+
+    /**
+     * @return filtrators in the configured order
+     */
+    public List<Filtrator> getFiltrators() {
+        return filtrators;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.topoprocessing.impl.operator.filtrator;
+
+import com.google.common.base.Preconditions;
+
+import java.util.List;
+
+import org.opendaylight.topoprocessing.api.filtration.Filtrator;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Combines operand filtrators with a boolean operator. Operands are evaluated on the target field of the
+ * composite in adaptive order (see {@link AdaptiveFiltratorOrder}), evaluation stops once the result is
+ * decided.
+ */
+public class CompositeFiltrator extends AbstractFiltrator implements FieldValueFiltrator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CompositeFiltrator.class);
+
+    /**
+     * Boolean operator combining operands.
+     */
+    public enum Operator {
+        /** item passes if it passes all operands */
+        AND,
+        /** item passes if it passes at least one operand */
+        OR,
+        /** item passes if it doesn't pass the single operand */
+        NOT
+    }
+
+    private final Operator operator;
+    private final AdaptiveFiltratorOrder operands;
+
+    /**
+     * Constructor
+     * @param operator boolean operator
+     * @param operands operand filtrators, exactly one for {@link Operator#NOT}
+     * @param pathIdentifier defines path to {@link NormalizedNode}, which contains value used for filtering
+     */
+    public CompositeFiltrator(Operator operator, List<Filtrator> operands, YangInstanceIdentifier pathIdentifier) {
+        super(pathIdentifier);
+        this.operator = Preconditions.checkNotNull(operator, "Operator can't be null");
+        Preconditions.checkNotNull(operands, "Operands can't be null");
+        Preconditions.checkArgument(!operands.isEmpty(), "Composite filter needs at least one operand");
+        Preconditions.checkArgument(operator != Operator.NOT || operands.size() == 1,
+                "NOT composite filter needs exactly one operand, got %s", operands.size());
+        this.operands = operator == Operator.OR ? AdaptiveFiltratorOrder.disjunction(operands)
+                : AdaptiveFiltratorOrder.conjunction(operands);
+    }
+
+    @Override
+    public boolean isFiltered(NormalizedNode<?, ?> node) {
+        return isFiltered(new FieldValue(node));
+    }
+
+    @Override
+    public boolean isFiltered(FieldValue fieldValue) {
+        boolean isFiltered = operands.isFiltered(fieldValue);
+        if (operator == Operator.NOT) {
+            isFiltered = !isFiltered;
+        }
+        if (LOG.isDebugEnabled() && isFiltered) {
+            LOG.debug("Node with value {} was filtered out", fieldValue.getNode());
+        }
+        return isFiltered;
+    }
+
+    /**
+     * @return boolean operator
+     */
+    public Operator getOperator() {
+        return operator;
+    }
+
+    /**
+     * @return operand filtrators in their current evaluation order
+     */
+    public List<Filtrator> getOperands() {
+        return operands.getOrder();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.topoprocessing.impl.operator.filtrator;
+
+import com.google.common.base.Preconditions;
+
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+
+/**
+ * Value of a target field examined by all filtrators operating on the same path. Representations of the
+ * value are extracted lazily and only once, no matter how many filtrators use them. Address representations
+ * are kept in primitive fields, so extracting them allocates nothing but the string of a non-string value.
+ *
+ * <p>Not thread-safe, used within evaluation of a single item.
+ */
+public final class FieldValue {
+
+    /** IPv6 address is parsed into a buffer of the parsing thread and copied into fields */
+    private static final ThreadLocal<long[]> IPV6_BUFFER = ThreadLocal.withInitial(() -> new long[2]);
+
+    private final NormalizedNode<?, ?> node;
+    private String string;
+    private long ipv4Address;
+    private boolean ipv4Parsed = false;
+    private long ipv6High;
+    private long ipv6Low;
+    private boolean ipv6Valid = false;
+    private boolean ipv6Parsed = false;
+
+    /**
+     * @param node target field
+     */
+    public FieldValue(NormalizedNode<?, ?> node) {
+        this.node = Preconditions.checkNotNull(node);
+    }
+
+    /**
+     * @return target field
+     */
+    public NormalizedNode<?, ?> getNode() {
+        return node;
+    }
+
+    /**
+     * @return string representation of the field value, string values are returned as they are
+     */
+    public String getString() {
+        if (string == null) {
+            Object value = node.getValue();
+            string = value instanceof String ? (String) value : value.toString();
+        }
+        return string;
+    }
+
+    /**
+     * @return IPv4 address as unsigned 32 bit value, -1 if the field value is not an IPv4 literal
+     */
+    public long getIpv4Address() {
+        if (!ipv4Parsed) {
+            ipv4Parsed = true;
+            ipv4Address = IpAddressParser.parseIpv4(getString());
+        }
+        return ipv4Address;
+    }
+
+    /**
+     * @return true if the field value is an IPv6 literal
+     */
+    public boolean isIpv6Address() {
+        if (!ipv6Parsed) {
+            ipv6Parsed = true;
+            long[] buffer = IPV6_BUFFER.get();
+            ipv6Valid = IpAddressParser.parseIpv6(getString(), buffer);
+            if (ipv6Valid) {
+                ipv6High = buffer[0];
+                ipv6Low = buffer[1];
+            }
+        }
+        return ipv6Valid;
+    }
+
+    /**
+     * @return upper 64 bits of IPv6 address, valid only if {@link #isIpv6Address()} holds
+     */
+    public long getIpv6High() {
+        return isIpv6Address() ? ipv6High : 0;
+    }
+
+    /**
+     * @return lower 64 bits of IPv6 address, valid only if {@link #isIpv6Address()} holds
+     */
+    public long getIpv6Low() {
+        return isIpv6Address() ? ipv6Low : 0;
+    }
+}
@@ -0,0 +1,22 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.topoprocessing.impl.operator.filtrator;
+
+/**
+ * Filtrator able to examine a {@link FieldValue} shared with other filtrators operating on the same path,
+ * so that the value of the target field is extracted only once.
+ */
+public interface FieldValueFiltrator {
+
+    /**
+     * @param value value of the target field
+     * @return true if the item shall be filtered out
+     */
+    boolean isFiltered(FieldValue value);
+}
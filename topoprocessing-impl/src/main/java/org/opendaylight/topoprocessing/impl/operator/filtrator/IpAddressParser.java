@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.topoprocessing.impl.operator.filtrator;
+
+/**
+ * Parses IPv4 and IPv6 address literals into primitive values without allocating and without resolving
+ * host names - anything else than a literal is rejected. Optional zone index (%zone) is ignored.
+ */
+final class IpAddressParser {
+
+    /** returned by {@link #parseIpv4(CharSequence, int, int)} when the value is not an IPv4 literal */
+    static final long INVALID_IPV4 = -1;
+
+    private static final int IPV4_OCTETS = 4;
+    private static final int IPV6_HEXTETS = 8;
+    private static final int HEXTETS_PER_LONG = 4;
+    private static final int MAX_HEXTET_DIGITS = 4;
+    private static final int MAX_OCTET_DIGITS = 3;
+    private static final int MAX_OCTET = 255;
+
+    private IpAddressParser() {
+        throw new UnsupportedOperationException("IpAddressParser can't be instantiated.");
+    }
+
+    /**
+     * @param value IPv4 literal in dotted decimal notation
+     * @return address as unsigned 32 bit value, {@link #INVALID_IPV4} if the value is not an IPv4 literal
+     */
+    static long parseIpv4(CharSequence value) {
+        return parseIpv4(value, 0, withoutZone(value, 0, value.length()));
+    }
+
+    /**
+     * @param value characters containing IPv4 literal
+     * @param start index of the first character of the literal
+     * @param end index after the last character of the literal
+     * @return address as unsigned 32 bit value, {@link #INVALID_IPV4} if the characters are not an IPv4 literal
+     */
+    static long parseIpv4(CharSequence value, int start, int end) {
+        long address = 0;
+        int octets = 0;
+        int i = start;
+        while (i < end) {
+            int octet = 0;
+            int digits = 0;
+            while (i < end && digits <= MAX_OCTET_DIGITS) {
+                char c = value.charAt(i);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                octet = octet * 10 + (c - '0');
+                digits++;
+                i++;
+            }
+            if (digits == 0 || digits > MAX_OCTET_DIGITS || octet > MAX_OCTET || octets == IPV4_OCTETS) {
+                return INVALID_IPV4;
+            }
+            address = (address << 8) | octet;
+            octets++;
+            if (i < end) {
+                if (value.charAt(i) != '.' || i + 1 == end) {
+                    return INVALID_IPV4;
+                }
+                i++;
+            }
+        }
+        return octets == IPV4_OCTETS ? address : INVALID_IPV4;
+    }
+
+    /**
+     * @param value IPv6 literal, in full, compressed or mixed (embedded IPv4) notation
+     * @param address receives upper 64 bits of the address at index 0 and lower 64 bits at index 1
+     * @return true if the value is an IPv6 literal, false otherwise (content of address is undefined)
+     */
+    static boolean parseIpv6(CharSequence value, long[] address) {
+        return parseIpv6(value, 0, withoutZone(value, 0, value.length()), address);
+    }
+
+    /**
+     * @param value characters containing IPv6 literal
+     * @param start index of the first character of the literal
+     * @param end index after the last character of the literal
+     * @param address receives upper 64 bits of the address at index 0 and lower 64 bits at index 1
+     * @return true if the characters are an IPv6 literal, false otherwise (content of address is undefined)
+     */
+    static boolean parseIpv6(CharSequence value, int start, int end, long[] address) {
+        address[0] = 0;
+        address[1] = 0;
+        // hextets after "::" are accumulated separately, their position is known only at the end
+        long tailHigh = 0;
+        long tailLow = 0;
+        int headCount = 0;
+        int tailCount = 0;
+        boolean compressed = false;
+        int i = start;
+        if (end - start >= 2 && value.charAt(i) == ':' && value.charAt(i + 1) == ':') {
+            compressed = true;
+            i += 2;
+        }
+        while (i < end) {
+            int groupStart = i;
+            int hextet = 0;
+            int digits = 0;
+            while (i < end && digits <= MAX_HEXTET_DIGITS) {
+                int digit = hexDigit(value.charAt(i));
+                if (digit < 0) {
+                    break;
+                }
+                hextet = (hextet << 4) | digit;
+                digits++;
+                i++;
+            }
+            int groups = 1;
+            long ipv4 = INVALID_IPV4;
+            if (i < end && value.charAt(i) == '.') {
+                // embedded IPv4 takes the rest of the literal and the last two hextets
+                ipv4 = parseIpv4(value, groupStart, end);
+                if (ipv4 == INVALID_IPV4) {
+                    return false;
+                }
+                groups = 2;
+                i = end;
+            } else if (digits == 0 || digits > MAX_HEXTET_DIGITS) {
+                return false;
+            }
+            if (headCount + tailCount + groups > IPV6_HEXTETS) {
+                return false;
+            }
+            for (int group = groups - 1; group >= 0; group--) {
+                long groupValue = groups == 1 ? hextet : (ipv4 >>> (16 * group)) & 0xFFFF;
+                if (compressed) {
+                    tailHigh = (tailHigh << 16) | (tailLow >>> 48);
+                    tailLow = (tailLow << 16) | groupValue;
+                    tailCount++;
+                } else {
+                    int index = headCount / HEXTETS_PER_LONG;
+                    address[index] |= groupValue << (16 * (HEXTETS_PER_LONG - 1 - headCount % HEXTETS_PER_LONG));
+                    headCount++;
+                }
+            }
+            if (i == end) {
+                break;
+            }
+            if (value.charAt(i) != ':' || ++i == end) {
+                return false;
+            }
+            if (value.charAt(i) == ':') {
+                if (compressed) {
+                    return false;
+                }
+                compressed = true;
+                i++;
+            }
+        }
+        if (compressed) {
+            if (headCount + tailCount == IPV6_HEXTETS) {
+                // "::" has to stand for at least one group
+                return false;
+            }
+            address[0] |= tailHigh;
+            address[1] |= tailLow;
+            return true;
+        }
+        return headCount == IPV6_HEXTETS;
+    }
+
+    /**
+     * @param prefixLength number of leading bits, 0 - 32
+     * @return IPv4 mask with prefixLength leading bits set
+     */
+    static int ipv4Mask(int prefixLength) {
+        return prefixLength == 0 ? 0 : -1 << (Integer.SIZE - prefixLength);
+    }
+
+    /**
+     * @param prefixLength number of leading bits, 0 - 128
+     * @param word 0 for upper 64 bits of the mask, 1 for lower 64 bits
+     * @return part of IPv6 mask with prefixLength leading bits set
+     */
+    static long ipv6Mask(int prefixLength, int word) {
+        int bits = Math.min(Long.SIZE, Math.max(0, prefixLength - word * Long.SIZE));
+        return bits == 0 ? 0 : -1L << (Long.SIZE - bits);
+    }
+
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private static int withoutZone(CharSequence value, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (value.charAt(i) == '%') {
+                return i;
+            }
+        }
+        return end;
+    }
+}
@@ -10,9 +10,6 @@ package org.opendaylight.topoprocessing.impl.operator.filtrator;
 
 import com.google.common.base.Preconditions;
 
-import java.net.InetAddress;
-import java.net.UnknownHostException;
-
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpPrefix;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
@@ -22,7 +19,7 @@ import org.slf4j.LoggerFactory;
 /**
  * @author matus.marko
  */
-public class Ipv4AddressFiltrator extends AbstractFiltrator {
+public class Ipv4AddressFiltrator extends AbstractFiltrator implements FieldValueFiltrator {
 
     private static final Logger LOG = LoggerFactory.getLogger(Ipv4AddressFiltrator.class);
 
@@ -43,16 +40,21 @@ public class Ipv4AddressFiltrator extends AbstractFiltrator {
 
     @Override
     public boolean isFiltered(NormalizedNode<?, ?> node) {
-        try {
-            int value = ipToInt(node.getValue().toString());
-            if (maskedValue == (value & mask)) {
-                return false;
-            }
-            if (LOG.isDebugEnabled()) {
-                LOG.debug("Item with value {} was filtered out", node);
-            }
-        } catch (UnknownHostException e) {
-            LOG.error("Wrong format of IP address: {}", e);
+        return isFiltered(new FieldValue(node));
+    }
+
+    @Override
+    public boolean isFiltered(FieldValue fieldValue) {
+        long address = fieldValue.getIpv4Address();
+        if (address == IpAddressParser.INVALID_IPV4) {
+            LOG.error("Wrong format of IP address: {}", fieldValue.getString());
+            return true;
+        }
+        if (maskedValue == ((int) address & mask)) {
+            return false;
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Item with value {} was filtered out", fieldValue.getNode());
         }
         return true;
     }
@@ -60,23 +62,12 @@ public class Ipv4AddressFiltrator extends AbstractFiltrator {
     private int initialize(IpPrefix prefix) {
         String strValue = prefix.getIpv4Prefix().getValue();
         String[] matches = strValue.split("/");
-        int address;
-        try {
-            address = ipToInt(matches[0]);
-        } catch (UnknownHostException e) {
+        long address = IpAddressParser.parseIpv4(matches[0]);
+        if (address == IpAddressParser.INVALID_IPV4) {
             throw new IllegalArgumentException("Filtrator initialization failed, "
-                    + "couldn't recognize ip address: " + matches[0], e);
+                    + "couldn't recognize ip address: " + matches[0]);
         }
-        mask = (int) ((long) -1 << (32 - Integer.parseInt(matches[1])));
-        return address & mask;
-    }
-
-    private int ipToInt(String strAddress) throws UnknownHostException {
-        InetAddress inetAddr = InetAddress.getByName(strAddress);
-        byte[] bytes = inetAddr.getAddress();
-        return  ((bytes[0] & 0xFF) << 24)
-                | ((bytes[1] & 0xFF) << 16)
-                | ((bytes[2] & 0xFF) << 8)
-                | ((bytes[3] & 0xFF) << 0);
+        mask = IpAddressParser.ipv4Mask(Integer.parseInt(matches[1]));
+        return (int) address & mask;
     }
 }
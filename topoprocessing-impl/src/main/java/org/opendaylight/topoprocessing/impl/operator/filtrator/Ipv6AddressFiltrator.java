@@ -10,10 +10,6 @@ package org.opendaylight.topoprocessing.impl.operator.filtrator;
 
 import com.google.common.base.Preconditions;
 
-import java.net.InetAddress;
-import java.net.UnknownHostException;
-import java.util.BitSet;
-
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpPrefix;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
@@ -23,12 +19,11 @@ import org.slf4j.LoggerFactory;
 /**
  * @author matus.marko
  */
-public class Ipv6AddressFiltrator extends AbstractFiltrator {
+public class Ipv6AddressFiltrator extends AbstractFiltrator implements FieldValueFiltrator {
     private static final Logger LOG = LoggerFactory.getLogger(Ipv6AddressFiltrator.class);
-    private static final int MAX_BITS = 128;
 
-    private BitSet mask;
-    private BitSet maskedValue;
+    private final long[] mask = new long[2];
+    private final long[] maskedValue = new long[2];
 
     /**
      * Constructor
@@ -43,18 +38,21 @@ public class Ipv6AddressFiltrator extends AbstractFiltrator {
 
     @Override
     public boolean isFiltered(NormalizedNode<?, ?> node) {
-        try {
-            byte[] address = InetAddress.getByName(node.getValue().toString()).getAddress();
-            BitSet bitSet = BitSet.valueOf(address);
-            bitSet.and(mask);
-            if (maskedValue.equals(bitSet)) {
-                return false;
-            }
-            if (LOG.isDebugEnabled()) {
-                LOG.debug("Node with value {} was filtered out", node);
-            }
-        } catch (UnknownHostException e) {
-            LOG.error("Wrong format of IP address: {}", e);
+        return isFiltered(new FieldValue(node));
+    }
+
+    @Override
+    public boolean isFiltered(FieldValue fieldValue) {
+        if (!fieldValue.isIpv6Address()) {
+            LOG.error("Wrong format of IP address: {}", fieldValue.getString());
+            return true;
+        }
+        if (maskedValue[0] == (fieldValue.getIpv6High() & mask[0])
+                && maskedValue[1] == (fieldValue.getIpv6Low() & mask[1])) {
+            return false;
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Node with value {} was filtered out", fieldValue.getNode());
         }
         return true;
     }
@@ -64,16 +62,13 @@ public class Ipv6AddressFiltrator extends AbstractFiltrator {
         String rangeIp = matches[0];
         int bits = Integer.parseInt(matches[1]);
 
-        mask = new BitSet(MAX_BITS);
-        mask.set(0, bits, true);
-        byte[] inetAddr;
-        try {
-            inetAddr = InetAddress.getByName(rangeIp).getAddress();
-        } catch (UnknownHostException e) {
+        if (!IpAddressParser.parseIpv6(rangeIp, maskedValue)) {
             throw new IllegalArgumentException("Filtrator initialization failed, "
-                    + "couldn't recognize ip address: " + rangeIp, e);
+                    + "couldn't recognize ip address: " + rangeIp);
+        }
+        for (int i = 0; i < mask.length; i++) {
+            mask[i] = IpAddressParser.ipv6Mask(bits, i);
+            maskedValue[i] &= mask[i];
         }
-        maskedValue = BitSet.valueOf(inetAddr);
-        maskedValue.and(mask);
     }
 }
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.topoprocessing.impl.operator.filtrator;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Collection;
+
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpPrefix;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Filters IPv4 and IPv6 addresses by a set of included and excluded prefixes. The longest prefix matching
+ * the address decides - the item passes if it is an included prefix. Items matching no prefix are filtered
+ * out. Prefixes are compiled into a {@link PrefixTrie} per address family, so that every item costs a single
+ * lookup regardless of the number of prefixes.
+ */
+public class PrefixSetFiltrator extends AbstractFiltrator implements FieldValueFiltrator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PrefixSetFiltrator.class);
+    private static final int IPV4_SHIFT = Long.SIZE - Integer.SIZE;
+
+    private final PrefixTrie<Boolean> ipv4Prefixes = new PrefixTrie<>();
+    private final PrefixTrie<Boolean> ipv6Prefixes = new PrefixTrie<>();
+
+    /**
+     * Constructor
+     * @param includedPrefixes prefixes whose matching items pass the filtrator
+     * @param excludedPrefixes prefixes whose matching items are filtered out
+     * @param pathIdentifier Path leading to value with ipAddress in examined node
+     * @throws IllegalArgumentException if a prefix is not valid or is both included and excluded
+     */
+    public PrefixSetFiltrator(Collection<IpPrefix> includedPrefixes, Collection<IpPrefix> excludedPrefixes,
+            YangInstanceIdentifier pathIdentifier) {
+        super(pathIdentifier);
+        Preconditions.checkNotNull(includedPrefixes, "Included prefixes can't be null");
+        Preconditions.checkNotNull(excludedPrefixes, "Excluded prefixes can't be null");
+        for (IpPrefix prefix : includedPrefixes) {
+            addPrefix(prefix, Boolean.TRUE);
+        }
+        for (IpPrefix prefix : excludedPrefixes) {
+            addPrefix(prefix, Boolean.FALSE);
+        }
+    }
+
+    @Override
+    public boolean isFiltered(NormalizedNode<?, ?> node) {
+        return isFiltered(new FieldValue(node));
+    }
+
+    @Override
+    public boolean isFiltered(FieldValue fieldValue) {
+        Boolean included;
+        long ipv4Address = fieldValue.getIpv4Address();
+        if (ipv4Address != IpAddressParser.INVALID_IPV4) {
+            included = ipv4Prefixes.longestMatch(ipv4Address << IPV4_SHIFT, 0);
+        } else {
+            if (!fieldValue.isIpv6Address()) {
+                LOG.error("Wrong format of IP address: {}", fieldValue.getString());
+                return true;
+            }
+            included = ipv6Prefixes.longestMatch(fieldValue.getIpv6High(), fieldValue.getIpv6Low());
+        }
+        if (Boolean.TRUE.equals(included)) {
+            return false;
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Node with value {} was filtered out", fieldValue.getNode());
+        }
+        return true;
+    }
+
+    /**
+     * @return number of IPv4 and IPv6 prefixes
+     */
+    public int getPrefixCount() {
+        return ipv4Prefixes.size() + ipv6Prefixes.size();
+    }
+
+    private void addPrefix(IpPrefix prefix, Boolean included) {
+        Preconditions.checkNotNull(prefix, "Prefix can't be null");
+        boolean ipv4 = prefix.getIpv4Prefix() != null;
+        String value = ipv4 ? prefix.getIpv4Prefix().getValue() : prefix.getIpv6Prefix().getValue();
+        int slash = value.indexOf('/');
+        Preconditions.checkArgument(slash > 0, "Prefix length missing: %s", value);
+        int length = Integer.parseInt(value.substring(slash + 1));
+        PrefixTrie<Boolean> prefixes;
+        long high;
+        long low;
+        if (ipv4) {
+            long address = IpAddressParser.parseIpv4(value, 0, slash);
+            Preconditions.checkArgument(address != IpAddressParser.INVALID_IPV4 && length <= Integer.SIZE,
+                    "Filtrator initialization failed, couldn't recognize prefix: %s", value);
+            prefixes = ipv4Prefixes;
+            high = address << IPV4_SHIFT;
+            low = 0;
+        } else {
+            long[] address = new long[2];
+            Preconditions.checkArgument(IpAddressParser.parseIpv6(value, 0, slash, address)
+                    && length <= PrefixTrie.MAX_LENGTH,
+                    "Filtrator initialization failed, couldn't recognize prefix: %s", value);
+            prefixes = ipv6Prefixes;
+            high = address[0];
+            low = address[1];
+        }
+        Preconditions.checkArgument(length >= 0, "Invalid prefix length: %s", value);
+        Boolean previous = prefixes.get(high, low, length);
+        Preconditions.checkArgument(previous == null || previous.equals(included),
+                "Prefix is both included and excluded: %s", value);
+        prefixes.put(high, low, length, included);
+    }
+}
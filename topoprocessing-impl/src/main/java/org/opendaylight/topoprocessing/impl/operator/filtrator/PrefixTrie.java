@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.topoprocessing.impl.operator.filtrator;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Path compressed binary (Patricia) trie of prefixes up to 128 bits long, answering longest prefix match
+ * queries. Keys are held in two longs, most significant bit first - shorter keys (e.g. IPv4 addresses) are
+ * aligned to the most significant bit of the upper long.
+ *
+ * <p>Filled during initialization, lookups are thread-safe once the trie is no longer modified.
+ *
+ * @param <V> type of values bound to prefixes
+ */
+final class PrefixTrie<V> {
+
+    static final int MAX_LENGTH = 2 * Long.SIZE;
+
+    private Node<V> root;
+    private int size = 0;
+
+    /**
+     * Binds value to prefix, replacing value previously bound to the same prefix.
+     * @param high upper 64 bits of the prefix
+     * @param low lower 64 bits of the prefix
+     * @param length prefix length in bits, 0 - 128
+     * @param value value bound to the prefix
+     */
+    void put(long high, long low, int length, V value) {
+        Preconditions.checkArgument(length >= 0 && length <= MAX_LENGTH, "Invalid prefix length: %s", length);
+        Preconditions.checkNotNull(value);
+        long maskedHigh = high & IpAddressParser.ipv6Mask(length, 0);
+        long maskedLow = low & IpAddressParser.ipv6Mask(length, 1);
+        Node<V> parent = null;
+        Node<V> node = root;
+        while (node != null) {
+            int common = commonLength(node.high, node.low, maskedHigh, maskedLow, Math.min(node.length, length));
+            if (common < node.length) {
+                // prefix diverges from the node or is shorter - a new node is inserted above it
+                Node<V> inserted;
+                if (common == length) {
+                    inserted = new Node<>(maskedHigh, maskedLow, length, value);
+                } else {
+                    inserted = new Node<>(maskedHigh & IpAddressParser.ipv6Mask(common, 0),
+                            maskedLow & IpAddressParser.ipv6Mask(common, 1), common, null);
+                    inserted.setChild(bit(maskedHigh, maskedLow, common),
+                            new Node<>(maskedHigh, maskedLow, length, value));
+                }
+                inserted.setChild(bit(node.high, node.low, common), node);
+                replaceChild(parent, maskedHigh, maskedLow, inserted);
+                size++;
+                return;
+            }
+            if (node.length == length) {
+                if (node.value == null) {
+                    size++;
+                }
+                node.value = value;
+                return;
+            }
+            parent = node;
+            node = node.getChild(bit(maskedHigh, maskedLow, node.length));
+        }
+        replaceChild(parent, maskedHigh, maskedLow, new Node<>(maskedHigh, maskedLow, length, value));
+        size++;
+    }
+
+    /**
+     * @param high upper 64 bits of the prefix
+     * @param low lower 64 bits of the prefix
+     * @param length prefix length in bits
+     * @return value bound to exactly this prefix, null if there is none
+     */
+    V get(long high, long low, int length) {
+        long maskedHigh = high & IpAddressParser.ipv6Mask(length, 0);
+        long maskedLow = low & IpAddressParser.ipv6Mask(length, 1);
+        Node<V> node = root;
+        while (node != null && node.length <= length
+                && commonLength(node.high, node.low, maskedHigh, maskedLow, node.length) == node.length) {
+            if (node.length == length) {
+                return node.value;
+            }
+            node = node.getChild(bit(maskedHigh, maskedLow, node.length));
+        }
+        return null;
+    }
+
+    /**
+     * @param high upper 64 bits of the key
+     * @param low lower 64 bits of the key
+     * @return value bound to the longest prefix of the key, null if no prefix matches
+     */
+    V longestMatch(long high, long low) {
+        V match = null;
+        Node<V> node = root;
+        while (node != null && commonLength(node.high, node.low, high, low, node.length) == node.length) {
+            if (node.value != null) {
+                match = node.value;
+            }
+            if (node.length == MAX_LENGTH) {
+                break;
+            }
+            node = node.getChild(bit(high, low, node.length));
+        }
+        return match;
+    }
+
+    /**
+     * @return number of prefixes in the trie
+     */
+    int size() {
+        return size;
+    }
+
+    private void replaceChild(Node<V> parent, long high, long low, Node<V> child) {
+        if (parent == null) {
+            root = child;
+        } else {
+            parent.setChild(bit(high, low, parent.length), child);
+        }
+    }
+
+    private static int bit(long high, long low, int index) {
+        if (index < Long.SIZE) {
+            return (int) (high >>> (Long.SIZE - 1 - index)) & 1;
+        }
+        return (int) (low >>> (MAX_LENGTH - 1 - index)) & 1;
+    }
+
+    private static int commonLength(long high1, long low1, long high2, long low2, int maxLength) {
+        long difference = high1 ^ high2;
+        int common;
+        if (difference != 0) {
+            common = Long.numberOfLeadingZeros(difference);
+        } else {
+            common = Long.SIZE + Long.numberOfLeadingZeros(low1 ^ low2);
+        }
+        return Math.min(common, maxLength);
+    }
+
+    private static final class Node<V> {
+        private final long high;
+        private final long low;
+        private final int length;
+        /** null for nodes only joining diverging branches */
+        private V value;
+        private Node<V> zero;
+        private Node<V> one;
+
+        Node(long high, long low, int length, V value) {
+            this.high = high;
+            this.low = low;
+            this.length = length;
+            this.value = value;
+        }
+
+        Node<V> getChild(int bit) {
+            return bit == 0 ? zero : one;
+        }
+
+        void setChild(int bit, Node<V> child) {
+            if (bit == 0) {
+                zero = child;
+            } else {
+                one = child;
+            }
+        }
+    }
+}
@@ -18,7 +18,7 @@ import org.slf4j.LoggerFactory;
 /**
  * @author matus.marko
  */
-public class RangeNumberFiltrator extends AbstractFiltrator {
+public class RangeNumberFiltrator extends AbstractFiltrator implements FieldValueFiltrator {
 
     private static final Logger LOG = LoggerFactory.getLogger(RangeNumberFiltrator.class);
 
@@ -35,12 +35,17 @@ public class RangeNumberFiltrator extends AbstractFiltrator {
 
     @Override
     public boolean isFiltered(NormalizedNode<?, ?> node) {
-        Long value = Long.valueOf(node.getValue().toString());
+        return isFiltered(new FieldValue(node));
+    }
+
+    @Override
+    public boolean isFiltered(FieldValue fieldValue) {
+        Long value = Long.valueOf(fieldValue.getString());
         if (this.min <= value && this.max >= value) {
             return false;
         }
         if (LOG.isDebugEnabled()) {
-            LOG.debug("Node with value {} was filtered out", node);
+            LOG.debug("Node with value {} was filtered out", fieldValue.getNode());
         }
         return true;
     }
@@ -18,7 +18,7 @@ import org.slf4j.LoggerFactory;
 /**
  * @author matus.marko
  */
-public class RangeStringFiltrator extends AbstractFiltrator {
+public class RangeStringFiltrator extends AbstractFiltrator implements FieldValueFiltrator {
 
     private static final Logger LOG = LoggerFactory.getLogger(RangeStringFiltrator.class);
 
@@ -35,12 +35,17 @@ public class RangeStringFiltrator extends AbstractFiltrator {
 
     @Override
     public boolean isFiltered(NormalizedNode<?, ?> node) {
-        String value = node.getValue().toString();
+        return isFiltered(new FieldValue(node));
+    }
+
+    @Override
+    public boolean isFiltered(FieldValue fieldValue) {
+        String value = fieldValue.getString();
         if (0 <= value.compareTo(this.min) && 0 >= value.compareTo(this.max)) {
             return false;
         }
         if (LOG.isDebugEnabled()) {
-            LOG.debug("Node with value {} was filtered out", node);
+            LOG.debug("Node with value {} was filtered out", fieldValue.getNode());
         }
         return true;
     }
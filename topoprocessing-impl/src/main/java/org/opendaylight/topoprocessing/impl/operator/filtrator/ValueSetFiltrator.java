@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.topoprocessing.impl.operator.filtrator;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Collection;
+import java.util.Set;
+
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Passes items whose target field value (in its string form) is present in a set of values. When inverted,
+ * items with a value from the set are filtered out instead (deny-list).
+ */
+public class ValueSetFiltrator extends AbstractFiltrator implements FieldValueFiltrator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ValueSetFiltrator.class);
+
+    private final Set<String> values;
+    private final boolean inverted;
+
+    /**
+     * Constructor
+     * @param values set of values
+     * @param inverted if true, values from the set are filtered out
+     * @param pathIdentifier defines path to {@link NormalizedNode}, which contains value used for filtering
+     */
+    public ValueSetFiltrator(Collection<String> values, boolean inverted, YangInstanceIdentifier pathIdentifier) {
+        super(pathIdentifier);
+        Preconditions.checkNotNull(values, "Filtering values can't be null");
+        this.values = ImmutableSet.copyOf(values);
+        this.inverted = inverted;
+    }
+
+    @Override
+    public boolean isFiltered(NormalizedNode<?, ?> node) {
+        return isFiltered(new FieldValue(node));
+    }
+
+    @Override
+    public boolean isFiltered(FieldValue fieldValue) {
+        boolean isFiltered = values.contains(fieldValue.getString()) == inverted;
+        if (LOG.isDebugEnabled() && isFiltered) {
+            LOG.debug("Node with value {} was filtered out", fieldValue.getNode());
+        }
+        return isFiltered;
+    }
+
+    /**
+     * @return number of values in the set
+     */
+    public int getValueCount() {
+        return values.size();
+    }
+
+    /**
+     * @return true if values from the set are filtered out
+     */
+    public boolean isInverted() {
+        return inverted;
+    }
+}
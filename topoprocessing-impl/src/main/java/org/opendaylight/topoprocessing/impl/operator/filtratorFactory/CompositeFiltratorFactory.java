@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.topoprocessing.impl.operator.filtratorFactory;
+
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.opendaylight.topoprocessing.api.filtration.Filtrator;
+import org.opendaylight.topoprocessing.api.filtration.FiltratorFactory;
+import org.opendaylight.topoprocessing.impl.operator.filtrator.CompositeFiltrator;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.Composite;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.CompositeOperator;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.FilterBase;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.correlation.filtration.Filter;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.correlation.filtration.filter.filter.type.body.CompositeFilterType;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.correlation.filtration.filter.filter.type.body.composite.filter.type.CompositeFilter;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+
+/**
+ * Creates {@link CompositeFiltrator} from composite filter. Operands are looked up by filter-id among filters
+ * of the same filtration and created on the target field of the composite; composite operands are resolved
+ * recursively. Composite filter without operator is a conjunction.
+ */
+public class CompositeFiltratorFactory implements FiltratorFactory {
+
+    private final Map<String, Filter> filters = new HashMap<>();
+    private final Map<Class<? extends FilterBase>, FiltratorFactory> factories;
+
+    /**
+     * @param filters filters of the filtration the composite filters belong to
+     * @param factories factories creating operand filtrators
+     */
+    public CompositeFiltratorFactory(List<Filter> filters,
+            Map<Class<? extends FilterBase>, FiltratorFactory> factories) {
+        for (Filter filter : filters) {
+            this.filters.put(filter.getFilterId(), filter);
+        }
+        this.factories = Preconditions.checkNotNull(factories);
+    }
+
+    @Override
+    public Filtrator createFiltrator(Filter filter, YangInstanceIdentifier pathIdentifier) {
+        return createFiltrator(filter, pathIdentifier, new LinkedHashSet<String>());
+    }
+
+    private Filtrator createFiltrator(Filter filter, YangInstanceIdentifier pathIdentifier, Set<String> resolving) {
+        if (!(filter.getFilterTypeBody() instanceof CompositeFilterType)) {
+            throw new IllegalStateException("Wrong filter type and body combination");
+        }
+        Preconditions.checkArgument(resolving.add(filter.getFilterId()),
+                "Composite filters reference each other in cycle: %s", resolving);
+        CompositeFilter compositeFilter = ((CompositeFilterType) filter.getFilterTypeBody()).getCompositeFilter();
+        Preconditions.checkArgument(compositeFilter != null, "Composite filter %s has no body",
+                filter.getFilterId());
+        List<Filtrator> operands = new ArrayList<>();
+        if (compositeFilter.getOperand() != null) {
+            for (String operandId : compositeFilter.getOperand()) {
+                Filter operand = filters.get(operandId);
+                Preconditions.checkArgument(operand != null, "Operand filter %s not found", operandId);
+                if (Composite.class.equals(operand.getFilterType())) {
+                    operands.add(createFiltrator(operand, pathIdentifier, resolving));
+                } else {
+                    FiltratorFactory factory = factories.get(operand.getFilterType());
+                    Preconditions.checkArgument(factory != null, "Unsupported filter type %s of operand %s",
+                            operand.getFilterType(), operandId);
+                    operands.add(factory.createFiltrator(operand, pathIdentifier));
+                }
+            }
+        }
+        resolving.remove(filter.getFilterId());
+        return new CompositeFiltrator(getOperator(compositeFilter.getOperator()), operands, pathIdentifier);
+    }
+
+    private static CompositeFiltrator.Operator getOperator(CompositeOperator operator) {
+        if (CompositeOperator.Or.equals(operator)) {
+            return CompositeFiltrator.Operator.OR;
+        } else if (CompositeOperator.Not.equals(operator)) {
+            return CompositeFiltrator.Operator.NOT;
+        }
+        return CompositeFiltrator.Operator.AND;
+    }
+
+    /**
+     * @param filters filters of a filtration
+     * @return filter-ids of filters used as operands of composite filters, these aren't applied on their own
+     */
+    public static Set<String> getOperandIds(List<Filter> filters) {
+        Set<String> operandIds = new HashSet<>();
+        for (Filter filter : filters) {
+            if (filter.getFilterTypeBody() instanceof CompositeFilterType) {
+                CompositeFilter compositeFilter = ((CompositeFilterType) filter.getFilterTypeBody())
+                        .getCompositeFilter();
+                if (compositeFilter != null && compositeFilter.getOperand() != null) {
+                    operandIds.addAll(compositeFilter.getOperand());
+                }
+            }
+        }
+        return operandIds;
+    }
+}
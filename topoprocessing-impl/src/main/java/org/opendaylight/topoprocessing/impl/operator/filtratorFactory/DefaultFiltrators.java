@@ -15,11 +15,13 @@ import org.opendaylight.topoprocessing.api.filtration.FiltratorFactory;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.FilterBase;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.Ipv4Address;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.Ipv6Address;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.PrefixSet;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.RangeNumber;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.RangeString;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.Script;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.SpecificNumber;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.SpecificString;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.ValueSet;
 
 /**
  * @author martin.uhlir
@@ -39,6 +41,8 @@ public class DefaultFiltrators {
         filtrators.put(SpecificString.class, new SpecificStringFiltratorFactory());
         filtrators.put(SpecificNumber.class, new SpecificNumberFiltratorFactory());
         filtrators.put(Script.class, new ScriptFiltratorFactory());
+        filtrators.put(PrefixSet.class, new PrefixSetFiltratorFactory());
+        filtrators.put(ValueSet.class, new ValueSetFiltratorFactory());
         return filtrators;
     }
 
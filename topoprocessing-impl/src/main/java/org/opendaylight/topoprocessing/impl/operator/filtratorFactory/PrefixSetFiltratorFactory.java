@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.topoprocessing.impl.operator.filtratorFactory;
+
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.opendaylight.topoprocessing.api.filtration.Filtrator;
+import org.opendaylight.topoprocessing.api.filtration.FiltratorFactory;
+import org.opendaylight.topoprocessing.impl.operator.filtrator.PrefixSetFiltrator;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpPrefix;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.PrefixAction;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.correlation.filtration.Filter;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.correlation.filtration.filter.filter.type.body.PrefixSetFilterType;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.correlation.filtration.filter.filter.type.body.prefix.set.filter.type.PrefixSetFilter;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.correlation.filtration.filter.filter.type.body.prefix.set.filter.type.prefix.set.filter.Prefix;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+
+/**
+ * Creates {@link PrefixSetFiltrator} from prefix-set filter. Prefixes without action are included.
+ */
+public class PrefixSetFiltratorFactory implements FiltratorFactory {
+
+    @Override
+    public Filtrator createFiltrator(Filter filter, YangInstanceIdentifier pathIdentifier) {
+        if (filter.getFilterTypeBody() instanceof PrefixSetFilterType) {
+            List<IpPrefix> includedPrefixes = new ArrayList<>();
+            List<IpPrefix> excludedPrefixes = new ArrayList<>();
+            PrefixSetFilter prefixSetFilter = ((PrefixSetFilterType) filter.getFilterTypeBody()).getPrefixSetFilter();
+            Preconditions.checkArgument(prefixSetFilter != null, "Prefix set filter %s has no body",
+                    filter.getFilterId());
+            List<Prefix> prefixes = prefixSetFilter.getPrefix();
+            if (prefixes != null) {
+                for (Prefix prefix : prefixes) {
+                    if (PrefixAction.Exclude.equals(prefix.getAction())) {
+                        excludedPrefixes.add(prefix.getIpPrefix());
+                    } else {
+                        includedPrefixes.add(prefix.getIpPrefix());
+                    }
+                }
+            }
+            return new PrefixSetFiltrator(includedPrefixes, excludedPrefixes, pathIdentifier);
+        } else {
+            throw new IllegalStateException("Wrong filter type and body combination");
+        }
+    }
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.topoprocessing.impl.operator.filtratorFactory;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.opendaylight.topoprocessing.api.filtration.Filtrator;
+import org.opendaylight.topoprocessing.api.filtration.FiltratorFactory;
+import org.opendaylight.topoprocessing.impl.operator.filtrator.ValueSetFiltrator;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.correlation.filtration.Filter;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.correlation.filtration.filter.filter.type.body.ValueSetFilterType;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.correlation.filtration.filter.filter.type.body.value.set.filter.type.ValueSetFilter;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+
+/**
+ * Creates {@link ValueSetFiltrator} from value-set filter.
+ */
+public class ValueSetFiltratorFactory implements FiltratorFactory {
+
+    @Override
+    public Filtrator createFiltrator(Filter filter, YangInstanceIdentifier pathIdentifier) {
+        if (filter.getFilterTypeBody() instanceof ValueSetFilterType) {
+            ValueSetFilter valueSetFilter = ((ValueSetFilterType) filter.getFilterTypeBody()).getValueSetFilter();
+            Preconditions.checkArgument(valueSetFilter != null, "Value set filter %s has no body",
+                    filter.getFilterId());
+            List<String> values = valueSetFilter.getValue();
+            return new ValueSetFiltrator(values == null ? Collections.<String>emptyList() : values,
+                    Boolean.TRUE.equals(valueSetFilter.isInverted()), pathIdentifier);
+        } else {
+            throw new IllegalStateException("Wrong filter type and body combination");
+        }
+    }
+
+}
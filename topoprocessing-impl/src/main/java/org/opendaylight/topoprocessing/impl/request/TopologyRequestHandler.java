@@ -10,10 +10,15 @@ package org.opendaylight.topoprocessing.impl.request;
 
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.controller.md.sal.dom.api.DOMDataBroker;
@@ -26,10 +31,11 @@ import org.opendaylight.topoprocessing.api.filtration.FiltratorFactory;
 import org.opendaylight.topoprocessing.impl.adapter.ModelAdapter;
 import org.opendaylight.topoprocessing.impl.listener.UnderlayTopologyListener;
 import org.opendaylight.topoprocessing.impl.operator.EqualityAggregator;
+import org.opendaylight.topoprocessing.impl.operator.FlapDampener;
+import org.opendaylight.topoprocessing.impl.operator.KeyedJoinOperator;
 import org.opendaylight.topoprocessing.impl.operator.LinkCalculator;
 import org.opendaylight.topoprocessing.impl.operator.LinkFiltrator;
 import org.opendaylight.topoprocessing.impl.operator.NodeAndTPAggregator;
-import org.opendaylight.topoprocessing.impl.operator.NotificationInterConnector;
 import org.opendaylight.topoprocessing.impl.operator.PreAggregationFiltrator;
 import org.opendaylight.topoprocessing.impl.operator.TerminationPointAggregator;
 import org.opendaylight.topoprocessing.impl.operator.TerminationPointFiltrator;
@@ -40,17 +46,23 @@ import org.opendaylight.topoprocessing.impl.operator.TopologyFiltrator;
 import org.opendaylight.topoprocessing.impl.operator.TopologyManager;
 import org.opendaylight.topoprocessing.impl.operator.TopologyOperator;
 import org.opendaylight.topoprocessing.impl.operator.UnificationAggregator;
+import org.opendaylight.topoprocessing.impl.operator.filtratorFactory.CompositeFiltratorFactory;
 import org.opendaylight.topoprocessing.impl.rpc.RpcServices;
+import org.opendaylight.topoprocessing.impl.structure.IdentifierGenerator;
+import org.opendaylight.topoprocessing.impl.structure.ItemCompactor;
 import org.opendaylight.topoprocessing.impl.translator.PathTranslator;
 import org.opendaylight.topoprocessing.impl.util.GlobalSchemaContextHolder;
+import org.opendaylight.topoprocessing.impl.util.InstanceIdentifiers;
 import org.opendaylight.topoprocessing.impl.writer.TopologyWriter;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.AggregationBase;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.AggregationOnly;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.Composite;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.CorrelationItemEnum;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.Equality;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.FilterBase;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.FiltrationAggregation;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.FiltrationOnly;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.I2rsModel;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.Model;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.NetworkTopologyModel;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.OpendaylightInventoryModel;
@@ -58,12 +70,16 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.Unification;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.Correlations;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.Correlation;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.FlapDampening;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.WriteRateLimit;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.WriteThrottling;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.correlation.Aggregation;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.correlation.Filtration;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.correlation.Rendering;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.correlation.aggregation.Mapping;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.correlation.aggregation.mapping.TargetField;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.correlation.filtration.Filter;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.scripting.grouping.Scripting;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.link.computation.rev150824.link.computation.grouping.LinkComputation;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.link.computation.rev150824.link.computation.grouping.link.computation.LinkInfo;
 import org.opendaylight.yangtools.concepts.ListenerRegistration;
@@ -86,6 +102,8 @@ import com.google.common.base.Preconditions;
 public abstract class TopologyRequestHandler {
 
     private static final Logger LOG = LoggerFactory.getLogger(TopologyRequestHandler.class);
+    /** period in seconds in which suppressed underlay items are checked for release */
+    private static final long DAMPENING_RELEASE_PERIOD = 1;
     private final DOMDataBroker domDataBroker;
     private final DOMDataTreeChangeService domDataTreeChangeService;
     private PathTranslator translator = new PathTranslator();
@@ -101,6 +119,10 @@ public abstract class TopologyRequestHandler {
     private Map.Entry<InstanceIdentifier<?>,DataObject> fromNormalizedNode;
     private TopologyManager topologyManager;
     private Class<? extends Model> outputModel;
+    private FlapDampening flapDampening;
+    private List<FlapDampener> flapDampeners = new ArrayList<>();
+    private ScheduledExecutorService dampeningScheduler;
+    private boolean compactUnderlayItems = false;
 
     /**
      * Default constructor.
@@ -181,6 +203,27 @@ public abstract class TopologyRequestHandler {
         Preconditions.checkNotNull(correlations, "Received correlations can't be null");
         try {
             LOG.debug("Processing correlation configuration");
+            if (correlations.getOverlayIdStrategy() != null && topologyManager != null) {
+                topologyManager.setIdentifierGenerator(new IdentifierGenerator(correlations.getOverlayIdStrategy()));
+            }
+            WriteThrottling writeThrottling = correlations.getWriteThrottling();
+            if (writeThrottling != null) {
+                int highWatermark =
+                        toWatermark(writeThrottling.getHighWatermark(), TopologyWriter.DEFAULT_HIGH_WATERMARK);
+                // low watermark defaults to half of the high one, so that setting just the high one stays valid
+                writer.setWatermarks(highWatermark, toWatermark(writeThrottling.getLowWatermark(), highWatermark / 2));
+            }
+            flapDampening = correlations.getFlapDampening();
+            if (flapDampening != null) {
+                dampeningScheduler = Executors.newSingleThreadScheduledExecutor();
+            }
+            compactUnderlayItems = Boolean.TRUE.equals(correlations.isCompactUnderlayItems());
+            WriteRateLimit writeRateLimit = correlations.getWriteRateLimit();
+            if (writeRateLimit != null && writeRateLimit.getOperationsPerSecond() != null) {
+                Long burstSize = writeRateLimit.getBurstSize();
+                writer.setRateLimit(writeRateLimit.getOperationsPerSecond(),
+                        burstSize != null ? burstSize : writeRateLimit.getOperationsPerSecond());
+            }
             List<Correlation> correlationList = correlations.getCorrelation();
 
             boolean isAggregationOfNodesAndTp = isAggregationOfNodesAndTp(correlationList) ;
@@ -218,6 +261,17 @@ public abstract class TopologyRequestHandler {
         }
     }
 
+    private static long valueOrDefault(Long value, long defaultValue) {
+        return value == null ? defaultValue : value;
+    }
+
+    private static int toWatermark(Long value, int defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        return (int) Math.min(value, Integer.MAX_VALUE);
+    }
+
     private boolean isAggregationOfNodesAndTp(List<Correlation> correlationList) {
         Correlation nodeCorrelation = null;
         boolean nodeFiltration = false;
@@ -282,8 +336,9 @@ public abstract class TopologyRequestHandler {
             //((TerminationPointAggregator) aggregator).setTargetField(pathIdentifier);
             if (tpFiltration && mapping.getApplyFilters() != null) {
                 for (String filterId : mapping.getApplyFilters()) {
-                    Filter filter = findFilter(tpCorrelation.getFiltration().getFilter(), filterId);
-                    addFiltrator(tpFiltrator, filter, CorrelationItemEnum.TerminationPoint, inputModel);
+                    List<Filter> filters = tpCorrelation.getFiltration().getFilter();
+                    addFiltrator(tpFiltrator, findFilter(filters, filterId), filters,
+                            CorrelationItemEnum.TerminationPoint, inputModel);
                 }
             }
         }
@@ -313,8 +368,9 @@ public abstract class TopologyRequestHandler {
                 filtrator = new PreAggregationFiltrator(topoStoreProvider);
                 filtrator.setTopologyAggregator(nodeAndTpAggregator);
                 for (String filterId : mapping.getApplyFilters()) {
-                    Filter filter = findFilter(nodeCorrelation.getFiltration().getFilter(), filterId);
-                    addFiltrator(filtrator, filter, CorrelationItemEnum.Node, inputModel);
+                    List<Filter> filters = nodeCorrelation.getFiltration().getFilter();
+                    addFiltrator(filtrator, findFilter(filters, filterId), filters, CorrelationItemEnum.Node,
+                            inputModel);
                 }
             }
             UnderlayTopologyListener listener;
@@ -328,6 +384,8 @@ public abstract class TopologyRequestHandler {
                         .registerUnderlayTopologyListener(domDataTreeChangeService, underlayTopologyId,
                         CorrelationItemEnum.Node, datastoreType, filtrator, listeners, pathIdentifier);
             }
+            setItemCompactor(listener, CorrelationItemEnum.Node, inputModel, pathIdentifier,
+                    nodeAggregation.getScripting());
             LOG.debug("Registering underlay topology listener for topology: {}", underlayTopologyId);
             registerListener(listener, inputModel, underlayTopologyId, CorrelationItemEnum.Node);
         }
@@ -357,15 +415,21 @@ public abstract class TopologyRequestHandler {
 
         Map<Integer, YangInstanceIdentifier> pathIdentifiers = new HashMap<>();
         int key = 0;
+        Set<String> operandIds = CompositeFiltratorFactory.getOperandIds(filtration.getFilter());
         for (Filter filter : filtration.getFilter()) {
-            YangInstanceIdentifier filterPath =
-                    addFiltrator(filtrator, filter, correlation.getCorrelationItem(), inputModel);
+            if (operandIds.contains(filter.getFilterId())) {
+                // evaluated as part of composite filter
+                continue;
+            }
+            YangInstanceIdentifier filterPath = addFiltrator(filtrator, filter, filtration.getFilter(),
+                    correlation.getCorrelationItem(), inputModel);
             pathIdentifiers.put(key++, filterPath);
         }
 
         UnderlayTopologyListener listener = modelAdapters.get(inputModel)
                 .registerUnderlayTopologyListener(domDataTreeChangeService, underlayTopologyId,
                         correlationItem, datastoreType, filtrator, listeners, pathIdentifiers);
+        setItemCompactor(listener, correlationItem, inputModel, pathIdentifiers, null);
         LOG.debug("Registering filtering underlay topology listener for topology: {}", underlayTopologyId);
         registerListener(listener, inputModel, underlayTopologyId, correlationItem);
 
@@ -379,11 +443,17 @@ public abstract class TopologyRequestHandler {
         }
     }
 
-    private YangInstanceIdentifier addFiltrator(TopologyFiltrator operator, Filter filter,
+    private YangInstanceIdentifier addFiltrator(TopologyFiltrator operator, Filter filter, List<Filter> filters,
             CorrelationItemEnum correlationItem, Class<? extends Model> inputModel) {
         YangInstanceIdentifier filterPath = translator.translate(filter.getTargetField().getValue(),
                 correlationItem, schemaHolder, inputModel);
-        FiltratorFactory ff = filtrators.get(filter.getFilterType());
+        FiltratorFactory ff;
+        if (Composite.class.equals(filter.getFilterType())) {
+            // operands are resolved among filters of the same filtration
+            ff = new CompositeFiltratorFactory(filters, filtrators);
+        } else {
+            ff = filtrators.get(filter.getFilterType());
+        }
         Filtrator currentFiltrator = ff.createFiltrator(filter, filterPath);
         operator.addFilter(currentFiltrator);
         return filterPath;
@@ -430,8 +500,8 @@ public abstract class TopologyRequestHandler {
                 }
                 filtrator.setTopologyAggregator(aggregator);
                 for (String filterId : mapping.getApplyFilters()) {
-                    Filter filter = findFilter(correlation.getFiltration().getFilter(), filterId);
-                    addFiltrator(filtrator, filter, correlationItem, inputModel);
+                    List<Filter> filters = correlation.getFiltration().getFilter();
+                    addFiltrator(filtrator, findFilter(filters, filterId), filters, correlationItem, inputModel);
                 }
             }
             UnderlayTopologyListener listener;
@@ -439,6 +509,7 @@ public abstract class TopologyRequestHandler {
             listener = modelAdapters.get(inputModel)
                     .registerUnderlayTopologyListener(domDataTreeChangeService, underlayTopologyId, correlationItem,
                             datastoreType, operator, listeners, pathIdentifier);
+            setItemCompactor(listener, correlationItem, inputModel, pathIdentifier, aggregation.getScripting());
             LOG.debug("Registering underlay topology listener for topology: {}", underlayTopologyId);
             registerListener(listener, inputModel, underlayTopologyId, correlationItem);
         }
@@ -452,9 +523,14 @@ public abstract class TopologyRequestHandler {
             UnderlayTopologyListener listener = modelAdapters.get(outputModel)
                     .registerUnderlayTopologyListener(domDataTreeChangeService, underlayTopologyId,
                             correlation.getCorrelationItem(), datastoreType, operator, listeners, null);
+            if (compactUnderlayItems) {
+                // rendered topology nodes have no target fields and are never compacted, the compactor is
+                // handed over to the inventory listener of rendering, which retains the rendered subtrees
+                listener.setItemCompactor(new ItemCompactor(Collections.<YangInstanceIdentifier>emptyList()));
+            }
             operator = listener.getOperator();
-            if (operator instanceof NotificationInterConnector) {
-                operator = ((NotificationInterConnector) operator).getOperator();
+            if (operator instanceof KeyedJoinOperator.Input) {
+                operator = ((KeyedJoinOperator.Input) operator).getJoin().getOperator();
             }
             operator.setTopologyManager(topologyManager);
             LOG.debug("Registering underlay topology listener for topology: {}", underlayTopologyId);
@@ -520,6 +596,8 @@ public abstract class TopologyRequestHandler {
             YangInstanceIdentifier itemIdentifier = modelAdapters.get(outputModel)
                     .buildItemIdentifier(topologyIdentifier, CorrelationItemEnum.Node);
             LOG.debug("Registering link calculation overlay topology listener for topology: {}", overlayTopologyId);
+            // overlay listener is not throttled by the writer - it consumes what the writer writes, so holding
+            // it back would only delay draining of the queue
             DOMDataTreeIdentifier treeId = new DOMDataTreeIdentifier(LogicalDatastoreType.OPERATIONAL, itemIdentifier);
             ListenerRegistration<DOMDataTreeChangeListener> listenerRegistration =
                     domDataTreeChangeService.registerDataTreeChangeListener(treeId,
@@ -531,8 +609,31 @@ public abstract class TopologyRequestHandler {
         return calculator;
     }
 
+    private void setItemCompactor(UnderlayTopologyListener listener, CorrelationItemEnum correlationItem,
+            Class<? extends Model> inputModel, Map<Integer, YangInstanceIdentifier> pathIdentifiers,
+            Scripting scripting) {
+        if (!compactUnderlayItems || correlationItem == CorrelationItemEnum.TerminationPoint) {
+            return;
+        }
+        if (scripting != null) {
+            // aggregation scripts read arbitrary parts of underlay items
+            return;
+        }
+        List<YangInstanceIdentifier> retainedPaths = new ArrayList<>(pathIdentifiers.values());
+        if (correlationItem == CorrelationItemEnum.Node) {
+            // termination points are translated into overlay nodes
+            retainedPaths.add(I2rsModel.class.equals(inputModel)
+                    ? InstanceIdentifiers.I2RS_TP_IDENTIFIER : InstanceIdentifiers.NT_TP_IDENTIFIER);
+        }
+        listener.setItemCompactor(new ItemCompactor(retainedPaths));
+    }
+
     private void registerListener(UnderlayTopologyListener listener, Class<? extends Model> model,
             String topologyId, CorrelationItemEnum correlationItem) {
+        if (flapDampening != null) {
+            // dampener has to be in place before the first change arrives
+            installFlapDampener(listener);
+        }
         InstanceIdentifierBuilder topologyIdentifier = modelAdapters.get(model)
                 .createTopologyIdentifier(topologyId);
         YangInstanceIdentifier itemIdentifier = modelAdapters.get(model)
@@ -541,6 +642,44 @@ public abstract class TopologyRequestHandler {
         ListenerRegistration<DOMDataTreeChangeListener> listenerRegistration =
                 domDataTreeChangeService.registerDataTreeChangeListener(treeId, (DOMDataTreeChangeListener) listener);
         listeners.add(listenerRegistration);
+        writer.addBackpressureListener(listener);
+    }
+
+    /**
+     * Wraps the listener's operator into {@link FlapDampener}. When the listener feeds a join (inventory
+     * pipelines), the join's operator is wrapped instead, so that changes coming through all join inputs
+     * are dampened. Join emits items only once all its inputs hold them, so nothing passes the join before
+     * the listener is registered.
+     */
+    private void installFlapDampener(UnderlayTopologyListener listener) {
+        TopologyOperator operator = listener.getOperator();
+        FlapDampener dampener;
+        if (operator instanceof KeyedJoinOperator.Input) {
+            KeyedJoinOperator join = ((KeyedJoinOperator.Input) operator).getJoin();
+            dampener = createFlapDampener(join.getOperator());
+            join.setOperator(dampener);
+        } else {
+            dampener = createFlapDampener(operator);
+            listener.setOperator(dampener);
+        }
+        flapDampeners.add(dampener);
+        dampeningScheduler.scheduleWithFixedDelay(dampener::releaseReusableItems,
+                DAMPENING_RELEASE_PERIOD, DAMPENING_RELEASE_PERIOD, TimeUnit.SECONDS);
+    }
+
+    private FlapDampener createFlapDampener(TopologyOperator operator) {
+        return new FlapDampener(operator,
+                valueOrDefault(flapDampening.getHalfLife(), FlapDampener.DEFAULT_HALF_LIFE),
+                valueOrDefault(flapDampening.getFlapPenalty(), FlapDampener.DEFAULT_FLAP_PENALTY),
+                valueOrDefault(flapDampening.getSuppressThreshold(), FlapDampener.DEFAULT_SUPPRESS_THRESHOLD),
+                valueOrDefault(flapDampening.getReuseThreshold(), FlapDampener.DEFAULT_REUSE_THRESHOLD));
+    }
+
+    /**
+     * @return dampeners of flapping underlay items, empty if flap dampening is not configured
+     */
+    public List<FlapDampener> getFlapDampeners() {
+        return flapDampeners;
     }
 
     private Filter findFilter(List<Filter> filters, String filterId) {
@@ -605,6 +744,10 @@ public abstract class TopologyRequestHandler {
             listener.close();
         }
         listeners.clear();
+        if (dampeningScheduler != null) {
+            dampeningScheduler.shutdownNow();
+        }
+        flapDampeners.clear();
         writer.tearDown();
         if (timeOut > 0) {
             try {
@@ -8,15 +8,39 @@
 
 package org.opendaylight.topoprocessing.impl.structure;
 
+import com.google.common.base.Charsets;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
+import org.opendaylight.topoprocessing.api.structure.UnderlayItem;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.CorrelationItemEnum;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.OverlayIdStrategy;
 
 /**
+ * Generates identifiers of overlay items. With {@link OverlayIdStrategy#Sequential} identifiers come from
+ * internal counters, with {@link OverlayIdStrategy#ContentDerived} they are derived from a hash of the sorted
+ * identities (topology id and item id) of supporting underlay items, so restarts and replays produce
+ * the same identifiers. This holds only as long as derived identifiers don't collide: on collision the overlay
+ * item issued later gets the identifier derived from the full 128-bit hash of its underlay items. That identifier
+ * depends on the underlay items only, but which of the colliding overlay items is issued later depends on
+ * the order they arrived in.
+ *
  * @author matus.marko
  */
 public class IdentifierGenerator {
 
+    private final OverlayIdStrategy strategy;
+    /** content-derived identifiers currently in use */
+    private final Set<String> issuedIdentifiers = ConcurrentHashMap.newKeySet();
+
     /**
      * Value for internal counter.
      */
@@ -30,6 +54,20 @@ public class IdentifierGenerator {
     AtomicIntegerFieldUpdater<IdentifierGenerator> tpIdUpdater =
             AtomicIntegerFieldUpdater.newUpdater(IdentifierGenerator.class, "tpId");
 
+    /**
+     * Creates generator using {@link OverlayIdStrategy#Sequential} strategy.
+     */
+    public IdentifierGenerator() {
+        this(OverlayIdStrategy.Sequential);
+    }
+
+    /**
+     * @param strategy strategy used to assign identifiers, null means {@link OverlayIdStrategy#Sequential}
+     */
+    public IdentifierGenerator(OverlayIdStrategy strategy) {
+        this.strategy = strategy == null ? OverlayIdStrategy.Sequential : strategy;
+    }
+
     private int getNextNodeId() {
         return nodeIdUpdater.incrementAndGet(this);
     }
@@ -65,4 +103,109 @@ public class IdentifierGenerator {
         return identifier;
     }
 
+    /**
+     * Create identifier for an overlay item supported by given underlay items. Using
+     * {@link OverlayIdStrategy#ContentDerived} strategy the identifier is a hash of sorted identities
+     * of the underlay items, so it does not depend on the order the underlay items arrived in. On collision with
+     * an identifier in use, the full hash is used instead. Wrappers sharing an underlay item are merged, so
+     * the same identities never support two overlay items at once; should they, numeric suffix is appended to
+     * the full hash. Issued identifiers shall be returned by {@link #releaseIdentifier(String)} once the overlay
+     * item is removed.
+     *
+     * @param correlationItem Type of the Item to generate ID for
+     * @param underlayItems underlay items supporting the overlay item
+     * @return unique identifier
+     */
+    public String getIdentifier(CorrelationItemEnum correlationItem, Collection<UnderlayItem> underlayItems) {
+        if (strategy != OverlayIdStrategy.ContentDerived || underlayItems.isEmpty()) {
+            return getNextIdentifier(correlationItem);
+        }
+        return issueIdentifier(correlationItem, hashIdentities(underlayItems));
+    }
+
+    /**
+     * Re-derives content-derived identifier of an overlay item whose underlay items changed. Sequential
+     * identifiers never change.
+     *
+     * @param identifier current identifier of the overlay item
+     * @param correlationItem Type of the Item to generate ID for
+     * @param underlayItems all underlay items currently supporting the overlay item
+     * @return current identifier if it still matches the underlay items, new identifier otherwise
+     *         (the current one is released)
+     */
+    public String reissueIdentifier(String identifier, CorrelationItemEnum correlationItem,
+            Collection<UnderlayItem> underlayItems) {
+        if (strategy != OverlayIdStrategy.ContentDerived || underlayItems.isEmpty()) {
+            return identifier;
+        }
+        HashCode hash = hashIdentities(underlayItems);
+        String fullIdentifier = getFullIdentifier(correlationItem, hash);
+        if (identifier.equals(getShortIdentifier(correlationItem, hash)) || identifier.equals(fullIdentifier)
+                || identifier.startsWith(fullIdentifier + "-")) {
+            return identifier;
+        }
+        releaseIdentifier(identifier);
+        return issueIdentifier(correlationItem, hash);
+    }
+
+    private static HashCode hashIdentities(Collection<UnderlayItem> underlayItems) {
+        List<String> underlayIdentities = new ArrayList<>(underlayItems.size());
+        for (UnderlayItem underlayItem : underlayItems) {
+            underlayIdentities.add(underlayItem.getTopologyId() + '/' + underlayItem.getItemId());
+        }
+        Collections.sort(underlayIdentities);
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        String previousIdentity = null;
+        for (String underlayIdentity : underlayIdentities) {
+            if (!underlayIdentity.equals(previousIdentity)) {
+                hasher.putString(underlayIdentity, Charsets.UTF_8).putByte((byte) 0);
+                previousIdentity = underlayIdentity;
+            }
+        }
+        return hasher.hash();
+    }
+
+    private static String getShortIdentifier(CorrelationItemEnum correlationItem, HashCode hash) {
+        return getPrefix(correlationItem) + String.format("%016x", hash.asLong());
+    }
+
+    private static String getFullIdentifier(CorrelationItemEnum correlationItem, HashCode hash) {
+        return getPrefix(correlationItem) + hash.toString();
+    }
+
+    private String issueIdentifier(CorrelationItemEnum correlationItem, HashCode hash) {
+        String identifier = getShortIdentifier(correlationItem, hash);
+        if (issuedIdentifiers.add(identifier)) {
+            return identifier;
+        }
+        // full hash is derived from the underlay items too, so the identifier doesn't depend on arrival order
+        String fullIdentifier = getFullIdentifier(correlationItem, hash);
+        String candidate = fullIdentifier;
+        for (int suffix = 1; !issuedIdentifiers.add(candidate); suffix++) {
+            candidate = fullIdentifier + "-" + suffix;
+        }
+        return candidate;
+    }
+
+    /**
+     * Makes content-derived identifier available again. Has no effect on sequential identifiers.
+     *
+     * @param identifier identifier of removed overlay item
+     */
+    public void releaseIdentifier(String identifier) {
+        issuedIdentifiers.remove(identifier);
+    }
+
+    private static String getPrefix(CorrelationItemEnum correlationItem) {
+        switch (correlationItem) {
+            case Node:
+                return "node:";
+            case Link:
+                return "link:";
+            case TerminationPoint:
+                return "tp:";
+            default:
+                throw new IllegalStateException("Unknown Correlation item used: " + correlationItem);
+        }
+    }
 }
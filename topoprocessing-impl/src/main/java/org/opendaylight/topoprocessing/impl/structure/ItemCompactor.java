@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.topoprocessing.impl.structure;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.AugmentationNode;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerChild;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.OrderedMapNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.DataContainerNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableAugmentationNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableContainerNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableMapEntryNodeBuilder;
+
+/**
+ * Compacts underlay items, so that they hold only key leaves and subtrees on retained paths (relative to the item)
+ * instead of the whole underlay item. Retained subtrees are shared with the original item, everything else
+ * (statistics, flow tables, ...) can be garbage collected. List entries on a retained path are matched either
+ * by their key or by the list identifier, which stands for all entries of the list.
+ */
+public class ItemCompactor {
+
+    private final RetainedNode root = new RetainedNode();
+
+    /**
+     * @param retainedPaths paths of subtrees kept in compact items
+     */
+    public ItemCompactor(Collection<YangInstanceIdentifier> retainedPaths) {
+        for (YangInstanceIdentifier retainedPath : retainedPaths) {
+            RetainedNode node = root;
+            for (PathArgument argument : retainedPath.getPathArguments()) {
+                RetainedNode child = node.children.get(argument);
+                if (child == null) {
+                    child = new RetainedNode();
+                    node.children.put(argument, child);
+                }
+                node = child;
+            }
+            node.whole = true;
+        }
+    }
+
+    /**
+     * @param item underlay item
+     * @return copy of the item holding only its key leaves and retained subtrees
+     */
+    public MapEntryNode compact(MapEntryNode item) {
+        return (MapEntryNode) compact(item, root);
+    }
+
+    private static NormalizedNode<?, ?> compact(NormalizedNode<?, ?> node, RetainedNode retained) {
+        if (retained.whole) {
+            return node;
+        }
+        if (node instanceof MapEntryNode) {
+            MapEntryNode entry = (MapEntryNode) node;
+            return compactChildren(entry, retained, entry.getIdentifier().getKeyValues().keySet(),
+                    ImmutableMapEntryNodeBuilder.create());
+        } else if (node instanceof ContainerNode) {
+            return compactChildren((ContainerNode) node, retained, null, ImmutableContainerNodeBuilder.create());
+        } else if (node instanceof AugmentationNode) {
+            return compactChildren((AugmentationNode) node, retained, null, ImmutableAugmentationNodeBuilder.create());
+        } else if (node instanceof MapNode && !(node instanceof OrderedMapNode)) {
+            MapNode list = (MapNode) node;
+            CollectionNodeBuilder<MapEntryNode, MapNode> listBuilder =
+                    ImmutableNodes.mapNodeBuilder(list.getNodeType());
+            RetainedNode allEntries = retained.children.get(list.getIdentifier());
+            for (MapEntryNode entry : list.getValue()) {
+                RetainedNode retainedEntry = retained.children.get(entry.getIdentifier());
+                if (retainedEntry == null) {
+                    retainedEntry = allEntries;
+                }
+                if (retainedEntry != null) {
+                    listBuilder.withChild((MapEntryNode) compact(entry, retainedEntry));
+                }
+            }
+            return listBuilder.build();
+        }
+        // other nodes on a retained path are kept whole
+        return node;
+    }
+
+    private static <I extends PathArgument, R extends DataContainerNode<I>> R compactChildren(
+            DataContainerNode<I> node, RetainedNode retained, Set<QName> keys, DataContainerNodeBuilder<I, R> builder) {
+        builder.withNodeIdentifier(node.getIdentifier());
+        for (DataContainerChild<? extends PathArgument, ?> child : node.getValue()) {
+            PathArgument childArgument = child.getIdentifier();
+            if (keys != null && childArgument instanceof NodeIdentifier
+                    && keys.contains(childArgument.getNodeType())) {
+                builder.withChild(child);
+            } else {
+                RetainedNode retainedChild = retained.children.get(childArgument);
+                if (retainedChild != null) {
+                    builder.withChild((DataContainerChild<?, ?>) compact(child, retainedChild));
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private static final class RetainedNode {
+        private final Map<PathArgument, RetainedNode> children = new HashMap<>();
+        private boolean whole = false;
+    }
+}
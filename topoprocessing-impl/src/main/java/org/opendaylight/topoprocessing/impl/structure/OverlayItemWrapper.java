@@ -21,6 +21,8 @@ public class OverlayItemWrapper {
     private Queue<OverlayItem> overlayItems = new ConcurrentLinkedQueue<>();
     private String id;
     private MapNode aggregatedTerminationPoints;
+    private final TerminationPointIdentifiers terminationPointIdentifiers = new TerminationPointIdentifiers();
+    private final TranslationCache translationCache = new TranslationCache(terminationPointIdentifiers);
 
     /**
      * Constructor.
@@ -74,4 +76,18 @@ public class OverlayItemWrapper {
     public void setAggregatedTerminationPoints(MapNode aggregatedTerminationPoints) {
         this.aggregatedTerminationPoints = aggregatedTerminationPoints;
     }
+
+    /**
+     * @return identifiers of termination points translated under this wrapper
+     */
+    public TerminationPointIdentifiers getTerminationPointIdentifiers() {
+        return terminationPointIdentifiers;
+    }
+
+    /**
+     * @return children translated from underlay items of this wrapper
+     */
+    public TranslationCache getTranslationCache() {
+        return translationCache;
+    }
 }
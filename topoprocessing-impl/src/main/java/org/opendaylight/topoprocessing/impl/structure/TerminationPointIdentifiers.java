@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.topoprocessing.impl.structure;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+/**
+ * Keeps identifiers of termination points of one overlay item stable across translations.
+ * Termination point (identified e.g. by its tp-ref) gets an identifier when it is translated for the first
+ * time and keeps it until a translation no longer contains it. Issued numbers are recorded in a {@link BitSet}
+ * and the lowest released number is reused first, so the record stays as small as the largest termination
+ * point count the overlay item ever had.
+ */
+public class TerminationPointIdentifiers {
+
+    private static final String TP_ID_PREFIX = "tp:";
+
+    private final Map<String, Integer> identifiers = new HashMap<>();
+    private final BitSet issuedNumbers = new BitSet();
+    private final Set<String> requestedSinceRelease = new HashSet<>();
+
+    /**
+     * @param terminationPointIdentity stable identity of the underlay termination point
+     * @return identifier issued to the termination point
+     */
+    public synchronized String getIdentifier(String terminationPointIdentity) {
+        requestedSinceRelease.add(terminationPointIdentity);
+        Integer number = identifiers.get(terminationPointIdentity);
+        if (number == null) {
+            number = issuedNumbers.nextClearBit(1);
+            issuedNumbers.set(number);
+            identifiers.put(terminationPointIdentity, number);
+        }
+        return TP_ID_PREFIX + number;
+    }
+
+    /**
+     * Releases identifiers of termination points which were not requested since the previous release.
+     * Shall be called once the translation of the overlay item is finished.
+     */
+    public synchronized void releaseUnused() {
+        for (Iterator<Entry<String, Integer>> iterator = identifiers.entrySet().iterator(); iterator.hasNext();) {
+            Entry<String, Integer> identifier = iterator.next();
+            if (!requestedSinceRelease.contains(identifier.getKey())) {
+                issuedNumbers.clear(identifier.getValue());
+                iterator.remove();
+            }
+        }
+        requestedSinceRelease.clear();
+    }
+
+    /**
+     * Releases identifier of a termination point which is no longer present.
+     *
+     * @param terminationPointIdentity stable identity of the underlay termination point
+     */
+    public synchronized void release(String terminationPointIdentity) {
+        Integer number = identifiers.remove(terminationPointIdentity);
+        if (number != null) {
+            issuedNumbers.clear(number);
+        }
+        requestedSinceRelease.remove(terminationPointIdentity);
+    }
+
+    /**
+     * @return number of currently issued identifiers
+     */
+    public synchronized int size() {
+        return identifiers.size();
+    }
+}
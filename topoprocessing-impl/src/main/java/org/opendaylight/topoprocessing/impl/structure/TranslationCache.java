@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.topoprocessing.impl.structure;
+
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.opendaylight.topoprocessing.api.structure.OverlayItem;
+import org.opendaylight.topoprocessing.api.structure.UnderlayItem;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+
+/**
+ * Caches child subtrees translated from underlay items of one overlay item, so that a translation reuses
+ * children of unchanged underlay items by reference. Children are cached per child type, correlation item
+ * of the overlay item and underlay item (identified by its topology-id and item-id) together with the version
+ * they were translated from - item and leaf nodes of the underlay item, compared by identity. Children which
+ * were not requested since the previous release are dropped, so the cache holds only children of the latest
+ * translation.
+ */
+public class TranslationCache {
+
+    /**
+     * Translates children of one underlay item.
+     * @param <T> type of the children
+     */
+    public interface ChildTranslator<T extends NormalizedNode<?, ?>> {
+        /**
+         * @param underlayItem underlay item
+         * @param tpIdentities collects identities of termination points whose identifiers the children use
+         * @return translated children
+         */
+        List<T> translate(UnderlayItem underlayItem, List<String> tpIdentities);
+    }
+
+    private final TerminationPointIdentifiers tpIdentifiers;
+    /** child type -> correlation item and underlay item key -> children */
+    private final Map<QName, Map<String, CachedChildren>> children = new HashMap<>();
+    private final Map<QName, CachedMapNode> mapNodes = new HashMap<>();
+
+    /**
+     * @param tpIdentifiers identifiers of termination points of the same overlay item
+     */
+    public TranslationCache(TerminationPointIdentifiers tpIdentifiers) {
+        this.tpIdentifiers = Preconditions.checkNotNull(tpIdentifiers);
+    }
+
+    /**
+     * @param childType type of the children
+     * @param overlayItem overlay item wrapping the underlay item, its correlation item affects the children
+     * @param underlayItem underlay item the children are translated from
+     * @param translator translates the children if there are none cached for the current version of the item
+     * @return children of the underlay item
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T extends NormalizedNode<?, ?>> List<T> getChildren(QName childType,
+            OverlayItem overlayItem, UnderlayItem underlayItem, ChildTranslator<T> translator) {
+        Map<String, CachedChildren> cachedChildren = children.get(childType);
+        if (cachedChildren == null) {
+            cachedChildren = new HashMap<>();
+            children.put(childType, cachedChildren);
+        }
+        String key = overlayItem.getCorrelationItem() + "/" + underlayItem.getTopologyId() + "/"
+                + underlayItem.getItemId();
+        CachedChildren cached = cachedChildren.get(key);
+        if (cached == null || !cached.isValid(underlayItem)) {
+            List<String> tpIdentities = new ArrayList<>();
+            List<T> translated = translator.translate(underlayItem, tpIdentities);
+            cached = new CachedChildren(underlayItem, translated, tpIdentities);
+            cachedChildren.put(key, cached);
+        }
+        cached.requested = true;
+        return (List<T>) cached.children;
+    }
+
+    /**
+     * @param listType type of the list
+     * @param entries entries of the list
+     * @return list containing the entries - the previously returned list if its entries are the same instances
+     */
+    public synchronized MapNode getMapNode(QName listType, List<MapEntryNode> entries) {
+        CachedMapNode cached = mapNodes.get(listType);
+        if (cached == null || !cached.hasEntries(entries)) {
+            CollectionNodeBuilder<MapEntryNode, MapNode> builder = ImmutableNodes.mapNodeBuilder(listType);
+            for (MapEntryNode entry : entries) {
+                builder.withChild(entry);
+            }
+            cached = new CachedMapNode(builder.build(), new ArrayList<>(entries));
+            mapNodes.put(listType, cached);
+        }
+        return cached.mapNode;
+    }
+
+    /**
+     * Drops children which were not requested since the previous release.
+     * Shall be called once the translation of the overlay item is finished.
+     */
+    public synchronized void releaseUnused() {
+        for (Map<String, CachedChildren> cachedChildren : children.values()) {
+            for (Iterator<CachedChildren> iterator = cachedChildren.values().iterator(); iterator.hasNext();) {
+                CachedChildren cached = iterator.next();
+                if (cached.requested) {
+                    cached.requested = false;
+                } else {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return number of underlay items with cached children
+     */
+    public synchronized int size() {
+        int size = 0;
+        for (Map<String, CachedChildren> cachedChildren : children.values()) {
+            size += cachedChildren.size();
+        }
+        return size;
+    }
+
+    private final class CachedChildren {
+        private final NormalizedNode<?, ?> item;
+        private final Map<Integer, NormalizedNode<?, ?>> leafNodes;
+        private final List<? extends NormalizedNode<?, ?>> children;
+        private final List<String> tpIdentities;
+        private final List<String> tpIds;
+        private boolean requested = false;
+
+        CachedChildren(UnderlayItem underlayItem, List<? extends NormalizedNode<?, ?>> children,
+                List<String> tpIdentities) {
+            this.item = underlayItem.getItem();
+            this.leafNodes = underlayItem.getLeafNodes();
+            this.children = Collections.unmodifiableList(children);
+            this.tpIdentities = tpIdentities;
+            this.tpIds = new ArrayList<>(tpIdentities.size());
+            for (String tpIdentity : tpIdentities) {
+                tpIds.add(tpIdentifiers.getIdentifier(tpIdentity));
+            }
+        }
+
+        /**
+         * Identifiers of termination points used by the children are requested again, so that they stay issued.
+         * @return true if the children were translated from the current version of the underlay item
+         */
+        boolean isValid(UnderlayItem underlayItem) {
+            if (item != underlayItem.getItem() || leafNodes != underlayItem.getLeafNodes()) {
+                return false;
+            }
+            for (int i = 0; i < tpIdentities.size(); i++) {
+                if (!tpIds.get(i).equals(tpIdentifiers.getIdentifier(tpIdentities.get(i)))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class CachedMapNode {
+        private final MapNode mapNode;
+        private final List<MapEntryNode> entries;
+
+        CachedMapNode(MapNode mapNode, List<MapEntryNode> entries) {
+            this.mapNode = mapNode;
+            this.entries = entries;
+        }
+
+        boolean hasEntries(List<MapEntryNode> otherEntries) {
+            if (entries.size() != otherEntries.size()) {
+                return false;
+            }
+            for (int i = 0; i < entries.size(); i++) {
+                if (entries.get(i) != otherEntries.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -7,10 +7,21 @@
  */
 package org.opendaylight.topoprocessing.impl.translator;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+import org.opendaylight.topoprocessing.impl.util.TopologyQNames;
 import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.NetworkTopology;
 import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.Topology;
 import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.Node;
 import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.node.TerminationPoint;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeWithValue;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafSetEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafSetNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableLeafSetEntryNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableLeafSetNodeBuilder;
 
 /**
  * @author samuel.kontris
@@ -18,19 +29,62 @@ import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.
  */
 public final class TranslatorHelper {
 
+    private static final String TP_REF_PREFIX = "/" + NetworkTopology.QNAME.getLocalName() + ":"
+            + NetworkTopology.QNAME.getLocalName() + "/" + Topology.QNAME.getLocalName() + "/";
+    private static final String TP_REF_NODE = "/" + Node.QNAME.getLocalName() + "/";
+    private static final String TP_REF_TERMINATION_POINT = "/" + TerminationPoint.QNAME.getLocalName() + "/";
+    private static final NodeIdentifier TP_REF_IDENTIFIER = new NodeIdentifier(TopologyQNames.TP_REF);
+
+    // tp-ref leaves are shared by all termination points referring to the same underlay termination point,
+    // as long as any of them is in use
+    private static final LoadingCache<String, LeafSetEntryNode<String>> TP_REF_ENTRIES = CacheBuilder.newBuilder()
+            .weakValues().build(new CacheLoader<String, LeafSetEntryNode<String>>() {
+                @Override
+                public LeafSetEntryNode<String> load(String tpRefValue) {
+                    return ImmutableLeafSetEntryNodeBuilder.<String>create()
+                            .withNodeIdentifier(new NodeWithValue<String>(TopologyQNames.TP_REF, tpRefValue))
+                            .withValue(tpRefValue).build();
+                }
+            });
+    private static final LoadingCache<String, LeafSetNode<String>> TP_REF_LEAF_SETS = CacheBuilder.newBuilder()
+            .weakValues().build(new CacheLoader<String, LeafSetNode<String>>() {
+                @Override
+                public LeafSetNode<String> load(String tpRefValue) {
+                    return ImmutableLeafSetNodeBuilder.<String>create().withNodeIdentifier(TP_REF_IDENTIFIER)
+                            .withChild(TP_REF_ENTRIES.getUnchecked(tpRefValue)).build();
+                }
+            });
+
     private TranslatorHelper(){
     }
 
     public static String createTpRefNT(String topologyId, String nodeId, String tpId) {
-        StringBuilder tpRefValue = new StringBuilder();
-        tpRefValue.append('/').append(NetworkTopology.QNAME.getLocalName()).append(':')
-                .append(NetworkTopology.QNAME.getLocalName()).append('/')
-                .append(Topology.QNAME.getLocalName()).append('/')
-                .append(topologyId).append('/')
-                .append(Node.QNAME.getLocalName()).append('/')
-                .append(nodeId).append('/')
-                .append(TerminationPoint.QNAME.getLocalName()).append('/')
-                .append(tpId);
+        StringBuilder tpRefValue = new StringBuilder(TP_REF_PREFIX.length() + TP_REF_NODE.length()
+                + TP_REF_TERMINATION_POINT.length() + length(topologyId) + length(nodeId) + length(tpId));
+        tpRefValue.append(TP_REF_PREFIX).append(topologyId)
+                .append(TP_REF_NODE).append(nodeId)
+                .append(TP_REF_TERMINATION_POINT).append(tpId);
         return tpRefValue.toString();
     }
+
+    /**
+     * @param tpRefValue tp-ref created by {@link #createTpRefNT(String, String, String)}
+     * @return tp-ref leaf-list entry, shared with other termination points referring to the same tp-ref
+     */
+    public static LeafSetEntryNode<String> createTpRefEntryNT(String tpRefValue) {
+        return TP_REF_ENTRIES.getUnchecked(tpRefValue);
+    }
+
+    /**
+     * @param tpRefValue tp-ref created by {@link #createTpRefNT(String, String, String)}
+     * @return tp-ref leaf-list containing the single tp-ref, shared with other termination points referring
+     *         to the same tp-ref
+     */
+    public static LeafSetNode<String> createTpRefLeafSetNT(String tpRefValue) {
+        return TP_REF_LEAF_SETS.getUnchecked(tpRefValue);
+    }
+
+    private static int length(String value) {
+        return value == null ? 4 : value.length();
+    }
 }
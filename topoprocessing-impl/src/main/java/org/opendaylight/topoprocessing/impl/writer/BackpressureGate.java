@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.topoprocessing.impl.writer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds back the intake of underlay changes while {@link TopologyWriter} is throttled. Waiting is not limited
+ * in time - the writer resumes the intake once its queue drains to the low watermark or once it is torn down,
+ * so the queue never grows past the high watermark by more than the changes already being processed.
+ * One gate can be shared by all listeners feeding the same pipeline.
+ */
+public class BackpressureGate implements BackpressureListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BackpressureGate.class);
+    /** interval in ms in which a waiting intake reports that the writer is still throttled */
+    public static final long THROTTLE_REPORT_INTERVAL = 5000;
+
+    private final String underlayTopologyId;
+    private final Object monitor = new Object();
+    private volatile boolean throttled = false;
+
+    /**
+     * @param underlayTopologyId underlay topology whose changes are held back, used in log messages
+     */
+    public BackpressureGate(String underlayTopologyId) {
+        this.underlayTopologyId = underlayTopologyId;
+    }
+
+    @Override
+    public void onThrottled() {
+        throttled = true;
+    }
+
+    @Override
+    public void onResumed() {
+        synchronized (monitor) {
+            throttled = false;
+            monitor.notifyAll();
+        }
+    }
+
+    /**
+     * Blocks until the writer is not throttled. Shall be called before every processed change.
+     */
+    public void awaitResumed() {
+        if (!throttled) {
+            return;
+        }
+        long start = System.nanoTime();
+        synchronized (monitor) {
+            while (throttled) {
+                try {
+                    monitor.wait(THROTTLE_REPORT_INTERVAL);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    LOGGER.warn("Interrupted while writer of overlay topology is throttled, processing changes "
+                            + "from underlay topology {} anyway", underlayTopologyId);
+                    return;
+                }
+                if (throttled) {
+                    LOGGER.warn("Writer of overlay topology still throttled after {} ms, changes from underlay "
+                            + "topology {} keep waiting", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                            underlayTopologyId);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if the intake is currently held back
+     */
+    public boolean isThrottled() {
+        return throttled;
+    }
+}
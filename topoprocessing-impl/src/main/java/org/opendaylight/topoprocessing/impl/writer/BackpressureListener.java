@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.topoprocessing.impl.writer;
+
+/**
+ * Receives throttling signals from {@link TopologyWriter}. Writer throttles once its queued operations reach
+ * the high watermark and resumes once they drop to the low watermark.
+ */
+public interface BackpressureListener {
+
+    /**
+     * Writer can't keep up with the incoming changes - intake should be slowed down.
+     */
+    void onThrottled();
+
+    /**
+     * Writer caught up - intake can continue at full speed.
+     */
+    void onResumed();
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.topoprocessing.impl.writer;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+
+import org.opendaylight.controller.md.sal.dom.api.DOMDataWriteTransaction;
+
+/**
+ * Groups operations changing one overlay item, so that they always end up in the same transaction.
+ */
+public class CompositeOperation implements TransactionOperation {
+
+    private final List<TransactionOperation> operations;
+
+    /**
+     * @param operations operations to be added into transaction in given order
+     */
+    public CompositeOperation(List<TransactionOperation> operations) {
+        Preconditions.checkNotNull(operations);
+        this.operations = ImmutableList.copyOf(operations);
+    }
+
+    @Override
+    public void addOperationIntoTransaction(DOMDataWriteTransaction transaction) {
+        for (TransactionOperation operation : operations) {
+            operation.addOperationIntoTransaction(transaction);
+        }
+    }
+
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.topoprocessing.impl.writer;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+
+/**
+ * Queue of prepared {@link TransactionOperation}s split into priority classes. Operations are polled
+ * from the highest non-empty class, FIFO within a class. Operations on the same identifier are never
+ * reordered - an operation is queued into its requested class or into the lowest class still holding
+ * a pending operation on the same identifier, whichever is lower. Superseding operations (e.g. removals) cancel
+ * all pending operations on the same identifier instead, so they always keep their requested class.
+ */
+final class PrioritizedOperationQueue {
+
+    /**
+     * Priority classes, in the order they are polled.
+     */
+    enum Priority {
+        /** removals, topology-level operations and tear-down */
+        HIGH,
+        /** updates of existing items */
+        NORMAL,
+        /** creation of new items */
+        LOW
+    }
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final Queue<QueuedOperation>[] queues;
+    /** identifier -> pending operations in the order they were queued */
+    private final ConcurrentMap<YangInstanceIdentifier, Deque<QueuedOperation>> pendingOperations =
+            new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private volatile boolean closed = false;
+
+    @SuppressWarnings("unchecked")
+    PrioritizedOperationQueue() {
+        queues = new Queue[PRIORITIES.length];
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * Queues operation. Ignored once the queue is closed.
+     *
+     * @param identifier identifier the operation writes to
+     * @param operation operation to be queued
+     * @param priority requested priority class
+     */
+    void add(YangInstanceIdentifier identifier, final TransactionOperation operation, final Priority priority) {
+        enqueue(identifier, operation, priority, false);
+    }
+
+    /**
+     * Queues operation making all pending operations on the same identifier obsolete (e.g. removal of the item).
+     * Pending operations are cancelled, so the operation is queued into its requested class. Ignored once
+     * the queue is closed.
+     *
+     * @param identifier identifier the operation writes to
+     * @param operation operation to be queued
+     * @param priority requested priority class
+     */
+    void supersede(YangInstanceIdentifier identifier, final TransactionOperation operation, final Priority priority) {
+        enqueue(identifier, operation, priority, true);
+    }
+
+    private void enqueue(YangInstanceIdentifier identifier, final TransactionOperation operation,
+            final Priority priority, final boolean superseding) {
+        Preconditions.checkNotNull(identifier);
+        Preconditions.checkNotNull(operation);
+        if (closed) {
+            return;
+        }
+        pendingOperations.compute(identifier, (operationIdentifier, pending) -> {
+            Deque<QueuedOperation> operations = pending == null ? new ArrayDeque<>() : pending;
+            int queueIndex = priority.ordinal();
+            if (superseding) {
+                for (QueuedOperation pendingOperation : operations) {
+                    if (pendingOperation.claim()) {
+                        size.decrementAndGet();
+                    }
+                }
+                operations.clear();
+            } else {
+                for (QueuedOperation pendingOperation : operations) {
+                    // do not overtake pending operation on the same identifier
+                    queueIndex = Math.max(queueIndex, pendingOperation.queueIndex);
+                }
+            }
+            QueuedOperation queuedOperation = new QueuedOperation(operationIdentifier, operation, queueIndex);
+            operations.add(queuedOperation);
+            queues[queueIndex].add(queuedOperation);
+            size.incrementAndGet();
+            return operations;
+        });
+    }
+
+    /**
+     * @return operation with the highest priority or null if the queue is empty
+     */
+    TransactionOperation poll() {
+        for (Queue<QueuedOperation> queue : queues) {
+            QueuedOperation queuedOperation;
+            while ((queuedOperation = queue.poll()) != null) {
+                if (!queuedOperation.claim()) {
+                    // cancelled by superseding operation
+                    continue;
+                }
+                size.decrementAndGet();
+                final QueuedOperation polledOperation = queuedOperation;
+                pendingOperations.computeIfPresent(polledOperation.identifier, (identifier, operations) -> {
+                    operations.remove(polledOperation);
+                    return operations.isEmpty() ? null : operations;
+                });
+                return polledOperation.operation;
+            }
+        }
+        return null;
+    }
+
+    boolean isEmpty() {
+        return size.get() == 0;
+    }
+
+    /**
+     * @return number of queued operations
+     */
+    int size() {
+        return size.get();
+    }
+
+    /**
+     * Drops all queued operations and ignores any further ones.
+     */
+    void close() {
+        closed = true;
+        for (Queue<QueuedOperation> queue : queues) {
+            queue.clear();
+        }
+        pendingOperations.clear();
+        size.set(0);
+    }
+
+    private static final class QueuedOperation {
+        private final YangInstanceIdentifier identifier;
+        private final TransactionOperation operation;
+        private final int queueIndex;
+        /** set once the operation is polled or cancelled */
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        QueuedOperation(YangInstanceIdentifier identifier, TransactionOperation operation, int queueIndex) {
+            this.identifier = identifier;
+            this.operation = operation;
+            this.queueIndex = queueIndex;
+        }
+
+        /**
+         * @return true if the caller is the first one to poll or cancel the operation
+         */
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
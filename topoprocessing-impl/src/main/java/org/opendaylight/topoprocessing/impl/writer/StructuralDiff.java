@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.topoprocessing.impl.writer;
+
+import com.google.common.base.Optional;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerChild;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+
+/**
+ * Computes operations transforming previously written overlay item into its new translation.
+ * Children of the item and entries of its lists (supporting nodes, termination points...) are compared
+ * one by one, only changed subtrees are put and only removed subtrees are deleted.
+ */
+final class StructuralDiff {
+
+    private StructuralDiff() {
+        throw new UnsupportedOperationException("StructuralDiff can't be instantiated.");
+    }
+
+    /**
+     * @param itemIdentifier datastore identifier of the overlay item
+     * @param writtenItem last written item, null if the item was not written yet
+     * @param newItem new translation of the item
+     * @return operations to be applied, empty if nothing changed
+     */
+    static List<TransactionOperation> diff(YangInstanceIdentifier itemIdentifier, NormalizedNode<?, ?> writtenItem,
+            NormalizedNode<?, ?> newItem) {
+        List<TransactionOperation> operations = new ArrayList<>();
+        if (writtenItem == null || !(writtenItem instanceof DataContainerNode)
+                || !(newItem instanceof DataContainerNode)
+                || !writtenItem.getIdentifier().equals(newItem.getIdentifier())) {
+            operations.add(new PutOperation(itemIdentifier, newItem));
+        } else if (!writtenItem.equals(newItem)) {
+            diffChildren(itemIdentifier, (DataContainerNode<?>) writtenItem, (DataContainerNode<?>) newItem,
+                    operations);
+        }
+        return operations;
+    }
+
+    private static void diffChildren(YangInstanceIdentifier itemIdentifier, DataContainerNode<?> writtenItem,
+            DataContainerNode<?> newItem, List<TransactionOperation> operations) {
+        for (DataContainerChild<? extends PathArgument, ?> newChild : newItem.getValue()) {
+            YangInstanceIdentifier childIdentifier = itemIdentifier.node(newChild.getIdentifier());
+            Optional<DataContainerChild<? extends PathArgument, ?>> writtenChild =
+                    writtenItem.getChild(newChild.getIdentifier());
+            if (!writtenChild.isPresent()) {
+                operations.add(new PutOperation(childIdentifier, newChild));
+            } else if (!writtenChild.get().equals(newChild)) {
+                if (writtenChild.get() instanceof MapNode && newChild instanceof MapNode) {
+                    diffEntries(childIdentifier, (MapNode) writtenChild.get(), (MapNode) newChild, operations);
+                } else {
+                    operations.add(new PutOperation(childIdentifier, newChild));
+                }
+            }
+        }
+        for (DataContainerChild<? extends PathArgument, ?> writtenChild : writtenItem.getValue()) {
+            if (!newItem.getChild(writtenChild.getIdentifier()).isPresent()) {
+                operations.add(new DeleteOperation(itemIdentifier.node(writtenChild.getIdentifier())));
+            }
+        }
+    }
+
+    private static void diffEntries(YangInstanceIdentifier mapIdentifier, MapNode writtenMap, MapNode newMap,
+            List<TransactionOperation> operations) {
+        for (MapEntryNode newEntry : newMap.getValue()) {
+            Optional<MapEntryNode> writtenEntry = writtenMap.getChild(newEntry.getIdentifier());
+            if (!writtenEntry.isPresent() || !writtenEntry.get().equals(newEntry)) {
+                operations.add(new PutOperation(mapIdentifier.node(newEntry.getIdentifier()), newEntry));
+            }
+        }
+        for (MapEntryNode writtenEntry : writtenMap.getValue()) {
+            if (!newMap.getChild(writtenEntry.getIdentifier()).isPresent()) {
+                operations.add(new DeleteOperation(mapIdentifier.node(writtenEntry.getIdentifier())));
+            }
+        }
+    }
+}
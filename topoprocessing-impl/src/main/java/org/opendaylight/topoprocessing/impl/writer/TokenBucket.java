@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.topoprocessing.impl.writer;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket refilled at a constant rate up to its capacity. Bucket starts full.
+ */
+final class TokenBucket {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final Ticker ticker;
+    private final long capacity;
+    private final double nanosPerToken;
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * @param tokensPerSecond refill rate
+     * @param capacity maximum number of stored tokens (burst size)
+     */
+    TokenBucket(long tokensPerSecond, long capacity) {
+        this(tokensPerSecond, capacity, Ticker.systemTicker());
+    }
+
+    TokenBucket(long tokensPerSecond, long capacity, Ticker ticker) {
+        Preconditions.checkArgument(tokensPerSecond > 0, "Rate has to be positive: %s", tokensPerSecond);
+        Preconditions.checkArgument(capacity > 0, "Capacity has to be positive: %s", capacity);
+        this.ticker = Preconditions.checkNotNull(ticker);
+        this.capacity = capacity;
+        this.nanosPerToken = (double) NANOS_PER_SECOND / tokensPerSecond;
+        this.tokens = capacity;
+        this.lastRefill = ticker.read();
+    }
+
+    /**
+     * @return true if a token was available and has been taken
+     */
+    synchronized boolean tryAcquire() {
+        refill();
+        if (tokens >= 1) {
+            tokens--;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return nanoseconds until the next token is available, 0 if a token is available now
+     */
+    synchronized long nanosUntilNextToken() {
+        refill();
+        if (tokens >= 1) {
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) * nanosPerToken);
+    }
+
+    private void refill() {
+        long now = ticker.read();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) / nanosPerToken);
+        lastRefill = now;
+    }
+}
@@ -8,16 +8,22 @@
 
 package org.opendaylight.topoprocessing.impl.writer;
 
+import com.google.common.base.Preconditions;
 import com.google.common.util.concurrent.CheckedFuture;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.opendaylight.controller.md.sal.common.api.data.AsyncTransaction;
 import org.opendaylight.controller.md.sal.common.api.data.TransactionChain;
@@ -27,7 +33,7 @@ import org.opendaylight.controller.md.sal.dom.api.DOMDataWriteTransaction;
 import org.opendaylight.controller.md.sal.dom.api.DOMTransactionChain;
 import org.opendaylight.topoprocessing.impl.structure.OverlayItemWrapper;
 import org.opendaylight.topoprocessing.impl.translator.OverlayItemTranslator;
-import org.opendaylight.topoprocessing.impl.util.IgnoreAddQueue;
+import org.opendaylight.topoprocessing.impl.writer.PrioritizedOperationQueue.Priority;
 import org.opendaylight.topoprocessing.impl.util.InstanceIdentifiers;
 import org.opendaylight.topoprocessing.impl.util.TopologyQNames;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev150608.Network;
@@ -52,6 +58,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
+ * Writes overlay items into datastore. Operations are queued and written in batches by a single thread.
+ * Once the number of queued operations reaches the high watermark, registered {@link BackpressureListener}s
+ * are throttled until the queue drains to the low watermark. Optionally, item writes are limited by a token bucket -
+ * writes exceeding the rate are deferred and coalesced, so that only the latest version of every deferred item
+ * is written once tokens are available. Deferred items are translated only when they are written. Removals and
+ * topology-level operations are never deferred. Queue depth and throttling statistics are logged whenever the
+ * intake is throttled or resumed, rate limit statistics whenever the deferred items are all written.
  * @author michal.polkorab
  *
  */
@@ -61,15 +74,33 @@ public class TopologyWriter implements TransactionChainListener {
     private static final int MAXIMUM_OPERATIONS = 50;
     private static final int EXECUTOR_POOL_THREADS = 1;
     private static final int SHUTDOWN_SUBMIT_TIMEOUT = 500;
+    public static final int DEFAULT_HIGH_WATERMARK = 10000;
+    public static final int DEFAULT_LOW_WATERMARK = 5000;
     private String topologyId;
     private OverlayItemTranslator translator;
     private DOMTransactionChain transactionChain;
     private YangInstanceIdentifier topologyIdentifier;
     private YangInstanceIdentifier nodeIdentifier;
     private YangInstanceIdentifier linkIdentifier;
-    private Queue<TransactionOperation> preparedOperations;
-    private ThreadPoolExecutor pool;
+    private final PrioritizedOperationQueue preparedOperations = new PrioritizedOperationQueue();
+    private ScheduledThreadPoolExecutor pool;
     private Class<? extends Model> model;
+    /** last written translation of every overlay item, used to write only changed subtrees */
+    private final ConcurrentMap<YangInstanceIdentifier, NormalizedNode<?, ?>> writtenItems =
+            new ConcurrentHashMap<>();
+    private final List<BackpressureListener> backpressureListeners = new CopyOnWriteArrayList<>();
+    private volatile int highWatermark = DEFAULT_HIGH_WATERMARK;
+    private volatile int lowWatermark = DEFAULT_LOW_WATERMARK;
+    private final AtomicBoolean throttled = new AtomicBoolean(false);
+    private final AtomicLong throttleCount = new AtomicLong();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private volatile TokenBucket rateLimit;
+    /** wrappers whose write has been deferred by rate limit, translated when flushed */
+    private final ConcurrentMap<YangInstanceIdentifier, OverlayItemWrapper> deferredItems =
+            new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final AtomicLong deferredWriteCount = new AtomicLong();
+    private final AtomicLong coalescedWriteCount = new AtomicLong();
 
     private static final AtomicIntegerFieldUpdater<TopologyWriter> WRITE_SCHEDULED_UPDATER =
             AtomicIntegerFieldUpdater.newUpdater(TopologyWriter.class, "writeScheduled");
@@ -82,6 +113,13 @@ public class TopologyWriter implements TransactionChainListener {
         }
     };
 
+    private final Runnable flushTask = new Runnable() {
+        @Override
+        public void run() {
+            TopologyWriter.this.flushDeferredItems();
+        }
+    };
+
     /**
      * Default constructor.
      * @param topologyId topologyId of overlay topology
@@ -107,7 +145,6 @@ public class TopologyWriter implements TransactionChainListener {
             nodeIdentifier = YangInstanceIdentifier.builder(topologyIdentifier).node(Node.QNAME).build();
             linkIdentifier = YangInstanceIdentifier.builder(topologyIdentifier).node(Link.QNAME).build();
         }
-        preparedOperations = new ConcurrentLinkedQueue<>();
         pool = new ScheduledThreadPoolExecutor(EXECUTOR_POOL_THREADS);
     }
 
@@ -130,7 +167,7 @@ public class TopologyWriter implements TransactionChainListener {
                                     .withChild(nodeMapNode)
                                     .withChild(linkMapNode).build())
                             .build();
-            preparedOperations.add(new MergeOperation(networkId, networkNode));
+            preparedOperations.add(networkId, new MergeOperation(networkId, networkNode), Priority.HIGH);
         } else {
             YangInstanceIdentifier networkId = YangInstanceIdentifier.of(NetworkTopology.QNAME);
 
@@ -145,7 +182,7 @@ public class TopologyWriter implements TransactionChainListener {
                                     .withChild(linkMapNode).build())
                             .build())
                     .build();
-            preparedOperations.add(new MergeOperation(networkId, networkNode));
+            preparedOperations.add(networkId, new MergeOperation(networkId, networkNode), Priority.HIGH);
         }
         scheduleWrite();
     }
@@ -155,9 +192,44 @@ public class TopologyWriter implements TransactionChainListener {
      * @param itemType item type
      */
     public void writeItem(final OverlayItemWrapper wrapper, CorrelationItemEnum itemType) {
-        NormalizedNode<?, ?> node = translator.translate(wrapper);
-        preparedOperations.add(new PutOperation(createItemIdentifier(wrapper, itemType), node));
+        final YangInstanceIdentifier identifier = createItemIdentifier(wrapper, itemType);
+        final TokenBucket bucket = rateLimit;
+        // once deferred, item stays deferred until flushed, so that its writes are not reordered
+        final boolean defer = deferredItems.containsKey(identifier) || (bucket != null && !bucket.tryAcquire());
+        // deferred writes are translated on flush, so translation of coalesced writes is saved
+        final NormalizedNode<?, ?> node = defer ? null : translator.translate(wrapper);
+        // computing the delta and queuing it is atomic per item, so deltas are queued in the order they build on
+        writtenItems.compute(identifier, (itemIdentifier, writtenNode) -> {
+            if (defer || deferredItems.containsKey(itemIdentifier)) {
+                deferredWriteCount.incrementAndGet();
+                if (deferredItems.put(itemIdentifier, wrapper) != null) {
+                    coalescedWriteCount.incrementAndGet();
+                }
+                return writtenNode;
+            }
+            return enqueueDelta(itemIdentifier, writtenNode, node);
+        });
         scheduleWrite();
+        scheduleFlush();
+    }
+
+    /**
+     * Queues operations changing writtenNode into newNode. Has to be called while holding the item's mapping
+     * in writtenItems.
+     * @return newNode
+     */
+    private NormalizedNode<?, ?> enqueueDelta(YangInstanceIdentifier itemIdentifier, NormalizedNode<?, ?> writtenNode,
+            NormalizedNode<?, ?> newNode) {
+        List<TransactionOperation> delta = StructuralDiff.diff(itemIdentifier, writtenNode, newNode);
+        Priority priority = writtenNode == null ? Priority.LOW : Priority.NORMAL;
+        if (delta.size() == 1) {
+            preparedOperations.add(itemIdentifier, delta.get(0), priority);
+        } else if (!delta.isEmpty()) {
+            preparedOperations.add(itemIdentifier, new CompositeOperation(delta), priority);
+        } else {
+            LOGGER.trace("Item {} has not changed - no write needed", itemIdentifier);
+        }
+        return newNode;
     }
 
     /**
@@ -165,7 +237,14 @@ public class TopologyWriter implements TransactionChainListener {
      * @param itemType item type
      */
     public void deleteItem(final OverlayItemWrapper wrapper, CorrelationItemEnum itemType) {
-        preparedOperations.add(new DeleteOperation(createItemIdentifier(wrapper, itemType)));
+        writtenItems.compute(createItemIdentifier(wrapper, itemType), (itemIdentifier, writtenNode) -> {
+            if (deferredItems.remove(itemIdentifier) != null) {
+                coalescedWriteCount.incrementAndGet();
+            }
+            // pending writes of the item are obsolete once it is deleted
+            preparedOperations.supersede(itemIdentifier, new DeleteOperation(itemIdentifier), Priority.HIGH);
+            return null;
+        });
         scheduleWrite();
     }
 
@@ -202,6 +281,86 @@ public class TopologyWriter implements TransactionChainListener {
         this.translator = translator;
     }
 
+    /**
+     * @param highWatermark number of queued operations at which the intake gets throttled
+     * @param lowWatermark number of queued operations at which the throttled intake resumes
+     */
+    public void setWatermarks(int highWatermark, int lowWatermark) {
+        Preconditions.checkArgument(lowWatermark >= 0, "Low watermark can't be negative: %s", lowWatermark);
+        Preconditions.checkArgument(highWatermark > lowWatermark,
+                "High watermark (%s) has to be greater than low watermark (%s)", highWatermark, lowWatermark);
+        this.highWatermark = highWatermark;
+        this.lowWatermark = lowWatermark;
+    }
+
+    /**
+     * Limits the rate of item writes. Writes exceeding the rate are deferred and coalesced.
+     * @param operationsPerSecond number of item writes allowed per second
+     * @param burstSize number of item writes allowed at once after a quiet period
+     */
+    public void setRateLimit(long operationsPerSecond, long burstSize) {
+        rateLimit = new TokenBucket(operationsPerSecond, burstSize);
+    }
+
+    /**
+     * @param listener listener to be signaled when the intake should be throttled / resumed
+     */
+    public void addBackpressureListener(BackpressureListener listener) {
+        backpressureListeners.add(Preconditions.checkNotNull(listener));
+        if (throttled.get()) {
+            listener.onThrottled();
+        }
+    }
+
+    /**
+     * @return number of currently queued operations
+     */
+    int getQueueDepth() {
+        return preparedOperations.size();
+    }
+
+    /**
+     * @return highest number of queued operations seen so far
+     */
+    int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    /**
+     * @return how many times the intake has been throttled so far
+     */
+    long getThrottleCount() {
+        return throttleCount.get();
+    }
+
+    /**
+     * @return how many item writes have been deferred by rate limit so far
+     */
+    long getDeferredWriteCount() {
+        return deferredWriteCount.get();
+    }
+
+    /**
+     * @return how many deferred item writes have been superseded by a later write or removal of the same item
+     */
+    long getCoalescedWriteCount() {
+        return coalescedWriteCount.get();
+    }
+
+    /**
+     * @return number of items currently waiting for the rate limit
+     */
+    int getDeferredItemCount() {
+        return deferredItems.size();
+    }
+
+    /**
+     * @return true if the intake is currently throttled
+     */
+    boolean isThrottled() {
+        return throttled.get();
+    }
+
 
     /**
      * Writes topology-types.
@@ -209,11 +368,41 @@ public class TopologyWriter implements TransactionChainListener {
      */
     public void writeTopologyTypes(DataContainerChild<? extends PathArgument, ?> topologyTypes) {
         YangInstanceIdentifier topologyTypesYiid = topologyIdentifier.node(TopologyTypes.QNAME);
-        preparedOperations.add(new PutOperation(topologyTypesYiid, topologyTypes));
+        preparedOperations.add(topologyTypesYiid, new PutOperation(topologyTypesYiid, topologyTypes), Priority.HIGH);
         scheduleWrite();
     }
 
+    private void checkHighWatermark() {
+        int queueDepth = preparedOperations.size();
+        maxQueueDepth.accumulateAndGet(queueDepth, Math::max);
+        if (queueDepth >= highWatermark && throttled.compareAndSet(false, true)) {
+            LOGGER.warn("Topology {}: {} operations queued, throttling intake until {} remain (throttled {} times "
+                    + "so far)", topologyId, queueDepth, lowWatermark, throttleCount.incrementAndGet());
+            for (BackpressureListener listener : backpressureListeners) {
+                listener.onThrottled();
+            }
+        }
+    }
+
+    private void checkLowWatermark() {
+        int queueDepth = preparedOperations.size();
+        if (queueDepth <= lowWatermark) {
+            resumeIntake(queueDepth);
+        }
+    }
+
+    private void resumeIntake(int queueDepth) {
+        if (throttled.compareAndSet(true, false)) {
+            LOGGER.info("Topology {}: {} operations queued, resuming intake (at most {} operations queued so far)",
+                    topologyId, queueDepth, maxQueueDepth.get());
+            for (BackpressureListener listener : backpressureListeners) {
+                listener.onResumed();
+            }
+        }
+    }
+
     private void scheduleWrite() {
+        checkHighWatermark();
         if (preparedOperations.isEmpty()) {
             LOGGER.trace("No operations prepared - no write needed");
             return;
@@ -226,22 +415,65 @@ public class TopologyWriter implements TransactionChainListener {
         }
     }
 
+    private void scheduleFlush() {
+        TokenBucket bucket = rateLimit;
+        if (bucket == null || deferredItems.isEmpty()) {
+            return;
+        }
+        if (flushScheduled.compareAndSet(false, true)) {
+            try {
+                pool.schedule(flushTask, bucket.nanosUntilNextToken(), TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                LOGGER.debug("Writer is shut down, deferred items are not flushed", e);
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    void flushDeferredItems() {
+        flushScheduled.set(false);
+        TokenBucket bucket = rateLimit;
+        int flushed = 0;
+        for (YangInstanceIdentifier identifier : deferredItems.keySet()) {
+            if (!bucket.tryAcquire()) {
+                break;
+            }
+            // translated while holding the item's mapping, so that a concurrent write of the item is queued after
+            writtenItems.compute(identifier, (itemIdentifier, writtenNode) -> {
+                OverlayItemWrapper wrapper = deferredItems.remove(itemIdentifier);
+                return wrapper == null ? writtenNode
+                        : enqueueDelta(itemIdentifier, writtenNode, translator.translate(wrapper));
+            });
+            flushed++;
+        }
+        int stillDeferred = deferredItems.size();
+        if (flushed > 0 && stillDeferred == 0) {
+            LOGGER.info("Topology {}: all deferred item writes flushed ({} writes deferred, {} coalesced so far)",
+                    topologyId, deferredWriteCount.get(), coalescedWriteCount.get());
+        } else {
+            LOGGER.debug("Topology {}: {} deferred item writes flushed, {} items still deferred", topologyId,
+                    flushed, stillDeferred);
+        }
+        scheduleWrite();
+        scheduleFlush();
+    }
+
     void write() {
         LOGGER.trace("Writing prepared operations.");
         DOMDataWriteTransaction transaction = transactionChain.newWriteOnlyTransaction();
         int operation = 0;
         boolean shutdown = false;
-        while ((operation < MAXIMUM_OPERATIONS) && (preparedOperations.peek() != null)) {
-            TransactionOperation currentOperation = preparedOperations.poll();
+        TransactionOperation currentOperation;
+        while ((operation < MAXIMUM_OPERATIONS) && ((currentOperation = preparedOperations.poll()) != null)) {
             currentOperation.addOperationIntoTransaction(transaction);
             operation++;
             if (currentOperation instanceof ShutdownOperation) {
-                preparedOperations.clear();
-                preparedOperations = new IgnoreAddQueue<TransactionOperation>();
+                preparedOperations.close();
                 shutdown = true;
                 break;
             }
         }
+        checkLowWatermark();
         LOGGER.debug("Submitting {} prepared operations.", operation);
         CheckedFuture<Void,TransactionCommitFailedException> submit = transaction.submit();
 
@@ -254,6 +486,8 @@ public class TopologyWriter implements TransactionChainListener {
             @Override
             public void onFailure(Throwable throwable) {
                 LOGGER.warn("Transaction failed.");
+                // written state is unknown, next write of every item will be a full put
+                writtenItems.clear();
             }
         });
 
@@ -286,8 +520,16 @@ public class TopologyWriter implements TransactionChainListener {
      */
     public void tearDown() {
         LOGGER.trace("Tear down signaled.");
-        preparedOperations.add(new ShutdownOperation(topologyIdentifier));
+        LOGGER.info("Topology {}: writer torn down, at most {} operations were queued, intake throttled {} times, "
+                + "{} item writes deferred, {} coalesced", topologyId, maxQueueDepth.get(), throttleCount.get(),
+                deferredWriteCount.get(), coalescedWriteCount.get());
+        writtenItems.clear();
+        deferredItems.clear();
+        preparedOperations.add(topologyIdentifier, new ShutdownOperation(topologyIdentifier), Priority.HIGH);
         scheduleWrite();
+        // nothing will be written anymore, do not keep the intake blocked
+        resumeIntake(preparedOperations.size());
+        backpressureListeners.clear();
     }
 
     /**
@@ -17,6 +17,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 
+import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Matchers;
@@ -27,6 +28,7 @@ import org.opendaylight.topoprocessing.api.structure.UnderlayItem;
 import org.opendaylight.topoprocessing.impl.operator.TopologyAggregator;
 import org.opendaylight.topoprocessing.impl.testUtilities.TestDataTreeCandidateNode;
 import org.opendaylight.topoprocessing.impl.util.TopologyQNames;
+import org.opendaylight.topoprocessing.impl.writer.BackpressureGate;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.Nodes;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.CorrelationItemEnum;
@@ -160,4 +162,31 @@ public class InventoryListenerTest {
         Mockito.verify(mockOperator, Mockito.times(0)).processCreatedChanges(
                 (YangInstanceIdentifier) any(), (UnderlayItem) any(), Matchers.eq(TOPOLOGY_ID));
     }
+
+    /** Changes are held back while the writer is throttled. */
+    @Test
+    public void testThrottledIntake() throws InterruptedException {
+        String nodeName = "node:1";
+        TopologyAggregator mockOperator = Mockito.mock(TopologyAggregator.class);
+        listener.setOperator(mockOperator);
+        BackpressureGate gate = new BackpressureGate(TOPOLOGY_ID);
+        listener.setBackpressureGate(gate);
+        TestDataTreeCandidateNode rootNode = new TestDataTreeCandidateNode();
+        setUpMocks(rootNode);
+        rootNode.setModificationType(ModificationType.DELETE);
+        rootNode.setIdentifier(new NodeIdentifierWithPredicates(Node.QNAME, nodeIdQname, nodeName));
+
+        gate.onThrottled();
+        Thread notificationThread = new Thread(() -> listener.onDataTreeChanged(mockCollection));
+        notificationThread.start();
+        notificationThread.join(300);
+        Assert.assertTrue("Change should wait for resumed writer", notificationThread.isAlive());
+        Mockito.verify(mockOperator, Mockito.never()).processRemovedChanges((YangInstanceIdentifier) any(),
+                Matchers.eq(TOPOLOGY_ID));
+
+        gate.onResumed();
+        notificationThread.join(1000);
+        Assert.assertFalse("Change should be processed once writer resumed", notificationThread.isAlive());
+        Mockito.verify(mockOperator).processRemovedChanges((YangInstanceIdentifier) any(), Matchers.eq(TOPOLOGY_ID));
+    }
 }
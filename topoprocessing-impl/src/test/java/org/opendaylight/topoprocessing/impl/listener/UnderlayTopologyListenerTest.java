@@ -8,6 +8,7 @@
 package org.opendaylight.topoprocessing.impl.listener;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -16,6 +17,7 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Matchers;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -24,6 +26,7 @@ import org.opendaylight.controller.md.sal.dom.api.DOMDataTreeChangeService;
 import org.opendaylight.topoprocessing.api.structure.UnderlayItem;
 import org.opendaylight.topoprocessing.impl.operator.TopologyAggregator;
 import org.opendaylight.topoprocessing.impl.operator.TopologyFiltrator;
+import org.opendaylight.topoprocessing.impl.structure.ItemCompactor;
 import org.opendaylight.topoprocessing.impl.testUtilities.TestDataTreeCandidateNode;
 import org.opendaylight.topoprocessing.impl.util.InstanceIdentifiers;
 import org.opendaylight.topoprocessing.impl.util.TopologyQNames;
@@ -222,6 +225,58 @@ public class UnderlayTopologyListenerTest {
                 Matchers.eq(TOPOLOGY_ID));
     }
 
+    @Test
+    public void testCompactItems() {
+        String nodeName = "node:1";
+        QName ipAddressQname = QName.create(Node.QNAME, "ip-address");
+        LeafNode<String> nodeIpValue = ImmutableNodes.leafNode(ipAddressQname, "10.0.0.1");
+        MapEntryNode testNode = ImmutableNodes
+                .mapEntryBuilder(Node.QNAME, TopologyQNames.NETWORK_NODE_ID_QNAME, nodeName).addChild(nodeIpValue)
+                .addChild(ImmutableNodes.leafNode(QName.create(Node.QNAME, "statistics"), "unused"))
+                .build();
+        Map<Integer, YangInstanceIdentifier> pathIdentifiers = new HashMap<>(1);
+        pathIdentifiers.put(0, YangInstanceIdentifier.of(ipAddressQname));
+        listener.setPathIdentifier(pathIdentifiers);
+        TopologyAggregator mockOperator = Mockito.mock(TopologyAggregator.class);
+        listener.setOperator(mockOperator);
+        listener.setItemCompactor(new ItemCompactor(pathIdentifiers.values()));
+
+        TestDataTreeCandidateNode rootNode = new TestDataTreeCandidateNode();
+        setUpMocks(rootNode);
+        rootNode.setModificationType(ModificationType.WRITE);
+        rootNode.setDataAfter(Optional.<NormalizedNode<?, ?>> of(testNode));
+        rootNode.setIdentifier(new NodeIdentifierWithPredicates(Node.QNAME, TopologyQNames.NETWORK_NODE_ID_QNAME,
+                nodeName));
+        listener.onDataTreeChanged(mockCollection);
+
+        ArgumentCaptor<UnderlayItem> itemCaptor = ArgumentCaptor.forClass(UnderlayItem.class);
+        Mockito.verify(mockOperator).processCreatedChanges(Matchers.any(YangInstanceIdentifier.class),
+                itemCaptor.capture(), Matchers.eq(TOPOLOGY_ID));
+        UnderlayItem underlayItem = itemCaptor.getValue();
+        Assert.assertEquals(ImmutableNodes.mapEntryBuilder(Node.QNAME, TopologyQNames.NETWORK_NODE_ID_QNAME, nodeName)
+                .addChild(nodeIpValue).build(), underlayItem.getItem());
+        Assert.assertEquals(nodeIpValue, underlayItem.getLeafNodes().get(0));
+        Assert.assertEquals(nodeName, underlayItem.getItemId());
+    }
+
+    @Test
+    public void testThrottledIntake() throws InterruptedException {
+        listener.onThrottled();
+        Thread notificationThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                listener.onDataTreeChanged(Collections.<DataTreeCandidate>emptyList());
+            }
+        });
+        notificationThread.start();
+        notificationThread.join(300);
+        Assert.assertTrue("Notification should wait for resumed writer", notificationThread.isAlive());
+
+        listener.onResumed();
+        notificationThread.join(1000);
+        Assert.assertFalse("Notification should be processed once writer resumed", notificationThread.isAlive());
+    }
+
     private void resetMocks() {
         Mockito.reset(mockCollection, mockIteratorCandidate, mockDataTreeCandidate, mockDataTreeCandidateNode,
                 mockDataTreeCandidateNodeCollection, mockDataTreeCandidateNodeIterator);
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.topoprocessing.impl.operator;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.opendaylight.topoprocessing.impl.testUtilities.TestNodeCreator;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+
+public class FiltrationMemoTest {
+
+    private TestNodeCreator creator = new TestNodeCreator();
+
+    @Test
+    public void testVerdictReusedUntilFieldsChange() {
+        FiltrationMemo<String> memo = new FiltrationMemo<>();
+        Map<Integer, NormalizedNode<?, ?>> fields = new HashMap<>();
+        fields.put(0, creator.createLeafNodeWithIpAddress("192.168.1.1"));
+        Assert.assertNull(memo.getVerdict("item", fields));
+
+        memo.remember("item", fields, true);
+        // fields are copied, equal values in new instances match
+        fields.put(0, creator.createLeafNodeWithIpAddress("192.168.1.1"));
+        Assert.assertEquals(Boolean.TRUE, memo.getVerdict("item", fields));
+        // passed item is never skipped, its other content may have changed
+        Assert.assertFalse(memo.isStillRejected("item", fields));
+        Assert.assertEquals(1, memo.getHitCount());
+
+        fields.put(0, creator.createLeafNodeWithIpAddress("192.168.1.2"));
+        Assert.assertNull(memo.getVerdict("item", fields));
+        fields.put(1, creator.createLeafNodeWithIpAddress("192.168.1.1"));
+        Assert.assertNull(memo.getVerdict("item", fields));
+
+        memo.forget("item");
+        Assert.assertEquals(0, memo.size());
+    }
+
+    @Test
+    public void testMissingFields() {
+        FiltrationMemo<String> memo = new FiltrationMemo<>();
+        memo.remember("item", null, false);
+        Assert.assertEquals(Boolean.FALSE, memo.getVerdict("item", null));
+        Assert.assertTrue(memo.isStillRejected("item", new HashMap<Integer, NormalizedNode<?, ?>>()));
+    }
+
+    @Test
+    public void testStillRejected() {
+        FiltrationMemo<String> memo = new FiltrationMemo<>();
+        Map<Integer, NormalizedNode<?, ?>> fields = new HashMap<>();
+        fields.put(0, creator.createLeafNodeWithIpAddress("192.168.1.1"));
+        Assert.assertFalse(memo.isStillRejected("item", fields));
+
+        memo.remember("item", fields, false);
+        Assert.assertTrue(memo.isStillRejected("item", fields));
+        fields.put(0, creator.createLeafNodeWithIpAddress("192.168.1.2"));
+        Assert.assertFalse(memo.isStillRejected("item", fields));
+    }
+}
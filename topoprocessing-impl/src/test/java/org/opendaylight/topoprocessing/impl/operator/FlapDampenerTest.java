@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.topoprocessing.impl.operator;
+
+import com.google.common.base.Ticker;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+import org.opendaylight.topoprocessing.api.structure.UnderlayItem;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.CorrelationItemEnum;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FlapDampenerTest {
+
+    private static final String TOPOLOGY_ID = "mytopo:1";
+    private static final long HALF_LIFE = 1000;
+    private static final YangInstanceIdentifier ITEM_IDENTIFIER =
+            YangInstanceIdentifier.of(QName.create("urn:test", "2015-01-21", "node"));
+    private static final YangInstanceIdentifier OTHER_ITEM_IDENTIFIER =
+            YangInstanceIdentifier.of(QName.create("urn:test", "2015-01-21", "other-node"));
+
+    @Mock private TopologyOperator operator;
+    private FlapDampener dampener;
+    private long time = 0;
+
+    @Before
+    public void setUp() {
+        dampener = new FlapDampener(operator, HALF_LIFE, 1000, 2000, 750, new Ticker() {
+            @Override
+            public long read() {
+                return time;
+            }
+        });
+    }
+
+    private static UnderlayItem createItem() {
+        return new UnderlayItem(null, null, TOPOLOGY_ID, "node:1", CorrelationItemEnum.Node);
+    }
+
+    @Test
+    public void testFlappingItemSuppressedAndReleased() {
+        UnderlayItem item1 = createItem();
+        UnderlayItem item2 = createItem();
+        UnderlayItem item3 = createItem();
+        dampener.processCreatedChanges(ITEM_IDENTIFIER, item1, TOPOLOGY_ID);
+        dampener.processRemovedChanges(ITEM_IDENTIFIER, TOPOLOGY_ID);
+        dampener.processCreatedChanges(ITEM_IDENTIFIER, item2, TOPOLOGY_ID);
+        Assert.assertFalse(dampener.isSuppressed(ITEM_IDENTIFIER));
+
+        // second flap reaches suppress threshold - item is held in its last stable state
+        dampener.processRemovedChanges(ITEM_IDENTIFIER, TOPOLOGY_ID);
+        dampener.processCreatedChanges(ITEM_IDENTIFIER, item3, TOPOLOGY_ID);
+        Assert.assertTrue(dampener.isSuppressed(ITEM_IDENTIFIER));
+        Assert.assertTrue(dampener.getSuppressedItems().contains(ITEM_IDENTIFIER));
+        Assert.assertEquals(1, dampener.getSuppressionCount());
+        Mockito.verify(operator).processCreatedChanges(ITEM_IDENTIFIER, item1, TOPOLOGY_ID);
+        Mockito.verify(operator).processCreatedChanges(ITEM_IDENTIFIER, item2, TOPOLOGY_ID);
+        Mockito.verify(operator, Mockito.times(1)).processRemovedChanges(ITEM_IDENTIFIER, TOPOLOGY_ID);
+
+        // penalty is still above reuse threshold
+        time += HALF_LIFE;
+        dampener.releaseReusableItems();
+        Assert.assertTrue(dampener.isSuppressed(ITEM_IDENTIFIER));
+
+        // penalty decays to 500, current state of the item is forwarded
+        time += HALF_LIFE;
+        dampener.releaseReusableItems();
+        Assert.assertFalse(dampener.isSuppressed(ITEM_IDENTIFIER));
+        Mockito.verify(operator).processUpdatedChanges(ITEM_IDENTIFIER, item3, TOPOLOGY_ID);
+        Mockito.verify(operator, Mockito.never()).processCreatedChanges(ITEM_IDENTIFIER, item3, TOPOLOGY_ID);
+    }
+
+    @Test
+    public void testSuppressedRemovalForwardedOnRelease() {
+        dampener.processCreatedChanges(ITEM_IDENTIFIER, createItem(), TOPOLOGY_ID);
+        dampener.processRemovedChanges(ITEM_IDENTIFIER, TOPOLOGY_ID);
+        dampener.processCreatedChanges(ITEM_IDENTIFIER, createItem(), TOPOLOGY_ID);
+        dampener.processRemovedChanges(ITEM_IDENTIFIER, TOPOLOGY_ID);
+        Mockito.verify(operator, Mockito.times(1)).processRemovedChanges(ITEM_IDENTIFIER, TOPOLOGY_ID);
+
+        time += 2 * HALF_LIFE;
+        dampener.releaseReusableItems();
+        Mockito.verify(operator, Mockito.times(2)).processRemovedChanges(ITEM_IDENTIFIER, TOPOLOGY_ID);
+        Mockito.verify(operator, Mockito.never()).processUpdatedChanges(Matchers.any(YangInstanceIdentifier.class),
+                Matchers.any(UnderlayItem.class), Matchers.anyString());
+    }
+
+    @Test
+    public void testStableItemForgotten() {
+        dampener.processRemovedChanges(ITEM_IDENTIFIER, TOPOLOGY_ID);
+        Mockito.verify(operator).processRemovedChanges(ITEM_IDENTIFIER, TOPOLOGY_ID);
+
+        time += 20 * HALF_LIFE;
+        dampener.releaseReusableItems();
+        // penalty decayed completely - next removal starts from zero
+        dampener.processCreatedChanges(ITEM_IDENTIFIER, createItem(), TOPOLOGY_ID);
+        dampener.processRemovedChanges(ITEM_IDENTIFIER, TOPOLOGY_ID);
+        Assert.assertFalse(dampener.isSuppressed(ITEM_IDENTIFIER));
+        Mockito.verify(operator, Mockito.times(2)).processRemovedChanges(ITEM_IDENTIFIER, TOPOLOGY_ID);
+    }
+
+    @Test
+    public void testReleaseDoesNotBlockOtherItems() throws InterruptedException {
+        final UnderlayItem otherItem = createItem();
+        dampener.processCreatedChanges(ITEM_IDENTIFIER, createItem(), TOPOLOGY_ID);
+        dampener.processRemovedChanges(ITEM_IDENTIFIER, TOPOLOGY_ID);
+        dampener.processCreatedChanges(ITEM_IDENTIFIER, createItem(), TOPOLOGY_ID);
+        dampener.processRemovedChanges(ITEM_IDENTIFIER, TOPOLOGY_ID);
+        Assert.assertTrue(dampener.isSuppressed(ITEM_IDENTIFIER));
+
+        // while the release forwards the suppressed item, a change of another item is processed by another thread
+        final AtomicBoolean otherItemProcessed = new AtomicBoolean();
+        Mockito.doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                Thread thread = new Thread(() -> dampener.processCreatedChanges(OTHER_ITEM_IDENTIFIER, otherItem,
+                        TOPOLOGY_ID));
+                thread.start();
+                thread.join(5000);
+                otherItemProcessed.set(!thread.isAlive());
+                return null;
+            }
+        }).when(operator).processRemovedChanges(ITEM_IDENTIFIER, TOPOLOGY_ID);
+        time += 2 * HALF_LIFE;
+        dampener.releaseReusableItems();
+        Assert.assertTrue(otherItemProcessed.get());
+        Mockito.verify(operator).processCreatedChanges(OTHER_ITEM_IDENTIFIER, otherItem, TOPOLOGY_ID);
+    }
+
+    @Test
+    public void testSetTopologyManager() {
+        ITopologyManager manager = Mockito.mock(ITopologyManager.class);
+        dampener.setTopologyManager(manager);
+        Mockito.verify(operator).setTopologyManager(manager);
+
+        // join inputs use the join's operator, the manager is not passed to them
+        KeyedJoinOperator join = KeyedJoinOperator.createTopologyInventoryJoin();
+        new FlapDampener(join.getInput(0), 60, 1000, 2000, 750).setTopologyManager(manager);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidThresholds() {
+        new FlapDampener(operator, 60, 1000, 750, 2000);
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.topoprocessing.impl.operator;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.opendaylight.topoprocessing.api.structure.UnderlayItem;
+import org.opendaylight.topoprocessing.impl.operator.KeyedJoinOperator.KeyExtractor;
+import org.opendaylight.topoprocessing.impl.util.TopologyQNames;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.Nodes;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.CorrelationItemEnum;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.Topology;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.AugmentationNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableAugmentationNodeBuilder;
+
+import com.google.common.collect.ImmutableSet;
+
+@RunWith(MockitoJUnitRunner.class)
+public class KeyedJoinOperatorTest {
+
+    private static final String TOPOLOGY_ID = "test:1";
+    private QName leafQname = QName.create(Node.QNAME, "leaf-node");
+    private QName nodeIdQname = QName.create(Node.QNAME, "id");
+
+    @Mock private TopologyOperator operator;
+    private KeyedJoinOperator join;
+
+    @Before
+    public void setUp() {
+        join = KeyedJoinOperator.createTopologyInventoryJoin();
+        join.setOperator(operator);
+    }
+
+    @Test
+    public void testOutOfOrderArrival() {
+        YangInstanceIdentifier invNodeId = createInvNodeIdentifier("node:1");
+        UnderlayItem invItem = createInventoryItem("10.0.0.1");
+        UnderlayItem topoItem = createTopologyItem("node:2", invNodeId);
+
+        join.getInput(1).processCreatedChanges(invNodeId, invItem, TOPOLOGY_ID);
+        Mockito.verifyZeroInteractions(operator);
+        join.getInput(0).processCreatedChanges(createTopoNodeIdentifier("node:2"), topoItem, TOPOLOGY_ID);
+
+        ArgumentCaptor<UnderlayItem> joined = ArgumentCaptor.forClass(UnderlayItem.class);
+        Mockito.verify(operator).processCreatedChanges(Matchers.eq(invNodeId), joined.capture(),
+                Matchers.eq(TOPOLOGY_ID));
+        Assert.assertEquals(topoItem.getItem(), joined.getValue().getItem());
+        Assert.assertEquals(invItem.getLeafNodes(), joined.getValue().getLeafNodes());
+        Assert.assertEquals("node:2", joined.getValue().getItemId());
+    }
+
+    @Test
+    public void testIncrementalUpdateAndRemoval() {
+        YangInstanceIdentifier invNodeId = createInvNodeIdentifier("node:1");
+        YangInstanceIdentifier topoNodeId = createTopoNodeIdentifier("node:2");
+        join.getInput(0).processCreatedChanges(topoNodeId, createTopologyItem("node:2", invNodeId), TOPOLOGY_ID);
+        join.getInput(1).processCreatedChanges(invNodeId, createInventoryItem("10.0.0.1"), TOPOLOGY_ID);
+        Mockito.verify(operator).processCreatedChanges(Matchers.eq(invNodeId), Matchers.any(UnderlayItem.class),
+                Matchers.eq(TOPOLOGY_ID));
+
+        UnderlayItem updatedInvItem = createInventoryItem("10.0.0.2");
+        join.getInput(1).processUpdatedChanges(invNodeId, updatedInvItem, TOPOLOGY_ID);
+        ArgumentCaptor<UnderlayItem> joined = ArgumentCaptor.forClass(UnderlayItem.class);
+        Mockito.verify(operator).processUpdatedChanges(Matchers.eq(invNodeId), joined.capture(),
+                Matchers.eq(TOPOLOGY_ID));
+        Assert.assertEquals(updatedInvItem.getLeafNodes(), joined.getValue().getLeafNodes());
+
+        join.getInput(0).processRemovedChanges(topoNodeId, TOPOLOGY_ID);
+        Mockito.verify(operator).processRemovedChanges(invNodeId, TOPOLOGY_ID);
+        // inventory node is still waiting for its topology node
+        Assert.assertEquals(1, join.getKeyCount());
+        join.getInput(1).processRemovedChanges(invNodeId, TOPOLOGY_ID);
+        Assert.assertEquals(0, join.getKeyCount());
+        Mockito.verify(operator, Mockito.times(1)).processRemovedChanges(invNodeId, TOPOLOGY_ID);
+    }
+
+    @Test
+    public void testKeyChange() {
+        YangInstanceIdentifier invNodeId1 = createInvNodeIdentifier("node:1");
+        YangInstanceIdentifier invNodeId2 = createInvNodeIdentifier("node:3");
+        YangInstanceIdentifier topoNodeId = createTopoNodeIdentifier("node:2");
+        join.getInput(1).processCreatedChanges(invNodeId1, createInventoryItem("10.0.0.1"), TOPOLOGY_ID);
+        join.getInput(1).processCreatedChanges(invNodeId2, createInventoryItem("10.0.0.3"), TOPOLOGY_ID);
+        join.getInput(0).processCreatedChanges(topoNodeId, createTopologyItem("node:2", invNodeId1), TOPOLOGY_ID);
+
+        // inventory-node-ref of the topology node changed
+        join.getInput(0).processUpdatedChanges(topoNodeId, createTopologyItem("node:2", invNodeId2), TOPOLOGY_ID);
+        Mockito.verify(operator).processRemovedChanges(invNodeId1, TOPOLOGY_ID);
+        Mockito.verify(operator).processCreatedChanges(Matchers.eq(invNodeId2), Matchers.any(UnderlayItem.class),
+                Matchers.eq(TOPOLOGY_ID));
+        Mockito.verify(operator, Mockito.never()).processUpdatedChanges(Matchers.any(YangInstanceIdentifier.class),
+                Matchers.any(UnderlayItem.class), Matchers.anyString());
+    }
+
+    @Test
+    public void testThreeInputs() {
+        KeyExtractor byIdentifier = (identifier, item) -> identifier;
+        KeyedJoinOperator threeWayJoin = new KeyedJoinOperator(
+                Arrays.asList(byIdentifier, byIdentifier, byIdentifier),
+                (items, topologyId) -> new UnderlayItem(null, null, topologyId, items.get(0).getItemId()
+                        + items.get(1).getItemId() + items.get(2).getItemId(), CorrelationItemEnum.Node));
+        threeWayJoin.setOperator(operator);
+        YangInstanceIdentifier key = createInvNodeIdentifier("node:1");
+
+        threeWayJoin.getInput(2).processCreatedChanges(key, createItem("c"), TOPOLOGY_ID);
+        threeWayJoin.getInput(0).processCreatedChanges(key, createItem("a"), TOPOLOGY_ID);
+        Mockito.verifyZeroInteractions(operator);
+        threeWayJoin.getInput(1).processCreatedChanges(key, createItem("b"), TOPOLOGY_ID);
+
+        ArgumentCaptor<UnderlayItem> joined = ArgumentCaptor.forClass(UnderlayItem.class);
+        Mockito.verify(operator).processCreatedChanges(Matchers.eq(key), joined.capture(), Matchers.eq(TOPOLOGY_ID));
+        Assert.assertEquals("abc", joined.getValue().getItemId());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSetTopologyManager() {
+        join.getInput(0).setTopologyManager(Mockito.mock(ITopologyManager.class));
+    }
+
+    private static UnderlayItem createItem(String itemId) {
+        return new UnderlayItem(null, null, TOPOLOGY_ID, itemId, CorrelationItemEnum.Node);
+    }
+
+    private UnderlayItem createInventoryItem(String leafValue) {
+        Map<Integer, NormalizedNode<?, ?>> targetFields = new HashMap<>(1);
+        targetFields.put(0, ImmutableNodes.leafNode(leafQname, leafValue));
+        return new UnderlayItem(null, targetFields, TOPOLOGY_ID, null, CorrelationItemEnum.Node);
+    }
+
+    private UnderlayItem createTopologyItem(String nodeId, YangInstanceIdentifier invNodeId) {
+        AugmentationNode augNode = ImmutableAugmentationNodeBuilder.create()
+                .withNodeIdentifier(new AugmentationIdentifier(
+                        ImmutableSet.of(TopologyQNames.INVENTORY_NODE_REF_QNAME)))
+                .withChild(ImmutableNodes.leafNode(TopologyQNames.INVENTORY_NODE_REF_QNAME, invNodeId)).build();
+        MapEntryNode topoNode = ImmutableNodes.mapEntryBuilder(Node.QNAME, nodeIdQname, nodeId).addChild(augNode)
+                .build();
+        return new UnderlayItem(topoNode, null, TOPOLOGY_ID, nodeId, CorrelationItemEnum.Node);
+    }
+
+    private YangInstanceIdentifier createInvNodeIdentifier(String nodeId) {
+        return YangInstanceIdentifier.builder().node(Nodes.QNAME).node(Node.QNAME)
+                .nodeWithKey(Node.QNAME, nodeIdQname, nodeId).build();
+    }
+
+    private YangInstanceIdentifier createTopoNodeIdentifier(String nodeId) {
+        return YangInstanceIdentifier.builder().node(Topology.QNAME)
+                .nodeWithKey(Topology.QNAME, nodeIdQname, TOPOLOGY_ID).node(Node.QNAME)
+                .nodeWithKey(Node.QNAME, nodeIdQname, nodeId).build();
+    }
+}
@@ -9,7 +9,11 @@ package org.opendaylight.topoprocessing.impl.operator;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -292,4 +296,61 @@ public class LinkCalculatorTest {
 
     }
 
+    @Test
+    public void testConcurrentLinkProcessing() throws InterruptedException {
+        final int linkCount = 200;
+        YangInstanceIdentifier yiid;
+        // overlay node:1 supports node:1:1, overlay node:2 supports node:1:2
+        yiid = YangInstanceIdentifier.builder()
+                .nodeWithKey(Node.QNAME, TopologyQNames.NETWORK_NODE_ID_QNAME, OVERLAY_NODE_ID_1).build();
+        ntLinkCalculator.processCreatedChanges(yiid, createOverlayNode(OVERLAY_NODE_ID_1, UNDERLAY_NODE_ID_1),
+                TOPOLOGY_ID);
+        yiid = YangInstanceIdentifier.builder()
+                .nodeWithKey(Node.QNAME, TopologyQNames.NETWORK_NODE_ID_QNAME, OVERLAY_NODE_ID_2).build();
+        ntLinkCalculator.processCreatedChanges(yiid, createOverlayNode(OVERLAY_NODE_ID_2, UNDERLAY_NODE_ID_2),
+                TOPOLOGY_ID);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < linkCount; i++) {
+            final String linkId = "link:" + i;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    YangInstanceIdentifier linkYiid = DUMMY_LINK_CREATOR.createNodeIdYiid(linkId);
+                    ntLinkCalculator.processCreatedChanges(linkYiid,
+                            createLink(linkId, UNDERLAY_NODE_ID_1, UNDERLAY_NODE_ID_2), TOPOLOGY_ID);
+                    ntLinkCalculator.processRemovedChanges(linkYiid, TOPOLOGY_ID);
+                }
+            });
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        Mockito.verify(mockManager, Mockito.times(linkCount)).addOverlayItem((OverlayItem) Matchers.any());
+        Mockito.verify(mockManager, Mockito.times(linkCount)).removeOverlayItem((OverlayItem) Matchers.any());
+    }
+
+    private UnderlayItem createOverlayNode(String overlayNodeId, String underlayNodeId) {
+        Map<QName, Object> suppNodeKeyValues = new HashMap<>();
+        suppNodeKeyValues.put(TopologyQNames.TOPOLOGY_REF, TOPOLOGY_ID);
+        suppNodeKeyValues.put(TopologyQNames.NODE_REF, underlayNodeId);
+        MapEntryNode menSuppNode = ImmutableNodes.mapEntryBuilder()
+                .withNodeIdentifier(new NodeIdentifierWithPredicates(SupportingNode.QNAME, suppNodeKeyValues)).build();
+        MapNode suppNodeList = ImmutableNodes.mapNodeBuilder(SupportingNode.QNAME).addChild(menSuppNode).build();
+        MapEntryNode overlayNode = ImmutableNodes
+                .mapEntryBuilder(Node.QNAME, TopologyQNames.NETWORK_NODE_ID_QNAME, overlayNodeId)
+                .addChild(suppNodeList).build();
+        return new UnderlayItem(overlayNode, null, TOPOLOGY_ID, overlayNodeId, CorrelationItemEnum.Node);
+    }
+
+    private UnderlayItem createLink(String linkId, String sourceNodeId, String destNodeId) {
+        ContainerNode sourceContainer = ImmutableContainerNodeBuilder
+                .create(ImmutableNodes.containerNode(Source.QNAME))
+                .withChild(ImmutableNodes.leafNode(TopologyQNames.LINK_SOURCE_NODE_QNAME, sourceNodeId)).build();
+        ContainerNode destContainer = ImmutableContainerNodeBuilder
+                .create(ImmutableNodes.containerNode(Destination.QNAME))
+                .withChild(ImmutableNodes.leafNode(TopologyQNames.LINK_DEST_NODE_QNAME, destNodeId)).build();
+        MapEntryNode link = ImmutableNodes.mapEntryBuilder(Link.QNAME, TopologyQNames.NETWORK_LINK_ID_QNAME, linkId)
+                .withChild(sourceContainer).withChild(destContainer).build();
+        return new UnderlayItem(link, null, TOPOLOGY_ID, linkId, CorrelationItemEnum.Link);
+    }
 }
@@ -113,7 +113,7 @@ public class LinkFiltratorTest {
 
         // update existing link - should be filtered out
         linkId = "link:4";
-        filterOutLink = linkCreator.createLeafNodeWithIpAddress("192.168.1.14");
+        filterOutLink = linkCreator.createLeafNodeWithIpAddress("192.168.1.24");
         leafNodes.put(0, filterOutLink);
         Mockito.when(mockFiltrator.isFiltered(filterOutLink)).thenReturn(true);
         filtrator.processUpdatedChanges(linkCreator.createNodeIdYiid(linkId), new UnderlayItem(null, leafNodes,
@@ -8,6 +8,7 @@
 package org.opendaylight.topoprocessing.impl.operator;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.times;
@@ -32,15 +33,19 @@ import org.opendaylight.topoprocessing.api.structure.UnderlayItem;
 import org.opendaylight.topoprocessing.impl.structure.OverlayItemWrapper;
 import org.opendaylight.topoprocessing.impl.util.InstanceIdentifiers;
 import org.opendaylight.topoprocessing.impl.util.TopologyBuilder;
+import org.opendaylight.topoprocessing.impl.util.TopologyQNames;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.CorrelationItemEnum;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.I2rsModel;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.Model;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.NetworkTopologyModel;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.node.TerminationPoint;
+import org.opendaylight.yangtools.yang.common.QName;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
 import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
 
 /**
  * @author samuel.kontris
@@ -49,6 +54,8 @@ import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
 @RunWith(MockitoJUnitRunner.class)
 public class NodeAndTPAggregatorTest {
 
+    private static final QName IP_ADDRESS_QNAME = QName.create(TerminationPoint.QNAME, "ip-address").intern();
+
     private TopologyAggregator nodeAggregatorMock;
     private TerminationPointAggregator tpAggregatorMock;
     private TerminationPointPreAggregationFiltrator tpPreAggFiltratorMock;
@@ -256,7 +263,7 @@ public class NodeAndTPAggregatorTest {
         prepareTestedAggregator(model);
         int numberOfTPs = 3;
         MapNode tps = createTerminationPoints(model, numberOfTPs);
-        OverlayItem overlayItem = createOverlayItemWithOneUnderlayWithTPs(model, "0", tps);
+        OverlayItem overlayItem = createOverlayItemWithOneUnderlayWithTPs(model, "wrapper-id", tps);
         OverlayItemWrapper wrapper = createWrapperWithThreeTPs(model);
         wrapper.addOverlayItem(overlayItem);
         Mockito.when(topologyManagerMock.findOrCreateWrapper(any(OverlayItem.class))).thenReturn(wrapper);
@@ -278,6 +285,122 @@ public class NodeAndTPAggregatorTest {
         testAddOverlayItemTPManager(I2rsModel.class);
     }
 
+    @Test
+    public void testRemovedWrapperIsDropped() {
+        TerminationPointAggregator tpAggregator = prepareAggregatorWithTPAggregator();
+        OverlayItemWrapper wrapper = createWrapperWithThreeTPs(NetworkTopologyModel.class);
+        OverlayItem overlayItem = wrapper.getOverlayItems().peek();
+        Mockito.when(topologyManagerMock.findOrCreateWrapper(any(OverlayItem.class))).thenReturn(wrapper);
+        Mockito.when(topologyManagerMock.findWrapper(any(OverlayItem.class))).thenReturn(wrapper);
+        removeOverlayItemFromWrapper(wrapper);
+
+        nodeManager.addOverlayItem(overlayItem);
+        assertEquals(1, testedAggregator.getWrapperCount());
+        assertEquals(1, tpAggregator.getNodeCount());
+        assertNotNull("Wrapper should contain aggregated termination points",
+                wrapper.getAggregatedTerminationPoints());
+
+        nodeManager.removeOverlayItem(overlayItem);
+        assertEquals(0, testedAggregator.getWrapperCount());
+        assertEquals(0, tpAggregator.getNodeCount());
+        assertEquals(0, tpAggregator.getTargetFieldsPerTPCount());
+    }
+
+    /**
+     * Sustained updates of one underlay node, every update replaces its termination points with new ones.
+     * State kept for the wrapper shall not grow.
+     */
+    @Test
+    public void testSustainedUpdatesKeepStateBounded() {
+        TerminationPointAggregator tpAggregator = prepareAggregatorWithTPAggregator();
+        OverlayItemWrapper wrapper = createWrapperWithThreeTPs(NetworkTopologyModel.class);
+        OverlayItem overlayItem = wrapper.getOverlayItems().peek();
+        UnderlayItem updatedUnderlayItem = overlayItem.getUnderlayItems().peek();
+        Mockito.when(topologyManagerMock.findOrCreateWrapper(any(OverlayItem.class))).thenReturn(wrapper);
+        Mockito.when(topologyManagerMock.findWrapper(any(OverlayItem.class))).thenReturn(wrapper);
+
+        nodeManager.addOverlayItem(overlayItem);
+        for (int i = 0; i < 10000; i++) {
+            MapNode tps = TopologyBuilder.createTerminationPointMapNode(NetworkTopologyModel.class,
+                    createTerminationPointWithIp("tp-" + i, "192.168.1." + (i % 2)),
+                    createTerminationPointWithIp("tp-" + (i + 1), "192.168.1.2"));
+            updatedUnderlayItem.setItem(TopologyBuilder.createNodeWithTerminationPoints(
+                    NetworkTopologyModel.class, updatedUnderlayItem.getItemId(), tps));
+            nodeManager.updateOverlayItem(overlayItem);
+        }
+
+        assertEquals(1, testedAggregator.getWrapperCount());
+        assertEquals(1, tpAggregator.getNodeCount());
+        assertEquals("Only target fields of present termination points should be kept", 3,
+                tpAggregator.getTargetFieldsPerTPCount());
+        // tp-id-2-1 has no ip address, last tp-9999 and tp-10000 have different ip addresses
+        assertEquals(3, wrapper.getAggregatedTerminationPoints().getValue().size());
+    }
+
+    /**
+     * Underlay item moves to another wrapper, the wrapper it left keeps only its own termination points.
+     */
+    @Test
+    public void testMovedUnderlayItemLeavesSourceWrapper() {
+        prepareAggregatorWithTPAggregator();
+        MapEntryNode node1 = TopologyBuilder.createNodeWithTerminationPoints(NetworkTopologyModel.class, "node-id-1",
+                TopologyBuilder.createTerminationPointMapNode(NetworkTopologyModel.class,
+                        createTerminationPointWithIp("tp-1", "192.168.1.1"),
+                        createTerminationPointWithIp("tp-2", "192.168.1.2")));
+        MapEntryNode node2 = TopologyBuilder.createNodeWithTerminationPoints(NetworkTopologyModel.class, "node-id-2",
+                TopologyBuilder.createTerminationPointMapNode(NetworkTopologyModel.class,
+                        createTerminationPointWithIp("tp-3", "192.168.1.3")));
+        OverlayItem overlayItem1 = new OverlayItem(Arrays.asList(new UnderlayItem(node1, null, "topology-id-1",
+                "node-id-1", CorrelationItemEnum.Node)), CorrelationItemEnum.Node);
+        OverlayItem overlayItem2 = new OverlayItem(Arrays.asList(new UnderlayItem(node2, null, "topology-id-2",
+                "node-id-2", CorrelationItemEnum.Node)), CorrelationItemEnum.Node);
+        OverlayItemWrapper sourceWrapper = new OverlayItemWrapper("wrapper-1", overlayItem1);
+        sourceWrapper.addOverlayItem(overlayItem2);
+        Mockito.when(topologyManagerMock.findOrCreateWrapper(overlayItem1)).thenReturn(sourceWrapper);
+        Mockito.when(topologyManagerMock.findWrapper(overlayItem1)).thenReturn(sourceWrapper);
+        nodeManager.addOverlayItem(overlayItem1);
+        assertEquals(3, sourceWrapper.getAggregatedTerminationPoints().getValue().size());
+
+        sourceWrapper.getOverlayItems().remove(overlayItem2);
+        OverlayItemWrapper targetWrapper = new OverlayItemWrapper("wrapper-2", overlayItem2);
+        Mockito.when(topologyManagerMock.findOrCreateWrapper(overlayItem2)).thenReturn(targetWrapper);
+        nodeManager.addOverlayItem(overlayItem2);
+
+        assertEquals(2, testedAggregator.getWrapperCount());
+        assertEquals(1, targetWrapper.getAggregatedTerminationPoints().getValue().size());
+        assertEquals("Source wrapper should be aggregated again without moved termination points", 2,
+                sourceWrapper.getAggregatedTerminationPoints().getValue().size());
+        Mockito.verify(topologyManagerMock, times(2)).writeWrapper(sourceWrapper, CorrelationItemEnum.Node);
+    }
+
+    private TerminationPointAggregator prepareAggregatorWithTPAggregator() {
+        Map<Integer, YangInstanceIdentifier> targetFields = new HashMap<>();
+        targetFields.put(0, YangInstanceIdentifier.of(IP_ADDRESS_QNAME));
+        targetFieldsPerTopology.put("topology-id-1", targetFields);
+        targetFieldsPerTopology.put("topology-id-2", targetFields);
+        TerminationPointAggregator tpAggregator = new TerminationPointAggregator(new TopoStoreProvider(),
+                NetworkTopologyModel.class);
+        testedAggregator = new NodeAndTPAggregator(nodeAggregatorMock, tpAggregator, null,
+                NetworkTopologyModel.class, targetFieldsPerTopology);
+        testedAggregator.setTopologyManager(topologyManagerMock);
+        return tpAggregator;
+    }
+
+    private void removeOverlayItemFromWrapper(final OverlayItemWrapper wrapper) {
+        Mockito.doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                wrapper.getOverlayItems().remove(invocation.getArguments()[0]);
+                return null;
+            }
+        }).when(topologyManagerMock).removeOverlayItem(any(OverlayItem.class));
+    }
+
+    private static MapEntryNode createTerminationPointWithIp(String tpId, String ipAddress) {
+        return ImmutableNodes.mapEntryBuilder(TerminationPoint.QNAME, TopologyQNames.NETWORK_TP_ID_QNAME, tpId)
+                .withChild(ImmutableNodes.leafNode(IP_ADDRESS_QNAME, ipAddress)).build();
+    }
+
     private void assertAmountOfTPsInNode(Class<? extends Model> model, NormalizedNode<?, ?> normalizedNode,
             int amount) {
         Optional<NormalizedNode<?, ?>> tpMapNodeWithAllTPsOpt = Optional.absent();
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.topoprocessing.impl.operator;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.opendaylight.topoprocessing.impl.util.TopologyQNames;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.Nodes;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.node.NodeConnector;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.node.TerminationPoint;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.AugmentationNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableAugmentationNodeBuilder;
+
+import com.google.common.collect.ImmutableSet;
+
+public class NodeConnectorIndexTest {
+
+    @Test
+    public void testExactMatchOfNodeConnectorRefs() {
+        NodeConnectorIndex index = new NodeConnectorIndex();
+        // node-connector id of tp:1 is a prefix of the one of tp:10
+        MapNode tps = ImmutableNodes.mapNodeBuilder(TerminationPoint.QNAME)
+                .withChild(createTp("tp:10", "openflow:1:10"))
+                .withChild(createTp("tp:1", "openflow:1:1")).build();
+        index.update(tps);
+        Assert.assertEquals("tp:1", index.getTpId("openflow:1:1"));
+        Assert.assertEquals("tp:10", index.getTpId("openflow:1:10"));
+        Assert.assertNull(index.getTpId("openflow:1:2"));
+    }
+
+    @Test
+    public void testMatchByTpId() {
+        NodeConnectorIndex index = new NodeConnectorIndex();
+        MapEntryNode tpWithoutRef = ImmutableNodes.mapEntry(TerminationPoint.QNAME,
+                TopologyQNames.NETWORK_TP_ID_QNAME, "openflow:1:3");
+        index.update(ImmutableNodes.mapNodeBuilder(TerminationPoint.QNAME).withChild(tpWithoutRef)
+                .withChild(createTp("tp:1", "openflow:1:1")).build());
+        Assert.assertEquals("openflow:1:3", index.getTpId("openflow:1:3"));
+        Assert.assertEquals("tp:1", index.getTpId("openflow:1:1"));
+    }
+
+    @Test
+    public void testIncrementalUpdate() {
+        NodeConnectorIndex index = new NodeConnectorIndex();
+        MapEntryNode tp1 = createTp("tp:1", "openflow:1:1");
+        MapEntryNode tp2 = createTp("tp:2", "openflow:1:2");
+        MapNode tps = ImmutableNodes.mapNodeBuilder(TerminationPoint.QNAME).withChild(tp1).withChild(tp2).build();
+        Assert.assertEquals(new HashSet<>(Arrays.asList("openflow:1:1", "openflow:1:2", "tp:1", "tp:2")),
+                index.update(tps));
+        Assert.assertEquals(Collections.emptySet(), index.update(tps));
+
+        // tp:2 moved to another node-connector, tp:1 removed, tp:3 added
+        MapNode updatedTps = ImmutableNodes.mapNodeBuilder(TerminationPoint.QNAME)
+                .withChild(createTp("tp:2", "openflow:1:4")).withChild(createTp("tp:3", "openflow:1:1")).build();
+        Assert.assertEquals(new HashSet<>(Arrays.asList("openflow:1:1", "openflow:1:2", "openflow:1:4", "tp:1",
+                "tp:3")), index.update(updatedTps));
+        Assert.assertEquals("tp:3", index.getTpId("openflow:1:1"));
+        Assert.assertNull(index.getTpId("openflow:1:2"));
+        Assert.assertEquals("tp:2", index.getTpId("openflow:1:4"));
+
+        index.update(null);
+        Assert.assertNull(index.getTpId("openflow:1:1"));
+        Assert.assertNull(index.getTpId("openflow:1:4"));
+    }
+
+    private static MapEntryNode createTp(String tpId, String nodeConnectorId) {
+        YangInstanceIdentifier nodeConnectorRef = YangInstanceIdentifier.builder().node(Nodes.QNAME)
+                .node(Node.QNAME).nodeWithKey(Node.QNAME, TopologyQNames.INVENTORY_NODE_ID_QNAME, "openflow:1")
+                .node(NodeConnector.QNAME)
+                .nodeWithKey(NodeConnector.QNAME, TopologyQNames.NODE_CONNECTOR_ID_QNAME, nodeConnectorId).build();
+        AugmentationNode augNode = ImmutableAugmentationNodeBuilder.create()
+                .withNodeIdentifier(new AugmentationIdentifier(
+                        ImmutableSet.of(TopologyQNames.INVENTORY_NODE_CONNECTOR_REF_QNAME)))
+                .withChild(ImmutableNodes.leafNode(TopologyQNames.INVENTORY_NODE_CONNECTOR_REF_QNAME,
+                        nodeConnectorRef)).build();
+        return ImmutableNodes.mapEntryBuilder(TerminationPoint.QNAME, TopologyQNames.NETWORK_TP_ID_QNAME, tpId)
+                .withChild(augNode).build();
+    }
+}
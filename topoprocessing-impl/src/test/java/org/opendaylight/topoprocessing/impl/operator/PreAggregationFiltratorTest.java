@@ -99,7 +99,7 @@ public class PreAggregationFiltratorTest {
         Mockito.verify(mockAggregator).processUpdatedChanges(yiid, item, TOPOLOGY_ID);
 
         // test updating a preexisting node expecting filtration to occur
-        leafNodesMap.put(0, TEST_NODE_CREATOR.createLeafNodeWithIpAddress("192.168.1.5"));
+        leafNodesMap.put(0, TEST_NODE_CREATOR.createLeafNodeWithIpAddress("192.168.1.6"));
         yiid = TEST_NODE_CREATOR.createNodeIdYiid(nodeId);
         item = new UnderlayItem(null, leafNodesMap, TOPOLOGY_ID, nodeId, CorrelationItemEnum.Node);
         Mockito.when(mockFilter.isFiltered((NormalizedNode) Matchers.any())).thenReturn(true);
@@ -108,6 +108,53 @@ public class PreAggregationFiltratorTest {
         Mockito.verify(mockAggregator).processRemovedChanges(yiid, TOPOLOGY_ID);
     }
 
+    @Test
+    public void testFiltrationVerdictReused() {
+        Mockito.when(mockFilter.isFiltered((NormalizedNode) Matchers.any())).thenReturn(false);
+        Mockito.when(underlayItemsMock.get((YangInstanceIdentifier) Matchers.any())).thenReturn(underlayItemMock);
+        String nodeId = "node:1";
+        YangInstanceIdentifier yiid = TEST_NODE_CREATOR.createNodeIdYiid(nodeId);
+        Map<Integer, NormalizedNode<?, ?>> leafNodesMap = new HashMap<>();
+        leafNodesMap.put(0, TEST_NODE_CREATOR.createLeafNodeWithIpAddress("192.168.1.1"));
+        UnderlayItem item = new UnderlayItem(TEST_NODE_CREATOR.createMapEntryNode(nodeId), leafNodesMap,
+                TOPOLOGY_ID, nodeId, CorrelationItemEnum.Node);
+        filtrator.processCreatedChanges(yiid, item, TOPOLOGY_ID);
+
+        // same target field, different content - passed further without filtration
+        UnderlayItem changedItem = new UnderlayItem(TEST_NODE_CREATOR.createMapEntryNode("node:2"),
+                leafNodesMap, TOPOLOGY_ID, nodeId, CorrelationItemEnum.Node);
+        filtrator.processUpdatedChanges(yiid, changedItem, TOPOLOGY_ID);
+        Mockito.verify(mockFilter, Mockito.times(1)).isFiltered((NormalizedNode) Matchers.any());
+        Mockito.verify(mockAggregator).processUpdatedChanges(yiid, changedItem, TOPOLOGY_ID);
+
+        // same content of passed item - still passed further
+        UnderlayItem sameItem = new UnderlayItem(TEST_NODE_CREATOR.createMapEntryNode("node:2"),
+                leafNodesMap, TOPOLOGY_ID, nodeId, CorrelationItemEnum.Node);
+        filtrator.processUpdatedChanges(yiid, sameItem, TOPOLOGY_ID);
+        Mockito.verify(mockFilter, Mockito.times(1)).isFiltered((NormalizedNode) Matchers.any());
+        Mockito.verify(mockAggregator).processUpdatedChanges(yiid, sameItem, TOPOLOGY_ID);
+
+        // target field changed - filtrated again and filtered out
+        Mockito.when(mockFilter.isFiltered((NormalizedNode) Matchers.any())).thenReturn(true);
+        leafNodesMap.put(0, TEST_NODE_CREATOR.createLeafNodeWithIpAddress("192.168.1.2"));
+        filtrator.processUpdatedChanges(yiid, sameItem, TOPOLOGY_ID);
+        Mockito.verify(mockFilter, Mockito.times(2)).isFiltered((NormalizedNode) Matchers.any());
+        Mockito.verify(mockAggregator).processRemovedChanges(yiid, TOPOLOGY_ID);
+
+        // filtered out item with the same target field - nothing passed further
+        UnderlayItem rejectedItem = new UnderlayItem(TEST_NODE_CREATOR.createMapEntryNode("node:3"),
+                leafNodesMap, TOPOLOGY_ID, nodeId, CorrelationItemEnum.Node);
+        filtrator.processUpdatedChanges(yiid, rejectedItem, TOPOLOGY_ID);
+        Mockito.verify(mockFilter, Mockito.times(2)).isFiltered((NormalizedNode) Matchers.any());
+        Mockito.verify(mockAggregator, Mockito.times(1)).processRemovedChanges(yiid, TOPOLOGY_ID);
+        Mockito.verify(mockAggregator, Mockito.never()).processUpdatedChanges(yiid, rejectedItem, TOPOLOGY_ID);
+
+        // removal forgets the verdict
+        filtrator.processRemovedChanges(yiid, TOPOLOGY_ID);
+        filtrator.processUpdatedChanges(yiid, rejectedItem, TOPOLOGY_ID);
+        Mockito.verify(mockFilter, Mockito.times(3)).isFiltered((NormalizedNode) Matchers.any());
+    }
+
     @Test
     public void testProcessRemovedChanges() {
         String nodeId = "node:1";
@@ -10,10 +10,13 @@ package org.opendaylight.topoprocessing.impl.operator;
 import com.google.common.base.Optional;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -41,6 +44,7 @@ import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.
 import org.opendaylight.yangtools.yang.common.QName;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeWithValue;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.DataContainerChild;
@@ -572,6 +576,154 @@ public class TerminationPointAggregatorTest {
         }
     }
 
+    /**
+     * Create 5 TPs and aggregate them, then change IP address of TP1 to the one of TP2 and remove TP2 and TP5.
+     * Result should be: myTP1 with ref to TP3, myTP2 with refs to TP1, TP4. Id's of myTPs should not change.
+     */
+    @Test
+    public void testUpdateNodeMovedAndRemovedTPsNt() {
+        testCreateNodeNt();
+        Map<String, List<String>> createdTps =
+                getAggregatedTps(topoManager.getNewOverlayItem().getUnderlayItems().peek().getItem());
+        String nodeId = "node:1";
+        YangInstanceIdentifier nodeYiid = YangInstanceIdentifier.builder(InstanceIdentifiers.NODE_IDENTIFIER)
+                .nodeWithKey(Node.QNAME, TopologyQNames.NETWORK_NODE_ID_QNAME, nodeId).build();
+        MapEntryNode movedTp1 = ImmutableNodes
+                .mapEntryBuilder(TerminationPoint.QNAME, TopologyQNames.NETWORK_TP_ID_QNAME, TP_ID1)
+                .withChild(ImmutableNodes.leafNode(NT_IP_ADDRESS_QNAME, IP2)).build();
+        MapEntryNode nodeValueInput = ImmutableNodes
+                .mapEntryBuilder(Node.QNAME, TopologyQNames.NETWORK_NODE_ID_QNAME, nodeId)
+                .withChild(ImmutableNodes.mapNodeBuilder(TerminationPoint.QNAME).withChild(movedTp1)
+                        .withChild(tp3).withChild(tp4).build())
+                .build();
+        UnderlayItem underlayItemInput = new UnderlayItem(nodeValueInput, null, TOPOLOGY_NAME, nodeId,
+                CorrelationItemEnum.Node);
+        aggregator.processUpdatedChanges(nodeYiid, underlayItemInput, TOPOLOGY_NAME);
+
+        Map<String, List<String>> updatedTps =
+                getAggregatedTps(topoManager.getOldOverlayItem().getUnderlayItems().peek().getItem());
+        Assert.assertEquals("Number of Termination Points", 2, updatedTps.size());
+        for (Entry<String, List<String>> createdTp : createdTps.entrySet()) {
+            List<String> underlayTps = updatedTps.get(createdTp.getKey());
+            Assert.assertNotNull("Id of aggregated TP should not change", underlayTps);
+            if (createdTp.getValue().contains(TP_ID1)) {
+                Assert.assertEquals(Arrays.asList(TP_ID3), underlayTps);
+            } else {
+                Assert.assertEquals(Arrays.asList(TP_ID1, TP_ID4), underlayTps);
+            }
+        }
+    }
+
+    /**
+     * Create 5 TPs and aggregate them, then change IP address of TP1 to a new one and remove TP3 and TP5.
+     * Result should be: myTP1 removed, myTP2 unchanged and shared with the previous node, new myTP3 with ref
+     * to TP1. Repeating the same update shall not update the overlay item.
+     */
+    @Test
+    public void testUpdateNodeTerminationPointChangesNt() {
+        testCreateNodeNt();
+        NormalizedNode<?, ?> createdNode = topoManager.getNewOverlayItem().getUnderlayItems().peek().getItem();
+        Map<String, List<String>> createdTps = getAggregatedTps(createdNode);
+        String removedTpId = null;
+        String unchangedTpId = null;
+        for (Entry<String, List<String>> createdTp : createdTps.entrySet()) {
+            if (createdTp.getValue().contains(TP_ID1)) {
+                removedTpId = createdTp.getKey();
+            } else {
+                unchangedTpId = createdTp.getKey();
+            }
+        }
+        MapEntryNode unchangedTp = ((MapNode) NormalizedNodes.findNode(createdNode,
+                YangInstanceIdentifier.of(TerminationPoint.QNAME)).get()).getChild(new NodeIdentifierWithPredicates(
+                        TerminationPoint.QNAME, TopologyQNames.NETWORK_TP_ID_QNAME, unchangedTpId)).get();
+        String nodeId = "node:1";
+        YangInstanceIdentifier nodeYiid = YangInstanceIdentifier.builder(InstanceIdentifiers.NODE_IDENTIFIER)
+                .nodeWithKey(Node.QNAME, TopologyQNames.NETWORK_NODE_ID_QNAME, nodeId).build();
+        MapEntryNode movedTp1 = ImmutableNodes
+                .mapEntryBuilder(TerminationPoint.QNAME, TopologyQNames.NETWORK_TP_ID_QNAME, TP_ID1)
+                .withChild(ImmutableNodes.leafNode(NT_IP_ADDRESS_QNAME, "192.168.1.13")).build();
+        MapEntryNode nodeValueInput = ImmutableNodes
+                .mapEntryBuilder(Node.QNAME, TopologyQNames.NETWORK_NODE_ID_QNAME, nodeId)
+                .withChild(ImmutableNodes.mapNodeBuilder(TerminationPoint.QNAME).withChild(movedTp1)
+                        .withChild(tp2).withChild(tp4).build())
+                .build();
+        aggregator.processUpdatedChanges(nodeYiid, new UnderlayItem(nodeValueInput, null, TOPOLOGY_NAME, nodeId,
+                CorrelationItemEnum.Node), TOPOLOGY_NAME);
+
+        NormalizedNode<?, ?> updatedNode = topoManager.getOldOverlayItem().getUnderlayItems().peek().getItem();
+        Map<String, List<String>> updatedTps = getAggregatedTps(updatedNode);
+        Assert.assertEquals("Number of Termination Points", 2, updatedTps.size());
+        Assert.assertEquals(Arrays.asList(TP_ID2, TP_ID4), updatedTps.get(unchangedTpId));
+        TerminationPointAggregator.TerminationPointChanges changes = aggregator.getTerminationPointChanges(nodeYiid);
+        Assert.assertEquals(Collections.singleton(removedTpId), changes.getRemoved());
+        Assert.assertTrue("Unchanged TP should not be updated", changes.getUpdated().isEmpty());
+        Assert.assertEquals("One TP should be added", 1, changes.getAdded().size());
+        String addedTpId = changes.getAdded().iterator().next();
+        Assert.assertEquals(Arrays.asList(TP_ID1), updatedTps.get(addedTpId));
+        Assert.assertSame("Unchanged TP should be shared with the previous node", unchangedTp,
+                ((MapNode) NormalizedNodes.findNode(updatedNode, YangInstanceIdentifier.of(TerminationPoint.QNAME))
+                        .get()).getChild(unchangedTp.getIdentifier()).get());
+
+        topoManager.oldOverlayItem = null;
+        aggregator.processUpdatedChanges(nodeYiid, new UnderlayItem(nodeValueInput, null, TOPOLOGY_NAME, nodeId,
+                CorrelationItemEnum.Node), TOPOLOGY_NAME);
+        Assert.assertNull("Unchanged node should not be updated", topoManager.getOldOverlayItem());
+        Assert.assertTrue("No TP should change", aggregator.getTerminationPointChanges(nodeYiid).isEmpty());
+    }
+
+    /**
+     * @return aggregated tp-id -> sorted ids of underlay TPs it refers to
+     */
+    private static Map<String, List<String>> getAggregatedTps(NormalizedNode<?, ?> node) {
+        MapNode tpMapNode = (MapNode) NormalizedNodes.findNode(node,
+                YangInstanceIdentifier.of(TerminationPoint.QNAME)).get();
+        Map<String, List<String>> aggregatedTps = new HashMap<>();
+        for (MapEntryNode tp : tpMapNode.getValue()) {
+            LeafSetNode<String> tpRefs = (LeafSetNode<String>) tp.getChild(
+                    new NodeIdentifier(TopologyQNames.TP_REF)).get();
+            List<String> underlayTps = new ArrayList<>();
+            for (String tpId : Arrays.asList(TP_ID1, TP_ID2, TP_ID3, TP_ID4, TP_ID5)) {
+                for (LeafSetEntryNode<String> tpRef : tpRefs.getValue()) {
+                    if (tpRef.getValue().endsWith("/" + tpId)) {
+                        underlayTps.add(tpId);
+                    }
+                }
+            }
+            aggregatedTps.put((String) tp.getIdentifier().getKeyValues().get(TopologyQNames.NETWORK_TP_ID_QNAME),
+                    underlayTps);
+        }
+        return aggregatedTps;
+    }
+
+    /**
+     * Update of a node which was not created before shall be processed as its creation. Termination point
+     * without target field value shall not be aggregated.
+     */
+    @Test
+    public void testUpdateUnknownNodeNt() {
+        init(NetworkTopologyModel.class);
+        String nodeId = "node:1";
+        YangInstanceIdentifier nodeYiid = YangInstanceIdentifier.builder(InstanceIdentifiers.NODE_IDENTIFIER)
+                .nodeWithKey(Node.QNAME, TopologyQNames.NETWORK_NODE_ID_QNAME, nodeId).build();
+        MapEntryNode tpWithoutIp = ImmutableNodes.mapEntry(TerminationPoint.QNAME, TopologyQNames.NETWORK_TP_ID_QNAME,
+                "tp6");
+        MapEntryNode nodeValueInput = ImmutableNodes
+                .mapEntryBuilder(Node.QNAME, TopologyQNames.NETWORK_NODE_ID_QNAME, nodeId)
+                .withChild(ImmutableNodes.mapNodeBuilder(TerminationPoint.QNAME).withChild(tp1).withChild(tp2)
+                        .withChild(tp3).withChild(tp4).withChild(tp5).withChild(tpWithoutIp).build())
+                .build();
+        aggregator.processUpdatedChanges(nodeYiid, new UnderlayItem(nodeValueInput, null, TOPOLOGY_NAME, nodeId,
+                CorrelationItemEnum.Node), TOPOLOGY_NAME);
+
+        Assert.assertNull("Unknown node should not be updated", topoManager.getOldOverlayItem());
+        Assert.assertNotNull("Unknown node should be created", topoManager.getNewOverlayItem());
+        Map<String, List<String>> createdTps =
+                getAggregatedTps(topoManager.getNewOverlayItem().getUnderlayItems().peek().getItem());
+        Assert.assertEquals("Number of Termination Points", 2, createdTps.size());
+        Assert.assertTrue(createdTps.containsValue(Arrays.asList(TP_ID1, TP_ID3, TP_ID5)));
+        Assert.assertTrue(createdTps.containsValue(Arrays.asList(TP_ID2, TP_ID4)));
+    }
+
     @Test
     public void testUpdateNodeSameTPsNt() {
         testCreateNodeNt();
@@ -237,6 +237,52 @@ public class TerminationPointFiltratorTest {
         inventoryModelFiltrator.processCreatedChanges(nodeYiid, invUnderlayItemInput, INV_TOPOLOGY_ID);
     }
 
+    /**
+     * Termination point created from a node-connector keeps its identifier when the item is filtered again.
+     */
+    @Test
+    public void testInventoryTpIdStableOnUpdate() {
+        testProcessCreatedChangesOnInventoryModel();
+
+        MapEntryNode nodeConnector1 = ImmutableNodes.mapEntryBuilder(NodeConnector.QNAME,
+                TopologyQNames.NODE_CONNECTOR_ID_QNAME, "tp1")
+                .withChild(ImmutableNodes.leafNode(INVENTORY_NUMBER_VALUE_QNAME, "16")).build();
+        MapEntryNode inventoryNode = ImmutableNodes.mapEntryBuilder(
+                org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node.QNAME,
+                TopologyQNames.INVENTORY_NODE_ID_QNAME, NODE_ID)
+                .withChild(ImmutableNodes.mapNodeBuilder(NodeConnector.QNAME).withChild(nodeConnector1).build())
+                .build();
+        Map<Integer, NormalizedNode<?, ?>> leafNodesMap = new HashMap<>();
+        leafNodesMap.put(0, inventoryNode);
+        MapEntryNode terminationPoint1 = ImmutableNodes.mapEntryBuilder(TerminationPoint.QNAME,
+                TopologyQNames.NETWORK_TP_ID_QNAME, "tp:1")
+                .withChild(ImmutableNodes.leafNode(TopologyQNames.INVENTORY_NODE_CONNECTOR_REF_QNAME, "tp1")).build();
+        LeafNode<String> invNodeRef = ImmutableNodes.leafNode(TopologyQNames.INVENTORY_NODE_REF_QNAME, NODE_ID);
+        MapEntryNode ntNode = ImmutableNodes.mapEntryBuilder(Node.QNAME, TopologyQNames.NETWORK_NODE_ID_QNAME, NODE_ID)
+                .withChild(invNodeRef)
+                .withChild(ImmutableNodes.mapNodeBuilder(TerminationPoint.QNAME).withChild(terminationPoint1).build())
+                .build();
+        UnderlayItem invUnderlayItemInput = new UnderlayItem(ntNode, leafNodesMap, INV_TOPOLOGY_ID, NODE_ID,
+                CorrelationItemEnum.TerminationPoint);
+
+        String tpRefPath = "/network-topology:network-topology/topology/" + INV_TOPOLOGY_ID + "/node/" + NODE_ID
+                + "/termination-point/tp:1";
+        MapEntryNode outTerminationPoint = ImmutableNodes.mapEntryBuilder(TerminationPoint.QNAME,
+                TopologyQNames.NETWORK_TP_ID_QNAME, "tp:1")
+                .withChild(ImmutableLeafSetNodeBuilder.<String>create()
+                        .withNodeIdentifier(NodeIdentifier.create(TopologyQNames.TP_REF))
+                        .withChild(new ImmutableLeafSetEntryNodeBuilder<String>()
+                                .withNodeIdentifier(new NodeWithValue<String>(TopologyQNames.TP_REF, tpRefPath))
+                                .withValue(tpRefPath).build())
+                        .build())
+                .build();
+        manager.setOutput(ImmutableNodes.mapEntryBuilder(Node.QNAME, TopologyQNames.NETWORK_NODE_ID_QNAME, NODE_ID)
+                .withChild(invNodeRef)
+                .withChild(ImmutableNodes.mapNodeBuilder(TerminationPoint.QNAME).withChild(outTerminationPoint).build())
+                .build());
+        inventoryModelFiltrator.processUpdatedChanges(nodeYiid, invUnderlayItemInput, INV_TOPOLOGY_ID);
+    }
+
     @Test
     public void testProcessUpdatedChanges() {
         testProcessCreatedChangesOnNTModel();
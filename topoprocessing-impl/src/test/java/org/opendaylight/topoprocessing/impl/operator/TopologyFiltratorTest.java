@@ -8,10 +8,12 @@
 package org.opendaylight.topoprocessing.impl.operator;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -22,12 +24,18 @@ import org.mockito.runners.MockitoJUnitRunner;
 import org.opendaylight.topoprocessing.api.structure.OverlayItem;
 import org.opendaylight.topoprocessing.api.structure.UnderlayItem;
 import org.opendaylight.topoprocessing.impl.operator.filtrator.AbstractFiltrator;
+import org.opendaylight.topoprocessing.impl.operator.filtrator.AdaptiveFiltratorOrder;
+import org.opendaylight.topoprocessing.impl.operator.filtrator.Ipv4AddressFiltrator;
 import org.opendaylight.topoprocessing.impl.testUtilities.TestNodeCreator;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpPrefix;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.Ipv4Prefix;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.CorrelationItemEnum;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.Node;
 import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.node.TerminationPoint;
 import org.opendaylight.yangtools.yang.common.QName;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
 
 /**
  * @author matus.marko
@@ -38,6 +46,7 @@ public class TopologyFiltratorTest {
     private static final String TOPOLOGY_NAME = "mytopo:1";
     private static final QName UNNUMBERED_QNAME =
         QName.create(TerminationPoint.QNAME, "unnumbered").intern();
+    private static final QName IP_ADDRESS_QNAME = QName.create(Node.QNAME, "ip-address").intern();
 
 
     private TestNodeCreator creator = new TestNodeCreator();
@@ -117,4 +126,55 @@ public class TopologyFiltratorTest {
 //        Mockito.verify(mockTopologyManager, Mockito.times(4)).removeOverlayItem((OverlayItem) Matchers.any());
         Mockito.verify(mockTopologyManager, Mockito.times(3)).removeOverlayItem((OverlayItem) Matchers.any());
     }
+
+    @Test
+    public void testFiltratorsGroupedByPath() {
+        YangInstanceIdentifier ipPath = YangInstanceIdentifier.of(IP_ADDRESS_QNAME);
+        TopologyFiltrator groupedFiltrator = new TopologyFiltrator(new TopoStoreProvider());
+        groupedFiltrator.addFilter(new Ipv4AddressFiltrator(
+                new IpPrefix(Ipv4Prefix.getDefaultInstance("192.168.0.0/16")), ipPath));
+        groupedFiltrator.addFilter(new Ipv4AddressFiltrator(
+                new IpPrefix(Ipv4Prefix.getDefaultInstance("192.168.1.0/24")), ipPath));
+        Mockito.when(mockFiltrator.getPathIdentifier()).thenReturn(pathIdentifier);
+        groupedFiltrator.addFilter(mockFiltrator);
+
+        Assert.assertTrue(groupedFiltrator.passedFiltration(creator.createLeafNodeWithIpAddress("192.168.1.5")));
+        Assert.assertFalse(groupedFiltrator.passedFiltration(creator.createLeafNodeWithIpAddress("192.168.2.5")));
+        Assert.assertFalse(groupedFiltrator.passedFiltration(creator.createLeafNodeWithIpAddress("10.0.0.1")));
+        // filtrator on other path is not evaluated for ip-address
+        Mockito.verify(mockFiltrator, Mockito.never()).isFiltered((NormalizedNode) Matchers.any());
+
+        Mockito.when(mockFiltrator.isFiltered((NormalizedNode) Matchers.any())).thenReturn(true);
+        Assert.assertFalse(groupedFiltrator.passedFiltration(ImmutableNodes.leafNode(UNNUMBERED_QNAME, 5)));
+        Mockito.verify(mockFiltrator).isFiltered((NormalizedNode) Matchers.any());
+    }
+
+    @Test
+    public void testSelectivePathGroupEvaluatedFirst() {
+        TopologyFiltrator groupedFiltrator = new TopologyFiltrator(new TopoStoreProvider());
+        // filtrator on the first path passes everything
+        Mockito.when(mockFiltrator.getPathIdentifier()).thenReturn(pathIdentifier);
+        groupedFiltrator.addFilter(mockFiltrator);
+        // filtrator on the second path filters out everything
+        AbstractFiltrator selectiveFiltrator = Mockito.mock(AbstractFiltrator.class);
+        Mockito.when(selectiveFiltrator.getPathIdentifier()).thenReturn(YangInstanceIdentifier.of(IP_ADDRESS_QNAME));
+        Mockito.when(selectiveFiltrator.isFiltered((NormalizedNode) Matchers.any())).thenReturn(true);
+        groupedFiltrator.addFilter(selectiveFiltrator);
+
+        List<NormalizedNode<?, ?>> nodes = Arrays.asList(ImmutableNodes.leafNode(UNNUMBERED_QNAME, 5),
+                creator.createLeafNodeWithIpAddress("192.168.1.5"));
+        Assert.assertFalse(groupedFiltrator.passedFiltration(nodes));
+        // groups start in the configured order
+        Mockito.verify(mockFiltrator).isFiltered((NormalizedNode) Matchers.any());
+
+        for (int i = 1; i < AdaptiveFiltratorOrder.REORDER_INTERVAL; i++) {
+            Assert.assertFalse(groupedFiltrator.passedFiltration(nodes));
+        }
+        Mockito.reset(mockFiltrator);
+        // selective group on the second path decides without evaluating the first one
+        Assert.assertFalse(groupedFiltrator.passedFiltration(nodes));
+        Mockito.verify(mockFiltrator, Mockito.never()).isFiltered((NormalizedNode) Matchers.any());
+        Mockito.verify(selectiveFiltrator, Mockito.times(AdaptiveFiltratorOrder.REORDER_INTERVAL + 1))
+                .isFiltered((NormalizedNode) Matchers.any());
+    }
 }
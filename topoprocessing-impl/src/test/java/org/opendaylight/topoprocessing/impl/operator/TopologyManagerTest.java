@@ -10,9 +10,13 @@ package org.opendaylight.topoprocessing.impl.operator;
 import static org.mockito.Matchers.any;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -30,6 +34,7 @@ import org.opendaylight.controller.md.sal.dom.api.DOMRpcService;
 import org.opendaylight.topoprocessing.api.structure.OverlayItem;
 import org.opendaylight.topoprocessing.api.structure.UnderlayItem;
 import org.opendaylight.topoprocessing.impl.rpc.RpcServices;
+import org.opendaylight.topoprocessing.impl.structure.IdentifierGenerator;
 import org.opendaylight.topoprocessing.impl.structure.OverlayItemWrapper;
 import org.opendaylight.topoprocessing.impl.util.GlobalSchemaContextHolder;
 import org.opendaylight.topoprocessing.impl.util.InstanceIdentifiers;
@@ -37,6 +42,7 @@ import org.opendaylight.topoprocessing.impl.util.TopologyQNames;
 import org.opendaylight.topoprocessing.impl.writer.TopologyWriter;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.CorrelationItemEnum;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.NetworkTopologyModel;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.OverlayIdStrategy;
 import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.Topology;
 import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.Node;
 import org.opendaylight.yangtools.concepts.ListenerRegistration;
@@ -299,6 +305,46 @@ public class TopologyManagerTest {
             .registerRpcImplementation((DOMRpcImplementation) any(),(Set<DOMRpcIdentifier>) any());
     }
 
+    /**
+     * Repeated updates of the same overlay item shall not register the republished RPCs again,
+     * removal of the overlay item shall close the registration.
+     */
+    @Test
+    public void testRpcRepublishingRegisteredOnce() {
+        Mockito.when(mockSchemaHolder.getSchemaContext()).thenReturn(mockSchemaContext);
+        Mockito.when(mockRpcServices.getRpcProviderService()).thenReturn(mockDomRpcProviderService);
+        Mockito.when(mockDomRpcProviderService.registerRpcImplementation(
+                (DOMRpcImplementation) any(), (Set<DOMRpcIdentifier>) any()))
+                .thenReturn(mockDomRpcImplementationRegistration);
+
+        YangInstanceIdentifier contextReference = YangInstanceIdentifier
+                .builder(InstanceIdentifiers.TOPOLOGY_IDENTIFIER)
+                .nodeWithKey(Topology.QNAME, TopologyQNames.TOPOLOGY_ID_QNAME, TOPOLOGY1)
+                .node(Node.QNAME)
+                .nodeWithKey(Node.QNAME, TopologyQNames.NETWORK_NODE_ID_QNAME, NODE_ID1)
+                .build();
+        SchemaPath schemaPath = SchemaPath.create(true, TopologyQNames.NETWORK_NODE_ID_QNAME);
+        Collection<DOMRpcIdentifier> rpcs = new ArrayList<>();
+        rpcs.add(DOMRpcIdentifier.create(schemaPath, contextReference));
+        manager.onRpcAvailable(rpcs);
+
+        List<UnderlayItem> physicalNodes = new ArrayList<>();
+        physicalNodes.add(new UnderlayItem(mockNormalizedNode1, null, TOPOLOGY1, NODE_ID1,
+                CorrelationItemEnum.Node));
+        logicalNode = new OverlayItem(physicalNodes, CorrelationItemEnum.Node);
+        manager.addOverlayItem(logicalNode);
+        manager.updateOverlayItem(logicalNode);
+        manager.updateOverlayItem(logicalNode);
+        Mockito.verify(mockDomRpcProviderService, Mockito.times(1))
+            .registerRpcImplementation((DOMRpcImplementation) any(),(Set<DOMRpcIdentifier>) any());
+        Mockito.verify(mockDomRpcImplementationRegistration, Mockito.times(0)).close();
+
+        manager.removeOverlayItem(logicalNode);
+        Mockito.verify(mockDomRpcImplementationRegistration, Mockito.times(1)).close();
+        manager.close();
+        Mockito.verify(mockDomRpcImplementationRegistration, Mockito.times(1)).close();
+    }
+
     @Test
     public void updateLogicalNode() {
         addLogicalNode();
@@ -327,4 +373,97 @@ public class TopologyManagerTest {
         Mockito.verify(writer, Mockito.times(0)).writeItem((OverlayItemWrapper) any(), (CorrelationItemEnum) any());
     }
 
+    /**
+     * Overlay item supported by underlay items of two different wrappers shall merge those wrappers
+     * into one and delete the other one.
+     */
+    @Test
+    public void addLogicalNodeMergingTwoWrappers() {
+        addTwoLogicalNodesInTwoCalls();
+        Mockito.reset(writer);
+
+        List<UnderlayItem> physicalNodes = new ArrayList<>();
+        physicalNodes.add(logicalNode.getUnderlayItems().peek());
+        physicalNodes.add(logicalNode2.getUnderlayItems().peek());
+        OverlayItem bridgingNode = new OverlayItem(physicalNodes, CorrelationItemEnum.Node);
+        manager.addOverlayItem(bridgingNode);
+
+        Assert.assertEquals(1, manager.getNodeWrappers().size());
+        OverlayItemWrapper wrapper = manager.findWrapper(bridgingNode);
+        Assert.assertSame(wrapper, manager.findWrapper(logicalNode));
+        Assert.assertSame(wrapper, manager.findWrapper(logicalNode2));
+        Assert.assertEquals(3, wrapper.getOverlayItems().size());
+        Mockito.verify(writer, Mockito.times(1)).deleteItem((OverlayItemWrapper) any(), (CorrelationItemEnum) any());
+        Mockito.verify(writer, Mockito.times(1)).writeItem(wrapper, CorrelationItemEnum.Node);
+    }
+
+    /**
+     * Content-derived identifier of a wrapper shall depend only on its underlay items, not on the order
+     * the overlay items arrived in.
+     */
+    @Test
+    public void testContentDerivedIdIndependentOfOrder() {
+        UnderlayItem physicalNode1 = new UnderlayItem(mockNormalizedNode1, null, TOPOLOGY1, NODE_ID1,
+                CorrelationItemEnum.Node);
+        UnderlayItem physicalNode2 = new UnderlayItem(mockNormalizedNode1, null, TOPOLOGY1, NODE_ID2,
+                CorrelationItemEnum.Node);
+        UnderlayItem physicalNode3 = new UnderlayItem(mockNormalizedNode1, null, TOPOLOGY1, NODE_ID3,
+                CorrelationItemEnum.Node);
+        OverlayItem overlayItem1 = new OverlayItem(Arrays.asList(physicalNode1, physicalNode2),
+                CorrelationItemEnum.Node);
+        OverlayItem overlayItem2 = new OverlayItem(Arrays.asList(physicalNode2, physicalNode3),
+                CorrelationItemEnum.Node);
+
+        manager.setIdentifierGenerator(new IdentifierGenerator(OverlayIdStrategy.ContentDerived));
+        manager.addOverlayItem(overlayItem1);
+        String firstItemId = manager.findWrapper(overlayItem1).getId();
+        manager.addOverlayItem(overlayItem2);
+        String wrapperId = manager.findWrapper(overlayItem1).getId();
+        Assert.assertNotEquals(firstItemId, wrapperId);
+        // wrapper written under the identifier derived from the first overlay item only is deleted
+        Mockito.verify(writer).deleteItem((OverlayItemWrapper) any(), Mockito.eq(CorrelationItemEnum.Node));
+
+        TopologyManager reversedManager = new TopologyManager(mockRpcServices, mockSchemaHolder, identifier,
+                NetworkTopologyModel.class);
+        reversedManager.setWriter(writer);
+        reversedManager.setIdentifierGenerator(new IdentifierGenerator(OverlayIdStrategy.ContentDerived));
+        reversedManager.addOverlayItem(overlayItem2);
+        reversedManager.addOverlayItem(overlayItem1);
+        Assert.assertEquals(wrapperId, reversedManager.findWrapper(overlayItem1).getId());
+
+        // removing the overlay item gives the wrapper identifier derived from the remaining underlay items
+        manager.removeOverlayItem(overlayItem2);
+        Assert.assertEquals(firstItemId, manager.findWrapper(overlayItem1).getId());
+    }
+
+    /**
+     * Overlay items of different wrappers added and removed from several threads shall all be processed.
+     */
+    @Test
+    public void testConcurrentAddAndRemove() throws InterruptedException {
+        final int itemCount = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < itemCount; i++) {
+            final String nodeId = "pcep:" + i;
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    List<UnderlayItem> physicalNodes = new ArrayList<>();
+                    physicalNodes.add(new UnderlayItem(mockNormalizedNode1, null, TOPOLOGY1, nodeId,
+                            CorrelationItemEnum.Node));
+                    OverlayItem overlayItem = new OverlayItem(physicalNodes, CorrelationItemEnum.Node);
+                    manager.addOverlayItem(overlayItem);
+                    manager.removeOverlayItem(overlayItem);
+                }
+            });
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        Mockito.verify(writer, Mockito.times(itemCount))
+                .writeItem((OverlayItemWrapper) any(), (CorrelationItemEnum) any());
+        Mockito.verify(writer, Mockito.times(itemCount))
+                .deleteItem((OverlayItemWrapper) any(), (CorrelationItemEnum) any());
+        Assert.assertEquals(0, manager.getNodeWrappers().size());
+    }
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.topoprocessing.impl.operator.filtrator;
+
+import com.google.common.base.Ticker;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.opendaylight.topoprocessing.api.filtration.Filtrator;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.Node;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+
+public class AdaptiveFiltratorOrderTest {
+
+    private static final QName VENDOR_QNAME = QName.create(Node.QNAME, "vendor").intern();
+    private final YangInstanceIdentifier path = YangInstanceIdentifier.builder().node(VENDOR_QNAME).build();
+    private final ManualTicker ticker = new ManualTicker();
+
+    @Test
+    public void testSelectiveFiltratorMovedFirst() {
+        // rarely filters out
+        Filtrator denyList = new ValueSetFiltrator(Arrays.asList("x", "y"), true, path);
+        // filters out everything but "a"
+        Filtrator allowList = new ValueSetFiltrator(Collections.singletonList("a"), false, path);
+        AdaptiveFiltratorOrder order = AdaptiveFiltratorOrder.conjunction(Arrays.asList(denyList, allowList),
+                ticker);
+
+        Assert.assertEquals(Arrays.asList(denyList, allowList), order.getOrder());
+        evaluate(order, "b", true, AdaptiveFiltratorOrder.REORDER_INTERVAL);
+        Assert.assertEquals(Arrays.asList(allowList, denyList), order.getOrder());
+        // verdicts don't depend on order
+        Assert.assertFalse(order.isFiltered(value("a")));
+        Assert.assertTrue(order.isFiltered(value("x")));
+        Assert.assertEquals(Arrays.asList(denyList, allowList), order.getFiltrators());
+    }
+
+    @Test
+    public void testCheapFiltratorMovedFirst() {
+        Filtrator costly = new CostFiltrator(1000, true);
+        Filtrator cheap = new CostFiltrator(10, true);
+        AdaptiveFiltratorOrder order = AdaptiveFiltratorOrder.conjunction(Arrays.asList(costly, cheap), ticker);
+
+        evaluate(order, "b", true, AdaptiveFiltratorOrder.REORDER_INTERVAL);
+        Assert.assertEquals(Arrays.asList(cheap, costly), order.getOrder());
+    }
+
+    @Test
+    public void testEquallyRankedFiltratorsKeepOrder() {
+        Filtrator first = new CostFiltrator(10, false);
+        Filtrator second = new CostFiltrator(10, false);
+        AdaptiveFiltratorOrder order = AdaptiveFiltratorOrder.conjunction(Arrays.asList(first, second), ticker);
+
+        evaluate(order, "b", false, AdaptiveFiltratorOrder.REORDER_INTERVAL);
+        Assert.assertEquals(Arrays.asList(first, second), order.getOrder());
+    }
+
+    @Test
+    public void testDisjunction() {
+        // passes only "a"
+        Filtrator allowList = new ValueSetFiltrator(Collections.singletonList("a"), false, path);
+        // passes everything but "x"
+        Filtrator denyList = new ValueSetFiltrator(Collections.singletonList("x"), true, path);
+        AdaptiveFiltratorOrder order = AdaptiveFiltratorOrder.disjunction(Arrays.asList(allowList, denyList),
+                ticker);
+
+        evaluate(order, "b", false, AdaptiveFiltratorOrder.REORDER_INTERVAL);
+        Assert.assertEquals(Arrays.asList(denyList, allowList), order.getOrder());
+        Assert.assertTrue(order.isFiltered(value("x")));
+        Assert.assertFalse(order.isFiltered(value("a")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoFiltrators() {
+        AdaptiveFiltratorOrder.conjunction(Collections.<Filtrator>emptyList());
+    }
+
+    private static void evaluate(AdaptiveFiltratorOrder order, String value, boolean expected, int count) {
+        for (int i = 0; i < count; i++) {
+            Assert.assertEquals(expected, order.isFiltered(value(value)));
+        }
+    }
+
+    private static FieldValue value(String value) {
+        return new FieldValue(ImmutableNodes.leafNode(VENDOR_QNAME, value));
+    }
+
+    private static final class ManualTicker extends Ticker {
+        private long nanos = 0;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+    }
+
+    /**
+     * Returns constant verdict, advancing the ticker by its cost.
+     */
+    private final class CostFiltrator extends AbstractFiltrator {
+        private final long cost;
+        private final boolean verdict;
+
+        CostFiltrator(long cost, boolean verdict) {
+            super(path);
+            this.cost = cost;
+            this.verdict = verdict;
+        }
+
+        @Override
+        public boolean isFiltered(NormalizedNode<?, ?> node) {
+            ticker.nanos += cost;
+            return verdict;
+        }
+    }
+}
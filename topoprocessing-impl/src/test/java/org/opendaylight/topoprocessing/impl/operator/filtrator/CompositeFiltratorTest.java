@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.topoprocessing.impl.operator.filtrator;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.opendaylight.topoprocessing.api.filtration.Filtrator;
+import org.opendaylight.topoprocessing.impl.operator.filtrator.CompositeFiltrator.Operator;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.Node;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+
+public class CompositeFiltratorTest {
+
+    private static final QName VENDOR_QNAME = QName.create(Node.QNAME, "vendor").intern();
+    private final YangInstanceIdentifier path = YangInstanceIdentifier.builder().node(VENDOR_QNAME).build();
+    private final Filtrator vendorsAB = new ValueSetFiltrator(Arrays.asList("vendor-a", "vendor-b"), false, path);
+    private final Filtrator vendorsBC = new ValueSetFiltrator(Arrays.asList("vendor-b", "vendor-c"), false, path);
+
+    @Test
+    public void testAnd() {
+        CompositeFiltrator filtrator = new CompositeFiltrator(Operator.AND, Arrays.asList(vendorsAB, vendorsBC),
+                path);
+
+        Assert.assertEquals(Operator.AND, filtrator.getOperator());
+        Assert.assertFalse(isFiltered(filtrator, "vendor-b"));
+        Assert.assertTrue(isFiltered(filtrator, "vendor-a"));
+        Assert.assertTrue(isFiltered(filtrator, "vendor-c"));
+        Assert.assertTrue(isFiltered(filtrator, "vendor-d"));
+    }
+
+    @Test
+    public void testOr() {
+        CompositeFiltrator filtrator = new CompositeFiltrator(Operator.OR, Arrays.asList(vendorsAB, vendorsBC),
+                path);
+
+        Assert.assertFalse(isFiltered(filtrator, "vendor-a"));
+        Assert.assertFalse(isFiltered(filtrator, "vendor-b"));
+        Assert.assertFalse(isFiltered(filtrator, "vendor-c"));
+        Assert.assertTrue(isFiltered(filtrator, "vendor-d"));
+    }
+
+    @Test
+    public void testNot() {
+        CompositeFiltrator filtrator = new CompositeFiltrator(Operator.NOT, Collections.singletonList(vendorsAB),
+                path);
+
+        Assert.assertTrue(isFiltered(filtrator, "vendor-a"));
+        Assert.assertFalse(isFiltered(filtrator, "vendor-c"));
+    }
+
+    @Test
+    public void testNested() {
+        // (vendor-a or vendor-b) and not (vendor-b or vendor-c)
+        CompositeFiltrator notBC = new CompositeFiltrator(Operator.NOT, Collections.singletonList(vendorsBC), path);
+        CompositeFiltrator filtrator = new CompositeFiltrator(Operator.AND, Arrays.asList(vendorsAB, notBC), path);
+
+        Assert.assertFalse(isFiltered(filtrator, "vendor-a"));
+        Assert.assertTrue(isFiltered(filtrator, "vendor-b"));
+        Assert.assertTrue(isFiltered(filtrator, "vendor-c"));
+        Assert.assertEquals(Arrays.asList(vendorsAB, notBC), filtrator.getOperands());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNotWithMoreOperands() {
+        new CompositeFiltrator(Operator.NOT, Arrays.asList(vendorsAB, vendorsBC), path);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoOperands() {
+        new CompositeFiltrator(Operator.OR, Collections.<Filtrator>emptyList(), path);
+    }
+
+    private static boolean isFiltered(CompositeFiltrator filtrator, String value) {
+        return filtrator.isFiltered(ImmutableNodes.leafNode(VENDOR_QNAME, value));
+    }
+}
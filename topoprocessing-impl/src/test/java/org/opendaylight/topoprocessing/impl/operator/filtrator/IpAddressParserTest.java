@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.topoprocessing.impl.operator.filtrator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class IpAddressParserTest {
+
+    @Test
+    public void testParseIpv4() {
+        Assert.assertEquals(0xC0A80101L, IpAddressParser.parseIpv4("192.168.1.1"));
+        Assert.assertEquals(0L, IpAddressParser.parseIpv4("0.0.0.0"));
+        Assert.assertEquals(0xFFFFFFFFL, IpAddressParser.parseIpv4("255.255.255.255"));
+        Assert.assertEquals(0x0A000001L, IpAddressParser.parseIpv4("10.0.0.1%eth0"));
+    }
+
+    @Test
+    public void testInvalidIpv4() {
+        String[] values = {"", "localhost", "256.1.1.1", "1.2.3", "1.2.3.4.5", "1.2.3.", ".1.2.3", "1..2.3",
+            "1.2.3.4 ", "1234.1.1.1", "a.b.c.d", "::1"};
+        for (String value : values) {
+            Assert.assertEquals("Value " + value + " should be rejected", IpAddressParser.INVALID_IPV4,
+                    IpAddressParser.parseIpv4(value));
+        }
+    }
+
+    @Test
+    public void testParseIpv6() {
+        assertIpv6(0x0123456789abcdefL, 0x0123456789abcdefL, "0123:4567:89ab:cdef:0123:4567:89ab:cdef");
+        assertIpv6(0L, 0L, "::");
+        assertIpv6(0L, 1L, "::1");
+        assertIpv6(0x2001_0db8_0000_0000L, 0x0000_0000_0000_0001L, "2001:DB8::1");
+        assertIpv6(0x0001_0000_0000_0000L, 0L, "1::");
+        assertIpv6(0x0001_0002_0003_0004L, 0x0005_0006_0000_0008L, "1:2:3:4:5:6::8");
+        assertIpv6(0L, 0x0000_ffff_c0a8_0101L, "::ffff:192.168.1.1");
+        assertIpv6(0x0001_0002_0003_0004L, 0x0005_0006_0a00_0001L, "1:2:3:4:5:6:10.0.0.1");
+        assertIpv6(0xfe80_0000_0000_0000L, 1L, "fe80::1%eth0");
+    }
+
+    @Test
+    public void testInvalidIpv6() {
+        String[] values = {"", ":", ":::", "1:2", "1::2::3", ":1::", "1:2:3:4:5:6:7:8:9", "1:2:3:4:5:6:7::8",
+            "12345::", "g::", "1:2:3:4:5:6:7:8:", "::1.2.3", "1.2.3.4", "::1.2.3.4:5", "localhost"};
+        long[] address = new long[2];
+        for (String value : values) {
+            Assert.assertFalse("Value " + value + " should be rejected", IpAddressParser.parseIpv6(value, address));
+        }
+    }
+
+    @Test
+    public void testMasks() {
+        Assert.assertEquals(0, IpAddressParser.ipv4Mask(0));
+        Assert.assertEquals(0xFFFFFF00, IpAddressParser.ipv4Mask(24));
+        Assert.assertEquals(0xFFFFFFFF, IpAddressParser.ipv4Mask(32));
+        Assert.assertEquals(0L, IpAddressParser.ipv6Mask(0, 0));
+        Assert.assertEquals(0xFFFFF00000000000L, IpAddressParser.ipv6Mask(20, 0));
+        Assert.assertEquals(0L, IpAddressParser.ipv6Mask(20, 1));
+        Assert.assertEquals(-1L, IpAddressParser.ipv6Mask(72, 0));
+        Assert.assertEquals(0xFF00000000000000L, IpAddressParser.ipv6Mask(72, 1));
+        Assert.assertEquals(-1L, IpAddressParser.ipv6Mask(128, 1));
+    }
+
+    private static void assertIpv6(long high, long low, String value) {
+        long[] address = new long[2];
+        Assert.assertTrue("Value " + value + " should be accepted", IpAddressParser.parseIpv6(value, address));
+        Assert.assertEquals(high, address[0]);
+        Assert.assertEquals(low, address[1]);
+    }
+}
@@ -133,6 +133,15 @@ public class Ipv4AddressFiltratorTest {
         Assert.assertTrue("Node sholud not pass the filtrator", filtered);
     }
 
+    @Test
+    public void testHostName() {
+        IpPrefix ipPrefix = new IpPrefix(Ipv4Prefix.getDefaultInstance("127.0.0.0/8"));
+        Ipv4AddressFiltrator nodeIpv4Filtrator = new Ipv4AddressFiltrator(ipPrefix, path);
+
+        boolean filtered = nodeIpv4Filtrator.isFiltered(this.createLeafNode("localhost"));
+        Assert.assertTrue("Host name should not be resolved", filtered);
+    }
+
     protected NormalizedNode createLeafNode(String ipAddress) {
         return creator.createLeafNodeWithIpAddress(ipAddress);
     }
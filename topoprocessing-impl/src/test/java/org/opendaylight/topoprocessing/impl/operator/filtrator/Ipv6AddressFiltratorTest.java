@@ -147,4 +147,19 @@ public class Ipv6AddressFiltratorTest {
                         "0123:4567:89ab:cdef:0123:4567:89ab:cde0"));
         Assert.assertTrue("Node should not pass the filtrator", filtered2);
     }
+
+    @Test
+    public void testMask20() {
+        IpPrefix ipPrefix = new IpPrefix(Ipv6Prefix.getDefaultInstance("2001:db0::/20"));
+        Ipv6AddressFiltrator nodeIpv6 = new Ipv6AddressFiltrator(ipPrefix, path);
+
+        boolean filtered1 = nodeIpv6.isFiltered(creator.createLeafNodeWithIpAddress("2001:dbf::1"));
+        Assert.assertFalse("Node should pass the filtrator", filtered1);
+
+        boolean filtered2 = nodeIpv6.isFiltered(creator.createLeafNodeWithIpAddress("2001:e00::1"));
+        Assert.assertTrue("Node should not pass the filtrator", filtered2);
+
+        boolean filtered3 = nodeIpv6.isFiltered(creator.createLeafNodeWithIpAddress("localhost"));
+        Assert.assertTrue("Host name should not be resolved", filtered3);
+    }
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.topoprocessing.impl.operator.filtrator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.opendaylight.topoprocessing.impl.testUtilities.TestNodeCreator;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpPrefix;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.Ipv4Prefix;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.Ipv6Prefix;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.Node;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+
+public class PrefixSetFiltratorTest {
+
+    private static final QName IP_QNAME = QName.create(Node.QNAME, "ip-address").intern();
+    private final YangInstanceIdentifier path = YangInstanceIdentifier.builder().node(IP_QNAME).build();
+
+    private TestNodeCreator creator = new TestNodeCreator();
+
+    @Test
+    public void testIncludeAndExclude() {
+        PrefixSetFiltrator filtrator = new PrefixSetFiltrator(
+                Arrays.asList(ipv4("10.0.0.0/8"), ipv4("10.1.1.0/24"), ipv6("2001:db8::/32")),
+                Arrays.asList(ipv4("10.1.0.0/16"), ipv6("2001:db8:ff::/48")), path);
+
+        Assert.assertEquals(5, filtrator.getPrefixCount());
+        Assert.assertFalse("Node should pass the filtrator", isFiltered(filtrator, "10.2.3.4"));
+        Assert.assertTrue("Node should not pass the filtrator", isFiltered(filtrator, "10.1.2.3"));
+        Assert.assertFalse("Node should pass the filtrator", isFiltered(filtrator, "10.1.1.7"));
+        Assert.assertTrue("Node should not pass the filtrator", isFiltered(filtrator, "11.0.0.1"));
+        Assert.assertFalse("Node should pass the filtrator", isFiltered(filtrator, "2001:db8:1::1"));
+        Assert.assertTrue("Node should not pass the filtrator", isFiltered(filtrator, "2001:db8:ff::1"));
+        Assert.assertTrue("Node should not pass the filtrator", isFiltered(filtrator, "fe80::1"));
+        Assert.assertTrue("Node should not pass the filtrator", isFiltered(filtrator, "not-an-address"));
+    }
+
+    @Test
+    public void testManyPrefixes() {
+        List<IpPrefix> included = new ArrayList<>();
+        for (int i = 0; i < 4096; i++) {
+            included.add(ipv4("172." + (16 + i / 256) + "." + (i % 256) + ".0/24"));
+        }
+        PrefixSetFiltrator filtrator = new PrefixSetFiltrator(included, Collections.<IpPrefix>emptyList(), path);
+
+        Assert.assertEquals(4096, filtrator.getPrefixCount());
+        Assert.assertFalse("Node should pass the filtrator", isFiltered(filtrator, "172.31.255.1"));
+        Assert.assertFalse("Node should pass the filtrator", isFiltered(filtrator, "172.16.0.200"));
+        Assert.assertTrue("Node should not pass the filtrator", isFiltered(filtrator, "172.32.0.1"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConflictingPrefix() {
+        new PrefixSetFiltrator(Collections.singletonList(ipv4("10.0.0.0/8")),
+                Collections.singletonList(ipv4("10.0.0.0/8")), path);
+    }
+
+    private boolean isFiltered(PrefixSetFiltrator filtrator, String address) {
+        return filtrator.isFiltered(creator.createLeafNodeWithIpAddress(address));
+    }
+
+    private static IpPrefix ipv4(String prefix) {
+        return new IpPrefix(Ipv4Prefix.getDefaultInstance(prefix));
+    }
+
+    private static IpPrefix ipv6(String prefix) {
+        return new IpPrefix(Ipv6Prefix.getDefaultInstance(prefix));
+    }
+}
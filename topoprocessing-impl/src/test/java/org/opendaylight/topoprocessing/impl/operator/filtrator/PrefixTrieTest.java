@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.topoprocessing.impl.operator.filtrator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PrefixTrieTest {
+
+    @Test
+    public void testLongestMatch() {
+        PrefixTrie<String> trie = new PrefixTrie<>();
+        trie.put(0x0A00000000000000L, 0, 8, "10/8");
+        trie.put(0x0A01000000000000L, 0, 16, "10.1/16");
+        trie.put(0x0A01020000000000L, 0, 24, "10.1.2/24");
+        trie.put(0x0A01020300000000L, 0, 32, "10.1.2.3/32");
+
+        Assert.assertEquals(4, trie.size());
+        Assert.assertEquals("10.1.2.3/32", trie.longestMatch(0x0A01020300000000L, 0));
+        Assert.assertEquals("10.1.2/24", trie.longestMatch(0x0A01020400000000L, 0));
+        Assert.assertEquals("10.1/16", trie.longestMatch(0x0A01FF0000000000L, 0));
+        Assert.assertEquals("10/8", trie.longestMatch(0x0A02000000000000L, 0));
+        Assert.assertNull(trie.longestMatch(0x0B00000000000000L, 0));
+    }
+
+    @Test
+    public void testInsertionOrder() {
+        // shorter prefix inserted after longer ones has to split existing branches
+        PrefixTrie<String> trie = new PrefixTrie<>();
+        trie.put(0x0A01020300000000L, 0, 32, "a");
+        trie.put(0x0A01800000000000L, 0, 17, "b");
+        trie.put(0x0A00000000000000L, 0, 8, "c");
+        trie.put(0x0A01020300000000L, 0, 32, "d");
+
+        Assert.assertEquals(3, trie.size());
+        Assert.assertEquals("d", trie.longestMatch(0x0A01020300000000L, 0));
+        Assert.assertEquals("b", trie.longestMatch(0x0A01800100000000L, 0));
+        Assert.assertEquals("c", trie.longestMatch(0x0A01020400000000L, 0));
+        Assert.assertEquals("c", trie.get(0x0AFFFFFF00000000L, 0, 8));
+        Assert.assertNull(trie.get(0x0A01000000000000L, 0, 16));
+    }
+
+    @Test
+    public void testFullLengthAndDefault() {
+        PrefixTrie<String> trie = new PrefixTrie<>();
+        trie.put(0, 0, 0, "default");
+        trie.put(0x20010DB800000000L, 1, 128, "host");
+        trie.put(0x20010DB800000000L, 0, 32, "net");
+
+        Assert.assertEquals("host", trie.longestMatch(0x20010DB800000000L, 1));
+        Assert.assertEquals("net", trie.longestMatch(0x20010DB800000000L, 2));
+        Assert.assertEquals("default", trie.longestMatch(0xFE80000000000000L, 1));
+    }
+
+    @Test
+    public void testRandomPrefixesAgainstLinearScan() {
+        Random random = new Random(42);
+        PrefixTrie<Integer> trie = new PrefixTrie<>();
+        List<long[]> prefixes = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            int length = random.nextInt(PrefixTrie.MAX_LENGTH + 1);
+            long high = random.nextLong() & IpAddressParser.ipv6Mask(length, 0);
+            long low = random.nextLong() & IpAddressParser.ipv6Mask(length, 1);
+            // bias to a few leading bits, so that prefixes share paths
+            high = (high & 0x00FFFFFFFFFFFFFFL) | ((long) random.nextInt(4) << 56);
+            high &= IpAddressParser.ipv6Mask(length, 0);
+            trie.put(high, low, length, i);
+            prefixes.add(new long[] {high, low, length, i});
+        }
+        for (int i = 0; i < 2000; i++) {
+            long[] base = prefixes.get(random.nextInt(prefixes.size()));
+            long high = base[0] | (random.nextLong() & ~IpAddressParser.ipv6Mask((int) base[2], 0));
+            long low = base[1] | (random.nextLong() & ~IpAddressParser.ipv6Mask((int) base[2], 1));
+            Assert.assertEquals(linearScan(prefixes, high, low), trie.longestMatch(high, low));
+        }
+    }
+
+    private static Integer linearScan(List<long[]> prefixes, long high, long low) {
+        long[] best = null;
+        for (long[] prefix : prefixes) {
+            int length = (int) prefix[2];
+            if ((high & IpAddressParser.ipv6Mask(length, 0)) == prefix[0]
+                    && (low & IpAddressParser.ipv6Mask(length, 1)) == prefix[1]
+                    && (best == null || length >= best[2])) {
+                // later insertion of the same prefix replaces the earlier one
+                best = prefix;
+            }
+        }
+        return best == null ? null : (int) best[3];
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.topoprocessing.impl.operator.filtrator;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.Node;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+
+public class ValueSetFiltratorTest {
+
+    private static final QName VENDOR_QNAME = QName.create(Node.QNAME, "vendor").intern();
+    private final YangInstanceIdentifier path = YangInstanceIdentifier.builder().node(VENDOR_QNAME).build();
+    private final List<String> values = Arrays.asList("vendor-a", "vendor-b", "42");
+
+    @Test
+    public void testAllowList() {
+        ValueSetFiltrator filtrator = new ValueSetFiltrator(values, false, path);
+
+        Assert.assertEquals(3, filtrator.getValueCount());
+        Assert.assertFalse("Node should pass the filtrator",
+                filtrator.isFiltered(ImmutableNodes.leafNode(VENDOR_QNAME, "vendor-a")));
+        Assert.assertFalse("Node should pass the filtrator",
+                filtrator.isFiltered(ImmutableNodes.leafNode(VENDOR_QNAME, 42)));
+        Assert.assertTrue("Node should not pass the filtrator",
+                filtrator.isFiltered(ImmutableNodes.leafNode(VENDOR_QNAME, "vendor-c")));
+    }
+
+    @Test
+    public void testDenyList() {
+        ValueSetFiltrator filtrator = new ValueSetFiltrator(values, true, path);
+
+        Assert.assertTrue(filtrator.isInverted());
+        Assert.assertTrue("Node should not pass the filtrator",
+                filtrator.isFiltered(ImmutableNodes.leafNode(VENDOR_QNAME, "vendor-b")));
+        Assert.assertFalse("Node should pass the filtrator",
+                filtrator.isFiltered(ImmutableNodes.leafNode(VENDOR_QNAME, "vendor-c")));
+    }
+}
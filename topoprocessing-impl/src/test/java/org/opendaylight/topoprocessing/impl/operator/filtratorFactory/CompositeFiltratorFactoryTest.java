@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.topoprocessing.impl.operator.filtratorFactory;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.Sets;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.opendaylight.topoprocessing.api.filtration.Filtrator;
+import org.opendaylight.topoprocessing.impl.operator.filtrator.CompositeFiltrator;
+import org.opendaylight.topoprocessing.impl.operator.filtrator.ValueSetFiltrator;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.Composite;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.CompositeOperator;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.ValueSet;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.correlation.filtration.Filter;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.correlation.filtration.filter.FilterTypeBody;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.correlation.filtration.filter.filter.type.body.CompositeFilterType;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.correlation.filtration.filter.filter.type.body.ValueSetFilterType;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.correlation.filtration.filter.filter.type.body.composite.filter.type.CompositeFilter;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.correlation.filtration.filter.filter.type.body.value.set.filter.type.ValueSetFilter;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.Node;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CompositeFiltratorFactoryTest {
+
+    private static final QName VENDOR_QNAME = QName.create(Node.QNAME, "vendor").intern();
+    private final YangInstanceIdentifier path = YangInstanceIdentifier.builder().node(VENDOR_QNAME).build();
+
+    @Test
+    public void testCreateFiltrator() {
+        Filter vendorA = createValueSetFilter("vendor-a-filter", "vendor-a");
+        Filter vendorB = createValueSetFilter("vendor-b-filter", "vendor-b");
+        Filter either = createCompositeFilter("either", CompositeOperator.Or, "vendor-a-filter", "vendor-b-filter");
+        Filter neither = createCompositeFilter("neither", CompositeOperator.Not, "either");
+        List<Filter> filters = Arrays.asList(vendorA, vendorB, either, neither);
+        CompositeFiltratorFactory factory =
+                new CompositeFiltratorFactory(filters, DefaultFiltrators.getDefaultFiltrators());
+
+        Filtrator filtrator = factory.createFiltrator(either, path);
+        Assert.assertTrue(filtrator instanceof CompositeFiltrator);
+        Assert.assertEquals(CompositeFiltrator.Operator.OR, ((CompositeFiltrator) filtrator).getOperator());
+        List<Filtrator> operands = ((CompositeFiltrator) filtrator).getOperands();
+        Assert.assertEquals(2, operands.size());
+        Assert.assertTrue(operands.get(0) instanceof ValueSetFiltrator);
+        Assert.assertEquals(path, ((ValueSetFiltrator) operands.get(0)).getPathIdentifier());
+        Assert.assertFalse(filtrator.isFiltered(ImmutableNodes.leafNode(VENDOR_QNAME, "vendor-b")));
+        Assert.assertTrue(filtrator.isFiltered(ImmutableNodes.leafNode(VENDOR_QNAME, "vendor-c")));
+
+        filtrator = factory.createFiltrator(neither, path);
+        Assert.assertTrue(filtrator.isFiltered(ImmutableNodes.leafNode(VENDOR_QNAME, "vendor-b")));
+        Assert.assertFalse(filtrator.isFiltered(ImmutableNodes.leafNode(VENDOR_QNAME, "vendor-c")));
+
+        Assert.assertEquals(Sets.newHashSet("vendor-a-filter", "vendor-b-filter", "either"),
+                CompositeFiltratorFactory.getOperandIds(filters));
+    }
+
+    @Test
+    public void testDefaultOperator() {
+        Filter vendorA = createValueSetFilter("vendor-a-filter", "vendor-a");
+        Filter composite = createCompositeFilter("composite", null, "vendor-a-filter");
+        CompositeFiltratorFactory factory = new CompositeFiltratorFactory(Arrays.asList(vendorA, composite),
+                DefaultFiltrators.getDefaultFiltrators());
+
+        Filtrator filtrator = factory.createFiltrator(composite, path);
+        Assert.assertEquals(CompositeFiltrator.Operator.AND, ((CompositeFiltrator) filtrator).getOperator());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingOperand() {
+        Filter composite = createCompositeFilter("composite", CompositeOperator.And, "missing");
+        new CompositeFiltratorFactory(Collections.singletonList(composite), DefaultFiltrators.getDefaultFiltrators())
+                .createFiltrator(composite, path);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCycle() {
+        Filter first = createCompositeFilter("first", CompositeOperator.And, "second");
+        Filter second = createCompositeFilter("second", CompositeOperator.Not, "first");
+        new CompositeFiltratorFactory(Arrays.asList(first, second), DefaultFiltrators.getDefaultFiltrators())
+                .createFiltrator(first, path);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCreateFiltratorExceptionTest() {
+        Filter filterMock = mock(Filter.class);
+        when(filterMock.getFilterTypeBody()).thenReturn(mock(FilterTypeBody.class));
+        new CompositeFiltratorFactory(Collections.<Filter>emptyList(), DefaultFiltrators.getDefaultFiltrators())
+                .createFiltrator(filterMock, path);
+    }
+
+    private static Filter createValueSetFilter(String filterId, String value) {
+        Filter filter = mock(Filter.class);
+        ValueSetFilterType filterType = mock(ValueSetFilterType.class);
+        ValueSetFilter valueSetFilter = mock(ValueSetFilter.class);
+        when(filter.getFilterId()).thenReturn(filterId);
+        doReturn(ValueSet.class).when(filter).getFilterType();
+        when(filter.getFilterTypeBody()).thenReturn(filterType);
+        when(filterType.getValueSetFilter()).thenReturn(valueSetFilter);
+        when(valueSetFilter.getValue()).thenReturn(Collections.singletonList(value));
+        return filter;
+    }
+
+    private static Filter createCompositeFilter(String filterId, CompositeOperator operator, String... operands) {
+        Filter filter = mock(Filter.class);
+        CompositeFilterType filterType = mock(CompositeFilterType.class);
+        CompositeFilter compositeFilter = mock(CompositeFilter.class);
+        when(filter.getFilterId()).thenReturn(filterId);
+        doReturn(Composite.class).when(filter).getFilterType();
+        when(filter.getFilterTypeBody()).thenReturn(filterType);
+        when(filterType.getCompositeFilter()).thenReturn(compositeFilter);
+        when(compositeFilter.getOperator()).thenReturn(operator);
+        when(compositeFilter.getOperand()).thenReturn(Arrays.asList(operands));
+        return filter;
+    }
+}
@@ -56,7 +56,7 @@ public class Ipv4FiltratorFactoryTest {
         when(ipv4AdressFilterTypeMock.getIpv4AddressFilter()).thenReturn(ipv4AdressFilterMock);
         when(ipv4AdressFilterMock.getIpv4Address()).thenReturn(ipPrefixMock);
         when(ipPrefixMock.getIpv4Prefix()).thenReturn(ipv4PrefixMock);
-        when(ipv4PrefixMock.getValue()).thenReturn("1/1");
+        when(ipv4PrefixMock.getValue()).thenReturn("1.0.0.0/1");
     }
 
     @Test
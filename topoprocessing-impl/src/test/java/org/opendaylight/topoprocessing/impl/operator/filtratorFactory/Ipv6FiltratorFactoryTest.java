@@ -56,7 +56,7 @@ public class Ipv6FiltratorFactoryTest {
         when(ipv6AdressFilterTypeMock.getIpv6AddressFilter()).thenReturn(ipv6AdressFilterMock);
         when(ipv6AdressFilterMock.getIpv6Address()).thenReturn(ipPrefixMock);
         when(ipPrefixMock.getIpv6Prefix()).thenReturn(ipv6PrefixMock);
-        when(ipv6PrefixMock.getValue()).thenReturn("1/1");
+        when(ipv6PrefixMock.getValue()).thenReturn("1::/1");
     }
 
     @Test
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.topoprocessing.impl.operator.filtratorFactory;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.opendaylight.topoprocessing.api.filtration.Filtrator;
+import org.opendaylight.topoprocessing.impl.operator.filtrator.PrefixSetFiltrator;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpPrefix;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.Ipv4Prefix;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.PrefixAction;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.correlation.filtration.Filter;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.correlation.filtration.filter.FilterTypeBody;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.correlation.filtration.filter.filter.type.body.PrefixSetFilterType;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.correlation.filtration.filter.filter.type.body.prefix.set.filter.type.PrefixSetFilter;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.correlation.filtration.filter.filter.type.body.prefix.set.filter.type.prefix.set.filter.Prefix;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PrefixSetFiltratorFactoryTest {
+
+    private PrefixSetFiltratorFactory factory;
+    private Filter filterMock;
+    private YangInstanceIdentifier identifierMock;
+    private PrefixSetFilterType prefixSetFilterTypeMock;
+
+    @Before
+    public void before() {
+        factory = new PrefixSetFiltratorFactory();
+        filterMock = mock(Filter.class);
+        identifierMock = mock(YangInstanceIdentifier.class);
+        prefixSetFilterTypeMock = mock(PrefixSetFilterType.class);
+        PrefixSetFilter prefixSetFilterMock = mock(PrefixSetFilter.class);
+        Prefix includedMock = mock(Prefix.class);
+        Prefix excludedMock = mock(Prefix.class);
+
+        when(filterMock.getFilterTypeBody()).thenReturn(prefixSetFilterTypeMock);
+        when(prefixSetFilterTypeMock.getPrefixSetFilter()).thenReturn(prefixSetFilterMock);
+        when(prefixSetFilterMock.getPrefix()).thenReturn(Arrays.asList(includedMock, excludedMock));
+        when(includedMock.getIpPrefix()).thenReturn(new IpPrefix(Ipv4Prefix.getDefaultInstance("10.0.0.0/8")));
+        when(excludedMock.getIpPrefix()).thenReturn(new IpPrefix(Ipv4Prefix.getDefaultInstance("10.1.0.0/16")));
+        when(excludedMock.getAction()).thenReturn(PrefixAction.Exclude);
+    }
+
+    @Test
+    public void testCreateFiltrator() {
+        Filtrator filtrator = factory.createFiltrator(filterMock, identifierMock);
+        Assert.assertTrue(filtrator instanceof PrefixSetFiltrator);
+        Assert.assertEquals(2, ((PrefixSetFiltrator) filtrator).getPrefixCount());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCreateFiltratorExceptionTest() {
+        when(filterMock.getFilterTypeBody()).thenReturn(mock(FilterTypeBody.class));
+        factory.createFiltrator(filterMock, identifierMock);
+    }
+
+    @Test
+    public void testCreateFiltratorWithoutBody() {
+        when(filterMock.getFilterId()).thenReturn("prefixFilter");
+        when(prefixSetFilterTypeMock.getPrefixSetFilter()).thenReturn(null);
+        try {
+            factory.createFiltrator(filterMock, identifierMock);
+            Assert.fail("Filter without body should be refused");
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage().contains("prefixFilter"));
+        }
+    }
+}
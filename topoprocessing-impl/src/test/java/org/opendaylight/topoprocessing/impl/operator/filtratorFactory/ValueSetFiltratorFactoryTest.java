@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.topoprocessing.impl.operator.filtratorFactory;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.opendaylight.topoprocessing.api.filtration.Filtrator;
+import org.opendaylight.topoprocessing.impl.operator.filtrator.ValueSetFiltrator;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.correlation.filtration.Filter;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.correlation.filtration.filter.FilterTypeBody;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.correlation.filtration.filter.filter.type.body.ValueSetFilterType;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.correlations.grouping.correlations.correlation.filtration.filter.filter.type.body.value.set.filter.type.ValueSetFilter;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ValueSetFiltratorFactoryTest {
+
+    private ValueSetFiltratorFactory factory;
+    private Filter filterMock;
+    private YangInstanceIdentifier identifierMock;
+    private ValueSetFilter valueSetFilterMock;
+    private ValueSetFilterType valueSetFilterTypeMock;
+
+    @Before
+    public void before() {
+        factory = new ValueSetFiltratorFactory();
+        filterMock = mock(Filter.class);
+        identifierMock = mock(YangInstanceIdentifier.class);
+        valueSetFilterTypeMock = mock(ValueSetFilterType.class);
+        valueSetFilterMock = mock(ValueSetFilter.class);
+
+        when(filterMock.getFilterTypeBody()).thenReturn(valueSetFilterTypeMock);
+        when(valueSetFilterTypeMock.getValueSetFilter()).thenReturn(valueSetFilterMock);
+        when(valueSetFilterMock.getValue()).thenReturn(Arrays.asList("a", "b"));
+    }
+
+    @Test
+    public void testCreateFiltrator() {
+        Filtrator filtrator = factory.createFiltrator(filterMock, identifierMock);
+        Assert.assertTrue(filtrator instanceof ValueSetFiltrator);
+        Assert.assertEquals(2, ((ValueSetFiltrator) filtrator).getValueCount());
+        Assert.assertFalse(((ValueSetFiltrator) filtrator).isInverted());
+    }
+
+    @Test
+    public void testCreateInvertedFiltrator() {
+        when(valueSetFilterMock.isInverted()).thenReturn(true);
+        Filtrator filtrator = factory.createFiltrator(filterMock, identifierMock);
+        Assert.assertTrue(((ValueSetFiltrator) filtrator).isInverted());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCreateFiltratorExceptionTest() {
+        when(filterMock.getFilterTypeBody()).thenReturn(mock(FilterTypeBody.class));
+        factory.createFiltrator(filterMock, identifierMock);
+    }
+
+    @Test
+    public void testCreateFiltratorWithoutBody() {
+        when(filterMock.getFilterId()).thenReturn("valueFilter");
+        when(valueSetFilterTypeMock.getValueSetFilter()).thenReturn(null);
+        try {
+            factory.createFiltrator(filterMock, identifierMock);
+            Assert.fail("Filter without body should be refused");
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage().contains("valueFilter"));
+        }
+    }
+}
@@ -7,6 +7,7 @@
  */
 package org.opendaylight.topoprocessing.impl.structure;
 
+import java.util.Arrays;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -14,7 +15,9 @@ import java.util.concurrent.TimeUnit;
 
 import org.junit.Assert;
 import org.junit.Test;
+import org.opendaylight.topoprocessing.api.structure.UnderlayItem;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.CorrelationItemEnum;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.OverlayIdStrategy;
 
 /**
  * @author martin.uhlir
@@ -81,4 +84,83 @@ public class IdentifierGeneratorTest {
         }
     }
 
+    @Test
+    public void testContentDerivedIdGeneration() {
+        IdentifierGenerator contentIdGenerator = new IdentifierGenerator(OverlayIdStrategy.ContentDerived);
+        UnderlayItem item1 = new UnderlayItem(null, null, "topo:1", "node:1", CorrelationItemEnum.Node);
+        UnderlayItem item2 = new UnderlayItem(null, null, "topo:2", "node:1", CorrelationItemEnum.Node);
+        UnderlayItem item3 = new UnderlayItem(null, null, "topo:2", "node:2", CorrelationItemEnum.Node);
+
+        String nodeId = contentIdGenerator.getIdentifier(CorrelationItemEnum.Node, Arrays.asList(item1, item2));
+        Assert.assertTrue(nodeId.startsWith("node:"));
+        String otherNodeId = contentIdGenerator.getIdentifier(CorrelationItemEnum.Node, Arrays.asList(item1, item3));
+        Assert.assertNotEquals(nodeId, otherNodeId);
+
+        // identifier is in use, so the full hash is used instead
+        String fullNodeId = contentIdGenerator.getIdentifier(CorrelationItemEnum.Node, Arrays.asList(item2, item1));
+        Assert.assertTrue(fullNodeId.startsWith("node:"));
+        Assert.assertEquals(nodeId.length() + 16, fullNodeId.length());
+
+        // another generator (e.g. after restart) derives the same identifier regardless of items order
+        IdentifierGenerator restartedIdGenerator = new IdentifierGenerator(OverlayIdStrategy.ContentDerived);
+        Assert.assertEquals(nodeId,
+                restartedIdGenerator.getIdentifier(CorrelationItemEnum.Node, Arrays.asList(item2, item1)));
+
+        contentIdGenerator.releaseIdentifier(nodeId);
+        Assert.assertEquals(nodeId,
+                contentIdGenerator.getIdentifier(CorrelationItemEnum.Node, Arrays.asList(item1, item2)));
+        Assert.assertTrue(contentIdGenerator.getIdentifier(CorrelationItemEnum.Link, Arrays.asList(item1))
+                .startsWith("link:"));
+    }
+
+    @Test
+    public void testCollisionResolvedByContent() {
+        UnderlayItem item1 = new UnderlayItem(null, null, "topo:1", "node:1", CorrelationItemEnum.Node);
+        UnderlayItem item2 = new UnderlayItem(null, null, "topo:1", "node:2", CorrelationItemEnum.Node);
+        UnderlayItem item3 = new UnderlayItem(null, null, "topo:1", "node:3", CorrelationItemEnum.Node);
+        IdentifierGenerator contentIdGenerator = new IdentifierGenerator(OverlayIdStrategy.ContentDerived);
+        String nodeId = contentIdGenerator.getIdentifier(CorrelationItemEnum.Node, Arrays.asList(item1));
+        contentIdGenerator.getIdentifier(CorrelationItemEnum.Node, Arrays.asList(item2));
+        String collidingNodeId = contentIdGenerator.getIdentifier(CorrelationItemEnum.Node, Arrays.asList(item1));
+
+        // colliding identifier doesn't depend on what has been issued before
+        IdentifierGenerator replayedIdGenerator = new IdentifierGenerator(OverlayIdStrategy.ContentDerived);
+        replayedIdGenerator.getIdentifier(CorrelationItemEnum.Node, Arrays.asList(item3));
+        Assert.assertEquals(nodeId, replayedIdGenerator.getIdentifier(CorrelationItemEnum.Node,
+                Arrays.asList(item1)));
+        Assert.assertEquals(collidingNodeId, replayedIdGenerator.getIdentifier(CorrelationItemEnum.Node,
+                Arrays.asList(item1)));
+        // identifier resolving collision still matches the underlay items
+        Assert.assertEquals(collidingNodeId, contentIdGenerator.reissueIdentifier(collidingNodeId,
+                CorrelationItemEnum.Node, Arrays.asList(item1)));
+        // identical underlay items supporting third overlay item get numeric suffix
+        Assert.assertEquals(collidingNodeId + "-1", contentIdGenerator.getIdentifier(CorrelationItemEnum.Node,
+                Arrays.asList(item1)));
+    }
+
+    @Test
+    public void testReissueIdentifier() {
+        IdentifierGenerator contentIdGenerator = new IdentifierGenerator(OverlayIdStrategy.ContentDerived);
+        UnderlayItem item1 = new UnderlayItem(null, null, "topo:1", "node:1", CorrelationItemEnum.Node);
+        UnderlayItem item2 = new UnderlayItem(null, null, "topo:1", "node:2", CorrelationItemEnum.Node);
+
+        String nodeId = contentIdGenerator.getIdentifier(CorrelationItemEnum.Node, Arrays.asList(item1));
+        Assert.assertEquals(nodeId,
+                contentIdGenerator.reissueIdentifier(nodeId, CorrelationItemEnum.Node, Arrays.asList(item1)));
+        String extendedNodeId = contentIdGenerator.reissueIdentifier(nodeId, CorrelationItemEnum.Node,
+                Arrays.asList(item2, item1));
+        Assert.assertEquals(new IdentifierGenerator(OverlayIdStrategy.ContentDerived)
+                .getIdentifier(CorrelationItemEnum.Node, Arrays.asList(item1, item2)), extendedNodeId);
+        // previous identifier was released
+        Assert.assertEquals(nodeId, contentIdGenerator.getIdentifier(CorrelationItemEnum.Node, Arrays.asList(item1)));
+        Assert.assertEquals("node:1", idGenerator.reissueIdentifier("node:1", CorrelationItemEnum.Node,
+                Arrays.asList(item1, item2)));
+    }
+
+    @Test
+    public void testSequentialStrategyIgnoresContent() {
+        UnderlayItem item1 = new UnderlayItem(null, null, "topo:1", "node:1", CorrelationItemEnum.Node);
+        Assert.assertEquals("node:1", idGenerator.getIdentifier(CorrelationItemEnum.Node, Arrays.asList(item1)));
+        Assert.assertEquals("node:2", idGenerator.getIdentifier(CorrelationItemEnum.Node, Arrays.asList(item1)));
+    }
 }
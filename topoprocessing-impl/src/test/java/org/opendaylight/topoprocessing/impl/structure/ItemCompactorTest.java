@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.topoprocessing.impl.structure;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.opendaylight.topoprocessing.impl.util.InstanceIdentifiers;
+import org.opendaylight.topoprocessing.impl.util.TopologyQNames;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.Node;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.node.TerminationPoint;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableContainerNodeBuilder;
+
+public class ItemCompactorTest {
+
+    private static final QName IP_ADDRESS_QNAME = QName.create(Node.QNAME, "ip-address");
+    private static final QName STATISTICS_QNAME = QName.create(Node.QNAME, "statistics");
+    private static final QName PACKETS_QNAME = QName.create(Node.QNAME, "packets");
+    private static final QName TP_NAME_QNAME = QName.create(Node.QNAME, "name");
+
+    @Test
+    public void testCompactKeepsKeysAndRetainedSubtrees() {
+        MapNode terminationPoints = ImmutableNodes.mapNodeBuilder(TerminationPoint.QNAME)
+                .withChild(createTerminationPoint("tp:1"))
+                .withChild(createTerminationPoint("tp:2"))
+                .build();
+        MapEntryNode node = ImmutableNodes.mapEntryBuilder(Node.QNAME, TopologyQNames.NETWORK_NODE_ID_QNAME, "node:1")
+                .withChild(ImmutableNodes.leafNode(IP_ADDRESS_QNAME, "10.0.0.1"))
+                .withChild(terminationPoints)
+                .withChild(createStatistics())
+                .build();
+        ItemCompactor compactor = new ItemCompactor(Arrays.asList(YangInstanceIdentifier.of(IP_ADDRESS_QNAME),
+                InstanceIdentifiers.NT_TP_IDENTIFIER));
+
+        MapEntryNode compactNode = compactor.compact(node);
+        MapEntryNode expected = ImmutableNodes
+                .mapEntryBuilder(Node.QNAME, TopologyQNames.NETWORK_NODE_ID_QNAME, "node:1")
+                .withChild(ImmutableNodes.leafNode(IP_ADDRESS_QNAME, "10.0.0.1"))
+                .withChild(terminationPoints)
+                .build();
+        Assert.assertEquals(expected, compactNode);
+        // retained subtrees are shared with the original item
+        Assert.assertSame(terminationPoints, compactNode.getChild(new NodeIdentifier(TerminationPoint.QNAME)).get());
+    }
+
+    @Test
+    public void testCompactAllListEntries() {
+        MapEntryNode node = ImmutableNodes.mapEntryBuilder(Node.QNAME, TopologyQNames.NETWORK_NODE_ID_QNAME, "node:1")
+                .withChild(ImmutableNodes.mapNodeBuilder(TerminationPoint.QNAME)
+                        .withChild(createTerminationPoint("tp:1"))
+                        .withChild(createTerminationPoint("tp:2"))
+                        .build())
+                .build();
+        // list identifier stands for all entries of the list
+        ItemCompactor compactor = new ItemCompactor(Collections.singletonList(
+                YangInstanceIdentifier.of(TerminationPoint.QNAME).node(TerminationPoint.QNAME).node(TP_NAME_QNAME)));
+
+        MapEntryNode expected = ImmutableNodes
+                .mapEntryBuilder(Node.QNAME, TopologyQNames.NETWORK_NODE_ID_QNAME, "node:1")
+                .withChild(ImmutableNodes.mapNodeBuilder(TerminationPoint.QNAME)
+                        .withChild(ImmutableNodes.mapEntryBuilder(TerminationPoint.QNAME,
+                                TopologyQNames.NETWORK_TP_ID_QNAME, "tp:1")
+                                .withChild(ImmutableNodes.leafNode(TP_NAME_QNAME, "port tp:1"))
+                                .build())
+                        .withChild(ImmutableNodes.mapEntryBuilder(TerminationPoint.QNAME,
+                                TopologyQNames.NETWORK_TP_ID_QNAME, "tp:2")
+                                .withChild(ImmutableNodes.leafNode(TP_NAME_QNAME, "port tp:2"))
+                                .build())
+                        .build())
+                .build();
+        Assert.assertEquals(expected, compactor.compact(node));
+    }
+
+    private static MapEntryNode createTerminationPoint(String tpId) {
+        return ImmutableNodes.mapEntryBuilder(TerminationPoint.QNAME, TopologyQNames.NETWORK_TP_ID_QNAME, tpId)
+                .withChild(ImmutableNodes.leafNode(TP_NAME_QNAME, "port " + tpId))
+                .withChild(createStatistics())
+                .build();
+    }
+
+    private static ContainerNode createStatistics() {
+        return ImmutableContainerNodeBuilder.create()
+                .withNodeIdentifier(new NodeIdentifier(STATISTICS_QNAME))
+                .withChild(ImmutableNodes.leafNode(PACKETS_QNAME, 1000L))
+                .build();
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.topoprocessing.impl.structure;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TerminationPointIdentifiersTest {
+
+    private TerminationPointIdentifiers tpIdentifiers = new TerminationPointIdentifiers();
+
+    @Test
+    public void testIdentifiersStableAcrossTranslations() {
+        Assert.assertEquals("tp:1", tpIdentifiers.getIdentifier("tpRef:1"));
+        Assert.assertEquals("tp:2", tpIdentifiers.getIdentifier("tpRef:2"));
+        tpIdentifiers.releaseUnused();
+
+        // order of termination points changed
+        Assert.assertEquals("tp:2", tpIdentifiers.getIdentifier("tpRef:2"));
+        Assert.assertEquals("tp:1", tpIdentifiers.getIdentifier("tpRef:1"));
+        tpIdentifiers.releaseUnused();
+        Assert.assertEquals(2, tpIdentifiers.size());
+    }
+
+    @Test
+    public void testReleasedIdentifierReused() {
+        tpIdentifiers.getIdentifier("tpRef:1");
+        tpIdentifiers.getIdentifier("tpRef:2");
+        tpIdentifiers.getIdentifier("tpRef:3");
+        tpIdentifiers.releaseUnused();
+
+        // tpRef:2 removed
+        tpIdentifiers.getIdentifier("tpRef:1");
+        tpIdentifiers.getIdentifier("tpRef:3");
+        tpIdentifiers.releaseUnused();
+        Assert.assertEquals(2, tpIdentifiers.size());
+
+        Assert.assertEquals("tp:2", tpIdentifiers.getIdentifier("tpRef:4"));
+        Assert.assertEquals("tp:3", tpIdentifiers.getIdentifier("tpRef:3"));
+        Assert.assertEquals("tp:4", tpIdentifiers.getIdentifier("tpRef:5"));
+        tpIdentifiers.releaseUnused();
+
+        // everything removed
+        tpIdentifiers.releaseUnused();
+        Assert.assertEquals(0, tpIdentifiers.size());
+        Assert.assertEquals("tp:1", tpIdentifiers.getIdentifier("tpRef:5"));
+    }
+
+    @Test
+    public void testRelease() {
+        Assert.assertEquals("tp:1", tpIdentifiers.getIdentifier("tpRef:1"));
+        Assert.assertEquals("tp:2", tpIdentifiers.getIdentifier("tpRef:2"));
+        tpIdentifiers.release("tpRef:1");
+        Assert.assertEquals(1, tpIdentifiers.size());
+        Assert.assertEquals("tp:2", tpIdentifiers.getIdentifier("tpRef:2"));
+        Assert.assertEquals("tp:1", tpIdentifiers.getIdentifier("tpRef:3"));
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.topoprocessing.impl.structure;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.opendaylight.topoprocessing.api.structure.OverlayItem;
+import org.opendaylight.topoprocessing.api.structure.UnderlayItem;
+import org.opendaylight.topoprocessing.impl.util.TopologyQNames;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.CorrelationItemEnum;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.Node;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.node.TerminationPoint;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+
+public class TranslationCacheTest {
+
+    private static final String TOPOLOGY_ID = "topology:1";
+
+    private TerminationPointIdentifiers tpIdentifiers = new TerminationPointIdentifiers();
+    private TranslationCache cache = new TranslationCache(tpIdentifiers);
+    private AtomicInteger translations = new AtomicInteger();
+
+    @Test
+    public void testChildrenReusedUntilItemChanges() {
+        UnderlayItem underlayItem = createUnderlayItem("node:1");
+        List<MapEntryNode> children = getTerminationPoints(underlayItem);
+        cache.releaseUnused();
+        tpIdentifiers.releaseUnused();
+        Assert.assertSame(children, getTerminationPoints(underlayItem));
+        Assert.assertEquals(1, translations.get());
+        Assert.assertSame(cache.getMapNode(TerminationPoint.QNAME, children),
+                cache.getMapNode(TerminationPoint.QNAME, children));
+
+        underlayItem.setItem(ImmutableNodes.mapEntry(Node.QNAME, TopologyQNames.NETWORK_NODE_ID_QNAME, "node:1"));
+        List<MapEntryNode> updatedChildren = getTerminationPoints(underlayItem);
+        Assert.assertNotSame(children, updatedChildren);
+        Assert.assertEquals(2, translations.get());
+        // termination point keeps its identifier
+        Assert.assertEquals(children, updatedChildren);
+    }
+
+    @Test
+    public void testIdentifiersOfReusedChildrenStayIssued() {
+        UnderlayItem underlayItem = createUnderlayItem("node:1");
+        getTerminationPoints(underlayItem);
+        cache.releaseUnused();
+        tpIdentifiers.releaseUnused();
+
+        getTerminationPoints(underlayItem);
+        cache.releaseUnused();
+        tpIdentifiers.releaseUnused();
+        Assert.assertEquals(1, translations.get());
+        Assert.assertEquals(1, tpIdentifiers.size());
+    }
+
+    @Test
+    public void testUnusedChildrenReleased() {
+        UnderlayItem underlayItem1 = createUnderlayItem("node:1");
+        UnderlayItem underlayItem2 = createUnderlayItem("node:2");
+        getTerminationPoints(underlayItem1);
+        getTerminationPoints(underlayItem2);
+        cache.releaseUnused();
+        Assert.assertEquals(2, cache.size());
+
+        // node:1 is no longer part of the overlay item
+        getTerminationPoints(underlayItem2);
+        cache.releaseUnused();
+        Assert.assertEquals(1, cache.size());
+        MapNode terminationPoints = cache.getMapNode(TerminationPoint.QNAME, Collections.<MapEntryNode>emptyList());
+        Assert.assertTrue(terminationPoints.getValue().isEmpty());
+    }
+
+    @Test
+    public void testChildrenCachedPerCorrelationItem() {
+        UnderlayItem underlayItem = createUnderlayItem("node:1");
+        List<MapEntryNode> nodeChildren = getTerminationPoints(underlayItem);
+        OverlayItem tpOverlayItem = new OverlayItem(Arrays.asList(underlayItem),
+                CorrelationItemEnum.TerminationPoint);
+        List<MapEntryNode> tpChildren = getTerminationPoints(tpOverlayItem, underlayItem);
+        Assert.assertNotSame(nodeChildren, tpChildren);
+        Assert.assertEquals(2, translations.get());
+        Assert.assertEquals(2, cache.size());
+    }
+
+    private UnderlayItem createUnderlayItem(String nodeId) {
+        return new UnderlayItem(ImmutableNodes.mapEntry(Node.QNAME, TopologyQNames.NETWORK_NODE_ID_QNAME, nodeId),
+                null, TOPOLOGY_ID, nodeId, CorrelationItemEnum.Node);
+    }
+
+    private List<MapEntryNode> getTerminationPoints(UnderlayItem underlayItem) {
+        return getTerminationPoints(new OverlayItem(Arrays.asList(underlayItem), CorrelationItemEnum.Node),
+                underlayItem);
+    }
+
+    private List<MapEntryNode> getTerminationPoints(OverlayItem overlayItem, UnderlayItem underlayItem) {
+        return cache.getChildren(TerminationPoint.QNAME, overlayItem, underlayItem, (item, tpIdentities) -> {
+            translations.incrementAndGet();
+            String tpIdentity = item.getTopologyId() + "/" + item.getItemId() + "/tp";
+            tpIdentities.add(tpIdentity);
+            return Collections.singletonList(ImmutableNodes.mapEntry(TerminationPoint.QNAME,
+                    TopologyQNames.NETWORK_TP_ID_QNAME, tpIdentifiers.getIdentifier(tpIdentity)));
+        });
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.topoprocessing.impl.translator;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.opendaylight.topoprocessing.impl.util.TopologyQNames;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeWithValue;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafSetEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafSetNode;
+
+public class TranslatorHelperTest {
+
+    @Test
+    public void testCreateTpRef() {
+        Assert.assertEquals("/network-topology:network-topology/topology/topo:1/node/node:1/termination-point/tp:1",
+                TranslatorHelper.createTpRefNT("topo:1", "node:1", "tp:1"));
+        Assert.assertEquals("/network-topology:network-topology/topology/topo:1/node/node:1/termination-point/null",
+                TranslatorHelper.createTpRefNT("topo:1", "node:1", null));
+    }
+
+    @Test
+    public void testTpRefLeavesShared() {
+        String tpRef = TranslatorHelper.createTpRefNT("topo:1", "node:1", "tp:1");
+        LeafSetEntryNode<String> entry = TranslatorHelper.createTpRefEntryNT(tpRef);
+        Assert.assertEquals(new NodeWithValue<String>(TopologyQNames.TP_REF, tpRef), entry.getIdentifier());
+        Assert.assertEquals(tpRef, entry.getValue());
+        Assert.assertSame(entry, TranslatorHelper.createTpRefEntryNT(
+                TranslatorHelper.createTpRefNT("topo:1", "node:1", "tp:1")));
+
+        LeafSetNode<String> leafSet = TranslatorHelper.createTpRefLeafSetNT(tpRef);
+        Assert.assertEquals(new NodeIdentifier(TopologyQNames.TP_REF), leafSet.getIdentifier());
+        Assert.assertEquals(1, leafSet.getValue().size());
+        Assert.assertSame(entry, leafSet.getValue().iterator().next());
+        Assert.assertSame(leafSet, TranslatorHelper.createTpRefLeafSetNT(tpRef));
+    }
+}
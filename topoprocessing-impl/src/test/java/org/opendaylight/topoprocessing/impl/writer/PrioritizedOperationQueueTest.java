@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.topoprocessing.impl.writer;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.opendaylight.topoprocessing.impl.writer.PrioritizedOperationQueue.Priority;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+
+public class PrioritizedOperationQueueTest {
+
+    private static final QName ITEM_QNAME = QName.create("foo", "2014-03-13", "item").intern();
+    private static final YangInstanceIdentifier ITEM1 = YangInstanceIdentifier.of(ITEM_QNAME).node(
+            QName.create(ITEM_QNAME, "item1"));
+    private static final YangInstanceIdentifier ITEM2 = YangInstanceIdentifier.of(ITEM_QNAME).node(
+            QName.create(ITEM_QNAME, "item2"));
+
+    private PrioritizedOperationQueue queue = new PrioritizedOperationQueue();
+
+    @Test
+    public void testDeleteOvertakesCreatesOfOtherItems() {
+        TransactionOperation create = Mockito.mock(TransactionOperation.class);
+        TransactionOperation update = Mockito.mock(TransactionOperation.class);
+        TransactionOperation delete = Mockito.mock(TransactionOperation.class);
+        queue.add(ITEM1, create, Priority.LOW);
+        queue.add(ITEM1, update, Priority.NORMAL);
+        queue.add(ITEM2, delete, Priority.HIGH);
+
+        Assert.assertSame(delete, queue.poll());
+        Assert.assertSame(create, queue.poll());
+        Assert.assertSame(update, queue.poll());
+        Assert.assertNull(queue.poll());
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testOperationsOnSameItemNotReordered() {
+        TransactionOperation create = Mockito.mock(TransactionOperation.class);
+        TransactionOperation delete = Mockito.mock(TransactionOperation.class);
+        TransactionOperation otherDelete = Mockito.mock(TransactionOperation.class);
+        queue.add(ITEM1, create, Priority.LOW);
+        queue.add(ITEM1, delete, Priority.HIGH);
+        queue.add(ITEM2, otherDelete, Priority.HIGH);
+
+        Assert.assertSame(otherDelete, queue.poll());
+        Assert.assertSame(create, queue.poll());
+        Assert.assertSame(delete, queue.poll());
+
+        // nothing pending on ITEM1 anymore, so delete gets its priority back
+        TransactionOperation recreate = Mockito.mock(TransactionOperation.class);
+        queue.add(ITEM2, recreate, Priority.LOW);
+        queue.add(ITEM1, delete, Priority.HIGH);
+        Assert.assertSame(delete, queue.poll());
+        Assert.assertSame(recreate, queue.poll());
+    }
+
+    @Test
+    public void testDeleteSupersedesPendingOperations() {
+        TransactionOperation create = Mockito.mock(TransactionOperation.class);
+        TransactionOperation update = Mockito.mock(TransactionOperation.class);
+        TransactionOperation otherCreate = Mockito.mock(TransactionOperation.class);
+        TransactionOperation delete = Mockito.mock(TransactionOperation.class);
+        queue.add(ITEM1, create, Priority.LOW);
+        queue.add(ITEM1, update, Priority.NORMAL);
+        queue.add(ITEM2, otherCreate, Priority.LOW);
+        queue.supersede(ITEM1, delete, Priority.HIGH);
+        Assert.assertEquals(2, queue.size());
+
+        // pending operations on ITEM1 are cancelled, so delete keeps its priority
+        Assert.assertSame(delete, queue.poll());
+        Assert.assertSame(otherCreate, queue.poll());
+        Assert.assertNull(queue.poll());
+        Assert.assertTrue(queue.isEmpty());
+
+        // operations queued after the delete are not cancelled
+        TransactionOperation recreate = Mockito.mock(TransactionOperation.class);
+        queue.supersede(ITEM1, delete, Priority.HIGH);
+        queue.add(ITEM1, recreate, Priority.LOW);
+        Assert.assertSame(delete, queue.poll());
+        Assert.assertSame(recreate, queue.poll());
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testClosedQueueIgnoresOperations() {
+        queue.add(ITEM1, Mockito.mock(TransactionOperation.class), Priority.LOW);
+        queue.close();
+        Assert.assertTrue(queue.isEmpty());
+        queue.add(ITEM1, Mockito.mock(TransactionOperation.class), Priority.HIGH);
+        Assert.assertNull(queue.poll());
+    }
+}
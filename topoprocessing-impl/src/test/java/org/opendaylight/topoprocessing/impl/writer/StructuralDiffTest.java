@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.topoprocessing.impl.writer;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.controller.md.sal.dom.api.DOMDataWriteTransaction;
+import org.opendaylight.topoprocessing.impl.util.InstanceIdentifiers;
+import org.opendaylight.topoprocessing.impl.util.TopologyQNames;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.Topology;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.Node;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.node.TerminationPoint;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+
+@RunWith(MockitoJUnitRunner.class)
+public class StructuralDiffTest {
+
+    private static final String NODE_ID = "node:1";
+    private static final YangInstanceIdentifier NODE_IDENTIFIER = YangInstanceIdentifier
+            .builder(InstanceIdentifiers.TOPOLOGY_IDENTIFIER)
+            .nodeWithKey(Topology.QNAME, TopologyQNames.TOPOLOGY_ID_QNAME, "mytopo:1")
+            .node(Node.QNAME)
+            .nodeWithKey(Node.QNAME, TopologyQNames.NETWORK_NODE_ID_QNAME, NODE_ID).build();
+    private static final YangInstanceIdentifier TP_MAP_IDENTIFIER = NODE_IDENTIFIER.node(TerminationPoint.QNAME);
+
+    @Mock private DOMDataWriteTransaction transaction;
+
+    @Test
+    public void testNotWrittenItemIsPut() {
+        NormalizedNode<?, ?> node = createNode("tp:1", "tp:2");
+        apply(StructuralDiff.diff(NODE_IDENTIFIER, null, node));
+        Mockito.verify(transaction).put(LogicalDatastoreType.OPERATIONAL, NODE_IDENTIFIER, node);
+        Mockito.verifyNoMoreInteractions(transaction);
+    }
+
+    @Test
+    public void testUnchangedItemIsNotWritten() {
+        List<TransactionOperation> operations = StructuralDiff.diff(NODE_IDENTIFIER, createNode("tp:1", "tp:2"),
+                createNode("tp:1", "tp:2"));
+        Assert.assertTrue(operations.isEmpty());
+    }
+
+    @Test
+    public void testOnlyChangedTerminationPointsWritten() {
+        NormalizedNode<?, ?> newNode = createNode("tp:1", "tp:3");
+        apply(StructuralDiff.diff(NODE_IDENTIFIER, createNode("tp:1", "tp:2"), newNode));
+
+        MapEntryNode tp3 = createTp("tp:3");
+        Mockito.verify(transaction).put(LogicalDatastoreType.OPERATIONAL,
+                TP_MAP_IDENTIFIER.node(tp3.getIdentifier()), tp3);
+        Mockito.verify(transaction).delete(LogicalDatastoreType.OPERATIONAL,
+                TP_MAP_IDENTIFIER.node(createTp("tp:2").getIdentifier()));
+        Mockito.verify(transaction, Mockito.never()).put(Matchers.eq(LogicalDatastoreType.OPERATIONAL),
+                Matchers.eq(NODE_IDENTIFIER), Matchers.<NormalizedNode<?, ?>>any());
+        Mockito.verifyNoMoreInteractions(transaction);
+    }
+
+    private void apply(List<TransactionOperation> operations) {
+        new CompositeOperation(operations).addOperationIntoTransaction(transaction);
+    }
+
+    private static MapEntryNode createNode(String... tpIds) {
+        CollectionNodeBuilder<MapEntryNode, MapNode> tps = ImmutableNodes.mapNodeBuilder(TerminationPoint.QNAME);
+        for (String tpId : tpIds) {
+            tps.withChild(createTp(tpId));
+        }
+        return ImmutableNodes.mapEntryBuilder(Node.QNAME, TopologyQNames.NETWORK_NODE_ID_QNAME, NODE_ID)
+                .withChild(tps.build()).build();
+    }
+
+    private static MapEntryNode createTp(String tpId) {
+        return ImmutableNodes.mapEntryBuilder(TerminationPoint.QNAME, TopologyQNames.NETWORK_TP_ID_QNAME, tpId)
+                .build();
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.topoprocessing.impl.writer;
+
+import com.google.common.base.Ticker;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TokenBucketTest {
+
+    private long time = 0;
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return time;
+        }
+    };
+
+    @Test
+    public void testBurstAndRefill() {
+        TokenBucket bucket = new TokenBucket(10, 2, ticker);
+        Assert.assertTrue(bucket.tryAcquire());
+        Assert.assertTrue(bucket.tryAcquire());
+        Assert.assertFalse(bucket.tryAcquire());
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.nanosUntilNextToken());
+
+        time += TimeUnit.MILLISECONDS.toNanos(50);
+        Assert.assertFalse(bucket.tryAcquire());
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(50), bucket.nanosUntilNextToken());
+
+        time += TimeUnit.MILLISECONDS.toNanos(50);
+        Assert.assertEquals(0, bucket.nanosUntilNextToken());
+        Assert.assertTrue(bucket.tryAcquire());
+        Assert.assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    public void testCapacityBoundsStoredTokens() {
+        TokenBucket bucket = new TokenBucket(10, 2, ticker);
+        time += TimeUnit.SECONDS.toNanos(10);
+        Assert.assertTrue(bucket.tryAcquire());
+        Assert.assertTrue(bucket.tryAcquire());
+        Assert.assertFalse(bucket.tryAcquire());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRate() {
+        new TokenBucket(0, 1, ticker);
+    }
+}
@@ -11,7 +11,10 @@ package org.opendaylight.topoprocessing.impl.writer;
 import com.google.common.util.concurrent.CheckedFuture;
 
 import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -36,9 +39,11 @@ import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.
 import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.Link;
 import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.Node;
 import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.TopologyTypes;
+import org.opendaylight.yangtools.yang.common.QName;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
 import org.opendaylight.yangtools.yang.data.api.schema.DataContainerChild;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafNode;
 import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
 import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
 import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableContainerNodeBuilder;
@@ -298,4 +303,121 @@ public class TopologyWriterTest {
         Mockito.verify(transaction, Mockito.times(0)).delete(LogicalDatastoreType.OPERATIONAL,
                 (YangInstanceIdentifier)Mockito.any());
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that listeners are throttled once the high watermark is reached and resumed once the queue
+     * drains to the low watermark.
+     */
+    @Test
+    public void testBackpressure() throws InterruptedException {
+        final CountDownLatch datastoreBlocked = new CountDownLatch(1);
+        Mockito.when(transactionChain.newWriteOnlyTransaction()).thenAnswer(invocation -> {
+            datastoreBlocked.await(5, TimeUnit.SECONDS);
+            return transaction;
+        });
+        Mockito.when(transaction.submit()).thenReturn(submit);
+        BackpressureListener listener = Mockito.mock(BackpressureListener.class);
+        topologyWriterNTModel.setWatermarks(3, 1);
+        topologyWriterNTModel.addBackpressureListener(listener);
+
+        OverlayItem overlayItem = new OverlayItem(new ArrayList<>(), CorrelationItemEnum.Node);
+        topologyWriterNTModel.deleteItem(new OverlayItemWrapper("ID1", overlayItem), CorrelationItemEnum.Node);
+        topologyWriterNTModel.deleteItem(new OverlayItemWrapper("ID2", overlayItem), CorrelationItemEnum.Node);
+        Assert.assertFalse(topologyWriterNTModel.isThrottled());
+        topologyWriterNTModel.deleteItem(new OverlayItemWrapper("ID3", overlayItem), CorrelationItemEnum.Node);
+
+        Assert.assertTrue(topologyWriterNTModel.isThrottled());
+        Assert.assertEquals(3, topologyWriterNTModel.getQueueDepth());
+        Assert.assertEquals(1, topologyWriterNTModel.getThrottleCount());
+        Mockito.verify(listener).onThrottled();
+        Mockito.verify(listener, Mockito.never()).onResumed();
+
+        datastoreBlocked.countDown();
+        Mockito.verify(listener, Mockito.timeout(1000)).onResumed();
+        Assert.assertFalse(topologyWriterNTModel.isThrottled());
+        Assert.assertEquals(0, topologyWriterNTModel.getQueueDepth());
+        Assert.assertEquals(3, topologyWriterNTModel.getMaxQueueDepth());
+        Mockito.verify(transaction, Mockito.times(3)).delete(Mockito.eq(LogicalDatastoreType.OPERATIONAL),
+                (YangInstanceIdentifier) Mockito.any());
+    }
+
+    /**
+     * Test if high watermark not exceeding low watermark is rejected.
+     */
+    @Test (expected = IllegalArgumentException.class)
+    public void testInvalidWatermarks() {
+        topologyWriterNTModel.setWatermarks(10, 10);
+    }
+
+    /**
+     * Tests that writes exceeding the rate limit are deferred and coalesced into the latest version, which is
+     * translated only once flushed.
+     */
+    @Test
+    public void testRateLimitCoalescesDeferredWrites() {
+        Mockito.when(transactionChain.newWriteOnlyTransaction()).thenReturn(transaction);
+        Mockito.when(transaction.submit()).thenReturn(submit);
+        QName valueQName = QName.create(Node.QNAME, "value");
+        LeafNode<String> version1 = ImmutableNodes.leafNode(valueQName, "1");
+        LeafNode<String> version2 = ImmutableNodes.leafNode(valueQName, "2");
+        OverlayItem overlayItem = new OverlayItem(new ArrayList<>(), CorrelationItemEnum.Node);
+        OverlayItemWrapper wrapper = new OverlayItemWrapper("ID", overlayItem);
+        Mockito.when(translator.translate(wrapper)).thenReturn(version1, version2);
+        topologyWriterNTModel.setTranslator(translator);
+        topologyWriterNTModel.setRateLimit(1, 1);
+
+        topologyWriterNTModel.writeItem(wrapper, CorrelationItemEnum.Node);
+        topologyWriterNTModel.writeItem(wrapper, CorrelationItemEnum.Node);
+        topologyWriterNTModel.writeItem(wrapper, CorrelationItemEnum.Node);
+        Assert.assertEquals(2, topologyWriterNTModel.getDeferredWriteCount());
+        Assert.assertEquals(1, topologyWriterNTModel.getCoalescedWriteCount());
+        Assert.assertEquals(1, topologyWriterNTModel.getDeferredItemCount());
+        // deferred writes are not translated yet
+        Mockito.verify(translator, Mockito.times(1)).translate(wrapper);
+
+        YangInstanceIdentifier itemIdentifier = YangInstanceIdentifier.builder(nodeIdentifierNTModel)
+                .nodeWithKey(Node.QNAME, TopologyQNames.NETWORK_NODE_ID_QNAME, "ID").build();
+        Mockito.verify(transaction, Mockito.timeout(500)).put(LogicalDatastoreType.OPERATIONAL, itemIdentifier,
+                version1);
+        Mockito.verify(transaction, Mockito.timeout(2000)).put(LogicalDatastoreType.OPERATIONAL, itemIdentifier,
+                version2);
+        // coalesced writes are translated once on flush
+        Mockito.verify(translator, Mockito.times(2)).translate(wrapper);
+        Assert.assertEquals(0, topologyWriterNTModel.getDeferredItemCount());
+    }
+
+    /**
+     * Tests that intake held back by {@link BackpressureGate} keeps the queue at or below the high watermark
+     * under sustained input.
+     */
+    @Test
+    public void testIntakeBoundedByHighWatermark() throws InterruptedException {
+        Mockito.when(transactionChain.newWriteOnlyTransaction()).thenAnswer(invocation -> {
+            // slow datastore
+            Thread.sleep(1);
+            return transaction;
+        });
+        Mockito.when(transaction.submit()).thenReturn(submit);
+        BackpressureGate gate = new BackpressureGate(TOPOLOGY_ID);
+        topologyWriterNTModel.setWatermarks(10, 5);
+        topologyWriterNTModel.addBackpressureListener(gate);
+
+        final int items = 500;
+        OverlayItem overlayItem = new OverlayItem(new ArrayList<>(), CorrelationItemEnum.Node);
+        Thread intake = new Thread(() -> {
+            for (int i = 0; i < items; i++) {
+                gate.awaitResumed();
+                topologyWriterNTModel.deleteItem(new OverlayItemWrapper("ID" + i, overlayItem),
+                        CorrelationItemEnum.Node);
+            }
+        });
+        intake.start();
+        intake.join(10000);
+        Assert.assertFalse("Intake should be resumed every time the queue drains", intake.isAlive());
+        Mockito.verify(transaction, Mockito.timeout(5000).times(items)).delete(
+                Mockito.eq(LogicalDatastoreType.OPERATIONAL), (YangInstanceIdentifier) Mockito.any());
+        Assert.assertTrue(topologyWriterNTModel.getThrottleCount() > 0);
+        Assert.assertTrue("Queue exceeded high watermark: " + topologyWriterNTModel.getMaxQueueDepth(),
+                topologyWriterNTModel.getMaxQueueDepth() <= 10);
+    }
+}
@@ -16,6 +16,8 @@ import java.util.Map;
 import org.opendaylight.controller.md.sal.dom.api.DOMDataTreeChangeListener;
 import org.opendaylight.topoprocessing.api.structure.UnderlayItem;
 import org.opendaylight.topoprocessing.impl.operator.TopologyOperator;
+import org.opendaylight.topoprocessing.impl.structure.ItemCompactor;
+import org.opendaylight.topoprocessing.impl.writer.BackpressureGate;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.Nodes;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.CorrelationItemEnum;
@@ -44,6 +46,8 @@ public class IRInventoryListener implements DOMDataTreeChangeListener {
     private String topologyId;
 
     private YangInstanceIdentifier pathIdentifier;
+    private volatile ItemCompactor itemCompactor;
+    private volatile BackpressureGate backpressureGate;
 
     /**
      * Default constructor.
@@ -65,6 +69,7 @@ public class IRInventoryListener implements DOMDataTreeChangeListener {
                     dataTreeCandidate.getRootNode().getChildNodes().iterator();
             while (iteratorChildNodes.hasNext()) {
                 DataTreeCandidateNode dataTreeCandidateNode = iteratorChildNodes.next();
+                awaitResumed();
                 ModificationType modificationType = dataTreeCandidateNode.getModificationType();
                 if ((modificationType.equals(ModificationType.WRITE)
                         || modificationType.equals(ModificationType.SUBTREE_MODIFIED))
@@ -82,11 +87,19 @@ public class IRInventoryListener implements DOMDataTreeChangeListener {
         LOGGER.debug("DataTreeChanged event processed");
     }
 
+    private void awaitResumed() {
+        BackpressureGate gate = backpressureGate;
+        if (gate != null) {
+            gate.awaitResumed();
+        }
+    }
+
     private void proceedChangeRequest(YangInstanceIdentifier identifier, NormalizedNode<?, ?> entry,
             ModificationType requestAction) {
         if (entry instanceof MapEntryNode && entry.getNodeType().equals(Node.QNAME)) {
             Map<Integer, NormalizedNode<?, ?>> leafNode = new HashMap<>(1);
-            leafNode.put(0, entry);
+            ItemCompactor compactor = itemCompactor;
+            leafNode.put(0, compactor == null ? entry : compactor.compact((MapEntryNode) entry));
             UnderlayItem underlayItem =
                     new UnderlayItem(null, leafNode, topologyId, null, CorrelationItemEnum.Node);
             if (requestAction == ModificationType.WRITE) {
@@ -117,6 +130,23 @@ public class IRInventoryListener implements DOMDataTreeChangeListener {
         this.operator = operator;
     }
 
+    /**
+     * Set item compactor.
+     * @param itemCompactor Compacts inventory nodes, null if whole inventory nodes are kept.
+     */
+    public void setItemCompactor(ItemCompactor itemCompactor) {
+        this.itemCompactor = itemCompactor;
+    }
+
+    /**
+     * Set backpressure gate.
+     * @param backpressureGate Holds back processing of changes while the overlay topology writer is throttled,
+     *        null if changes are never held back.
+     */
+    public void setBackpressureGate(BackpressureGate backpressureGate) {
+        this.backpressureGate = backpressureGate;
+    }
+
     /**
      * Set path identifier.
      * @param pathIdentifier Identifies leaf (node), which aggregation / filtering will be based on.
@@ -14,11 +14,13 @@ import org.opendaylight.controller.md.sal.dom.api.DOMDataTreeChangeListener;
 import org.opendaylight.controller.md.sal.dom.api.DOMDataTreeChangeService;
 import org.opendaylight.controller.md.sal.dom.api.DOMDataTreeIdentifier;
 import org.opendaylight.topoprocessing.impl.listener.UnderlayTopologyListener;
-import org.opendaylight.topoprocessing.impl.operator.NotificationInterConnector;
+import org.opendaylight.topoprocessing.impl.operator.KeyedJoinOperator;
 import org.opendaylight.topoprocessing.impl.operator.TopoStoreProvider;
+import org.opendaylight.topoprocessing.impl.structure.ItemCompactor;
 import org.opendaylight.topoprocessing.impl.util.InstanceIdentifiers;
 import org.opendaylight.topoprocessing.impl.util.TopologyQNames;
 import org.opendaylight.topoprocessing.inventoryRendering.operator.IRRenderingOperator;
+import org.opendaylight.topoprocessing.inventoryRendering.translator.IRNodeTranslator;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.Nodes;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.CorrelationItemEnum;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.InventoryRenderingModel;
@@ -35,6 +37,7 @@ import org.slf4j.LoggerFactory;
 public class IRUnderlayTopologyListener extends UnderlayTopologyListener {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(IRUnderlayTopologyListener.class);
+    private IRInventoryListener invListener;
 
     public IRUnderlayTopologyListener(DOMDataTreeChangeService domDataTreeChangeService, String underlayTopologyId,
             CorrelationItemEnum correlationItem) {
@@ -55,18 +58,17 @@ public class IRUnderlayTopologyListener extends UnderlayTopologyListener {
     public void registerUnderlayTopologyListener(LogicalDatastoreType datastoreType,
             List<ListenerRegistration<DOMDataTreeChangeListener>> listeners) {
         if (correlationItem.equals(CorrelationItemEnum.Node)) {
-            TopoStoreProvider connTopoStoreProvider = new TopoStoreProvider();
-            connTopoStoreProvider.initializeStore(underlayTopologyId, false);
             TopoStoreProvider renderingTopoProvider = new TopoStoreProvider();
             renderingTopoProvider.initializeStore(underlayTopologyId, false);
             IRRenderingOperator operator = new IRRenderingOperator();
             operator.setTopoStoreProvider(renderingTopoProvider);
-            NotificationInterConnector connector =
-                    new NotificationInterConnector(correlationItem,connTopoStoreProvider);
-            connector.setOperator(operator);
-            this.setOperator(connector);
-            IRInventoryListener invListener = new IRInventoryListener(underlayTopologyId);
-            invListener.setOperator(connector);
+            KeyedJoinOperator join = KeyedJoinOperator.createTopologyInventoryJoin();
+            join.setOperator(operator);
+            this.setOperator(join.getInput(0));
+            invListener = new IRInventoryListener(underlayTopologyId);
+            invListener.setOperator(join.getInput(1));
+            // inventory changes feed the same writer, they are held back together with topology changes
+            invListener.setBackpressureGate(getBackpressureGate());
             YangInstanceIdentifier invId = YangInstanceIdentifier.of(Nodes.QNAME)
                     .node(org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node.QNAME);
             DOMDataTreeIdentifier treeId = new DOMDataTreeIdentifier(datastoreType, invId);
@@ -78,4 +80,18 @@ public class IRUnderlayTopologyListener extends UnderlayTopologyListener {
             throw new IllegalStateException("Rendering has to have CorrelationItem set to Node");
         }
     }
+
+    /**
+     * Topology nodes of rendering have no target fields and stay whole, only inventory nodes are compacted.
+     * They keep the subtrees rendered into the overlay topology, whatever the given compactor retains.
+     * @param itemCompactor compacts underlay items, null if underlay items hold whole underlay items
+     */
+    @Override
+    public void setItemCompactor(ItemCompactor itemCompactor) {
+        super.setItemCompactor(itemCompactor);
+        if (invListener != null) {
+            invListener.setItemCompactor(itemCompactor == null ? null
+                    : new ItemCompactor(IRNodeTranslator.getRenderedInventoryPaths()));
+        }
+    }
 }
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.topoprocessing.inventoryRendering.translator;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.DataContainerNodeAttrBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableContainerNodeBuilder;
+
+/**
+ * Copies fields of an inventory subtree into leaves of a rendered container. The mapping table - source path
+ * relative to the subtree, destination leaf - is compiled once into a tree of path arguments shared by paths
+ * with a common prefix, so that one walk of the source subtree copies all mapped fields and visits only mapped
+ * branches. Fields missing in the source are skipped.
+ */
+final class IRFieldMapping {
+
+    private final NodeIdentifier containerIdentifier;
+    private final CompiledMapping root;
+    private final List<YangInstanceIdentifier> sourcePaths;
+
+    private IRFieldMapping(QName container, MappingNode root, List<YangInstanceIdentifier> sourcePaths) {
+        this.containerIdentifier = new NodeIdentifier(container);
+        this.root = root.compile();
+        this.sourcePaths = Collections.unmodifiableList(new ArrayList<>(sourcePaths));
+    }
+
+    /**
+     * @param container destination container
+     * @return builder of mapping into the container
+     */
+    static Builder builder(QName container) {
+        return new Builder(container);
+    }
+
+    /**
+     * @param source source subtree
+     * @return container holding the mapped fields of the source subtree
+     */
+    ContainerNode copy(NormalizedNode<?, ?> source) {
+        DataContainerNodeAttrBuilder<NodeIdentifier, ContainerNode> containerBuilder =
+                ImmutableContainerNodeBuilder.create().withNodeIdentifier(containerIdentifier);
+        copy(source, root, containerBuilder);
+        return containerBuilder.build();
+    }
+
+    /**
+     * @return paths of the mapped fields relative to the source subtree
+     */
+    List<YangInstanceIdentifier> getSourcePaths() {
+        return sourcePaths;
+    }
+
+    private static void copy(NormalizedNode<?, ?> source, CompiledMapping mapping,
+            DataContainerNodeAttrBuilder<NodeIdentifier, ContainerNode> containerBuilder) {
+        for (QName destination : mapping.destinations) {
+            containerBuilder.withChild(ImmutableNodes.leafNode(destination, source.getValue()));
+        }
+        for (int i = 0; i < mapping.arguments.length; i++) {
+            Optional<NormalizedNode<?, ?>> child = NormalizedNodes.getDirectChild(source, mapping.arguments[i]);
+            if (child.isPresent()) {
+                copy(child.get(), mapping.children[i], containerBuilder);
+            }
+        }
+    }
+
+    /**
+     * Collects the mapping table.
+     */
+    static final class Builder {
+        private final QName container;
+        private final MappingNode root = new MappingNode();
+        private final List<YangInstanceIdentifier> sourcePaths = new ArrayList<>();
+
+        private Builder(QName container) {
+            this.container = Preconditions.checkNotNull(container);
+        }
+
+        /**
+         * @param sourceLeaf leaf directly under the source subtree
+         * @param destinationLeaf leaf of the destination container
+         * @return this builder
+         */
+        Builder map(QName sourceLeaf, QName destinationLeaf) {
+            return map(YangInstanceIdentifier.of(sourceLeaf), destinationLeaf);
+        }
+
+        /**
+         * @param sourcePath path of the field relative to the source subtree
+         * @param destinationLeaf leaf of the destination container
+         * @return this builder
+         */
+        Builder map(YangInstanceIdentifier sourcePath, QName destinationLeaf) {
+            Preconditions.checkArgument(sourcePath.getPathArguments().iterator().hasNext(),
+                    "Source path of %s is empty", destinationLeaf);
+            MappingNode node = root;
+            for (PathArgument argument : sourcePath.getPathArguments()) {
+                MappingNode child = node.children.get(argument);
+                if (child == null) {
+                    child = new MappingNode();
+                    node.children.put(argument, child);
+                }
+                node = child;
+            }
+            node.destinations.add(Preconditions.checkNotNull(destinationLeaf));
+            sourcePaths.add(sourcePath);
+            return this;
+        }
+
+        IRFieldMapping build() {
+            return new IRFieldMapping(container, root, sourcePaths);
+        }
+    }
+
+    private static final class MappingNode {
+        private final Map<PathArgument, MappingNode> children = new LinkedHashMap<>();
+        private final List<QName> destinations = new ArrayList<>();
+
+        CompiledMapping compile() {
+            PathArgument[] arguments = new PathArgument[children.size()];
+            CompiledMapping[] compiledChildren = new CompiledMapping[children.size()];
+            int i = 0;
+            for (Entry<PathArgument, MappingNode> child : children.entrySet()) {
+                arguments[i] = child.getKey();
+                compiledChildren[i] = child.getValue().compile();
+                i++;
+            }
+            return new CompiledMapping(destinations.toArray(new QName[destinations.size()]), arguments,
+                    compiledChildren);
+        }
+    }
+
+    private static final class CompiledMapping {
+        private final QName[] destinations;
+        private final PathArgument[] arguments;
+        private final CompiledMapping[] children;
+
+        CompiledMapping(QName[] destinations, PathArgument[] arguments, CompiledMapping[] children) {
+            this.destinations = destinations;
+            this.arguments = arguments;
+            this.children = children;
+        }
+    }
+}
@@ -9,15 +9,19 @@ package org.opendaylight.topoprocessing.inventoryRendering.translator;
 
 import com.google.common.base.Optional;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import org.opendaylight.topoprocessing.api.structure.OverlayItem;
 import org.opendaylight.topoprocessing.api.structure.UnderlayItem;
 import org.opendaylight.topoprocessing.impl.structure.OverlayItemWrapper;
+import org.opendaylight.topoprocessing.impl.structure.TranslationCache;
 import org.opendaylight.topoprocessing.impl.translator.NodeTranslator;
 import org.opendaylight.topoprocessing.impl.util.TopologyQNames;
 import org.opendaylight.topoprocessing.inventoryRendering.util.IRInstanceIdentifiers;
@@ -27,20 +31,15 @@ import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.
 import org.opendaylight.yangtools.yang.common.QName;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
-import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.AugmentationNode;
-import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
 import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
 import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
 import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
-import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
-import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.DataContainerNodeAttrBuilder;
 import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.DataContainerNodeBuilder;
 import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableAugmentationNodeBuilder;
-import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableContainerNodeBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -68,6 +67,24 @@ public class IRNodeTranslator implements NodeTranslator {
     // node-connector. This is in network-topology model
     private static final AugmentationIdentifier INVENTORY_NODE_CONNECTOR_REF_AUGMENTATION_IDENTIFIER =
             createInventoryNodeConnectorRefAugIdentifier();
+    // flow-capable-node fields rendered into node augmentation container
+    private static final IRFieldMapping NODE_FIELD_MAPPING = IRFieldMapping.builder(IRQNames.NODE_AUGMENTATION_QNAME)
+            .map(IRQNames.OPEN_FLOW_NODE_MANUFACTURER_QNAME, IRQNames.NODE_AUG_MANUFACTURER_QNAME)
+            .map(IRQNames.OPEN_FLOW_NODE_DESCRIPTION_QNAME, IRQNames.NODE_AUG_DESCRIPTION_QNAME)
+            .map(IRQNames.OPEN_FLOW_NODE_HARDWARE_QNAME, IRQNames.NODE_AUG_HARDWARE_QNAME)
+            .map(IRQNames.OPEN_FLOW_NODE_IP_ADDRESS_QNAME, IRQNames.NODE_AUG_IP_ADDREESS_QNAME)
+            .map(IRQNames.OPEN_FLOW_NODE_SERIAL_NUMBER_QNAME, IRQNames.NODE_AUG_SERIAL_NUMBER_QNAME)
+            .map(IRQNames.OPEN_FLOW_NODE_SOFTWARE_QNAME, IRQNames.NODE_AUG_SOFTWARE_QNAME)
+            .build();
+    // flow-capable-node-connector fields rendered into termination point augmentation container
+    private static final IRFieldMapping TP_FIELD_MAPPING = IRFieldMapping.builder(IRQNames.TP_AUGMENTATION_QNAME)
+            .map(IRQNames.OPEN_FLOW_PORT_CURRENT_SPEED_QNAME, IRQNames.TP_AUG_CURRENT_SPEED_QNAME)
+            .map(IRQNames.OPEN_FLOW_PORT_HARDWARE_ADDRESS_QNAME, IRQNames.TP_AUG_HARDWARE_ADDRESS_QNAME)
+            .map(IRQNames.OPEN_FLOW_PORT_MAXIMUM_SPEED_QNAME, IRQNames.TP_AUG_MAXIMUM_SPEED_QNAME)
+            .map(IRQNames.OPEN_FLOW_PORT_NAME_QNAME, IRQNames.TP_AUG_NAME_QNAME)
+            .build();
+    // inventory node subtrees read by the translation, relative to the inventory node
+    private static final List<YangInstanceIdentifier> RENDERED_INVENTORY_PATHS = createRenderedInventoryPaths();
 
     /**
      * Translate {@link OverlayItem} item into {@linkplain NormalizedNode} node from network-topology model.
@@ -80,14 +97,41 @@ public class IRNodeTranslator implements NodeTranslator {
     @Override
     public NormalizedNode<?, ?> translate(OverlayItemWrapper wrapper) {
         LOG.debug("Transforming OverlayItemWrapper containing Nodes to datastore format");
-        CollectionNodeBuilder<MapEntryNode, MapNode> terminationPoints = ImmutableNodes.mapNodeBuilder(
-                TerminationPoint.QNAME);
-        AugmentationNode nodeAugmentation = null;
+        TranslationCache translationCache = wrapper.getTranslationCache();
         // in this case, we always have only one overlay item with one underlay item
         OverlayItem overlayItem = wrapper.getOverlayItems().peek();
         UnderlayItem underlayItem = overlayItem.getUnderlayItems().peek();
-        NormalizedNode<?, ?> inventoryItemNode = underlayItem.getLeafNodes().get(0);
         // prepare termination points
+        List<MapEntryNode> terminationPoints = translationCache.getChildren(TerminationPoint.QNAME, overlayItem,
+                underlayItem, (item, tpIdentities) -> createTerminationPoints(item));
+        // prepare node augments
+        AugmentationNode nodeAugmentation = translationCache.<AugmentationNode>getChildren(
+                IRQNames.NODE_AUGMENTATION_QNAME, overlayItem, underlayItem, (item, tpIdentities) ->
+                        Collections.singletonList(createNodeAugmentation(item.getLeafNodes().get(0)))).get(0);
+        translationCache.releaseUnused();
+
+        // we don't use id from wrapper for node-id of our new node. We have to change it to the correct one
+        // without this step, writer is unable to write our node, because id in wrapper differs from node-id in our node
+        wrapper.setId(underlayItem.getItemId());
+
+        return ImmutableNodes
+                .mapEntryBuilder(Node.QNAME, TopologyQNames.NETWORK_NODE_ID_QNAME, underlayItem.getItemId())
+                .withChild(translationCache.getMapNode(TerminationPoint.QNAME, terminationPoints))
+                .withChild(nodeAugmentation)
+                .build();
+    }
+
+    /**
+     * Compact inventory nodes have to keep these subtrees, so that they render the same as whole inventory nodes.
+     * @return paths of inventory node subtrees read by the translation, relative to the inventory node
+     */
+    public static List<YangInstanceIdentifier> getRenderedInventoryPaths() {
+        return RENDERED_INVENTORY_PATHS;
+    }
+
+    private List<MapEntryNode> createTerminationPoints(UnderlayItem underlayItem) {
+        List<MapEntryNode> terminationPoints = new ArrayList<>();
+        NormalizedNode<?, ?> inventoryItemNode = underlayItem.getLeafNodes().get(0);
         Optional<NormalizedNode<?, ?>> nodeConnectorNode = NormalizedNodes.findNode(
                 inventoryItemNode, IRInstanceIdentifiers.NODE_CONNECTOR_IDENTIFIER);
         if (nodeConnectorNode.isPresent()) {
@@ -101,23 +145,12 @@ public class IRNodeTranslator implements NodeTranslator {
                 for (MapEntryNode nodeConnectorEntry : nodeConnectorEntries) {
                     MapEntryNode tp = createTerminationPoint(nodeConnectorEntry, terminationPointsIds);
                     if (tp != null) {
-                        terminationPoints.addChild(tp);
+                        terminationPoints.add(tp);
                     }
                 }
             }
         }
-        // prepare node augments
-        nodeAugmentation = createNodeAugmentation(inventoryItemNode);
-
-        // we don't use id from wrapper for node-id of our new node. We have to change it to the correct one
-        // without this step, writer is unable to write our node, because id in wrapper differs from node-id in our node
-        wrapper.setId(underlayItem.getItemId());
-
-        return ImmutableNodes
-                .mapEntryBuilder(Node.QNAME, TopologyQNames.NETWORK_NODE_ID_QNAME, underlayItem.getItemId())
-                .withChild(terminationPoints.build())
-                .withChild(nodeAugmentation)
-                .build();
+        return terminationPoints;
     }
 
     private AugmentationNode createNodeAugmentation(NormalizedNode<?, ?> inventoryNode) {
@@ -127,49 +160,7 @@ public class IRNodeTranslator implements NodeTranslator {
                 NormalizedNodes.findNode(inventoryNode, INV_NODE_AUGMENTATION_IDENTIFIER);
         //node augmentation -> node augmentation container -> leaf nodes
         if (inventoryNodeAugNode.isPresent()) {
-            DataContainerNodeAttrBuilder<NodeIdentifier, ContainerNode> nodeAugContainerBuilder =
-                    ImmutableContainerNodeBuilder.create();
-            nodeAugContainerBuilder.withNodeIdentifier(YangInstanceIdentifier.NodeIdentifier.create(
-                    IRQNames.NODE_AUGMENTATION_QNAME));
-
-            Optional<NormalizedNode<?, ?>> fieldNode = NormalizedNodes.findNode(inventoryNodeAugNode.get(),
-                    IRInstanceIdentifiers.OPEN_FLOW_NODE_MANUFACTURER_IDENTIFIER);
-            if (fieldNode.isPresent()) {
-                nodeAugContainerBuilder.withChild(ImmutableNodes.leafNode(IRQNames.NODE_AUG_MANUFACTURER_QNAME,
-                        fieldNode.get().getValue()));
-            }
-            fieldNode = NormalizedNodes.findNode(inventoryNodeAugNode.get(),
-                    IRInstanceIdentifiers.OPEN_FLOW_NODE_DESCRIPTION_IDENTIFIER);
-            if (fieldNode.isPresent()) {
-                nodeAugContainerBuilder.withChild(ImmutableNodes.leafNode(IRQNames.NODE_AUG_DESCRIPTION_QNAME,
-                        fieldNode.get().getValue()));
-            }
-            fieldNode = NormalizedNodes.findNode(inventoryNodeAugNode.get(),
-                    IRInstanceIdentifiers.OPEN_FLOW_NODE_HARDWARE_IDENTIFIER);
-            if (fieldNode.isPresent()) {
-                nodeAugContainerBuilder.withChild(ImmutableNodes.leafNode(IRQNames.NODE_AUG_HARDWARE_QNAME,
-                        fieldNode.get().getValue()));
-            }
-            fieldNode = NormalizedNodes.findNode(inventoryNodeAugNode.get(),
-                    IRInstanceIdentifiers.OPEN_FLOW_NODE_IP_ADDRESS_IDENTIFIER);
-            if (fieldNode.isPresent()) {
-                nodeAugContainerBuilder.withChild(ImmutableNodes.leafNode(IRQNames.NODE_AUG_IP_ADDREESS_QNAME,
-                        fieldNode.get().getValue()));
-            }
-            fieldNode = NormalizedNodes.findNode(inventoryNodeAugNode.get(),
-                    IRInstanceIdentifiers.OPEN_FLOW_NODE_SERIAL_NUMBER_IDENTIFIER);
-            if (fieldNode.isPresent()) {
-                nodeAugContainerBuilder.withChild(ImmutableNodes.leafNode(IRQNames.NODE_AUG_SERIAL_NUMBER_QNAME,
-                        fieldNode.get().getValue()));
-            }
-            fieldNode = NormalizedNodes.findNode(inventoryNodeAugNode.get(),
-                    IRInstanceIdentifiers.OPEN_FLOW_NODE_SOFTWARE_IDENTIFIER);
-            if (fieldNode.isPresent()) {
-                nodeAugContainerBuilder.withChild(ImmutableNodes.leafNode(IRQNames.NODE_AUG_SOFTWARE_QNAME,
-                        fieldNode.get().getValue()));
-            }
-
-            nodeAugmentationBuilder.withChild(nodeAugContainerBuilder.build());
+            nodeAugmentationBuilder.withChild(NODE_FIELD_MAPPING.copy(inventoryNodeAugNode.get()));
         }
         return nodeAugmentationBuilder.build();
     }
@@ -191,37 +182,7 @@ public class IRNodeTranslator implements NodeTranslator {
                 NormalizedNodes.findNode(nodeConnectorEntry, NODE_CONNECTOR_AUGMENTATION_IDENTIFIER);
         //t.p. augmentation -> t.p. augmentation container -> leaf nodes
         if (inventoryNodeConnectorAugNode.isPresent()) {
-            DataContainerNodeAttrBuilder<NodeIdentifier, ContainerNode> tpAugContainerBuilder =
-                    ImmutableContainerNodeBuilder.create();
-            tpAugContainerBuilder.withNodeIdentifier(YangInstanceIdentifier.NodeIdentifier.create(
-                    IRQNames.TP_AUGMENTATION_QNAME));
-
-            Optional<NormalizedNode<?, ?>> fieldNode = NormalizedNodes.findNode(inventoryNodeConnectorAugNode.get(),
-                    IRInstanceIdentifiers.OPEN_FLOW_PORT_CURRENT_SPEED_IDENTIFIER);
-            if (fieldNode.isPresent()) {
-                tpAugContainerBuilder.withChild(ImmutableNodes.leafNode(IRQNames.TP_AUG_CURRENT_SPEED_QNAME,
-                        fieldNode.get().getValue()));
-            }
-            fieldNode = NormalizedNodes.findNode(inventoryNodeConnectorAugNode.get(),
-                    IRInstanceIdentifiers.OPEN_FLOW_PORT_HARDWARE_ADDRESS_IDENTIFIER);
-            if (fieldNode.isPresent()) {
-                tpAugContainerBuilder.withChild(ImmutableNodes.leafNode(IRQNames.TP_AUG_HARDWARE_ADDRESS_QNAME,
-                        fieldNode.get().getValue()));
-            }
-            fieldNode = NormalizedNodes.findNode(inventoryNodeConnectorAugNode.get(),
-                    IRInstanceIdentifiers.OPEN_FLOW_PORT_MAXIMUM_SPEED_IDENTIFIER);
-            if (fieldNode.isPresent()) {
-                tpAugContainerBuilder.withChild(ImmutableNodes.leafNode(IRQNames.TP_AUG_MAXIMUM_SPEED_QNAME,
-                        fieldNode.get().getValue()));
-            }
-            fieldNode = NormalizedNodes.findNode(inventoryNodeConnectorAugNode.get(),
-                    IRInstanceIdentifiers.OPEN_FLOW_PORT_NAME_IDENTIFIER);
-            if (fieldNode.isPresent()) {
-                tpAugContainerBuilder.withChild(ImmutableNodes.leafNode(IRQNames.TP_AUG_NAME_QNAME,
-                        fieldNode.get().getValue()));
-            }
-
-            tpAugmentationBuilder.withChild(tpAugContainerBuilder.build());
+            tpAugmentationBuilder.withChild(TP_FIELD_MAPPING.copy(inventoryNodeConnectorAugNode.get()));
         }
         return ImmutableNodes.mapEntryBuilder( TerminationPoint.QNAME, TopologyQNames.NETWORK_TP_ID_QNAME,
                 terminationPointId).withChild(tpAugmentationBuilder.build()).build();
@@ -247,6 +208,30 @@ public class IRNodeTranslator implements NodeTranslator {
         return terminationPointsIds;
     }
 
+    private static List<YangInstanceIdentifier> createRenderedInventoryPaths() {
+        List<YangInstanceIdentifier> paths = new ArrayList<>();
+        YangInstanceIdentifier nodeAugmentation = YangInstanceIdentifier.create(INV_NODE_AUGMENTATION_IDENTIFIER);
+        for (YangInstanceIdentifier sourcePath : NODE_FIELD_MAPPING.getSourcePaths()) {
+            paths.add(append(nodeAugmentation, sourcePath));
+        }
+        // node-connector list identifier stands for all node-connectors
+        YangInstanceIdentifier nodeConnectorAugmentation = IRInstanceIdentifiers.NODE_CONNECTOR_IDENTIFIER
+                .node(IRInstanceIdentifiers.NODE_CONNECTOR_IDENTIFIER.getLastPathArgument())
+                .node(NODE_CONNECTOR_AUGMENTATION_IDENTIFIER);
+        for (YangInstanceIdentifier sourcePath : TP_FIELD_MAPPING.getSourcePaths()) {
+            paths.add(append(nodeConnectorAugmentation, sourcePath));
+        }
+        return Collections.unmodifiableList(paths);
+    }
+
+    private static YangInstanceIdentifier append(YangInstanceIdentifier prefix, YangInstanceIdentifier suffix) {
+        YangInstanceIdentifier path = prefix;
+        for (PathArgument argument : suffix.getPathArguments()) {
+            path = path.node(argument);
+        }
+        return path;
+    }
+
     private static AugmentationIdentifier createNodeAugIdentifier() {
         Set<QName> qnames = new HashSet<>();
         qnames.add(IRQNames.NODE_AUGMENTATION_QNAME);
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2015 Pantheon Technologies s.r.o. and others. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.topoprocessing.inventoryRendering.translator;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.opendaylight.topoprocessing.inventoryRendering.util.IRQNames;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableContainerNodeBuilder;
+
+public class IRFieldMappingTest {
+
+    private static final QName SOURCE_QNAME = QName.create("urn:test", "2015-08-31", "source");
+    private static final QName NESTED_QNAME = QName.create(SOURCE_QNAME, "nested");
+    private static final QName FIRST_QNAME = QName.create(SOURCE_QNAME, "first");
+    private static final QName SECOND_QNAME = QName.create(SOURCE_QNAME, "second");
+    private static final QName MISSING_QNAME = QName.create(SOURCE_QNAME, "missing");
+
+    @Test
+    public void testCopyMappedLeaves() {
+        IRFieldMapping mapping = IRFieldMapping.builder(IRQNames.TP_AUGMENTATION_QNAME)
+                .map(FIRST_QNAME, IRQNames.TP_AUG_NAME_QNAME)
+                .map(YangInstanceIdentifier.of(NESTED_QNAME).node(SECOND_QNAME), IRQNames.TP_AUG_CURRENT_SPEED_QNAME)
+                .map(YangInstanceIdentifier.of(NESTED_QNAME).node(FIRST_QNAME), IRQNames.TP_AUG_MAXIMUM_SPEED_QNAME)
+                .map(MISSING_QNAME, IRQNames.TP_AUG_HARDWARE_ADDRESS_QNAME)
+                .build();
+        Assert.assertEquals(Arrays.asList(YangInstanceIdentifier.of(FIRST_QNAME),
+                YangInstanceIdentifier.of(NESTED_QNAME).node(SECOND_QNAME),
+                YangInstanceIdentifier.of(NESTED_QNAME).node(FIRST_QNAME), YangInstanceIdentifier.of(MISSING_QNAME)),
+                mapping.getSourcePaths());
+        ContainerNode source = ImmutableContainerNodeBuilder.create()
+                .withNodeIdentifier(new NodeIdentifier(SOURCE_QNAME))
+                .withChild(ImmutableNodes.leafNode(FIRST_QNAME, "port-1"))
+                .withChild(ImmutableNodes.leafNode(SECOND_QNAME, "unmapped"))
+                .withChild(ImmutableContainerNodeBuilder.create()
+                        .withNodeIdentifier(new NodeIdentifier(NESTED_QNAME))
+                        .withChild(ImmutableNodes.leafNode(FIRST_QNAME, 1000L))
+                        .withChild(ImmutableNodes.leafNode(SECOND_QNAME, 100L))
+                        .build())
+                .build();
+
+        ContainerNode rendered = mapping.copy(source);
+        ContainerNode expected = ImmutableContainerNodeBuilder.create()
+                .withNodeIdentifier(new NodeIdentifier(IRQNames.TP_AUGMENTATION_QNAME))
+                .withChild(ImmutableNodes.leafNode(IRQNames.TP_AUG_NAME_QNAME, "port-1"))
+                .withChild(ImmutableNodes.leafNode(IRQNames.TP_AUG_CURRENT_SPEED_QNAME, 100L))
+                .withChild(ImmutableNodes.leafNode(IRQNames.TP_AUG_MAXIMUM_SPEED_QNAME, 1000L))
+                .build();
+        Assert.assertEquals(expected, rendered);
+    }
+
+    @Test
+    public void testCopyEmptySource() {
+        IRFieldMapping mapping = IRFieldMapping.builder(IRQNames.NODE_AUGMENTATION_QNAME)
+                .map(FIRST_QNAME, IRQNames.NODE_AUG_MANUFACTURER_QNAME).build();
+        ContainerNode rendered = mapping.copy(ImmutableContainerNodeBuilder.create()
+                .withNodeIdentifier(new NodeIdentifier(SOURCE_QNAME)).build());
+        Assert.assertEquals(new NodeIdentifier(IRQNames.NODE_AUGMENTATION_QNAME), rendered.getIdentifier());
+        Assert.assertTrue(rendered.getValue().isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptySourcePath() {
+        IRFieldMapping.builder(IRQNames.NODE_AUGMENTATION_QNAME)
+                .map(YangInstanceIdentifier.EMPTY, IRQNames.NODE_AUG_MANUFACTURER_QNAME);
+    }
+}
@@ -16,8 +16,7 @@ import org.opendaylight.controller.md.sal.dom.api.DOMDataTreeChangeService;
 import org.opendaylight.controller.md.sal.dom.api.DOMDataTreeIdentifier;
 import org.opendaylight.topoprocessing.impl.listener.InventoryListener;
 import org.opendaylight.topoprocessing.impl.listener.UnderlayTopologyListener;
-import org.opendaylight.topoprocessing.impl.operator.NotificationInterConnector;
-import org.opendaylight.topoprocessing.impl.operator.TopoStoreProvider;
+import org.opendaylight.topoprocessing.impl.operator.KeyedJoinOperator;
 import org.opendaylight.topoprocessing.impl.operator.TopologyOperator;
 import org.opendaylight.topoprocessing.impl.util.InstanceIdentifiers;
 import org.opendaylight.topoprocessing.impl.util.TopologyQNames;
@@ -57,21 +56,20 @@ public class InvUnderlayTopologyListener extends UnderlayTopologyListener {
             Map<Integer, YangInstanceIdentifier> invPathIdentifiers) {
         if (correlationItem.equals(CorrelationItemEnum.Node)
                 || correlationItem.equals(CorrelationItemEnum.TerminationPoint)) {
-            TopoStoreProvider connTopoStoreProvider = new TopoStoreProvider();
-            NotificationInterConnector connector =
-                    new NotificationInterConnector(correlationItem,connTopoStoreProvider);
-            connTopoStoreProvider.initializeStore(underlayTopologyId, false);
-            this.setOperator(connector);
+            KeyedJoinOperator join = KeyedJoinOperator.createTopologyInventoryJoin();
+            this.setOperator(join.getInput(0));
             InventoryListener invListener = new InventoryListener(underlayTopologyId, correlationItem);
-            invListener.setOperator(connector);
+            invListener.setOperator(join.getInput(1));
             invListener.setPathIdentifier(invPathIdentifiers);
+            // inventory changes feed the same writer, they are held back together with topology changes
+            invListener.setBackpressureGate(getBackpressureGate());
             YangInstanceIdentifier invId = YangInstanceIdentifier.of(Nodes.QNAME)
                     .node(org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node.QNAME);
             DOMDataTreeIdentifier treeId = new DOMDataTreeIdentifier(datastoreType, invId);
             ListenerRegistration<DOMDataTreeChangeListener> invListenerRegistration =
                     domDataTreeChangeService.registerDataTreeChangeListener(treeId,
                             (DOMDataTreeChangeListener) invListener);
-            connector.setOperator(operator);
+            join.setOperator(operator);
             listeners.add(invListenerRegistration);
         } else {
             this.setOperator(operator);
@@ -7,8 +7,8 @@
  */
 package org.opendaylight.topoprocessing.inventory.translator;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.opendaylight.topoprocessing.api.structure.ComputedLink;
 import org.opendaylight.topoprocessing.api.structure.OverlayItem;
@@ -76,14 +76,13 @@ public class InvLinkTranslator implements LinkTranslator {
     }
 
     private MapNode buildSupportingLinks(OverlayItemWrapper wrapper) {
-        List<UnderlayItem> writtenLinks = new ArrayList<>();
+        Set<UnderlayItem> writtenLinks = new HashSet<>();
         CollectionNodeBuilder<MapEntryNode, MapNode> supportingLinks = ImmutableNodes.mapNodeBuilder(
                 SupportingLink.QNAME);
         for (OverlayItem overlayItem : wrapper.getOverlayItems()) {
             // iterate through underlay items
             for (UnderlayItem underlayItem : overlayItem.getUnderlayItems()) {
-                if (! writtenLinks.contains(underlayItem)) {
-                    writtenLinks.add(underlayItem);
+                if (writtenLinks.add(underlayItem)) {
                     // prepare supporting nodes
                     StringBuilder linkRef = new StringBuilder();
                     linkRef.append('/').append(NetworkTopology.QNAME.getLocalName()).append('/')
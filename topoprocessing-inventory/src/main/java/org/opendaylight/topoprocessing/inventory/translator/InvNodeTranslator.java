@@ -9,39 +9,32 @@ package org.opendaylight.topoprocessing.inventory.translator;
 
 import com.google.common.base.Optional;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import org.opendaylight.topoprocessing.api.structure.OverlayItem;
 import org.opendaylight.topoprocessing.api.structure.UnderlayItem;
-import org.opendaylight.topoprocessing.impl.structure.IdentifierGenerator;
 import org.opendaylight.topoprocessing.impl.structure.OverlayItemWrapper;
+import org.opendaylight.topoprocessing.impl.structure.TerminationPointIdentifiers;
 import org.opendaylight.topoprocessing.impl.translator.NodeTranslator;
 import org.opendaylight.topoprocessing.impl.translator.TranslatorHelper;
 import org.opendaylight.topoprocessing.impl.util.InstanceIdentifiers;
 import org.opendaylight.topoprocessing.impl.util.TopologyQNames;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.topology.correlation.rev150121.CorrelationItemEnum;
 import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.Node;
 import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.node.TerminationPoint;
 import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.node.attributes.SupportingNode;
 import org.opendaylight.yangtools.yang.common.QName;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
-import org.opendaylight.yangtools.yang.data.api.schema.LeafSetEntryNode;
 import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
 import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
 import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
 import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
-import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.ListNodeBuilder;
-import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableLeafSetEntryNodeBuilder;
-import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableLeafSetNodeBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -59,8 +52,8 @@ public class InvNodeTranslator implements NodeTranslator {
     @Override
     public NormalizedNode<?, ?> translate(OverlayItemWrapper wrapper) {
         LOG.debug("Transforming OverlayItemWrapper containing Nodes to datastore format");
-        IdentifierGenerator idGenerator = new IdentifierGenerator();
-        List<UnderlayItem> writtenNodes = new ArrayList<>();
+        TerminationPointIdentifiers tpIdentifiers = wrapper.getTerminationPointIdentifiers();
+        Set<UnderlayItem> writtenNodes = new HashSet<>();
         CollectionNodeBuilder<MapEntryNode, MapNode> supportingNodes = ImmutableNodes.mapNodeBuilder(
                 SupportingNode.QNAME);
         CollectionNodeBuilder<MapEntryNode, MapNode> terminationPoints = ImmutableNodes.mapNodeBuilder(
@@ -69,15 +62,15 @@ public class InvNodeTranslator implements NodeTranslator {
         for (OverlayItem overlayItem : wrapper.getOverlayItems()) {
             // iterate through overlay item
             for (UnderlayItem underlayItem : overlayItem.getUnderlayItems()) {
-                if (! writtenNodes.contains(underlayItem)) {
-                    writtenNodes.add(underlayItem);
+                if (writtenNodes.add(underlayItem)) {
                     addSupportingNodes(underlayItem, supportingNodes);
                     if (wrapper.getAggregatedTerminationPoints() == null) {
-                        prepareTerminationPoints(underlayItem, terminationPoints, idGenerator);
+                        prepareTerminationPoints(underlayItem, terminationPoints, tpIdentifiers);
                     }
                 }
             }
         }
+        tpIdentifiers.releaseUnused();
 
         if (wrapper.getAggregatedTerminationPoints() == null) {
             return ImmutableNodes
@@ -95,7 +88,8 @@ public class InvNodeTranslator implements NodeTranslator {
     }
 
     private void prepareTerminationPoints(UnderlayItem underlayItem,
-            CollectionNodeBuilder<MapEntryNode, MapNode> terminationPoints, IdentifierGenerator idGenerator) {
+            CollectionNodeBuilder<MapEntryNode, MapNode> terminationPoints,
+            TerminationPointIdentifiers tpIdentifiers) {
         NormalizedNode<?, ?> itemNode = underlayItem.getItem();
         Optional<NormalizedNode<?, ?>> terminationPointMapNode = NormalizedNodes.findNode(
                 itemNode, InstanceIdentifiers.NT_TP_IDENTIFIER);
@@ -109,7 +103,7 @@ public class InvNodeTranslator implements NodeTranslator {
                 if (connectorAugmentationNode.isPresent()) {
                     //if we need to transform the node connector ref into a tp-ref
                     terminationPoints.addChild(createTerminationPoint(connectorAugmentationNode.get(),
-                            underlayItem.getTopologyId(), underlayItem.getItemId(), idGenerator));
+                            underlayItem.getTopologyId(), underlayItem.getItemId(), tpIdentifiers));
                 } else {
                     terminationPoints.addChild(terminationPointMapEntry);
                 }
@@ -133,29 +127,21 @@ public class InvNodeTranslator implements NodeTranslator {
      * @param connectorAugmentationNode node-connector-ref augmentation node
      * @param topologyId topology ID
      * @param nodeId ID of the enclosing node
-     * @param idGenerator generator for creating a new overlay termination-point ID
+     * @param tpIdentifiers identifiers of overlay termination-points
      * @return overlay termination point with a tp-ref
      */
     private MapEntryNode createTerminationPoint(NormalizedNode<?, ?> connectorAugmentationNode, String topologyId,
-            String nodeId, IdentifierGenerator idGenerator) {
+            String nodeId, TerminationPointIdentifiers tpIdentifiers) {
         Optional<NormalizedNode<?, ?>> nodeConnectorRef = NormalizedNodes.findNode(connectorAugmentationNode,
                 InstanceIdentifiers.INVENTORY_NODE_CONNECTOR_REF_IDENTIFIER.getLastPathArgument());
         Map<QName, Object> nodeConnectorIDMap = ((YangInstanceIdentifier.NodeIdentifierWithPredicates)
                 ((YangInstanceIdentifier) nodeConnectorRef.get().getValue()).getLastPathArgument()).getKeyValues();
         String nodeConnectorRefID = (String) nodeConnectorIDMap.get(TopologyQNames.INVENTORY_NODE_ID_QNAME);
         String tpRefValue = TranslatorHelper.createTpRefNT(topologyId, nodeId, nodeConnectorRefID);
-        LeafSetEntryNode<String> tpRef = ImmutableLeafSetEntryNodeBuilder.<String>create()
-                .withNodeIdentifier(new YangInstanceIdentifier.NodeWithValue<String>(TopologyQNames.TP_REF, tpRefValue))
-                .withValue(tpRefValue).build();
-        List<LeafSetEntryNode<String>> tpRefs = new ArrayList<>();
-        tpRefs.add(tpRef);
-        ListNodeBuilder<String, LeafSetEntryNode<String>> leafListBuilder =
-                ImmutableLeafSetNodeBuilder.<String>create().withNodeIdentifier(
-                        new YangInstanceIdentifier.NodeIdentifier(TopologyQNames.TP_REF));
-        leafListBuilder.withValue(tpRefs);
-        String tpId = idGenerator.getNextIdentifier(CorrelationItemEnum.TerminationPoint);
+        String tpId = tpIdentifiers.getIdentifier(tpRefValue);
         return ImmutableNodes.mapEntryBuilder(TerminationPoint.QNAME,
-                TopologyQNames.NETWORK_TP_ID_QNAME, tpId).withChild(leafListBuilder.build()).build();
+                TopologyQNames.NETWORK_TP_ID_QNAME, tpId).withChild(TranslatorHelper.createTpRefLeafSetNT(tpRefValue))
+                .build();
     }
 
     private static AugmentationIdentifier createNodeConnectorAugmentationIdentifier() {
@@ -8,12 +8,16 @@
 package org.opendaylight.topoprocessing.nt.translator;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.opendaylight.topoprocessing.api.structure.ComputedLink;
 import org.opendaylight.topoprocessing.api.structure.OverlayItem;
 import org.opendaylight.topoprocessing.api.structure.UnderlayItem;
 import org.opendaylight.topoprocessing.impl.structure.OverlayItemWrapper;
+import org.opendaylight.topoprocessing.impl.structure.TranslationCache;
 import org.opendaylight.topoprocessing.impl.translator.LinkTranslator;
 import org.opendaylight.topoprocessing.impl.util.TopologyQNames;
 import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.NetworkTopology;
@@ -30,7 +34,6 @@ import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
 import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
-import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
 import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.DataContainerNodeBuilder;
 import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableContainerNodeBuilder;
 import org.slf4j.Logger;
@@ -77,27 +80,32 @@ public class NTLinkTranslator implements LinkTranslator {
     }
 
     private MapNode buildSupportingLinks(OverlayItemWrapper wrapper) {
-        List<UnderlayItem> writtenLinks = new ArrayList<>();
-        CollectionNodeBuilder<MapEntryNode, MapNode> supportingLinks = ImmutableNodes.mapNodeBuilder(
-                SupportingLink.QNAME);
+        TranslationCache translationCache = wrapper.getTranslationCache();
+        Set<UnderlayItem> writtenLinks = new HashSet<>();
+        List<MapEntryNode> supportingLinks = new ArrayList<>();
         for (OverlayItem overlayItem : wrapper.getOverlayItems()) {
             // iterate through underlay items
             for (UnderlayItem underlayItem : overlayItem.getUnderlayItems()) {
-                if (! writtenLinks.contains(underlayItem)) {
-                    writtenLinks.add(underlayItem);
-                    // prepare supporting nodes
-                    StringBuilder linkRef = new StringBuilder();
-                    linkRef.append('/').append(NetworkTopology.QNAME.getLocalName()).append('/')
-                            .append(Topology.QNAME.getLocalName()).append('/')
-                            .append(underlayItem.getTopologyId()).append('/')
-                            .append(Link.QNAME.getLocalName()).append('/')
-                            .append(underlayItem.getItemId());
-                    supportingLinks.withChild(ImmutableNodes.mapEntryBuilder(SupportingLink.QNAME,
-                            TopologyQNames.LINK_REF, linkRef.toString()).build());
+                if (writtenLinks.add(underlayItem)) {
+                    supportingLinks.addAll(translationCache.getChildren(SupportingLink.QNAME, overlayItem,
+                            underlayItem, (item, tpIdentities) -> Collections.singletonList(
+                                    createSupportingLink(item))));
                 }
             }
         }
-        return supportingLinks.build();
+        translationCache.releaseUnused();
+        return translationCache.getMapNode(SupportingLink.QNAME, supportingLinks);
+    }
+
+    private MapEntryNode createSupportingLink(UnderlayItem underlayItem) {
+        StringBuilder linkRef = new StringBuilder();
+        linkRef.append('/').append(NetworkTopology.QNAME.getLocalName()).append('/')
+                .append(Topology.QNAME.getLocalName()).append('/')
+                .append(underlayItem.getTopologyId()).append('/')
+                .append(Link.QNAME.getLocalName()).append('/')
+                .append(underlayItem.getItemId());
+        return ImmutableNodes.mapEntryBuilder(SupportingLink.QNAME, TopologyQNames.LINK_REF,
+                linkRef.toString()).build();
     }
 
 }
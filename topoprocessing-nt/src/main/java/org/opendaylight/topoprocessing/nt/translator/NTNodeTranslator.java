@@ -9,15 +9,18 @@ package org.opendaylight.topoprocessing.nt.translator;
 
 import com.google.common.base.Optional;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.opendaylight.topoprocessing.api.structure.OverlayItem;
 import org.opendaylight.topoprocessing.api.structure.UnderlayItem;
-import org.opendaylight.topoprocessing.impl.structure.IdentifierGenerator;
 import org.opendaylight.topoprocessing.impl.structure.OverlayItemWrapper;
+import org.opendaylight.topoprocessing.impl.structure.TerminationPointIdentifiers;
+import org.opendaylight.topoprocessing.impl.structure.TranslationCache;
 import org.opendaylight.topoprocessing.impl.translator.NodeTranslator;
 import org.opendaylight.topoprocessing.impl.translator.TranslatorHelper;
 import org.opendaylight.topoprocessing.impl.util.InstanceIdentifiers;
@@ -33,16 +36,11 @@ import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.
 import org.opendaylight.yangtools.yang.common.QName;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.schema.DataContainerChild;
-import org.opendaylight.yangtools.yang.data.api.schema.LeafSetEntryNode;
 import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
 import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
 import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
-import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
-import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.ListNodeBuilder;
-import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableLeafSetEntryNodeBuilder;
-import org.opendaylight.yangtools.yang.data.impl.schema.builder.impl.ImmutableLeafSetNodeBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -56,54 +54,53 @@ public class NTNodeTranslator implements NodeTranslator {
 
     @Override
     public NormalizedNode<?, ?> translate(OverlayItemWrapper wrapper) {
-        IdentifierGenerator idGenerator = new IdentifierGenerator();
+        TerminationPointIdentifiers tpIdentifiers = wrapper.getTerminationPointIdentifiers();
+        TranslationCache translationCache = wrapper.getTranslationCache();
         LOG.debug("Transforming OverlayItemWrapper containing Nodes to datastore format");
-        List<UnderlayItem> writtenNodes = new ArrayList<>();
-        CollectionNodeBuilder<MapEntryNode, MapNode> supportingNodes = ImmutableNodes.mapNodeBuilder(
-                SupportingNode.QNAME);
-        CollectionNodeBuilder<MapEntryNode, MapNode> terminationPoints = ImmutableNodes.mapNodeBuilder(
-                TerminationPoint.QNAME);
+        Set<UnderlayItem> writtenNodes = new HashSet<>();
+        List<MapEntryNode> supportingNodes = new ArrayList<>();
+        List<MapEntryNode> terminationPoints = new ArrayList<>();
         // iterate through overlay items containing nodes
         for (OverlayItem overlayItem : wrapper.getOverlayItems()) {
             // iterate through overlay item
             for (UnderlayItem underlayItem : overlayItem.getUnderlayItems()) {
-                if (! writtenNodes.contains(underlayItem)) {
-                    writtenNodes.add(underlayItem);
-                    addSupportingNodes(underlayItem, supportingNodes);
+                if (writtenNodes.add(underlayItem)) {
+                    supportingNodes.addAll(translationCache.getChildren(SupportingNode.QNAME, overlayItem,
+                            underlayItem, (item, tpIdentities) -> Collections.singletonList(
+                                    createSupportingNode(item))));
                     if (wrapper.getAggregatedTerminationPoints() == null) {
-                        prepareTerminationPoints(underlayItem, idGenerator, terminationPoints, overlayItem);
+                        terminationPoints.addAll(translationCache.getChildren(TerminationPoint.QNAME,
+                                overlayItem, underlayItem, (item, tpIdentities) -> prepareTerminationPoints(item,
+                                        tpIdentifiers, overlayItem, tpIdentities)));
                     }
                 }
             }
         }
+        tpIdentifiers.releaseUnused();
+        translationCache.releaseUnused();
 
-        if (wrapper.getAggregatedTerminationPoints() == null) {
-            return ImmutableNodes
-                    .mapEntryBuilder(Node.QNAME, TopologyQNames.NETWORK_NODE_ID_QNAME, wrapper.getId())
-                    .withChild(supportingNodes.build())
-                    .withChild(terminationPoints.build())
-                    .build();
-        } else {
-            return ImmutableNodes
-                    .mapEntryBuilder(Node.QNAME, TopologyQNames.NETWORK_NODE_ID_QNAME, wrapper.getId())
-                    .withChild(supportingNodes.build())
-                    .withChild(wrapper.getAggregatedTerminationPoints())
-                    .build();
+        MapNode terminationPointsNode = wrapper.getAggregatedTerminationPoints();
+        if (terminationPointsNode == null) {
+            terminationPointsNode = translationCache.getMapNode(TerminationPoint.QNAME, terminationPoints);
         }
+        return ImmutableNodes
+                .mapEntryBuilder(Node.QNAME, TopologyQNames.NETWORK_NODE_ID_QNAME, wrapper.getId())
+                .withChild(translationCache.getMapNode(SupportingNode.QNAME, supportingNodes))
+                .withChild(terminationPointsNode)
+                .build();
     }
 
-    private void addSupportingNodes(UnderlayItem underlayItem,
-            CollectionNodeBuilder<MapEntryNode, MapNode> supportingNodes) {
+    private MapEntryNode createSupportingNode(UnderlayItem underlayItem) {
         Map<QName, Object> keyValues = new HashMap<>();
         keyValues.put(TopologyQNames.TOPOLOGY_REF, underlayItem.getTopologyId());
         keyValues.put(TopologyQNames.NODE_REF, underlayItem.getItemId());
-        supportingNodes.withChild(ImmutableNodes.mapEntryBuilder().withNodeIdentifier(
+        return ImmutableNodes.mapEntryBuilder().withNodeIdentifier(
                 new YangInstanceIdentifier.NodeIdentifierWithPredicates(
-                        SupportingNode.QNAME, keyValues)).build());
+                        SupportingNode.QNAME, keyValues)).build();
     }
 
-    private void prepareTerminationPoints(UnderlayItem underlayItem, IdentifierGenerator idGenerator,
-            CollectionNodeBuilder<MapEntryNode, MapNode> terminationPoints, OverlayItem overlayItem) {
+    private List<MapEntryNode> prepareTerminationPoints(UnderlayItem underlayItem,
+            TerminationPointIdentifiers tpIdentifiers, OverlayItem overlayItem, List<String> tpIdentities) {
         NormalizedNode<?, ?> itemNode = underlayItem.getItem();
         Class<? extends Model> model = NetworkTopologyModel.class;
         Optional<NormalizedNode<?, ?>> terminationPointMapNode = NormalizedNodes.findNode(
@@ -116,25 +113,18 @@ public class NTNodeTranslator implements NodeTranslator {
         if (terminationPointMapNode.isPresent()) {
             if (overlayItem.getCorrelationItem() == CorrelationItemEnum.TerminationPoint
                     && !FiltrationOnly.class.equals(overlayItem.getCorrelationType())) {
-                Collection<MapEntryNode> terminationPointMapEntries =
-                        ((MapNode) terminationPointMapNode.get()).getValue();
-                for (MapEntryNode terminationPointMapEntry : terminationPointMapEntries) {
-                    terminationPoints.addChild(terminationPointMapEntry);
-                }
+                return new ArrayList<>(((MapNode) terminationPointMapNode.get()).getValue());
             } else {
-                List<MapEntryNode> terminationPointEntries = createTerminationPoint(
-                        (MapNode) terminationPointMapNode.get(), underlayItem.getTopologyId(),
-                        underlayItem.getItemId(), idGenerator, model);
-                for (MapEntryNode terminationPointMapEntry : terminationPointEntries) {
-                    terminationPoints.addChild(terminationPointMapEntry);
-                }
-
+                return createTerminationPoint((MapNode) terminationPointMapNode.get(),
+                        underlayItem.getTopologyId(), underlayItem.getItemId(), tpIdentifiers, model,
+                        tpIdentities);
             }
         }
+        return Collections.emptyList();
     }
 
     private List<MapEntryNode> createTerminationPoint(MapNode terminationPoints, String topologyId, String nodeId,
-            IdentifierGenerator idGenerator, Class<? extends Model> model) {
+            TerminationPointIdentifiers tpIdentifiers, Class<? extends Model> model, List<String> tpIdentities) {
         List<MapEntryNode> terminationPointEntries = new ArrayList<>();
         for (MapEntryNode mapEntryNode : terminationPoints.getValue()) {
             Optional<DataContainerChild<? extends YangInstanceIdentifier.PathArgument, ?>> terminationPointIdOpt;
@@ -146,21 +136,13 @@ public class NTNodeTranslator implements NodeTranslator {
                         InstanceIdentifiers.NT_TP_ID_IDENTIFIER.getLastPathArgument());
             }
             if (terminationPointIdOpt.isPresent()) {
-                LeafSetEntryNode<String> tpRef = ImmutableLeafSetEntryNodeBuilder.<String>create()
-                        .withNodeIdentifier(new YangInstanceIdentifier.NodeWithValue<String>(TopologyQNames.TP_REF,
-                                TranslatorHelper.createTpRefNT(topologyId, nodeId,
-                                        (String) terminationPointIdOpt.get().getValue())))
-                        .withValue(TranslatorHelper.createTpRefNT(topologyId, nodeId,
-                                (String) terminationPointIdOpt.get().getValue())).build();
-                List<LeafSetEntryNode<String>> tpRefs = new ArrayList<>();
-                tpRefs.add(tpRef);
-                ListNodeBuilder<String, LeafSetEntryNode<String>> leafListBuilder =
-                        ImmutableLeafSetNodeBuilder.<String>create().withNodeIdentifier(
-                                new YangInstanceIdentifier.NodeIdentifier(TopologyQNames.TP_REF));
-                leafListBuilder.withValue(tpRefs);
-                String tpId = idGenerator.getNextIdentifier(CorrelationItemEnum.TerminationPoint);
+                String tpRefValue = TranslatorHelper.createTpRefNT(topologyId, nodeId,
+                        (String) terminationPointIdOpt.get().getValue());
+                tpIdentities.add(tpRefValue);
+                String tpId = tpIdentifiers.getIdentifier(tpRefValue);
                 terminationPointEntries.add(ImmutableNodes.mapEntryBuilder(TerminationPoint.QNAME,
-                        TopologyQNames.NETWORK_TP_ID_QNAME, tpId).withChild(leafListBuilder.build()).build());
+                        TopologyQNames.NETWORK_TP_ID_QNAME, tpId)
+                        .withChild(TranslatorHelper.createTpRefLeafSetNT(tpRefValue)).build());
             }
         }
         return terminationPointEntries;
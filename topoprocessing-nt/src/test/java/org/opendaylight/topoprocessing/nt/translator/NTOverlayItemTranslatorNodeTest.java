@@ -14,8 +14,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -272,4 +274,104 @@ public class NTOverlayItemTranslatorNodeTest {
                 new NodeIdentifier(TerminationPoint.QNAME)).get().getValue();
         Assert.assertEquals("OverlayNode contains wrong amount of TerminationPoints", 6, value.size());
     }
+
+    /**
+     * Test case: TerminationPoint identifiers stay the same when other termination points are removed.
+     */
+    @Test
+    public void testTerminationPointIdsStable() {
+        MapEntryNode node1 = createNodeWithTp("node:1", "tpId:1");
+        MapEntryNode node2 = createNodeWithTp("node:2", "tpId:2");
+        UnderlayItem underlayItem1 = new UnderlayItem(node1, null, TOPOLOGY_NAME, "node:1", CorrelationItemEnum.Node);
+        UnderlayItem underlayItem2 = new UnderlayItem(node2, null, TOPOLOGY_NAME, "node:2", CorrelationItemEnum.Node);
+        List<UnderlayItem> underlayItems = new ArrayList<>();
+        underlayItems.add(underlayItem1);
+        underlayItems.add(underlayItem2);
+        OverlayItem overlayItem = new OverlayItem(underlayItems, CorrelationItemEnum.Node);
+        OverlayItemWrapper wrapper = new OverlayItemWrapper("node:1", overlayItem);
+
+        Collection<MapEntryNode> tps = getTerminationPoints(translator.translate(wrapper));
+        Assert.assertEquals(2, tps.size());
+        Assert.assertEquals(Collections.singleton("tp:2"), getTpIds(tps, "node:2"));
+
+        overlayItem.getUnderlayItems().remove(underlayItem1);
+        tps = getTerminationPoints(translator.translate(wrapper));
+        Assert.assertEquals(1, tps.size());
+        Assert.assertEquals(Collections.singleton("tp:2"), getTpIds(tps, "node:2"));
+    }
+
+    /**
+     * Test case: children translated from unchanged underlay items are reused by reference.
+     */
+    @Test
+    public void testUnchangedChildrenReused() {
+        UnderlayItem underlayItem1 = new UnderlayItem(createNodeWithTp("node:1", "tpId:1"), null, TOPOLOGY_NAME,
+                "node:1", CorrelationItemEnum.Node);
+        UnderlayItem underlayItem2 = new UnderlayItem(createNodeWithTp("node:2", "tpId:2"), null, TOPOLOGY_NAME,
+                "node:2", CorrelationItemEnum.Node);
+        List<UnderlayItem> underlayItems = new ArrayList<>();
+        underlayItems.add(underlayItem1);
+        underlayItems.add(underlayItem2);
+        OverlayItemWrapper wrapper = new OverlayItemWrapper("node:1",
+                new OverlayItem(underlayItems, CorrelationItemEnum.Node));
+
+        MapEntryNode translated = (MapEntryNode) translator.translate(wrapper);
+        MapEntryNode retranslated = (MapEntryNode) translator.translate(wrapper);
+        Assert.assertSame(translated.getChild(new NodeIdentifier(SupportingNode.QNAME)).get(),
+                retranslated.getChild(new NodeIdentifier(SupportingNode.QNAME)).get());
+        Assert.assertSame(translated.getChild(new NodeIdentifier(TerminationPoint.QNAME)).get(),
+                retranslated.getChild(new NodeIdentifier(TerminationPoint.QNAME)).get());
+
+        // termination point of node:2 changed
+        underlayItem2.setItem(createNodeWithTp("node:2", "tpId:3"));
+        Collection<MapEntryNode> tps = getTerminationPoints(retranslated);
+        Collection<MapEntryNode> updatedTps = getTerminationPoints(translator.translate(wrapper));
+        Assert.assertEquals(2, updatedTps.size());
+        Assert.assertEquals(Collections.singleton("tp:1"), getTpIds(updatedTps, "node:1"));
+        Assert.assertSame(getTerminationPoint(tps, "node:1"), getTerminationPoint(updatedTps, "node:1"));
+        Assert.assertNotSame(getTerminationPoint(tps, "node:2"), getTerminationPoint(updatedTps, "node:2"));
+        // supporting node and termination points of both underlay items
+        Assert.assertEquals(4, wrapper.getTranslationCache().size());
+    }
+
+    private MapEntryNode getTerminationPoint(Collection<MapEntryNode> terminationPoints, String underlayNodeId) {
+        for (MapEntryNode terminationPoint : terminationPoints) {
+            Optional<NormalizedNode<?, ?>> tpRefs = NormalizedNodes.findNode(terminationPoint,
+                    YangInstanceIdentifier.of(TopologyQNames.TP_REF));
+            if (tpRefs.isPresent() && tpRefs.get().getValue().toString().contains("/node/" + underlayNodeId + "/")) {
+                return terminationPoint;
+            }
+        }
+        return null;
+    }
+
+    private MapEntryNode createNodeWithTp(String nodeId, String tpId) {
+        return ImmutableNodes.mapEntryBuilder(Node.QNAME, TopologyQNames.NETWORK_NODE_ID_QNAME, nodeId)
+                .withChild(ImmutableNodes.mapNodeBuilder(TerminationPoint.QNAME)
+                        .withChild(ImmutableNodes
+                                .mapEntryBuilder(TerminationPoint.QNAME, TopologyQNames.NETWORK_TP_ID_QNAME, tpId)
+                                .withChild(ImmutableNodes.leafNode(TopologyQNames.NETWORK_TP_ID_QNAME, tpId))
+                                .build())
+                        .build())
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<MapEntryNode> getTerminationPoints(NormalizedNode<?, ?> translatedNode) {
+        return (Collection<MapEntryNode>) ((MapEntryNode) translatedNode).getChild(
+                new NodeIdentifier(TerminationPoint.QNAME)).get().getValue();
+    }
+
+    private Set<String> getTpIds(Collection<MapEntryNode> terminationPoints, String underlayNodeId) {
+        Set<String> tpIds = new HashSet<>();
+        for (MapEntryNode terminationPoint : terminationPoints) {
+            Optional<NormalizedNode<?, ?>> tpRefs = NormalizedNodes.findNode(terminationPoint,
+                    YangInstanceIdentifier.of(TopologyQNames.TP_REF));
+            if (tpRefs.isPresent() && tpRefs.get().getValue().toString().contains("/node/" + underlayNodeId + "/")) {
+                tpIds.add((String) terminationPoint.getIdentifier().getKeyValues()
+                        .get(TopologyQNames.NETWORK_TP_ID_QNAME));
+            }
+        }
+        return tpIds;
+    }
 }